@@ -0,0 +1,73 @@
+package com.bakuard.flashcards.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Задача, выполняемая в отдельном потоке-демоне. Используется компонентами приложения для фоновой работы
+ * (заполнение индексов, периодическое вычисление данных, очистка таблиц). Ошибка при выполнении задачи
+ * записывается в лог и не завершает поток периодической задачи.
+ */
+public class BackgroundTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackgroundTask.class.getName());
+
+    /**
+     * Создает и запускает поток, который один раз выполняет action и завершается.
+     * @param name описание задачи для лога
+     * @param action выполняемое действие
+     * @return запущенная задача
+     */
+    public static BackgroundTask runOnce(String name, Runnable action) {
+        return new BackgroundTask(() -> execute(name, action));
+    }
+
+    /**
+     * Создает и запускает поток, который выполняет action, а затем ожидает period, до тех пор, пока поток
+     * не будет остановлен методом {@link #stop()}. Первое выполнение происходит сразу после запуска.
+     * @param name описание задачи для лога
+     * @param period пауза между окончанием одного выполнения action и началом следующего
+     * @param action выполняемое действие
+     * @return запущенная задача
+     */
+    public static BackgroundTask runPeriodically(String name, Duration period, Runnable action) {
+        return new BackgroundTask(() -> {
+            while(!Thread.currentThread().isInterrupted()) {
+                execute(name, action);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(period.toMillis());
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+    }
+
+
+    private final Thread thread;
+
+    private BackgroundTask(Runnable loop) {
+        thread = new Thread(loop);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Прерывает поток задачи. Уже начатое выполнение действия не прерывается принудительно.
+     */
+    public void stop() {
+        thread.interrupt();
+    }
+
+    private static void execute(String name, Runnable action) {
+        try {
+            action.run();
+        } catch(Exception e) {
+            logger.error("Fail to " + name, e);
+        }
+    }
+
+}
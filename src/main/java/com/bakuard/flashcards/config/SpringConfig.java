@@ -8,15 +8,28 @@ import com.bakuard.flashcards.controller.message.MessagesImpl;
 import com.bakuard.flashcards.dal.*;
 import com.bakuard.flashcards.dal.fragment.UserSaver;
 import com.bakuard.flashcards.dal.fragment.UserSaverImpl;
+import com.bakuard.flashcards.dal.impl.CachedIntervalRepository;
+import com.bakuard.flashcards.dal.impl.FullTextIndexImpl;
+import com.bakuard.flashcards.dal.impl.IntervalReplacementRepositoryImpl;
 import com.bakuard.flashcards.dal.impl.IntervalRepositoryImpl;
+import com.bakuard.flashcards.dal.impl.PrefixIndexImpl;
+import com.bakuard.flashcards.dal.impl.QGramIndexImpl;
+import com.bakuard.flashcards.dal.impl.RepetitionCardRepositoryImpl;
+import com.bakuard.flashcards.dal.impl.RepetitionSessionRepositoryImpl;
+import com.bakuard.flashcards.dal.impl.RepetitionSnapshotRepositoryImpl;
+import com.bakuard.flashcards.dal.impl.ScrollRepositoryImpl;
 import com.bakuard.flashcards.dal.impl.StatisticRepositoryImpl;
 import com.bakuard.flashcards.dal.impl.WordOuterSourceBufferImpl;
+import com.bakuard.flashcards.dal.impl.WordValueIndexImpl;
+import com.bakuard.flashcards.dal.migration.QGramsMigration;
 import com.bakuard.flashcards.dto.DtoMapper;
 import com.bakuard.flashcards.model.Entity;
 import com.bakuard.flashcards.model.auth.credential.User;
 import com.bakuard.flashcards.model.auth.policy.Access;
 import com.bakuard.flashcards.model.auth.policy.Authorizer;
+import com.bakuard.flashcards.model.expression.Expression;
 import com.bakuard.flashcards.model.filter.SortRules;
+import com.bakuard.flashcards.model.word.Word;
 import com.bakuard.flashcards.service.*;
 import com.bakuard.flashcards.service.wordSupplementation.WordSupplementationService;
 import com.bakuard.flashcards.validation.ValidatorUtil;
@@ -38,6 +51,8 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.support.ResourceBundleMessageSource;
 import org.springframework.data.jdbc.core.JdbcAggregateOperations;
 import org.springframework.data.jdbc.repository.config.EnableJdbcRepositories;
+import org.springframework.data.relational.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.relational.core.mapping.event.AfterSaveEvent;
 import org.springframework.data.relational.core.mapping.event.BeforeConvertEvent;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
@@ -51,6 +66,7 @@ import org.springframework.web.servlet.i18n.AcceptHeaderLocaleResolver;
 import javax.sql.DataSource;
 import jakarta.validation.Validator;
 import java.time.Clock;
+import java.util.UUID;
 
 @SpringBootApplication(
         exclude = {SecurityAutoConfiguration.class},
@@ -94,13 +110,14 @@ public class SpringConfig implements WebMvcConfigurer {
         public Flyway flyway(DataSource dataSource) {
                 return Flyway.configure().
                         locations("classpath:db").
+                        javaMigrations(new QGramsMigration()).
                         dataSource(dataSource).
                         load();
         }
 
-        @Bean
-        public IntervalRepository intervalsRepository(JdbcTemplate jdbcTemplate) {
-                return new IntervalRepositoryImpl(jdbcTemplate);
+        @Bean(initMethod = "scheduleStatsLogging", destroyMethod = "shutdown")
+        public IntervalRepository intervalsRepository(JdbcTemplate jdbcTemplate, ConfigData configData) {
+                return new CachedIntervalRepository(new IntervalRepositoryImpl(jdbcTemplate), configData);
         }
 
         @Bean
@@ -108,11 +125,65 @@ public class SpringConfig implements WebMvcConfigurer {
              return new StatisticRepositoryImpl(jdbcTemplate);
         }
 
+        @Bean
+        public ScrollRepository scrollRepository(JdbcTemplate jdbcTemplate) {
+                return new ScrollRepositoryImpl(jdbcTemplate);
+        }
+
+        @Bean
+        public RepetitionSessionRepository repetitionSessionRepository(JdbcTemplate jdbcTemplate) {
+                return new RepetitionSessionRepositoryImpl(jdbcTemplate);
+        }
+
+        @Bean
+        public RepetitionCardRepository repetitionCardRepository(JdbcTemplate jdbcTemplate) {
+                return new RepetitionCardRepositoryImpl(jdbcTemplate);
+        }
+
+        @Bean
+        public RepetitionSnapshotRepository repetitionSnapshotRepository(JdbcTemplate jdbcTemplate) {
+                return new RepetitionSnapshotRepositoryImpl(jdbcTemplate);
+        }
+
+        @Bean
+        public IntervalReplacementRepository intervalReplacementRepository(JdbcTemplate jdbcTemplate) {
+                return new IntervalReplacementRepositoryImpl(jdbcTemplate);
+        }
+
         @Bean
         public WordOuterSourceBuffer wordOuterSourceBuffer(JdbcTemplate jdbcTemplate) {
                 return new WordOuterSourceBufferImpl(jdbcTemplate);
         }
 
+        @Bean
+        public WordValueIndex wordValueIndex(JdbcTemplate jdbcTemplate,
+                                             PlatformTransactionManager transactionManager,
+                                             ConfigData configData) {
+                return new WordValueIndexImpl(jdbcTemplate, transactionManager, configData);
+        }
+
+        @Bean
+        public PrefixIndex wordPrefixIndex(JdbcTemplate jdbcTemplate, ConfigData configData) {
+                return new PrefixIndexImpl(jdbcTemplate, configData, "words", "word_id");
+        }
+
+        @Bean
+        public PrefixIndex expressionPrefixIndex(JdbcTemplate jdbcTemplate, ConfigData configData) {
+                return new PrefixIndexImpl(jdbcTemplate, configData, "expressions", "expression_id");
+        }
+
+        @Bean
+        public QGramIndex qGramIndex(JdbcTemplate jdbcTemplate) {
+                return new QGramIndexImpl(jdbcTemplate);
+        }
+
+        @Bean(initMethod = "scheduleBackfill", destroyMethod = "shutdown")
+        public FullTextIndex fullTextIndex(JdbcTemplate jdbcTemplate,
+                                           JdbcAggregateOperations jdbcAggregateOperations,
+                                           TransactionTemplate transactionTemplate) {
+                return new FullTextIndexImpl(jdbcTemplate, jdbcAggregateOperations, transactionTemplate);
+        }
+
         @Bean
         public UserSaver userSaver(JdbcTemplate jdbcTemplate,
                                          JdbcAggregateOperations jdbcAggregateOperation,
@@ -132,20 +203,35 @@ public class SpringConfig implements WebMvcConfigurer {
 
         @Bean
         public WordService wordService(WordRepository wordRepository,
+                                       WordValueIndex wordValueIndex,
+                                       PrefixIndex wordPrefixIndex,
+                                       FullTextIndex fullTextIndex,
+                                       ScrollRepository scrollRepository,
                                        IntervalRepository intervalRepository,
+                                       RepetitionSessionRepository repetitionSessionRepository,
+                                       RepetitionSnapshotRepository repetitionSnapshotRepository,
                                        Clock clock,
                                        ConfigData configData,
                                        ValidatorUtil validator) {
-                return new WordService(wordRepository, intervalRepository, clock, configData, validator);
+                return new WordService(wordRepository, wordValueIndex, wordPrefixIndex, fullTextIndex,
+                        scrollRepository, intervalRepository, repetitionSessionRepository,
+                        repetitionSnapshotRepository, clock, configData, validator);
         }
 
         @Bean
         public ExpressionService expressionService(ExpressionRepository expressionRepository,
+                                                   PrefixIndex expressionPrefixIndex,
+                                                   FullTextIndex fullTextIndex,
+                                                   ScrollRepository scrollRepository,
                                                    IntervalRepository intervalRepository,
+                                                   RepetitionSessionRepository repetitionSessionRepository,
+                                                   RepetitionSnapshotRepository repetitionSnapshotRepository,
                                                    Clock clock,
                                                    ConfigData configData,
                                                    ValidatorUtil validator) {
-                return new ExpressionService(expressionRepository, intervalRepository, clock, configData, validator);
+                return new ExpressionService(expressionRepository, expressionPrefixIndex, fullTextIndex,
+                        scrollRepository, intervalRepository, repetitionSessionRepository,
+                        repetitionSnapshotRepository, clock, configData, validator);
         }
 
         @Bean(initMethod = "initialize")
@@ -176,16 +262,64 @@ public class SpringConfig implements WebMvcConfigurer {
         }
 
         @Bean
-        public IntervalService intervalService(IntervalRepository intervalRepository) {
-             return new IntervalService(intervalRepository);
+        public IntervalService intervalService(IntervalRepository intervalRepository,
+                                               IntervalReplacementRepository intervalReplacementRepository) {
+             return new IntervalService(intervalRepository, intervalReplacementRepository);
+        }
+
+        @Bean(initMethod = "scheduleReplacements", destroyMethod = "shutdown")
+        public IntervalReplacementService intervalReplacementService(IntervalRepository intervalRepository,
+                                                                     IntervalReplacementRepository intervalReplacementRepository,
+                                                                     RepetitionSnapshotRepository repetitionSnapshotRepository,
+                                                                     RepetitionLocks repetitionLocks,
+                                                                     TransactionTemplate transaction,
+                                                                     ConfigData configData) {
+                return new IntervalReplacementService(intervalRepository, intervalReplacementRepository,
+                        repetitionSnapshotRepository, repetitionLocks, transaction, configData);
+        }
+
+        @Bean(initMethod = "scheduleFlush", destroyMethod = "shutdown")
+        public StatisticAppendBuffer statisticAppendBuffer(StatisticRepository statisticRepository,
+                                                           PlatformTransactionManager transactionManager,
+                                                           ConfigData configData) {
+                return new StatisticAppendBuffer(statisticRepository, transactionManager, configData);
+        }
+
+        @Bean
+        public StatisticService statisticService(StatisticRepository statisticRepository,
+                                                 StatisticAppendBuffer statisticAppendBuffer,
+                                                 Clock clock) {
+                return new StatisticService(statisticRepository, statisticAppendBuffer, clock);
+        }
+
+        @Bean
+        public RepetitionService repetitionService(RepetitionCardRepository repetitionCardRepository,
+                                                   RepetitionSnapshotRepository repetitionSnapshotRepository,
+                                                   WordRepository wordRepository,
+                                                   ExpressionRepository expressionRepository,
+                                                   IntervalRepository intervalRepository,
+                                                   StatisticAppendBuffer statisticAppendBuffer,
+                                                   Clock clock) {
+                return new RepetitionService(repetitionCardRepository, repetitionSnapshotRepository,
+                        wordRepository, expressionRepository, intervalRepository, statisticAppendBuffer, clock);
         }
 
         @Bean
-        public StatisticService statisticService(StatisticRepository statisticRepository, Clock clock) {
-                return new StatisticService(statisticRepository, clock);
+        public RepetitionLocks repetitionLocks(ConfigData configData) {
+                return new RepetitionLocks(configData);
+        }
+
+        @Bean(initMethod = "scheduleSnapshots", destroyMethod = "shutdown")
+        public RepetitionSnapshotService repetitionSnapshotService(RepetitionSnapshotRepository repetitionSnapshotRepository,
+                                                                   StatisticRepository statisticRepository,
+                                                                   TransactionTemplate transaction,
+                                                                   Clock clock,
+                                                                   ConfigData configData) {
+                return new RepetitionSnapshotService(repetitionSnapshotRepository, statisticRepository,
+                        transaction, clock, configData);
         }
 
-        @Bean(initMethod = "scheduleDeleteUnusedExamples")
+        @Bean(initMethod = "scheduleDeleteUnusedExamples", destroyMethod = "shutdown")
         public WordSupplementationService wordSupplementationService(WordOuterSourceBuffer wordOuterSourceBuffer,
                                                                      Clock clock,
                                                                      ObjectMapper mapper,
@@ -214,19 +348,21 @@ public class SpringConfig implements WebMvcConfigurer {
                                         a.nameIsOneOf("update", "findAllBy", "findById",
                                                 "findByValue", "findByTranslate", "delete",
                                                 "supplementNewWord", "supplementExistedWord",
-                                                "jumpToCharacter") &&
+                                                "jumpToCharacter", "findByText") &&
                                         r.payloadIsEqualTo(p.getId()) ? Access.ACCEPT : Access.UNKNOWN
                         )).
                         policy(request -> request.mapPrincipalAndResourceAndAction((p, r, a) ->
                                 r.typeIs("repetition") &&
                                         a.nameIsOneOf("findAllFromEnglishBy", "repeatFromEnglish",
                                                 "findAllFromNativeBy", "repeatFromNative",
-                                                "markForRepetitionFromEnglish", "markForRepetitionFromNative") &&
+                                                "markForRepetitionFromEnglish", "markForRepetitionFromNative",
+                                                "getSummary", "getForecast", "scrollFeed") &&
                                         r.payloadIsEqualTo(p.getId()) ? Access.ACCEPT : Access.UNKNOWN
                         )).
                         policy(request -> request.mapPrincipalAndResourceAndAction((p, r, a) ->
                                 r.typeIs("settings") &&
-                                        a.nameIsOneOf("findAllIntervals", "addInterval", "replaceInterval") &&
+                                        a.nameIsOneOf("findAllIntervals", "addInterval", "replaceInterval",
+                                                "findIntervalReplacement") &&
                                         r.payloadIsEqualTo(p.getId()) ? Access.ACCEPT : Access.UNKNOWN
                         )).
                         policy(request -> request.mapPrincipalAndResourceAndAction((p, r, a) ->
@@ -292,6 +428,46 @@ public class SpringConfig implements WebMvcConfigurer {
                 };
         }
 
+        @Bean
+        public ApplicationListener<AfterSaveEvent<?>> qGramIndexUpdater(QGramIndex qGramIndex) {
+                return event -> {
+                        if(event.getEntity() instanceof Expression expression) {
+                                qGramIndex.update(expression);
+                        }
+                };
+        }
+
+        @Bean
+        public ApplicationListener<AfterSaveEvent<?>> wordValueIndexUpdater(WordValueIndex wordValueIndex) {
+                return event -> {
+                        if(event.getEntity() instanceof Word word) {
+                                wordValueIndex.put(word.getUserId(), word.getId(), word.getValue());
+                        }
+                };
+        }
+
+        @Bean
+        public ApplicationListener<AfterDeleteEvent<?>> wordValueIndexCleaner(WordValueIndex wordValueIndex) {
+                return event -> {
+                        if(event.getEntity() instanceof Word word) {
+                                wordValueIndex.remove(word.getUserId(), word.getId());
+                        } else if(event.getType() == User.class) {
+                                wordValueIndex.invalidate((UUID) event.getId().getValue());
+                        }
+                };
+        }
+
+        @Bean
+        public ApplicationListener<AfterSaveEvent<?>> fullTextIndexUpdater(FullTextIndex fullTextIndex) {
+                return event -> {
+                        if(event.getEntity() instanceof Word word) {
+                                fullTextIndex.update(word);
+                        } else if(event.getEntity() instanceof Expression expression) {
+                                fullTextIndex.update(expression);
+                        }
+                };
+        }
+
 
         @Bean
         public OpenAPI openAPI() {
@@ -10,4 +10,10 @@ public record ConfigData(long jwsLifeTimeInDays,
                          Smtp smtp,
                          SuperAdmin superAdmin,
                          ConfirmationMail confirmationMail,
-                         Jws jws) {}
+                         Jws jws,
+                         DictionaryIndex dictionaryIndex,
+                         IntervalCache intervalCache,
+                         RepetitionSnapshot repetitionSnapshot,
+                         IntervalReplacement intervalReplacement,
+                         RepetitionLock repetitionLock,
+                         StatisticBuffer statisticBuffer) {}
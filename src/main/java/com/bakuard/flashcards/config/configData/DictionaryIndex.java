@@ -0,0 +1,4 @@
+package com.bakuard.flashcards.config.configData;
+
+public record DictionaryIndex(int maxUsers,
+                              int expireAfterAccessInMinutes) {}
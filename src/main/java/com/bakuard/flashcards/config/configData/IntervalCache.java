@@ -0,0 +1,5 @@
+package com.bakuard.flashcards.config.configData;
+
+public record IntervalCache(int maxUsers,
+                            int expireAfterAccessInMinutes,
+                            int statsLogIntervalInMinutes) {}
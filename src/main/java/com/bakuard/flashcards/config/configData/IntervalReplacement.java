@@ -0,0 +1,5 @@
+package com.bakuard.flashcards.config.configData;
+
+public record IntervalReplacement(boolean enabled,
+                                  int chunkSize,
+                                  int checkIntervalInMillis) {}
@@ -0,0 +1,3 @@
+package com.bakuard.flashcards.config.configData;
+
+public record RepetitionLock(int stripes) {}
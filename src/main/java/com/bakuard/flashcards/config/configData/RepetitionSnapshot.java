@@ -0,0 +1,7 @@
+package com.bakuard.flashcards.config.configData;
+
+public record RepetitionSnapshot(boolean enabled,
+                                 int activeDays,
+                                 int chunkSize,
+                                 int parallelism,
+                                 int checkIntervalInSeconds) {}
@@ -0,0 +1,8 @@
+package com.bakuard.flashcards.config.configData;
+
+public record StatisticBuffer(boolean enabled,
+                              int capacity,
+                              int batchSize,
+                              int flushIntervalInMillis,
+                              int offerTimeoutInMillis,
+                              int statsLogIntervalInMinutes) {}
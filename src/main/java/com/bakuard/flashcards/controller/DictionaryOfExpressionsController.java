@@ -3,12 +3,15 @@ package com.bakuard.flashcards.controller;
 import com.bakuard.flashcards.config.security.RequestContext;
 import com.bakuard.flashcards.controller.message.Messages;
 import com.bakuard.flashcards.dto.DtoMapper;
+import com.bakuard.flashcards.dto.common.AutocompleteResponse;
+import com.bakuard.flashcards.dto.common.ScrollResponse;
 import com.bakuard.flashcards.dto.exceptions.ExceptionResponse;
 import com.bakuard.flashcards.dto.expression.ExpressionAddRequest;
 import com.bakuard.flashcards.dto.expression.ExpressionForDictionaryListResponse;
 import com.bakuard.flashcards.dto.expression.ExpressionResponse;
 import com.bakuard.flashcards.dto.expression.ExpressionUpdateRequest;
 import com.bakuard.flashcards.model.auth.policy.Authorizer;
+import com.bakuard.flashcards.model.filter.SearchMode;
 import com.bakuard.flashcards.model.expression.Expression;
 import com.bakuard.flashcards.service.AuthService;
 import com.bakuard.flashcards.service.ExpressionService;
@@ -25,9 +28,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
 @Tag(name = "Словарь устойчевых выражений пользователя")
@@ -285,12 +290,22 @@ public class DictionaryOfExpressionsController {
             @RequestParam
             @Parameter(description = "Значение устойчевого выражения. Не может быть null.", required = true)
             String value,
-            @RequestParam
+            @RequestParam(value = "maxDistance", defaultValue = "1")
             @Parameter(description = """
                     Максимальное редакциооное растояние относительно искомого слова.
-                     Диапозон допустимых значений [1, 20].
+                     Диапозон допустимых значений [1, 20]. Не используется при mode=phonetic.
                     """, schema = @Schema(defaultValue = "1"))
             int maxDistance,
+            @RequestParam(value = "mode", required = false)
+            @Parameter(description = """
+                    Способ поиска (без учета регистра символов):
+                    <ol>
+                        <li>levenshtein - по редакционному расстоянию не более maxDistance</li>
+                        <li>phonetic - по совпадению произношения (фонетический ключ Double Metaphone). Учитываются
+                         только латинские буквы. Результат отсортирован в лексикографическом порядке.</li>
+                    </ol>
+                    """, schema = @Schema(defaultValue = "levenshtein"))
+            String mode,
             @RequestParam("page")
             @Parameter(description = "Номер страницы выборки. Нумерация начинается с нуля.", required = true)
             int page,
@@ -299,15 +314,68 @@ public class DictionaryOfExpressionsController {
                     schema = @Schema(defaultValue = "20"))
             int size) {
         UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
-        logger.info("user {} get expressions of user {} by value '{}', levenshtein_distance {}, page {}, size {}",
-                jwsUserId, userId, value, maxDistance, page, size);
+        logger.info("user {} get expressions of user {} by value '{}', mode {}, levenshtein_distance {}, page {}, size {}",
+                jwsUserId, userId, value, mode, maxDistance, page, size);
         authorizer.assertToHasAccess(jwsUserId, "dictionary", userId, "findByValue");
 
         Pageable pageable = mapper.toPageable(page, size);
-        Page<Expression> expressions = expressionService.findByValue(userId, value, maxDistance, pageable);
+        Page<Expression> expressions = switch(SearchMode.of(mode)) {
+            case LEVENSHTEIN -> expressionService.findByValue(userId, value, maxDistance, pageable);
+            case PHONETIC -> expressionService.findByPhonetic(userId, value, pageable);
+        };
         return ResponseEntity.ok(mapper.toExpressionsForDictionaryListResponse(expressions));
     }
 
+    @Operation(summary = """
+            Возвращает устойчивые выражения пользователя, значение которых начинается с указанного текста (без учета
+             регистра), в лексикографическом порядке. Предназначен для подсказок при вводе и, в отличие от
+             поиска по значению, не вычисляет редакционное расстояние.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400",
+                    description = "Если нарушен хотя бы один из инвариантов связаный с параметрами запроса",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<AutocompleteResponse>> autocomplete(
+            @RequestParam
+            @Parameter(description = "Идентификатор пользователя, из выражений которого делается выборка.", required = true)
+            UUID userId,
+            @RequestParam
+            @Parameter(description = "Начало значения. Не может быть null.", required = true)
+            String prefix,
+            @RequestParam(value = "size", required = false)
+            @Parameter(description = "Максимальное кол-во вариантов. Диапозон значений - [1, 100].",
+                    schema = @Schema(defaultValue = "20"))
+            int size) {
+        UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} autocomplete expressions of user {} by prefix '{}', size {}",
+                jwsUserId, userId, prefix, size);
+        authorizer.assertToHasAccess(jwsUserId, "dictionary", userId, "findByValue");
+
+        Pageable pageable = mapper.toPageable(0, size);
+        return ResponseEntity.ok(
+                mapper.toAutocompleteResponse(expressionService.autocomplete(userId, prefix, pageable.getPageSize()))
+        );
+    }
+
     @Operation(summary = """
             Возвращает все выражения, один из переводов которых совпадает с указанным пользователем значением.
             """)
@@ -362,6 +430,187 @@ public class DictionaryOfExpressionsController {
         return ResponseEntity.ok(mapper.toExpressionsForDictionaryListResponse(expressions));
     }
 
+    @Operation(summary = """
+            Выполняет полнотекстовый поиск устойчивых выражений пользователя по их значениям, примечаниям, толкованиям,
+             переводам и примерам. Результат упорядочен по убыванию релевантности: сначала по кол-ву различных
+             слов запроса, которые содержит запись, затем по кол-ву их вхождений.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400",
+                    description = "Если нарушен хотя бы один из инвариантов связаный с параметрами запроса",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @GetMapping("/search")
+    public ResponseEntity<Page<ExpressionForDictionaryListResponse>> findByText(
+            @RequestParam
+            @Parameter(description = "Идентификатор пользователя, из устойчивых выражений которого делается выборка.", required = true)
+            UUID userId,
+            @RequestParam
+            @Parameter(description = """
+                    Поисковый запрос. Регистр символов не учитывается, 'ё' и 'е' не различаются.
+                     Слова запроса короче двух символов игнорируются.
+                    """, required = true)
+            String query,
+            @RequestParam("page")
+            @Parameter(description = "Номер страницы выборки. Нумерация начинается с нуля.", required = true)
+            int page,
+            @RequestParam(value = "size", required = false)
+            @Parameter(description = "Размер страницы выборки. Диапозон значений - [1, 100].",
+                    schema = @Schema(defaultValue = "20"))
+            int size) {
+        UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} search expressions of user {} by text '{}', page {}, size {}",
+                jwsUserId, userId, query, page, size);
+        authorizer.assertToHasAccess(jwsUserId, "dictionary", userId, "findByText");
+
+        Pageable pageable = mapper.toPageable(page, size);
+        Page<Expression> expressions = expressionService.findByText(userId, query, pageable);
+        return ResponseEntity.ok(mapper.toExpressionsForDictionaryListResponse(expressions));
+    }
+
+    @Operation(summary = """
+            Возвращает часть выборки выражений из словаря пользователя, следующую за указанным курсором.
+             В отличие от постраничной выборки, время ответа не зависит от того, насколько далеко
+             пользователь пролистал словарь.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400",
+                    description = "Если нарушен хотя бы один из инвариантов связаный с параметрами запроса или курсор некорректен",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "404",
+                    description = "Если пользователя с указанным id не существует.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<ScrollResponse<ExpressionForDictionaryListResponse>> scrollAllBy(
+            @RequestParam
+            @Parameter(description = "Идентификатор пользователя, из выражений которого делается выборка", required = true)
+            UUID userId,
+            @RequestParam(value = "cursor", required = false)
+            @Parameter(description = """
+                    Курсор, полученный в поле nextCursor предыдущего ответа. Если не указан - возвращается
+                     начало выборки.
+                    """)
+            String cursor,
+            @RequestParam(value = "size", required = false)
+            @Parameter(description = "Размер части выборки. Диапозон значений - [1, 100].",
+                    schema = @Schema(defaultValue = "20"))
+            int size,
+            @RequestParam(value = "sort", required = false)
+            @Parameter(description = """
+                    Задает порядок сортировки. Допустимые значения совпадают с параметром sort запроса
+                     GET /dictionary/expressions. Курсор действителен только вместе с тем порядком сортировки,
+                     с которым он был получен.
+                    """,
+                    schema = @Schema(defaultValue = "value.asc"))
+            String sort) {
+        UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} scroll expressions of user {} by cursor={}, size={}, sort={}",
+                jwsUserId, userId, cursor, size, sort);
+        authorizer.assertToHasAccess(jwsUserId, "dictionary", userId, "findAllBy");
+
+        authService.assertExists(userId);
+        Pageable pageable = mapper.toPageable(0, size, mapper.toExpressionSort(sort));
+        Window<Expression> expressions = expressionService.scrollByUserId(
+                userId, pageable.getSort(), mapper.toScrollPosition(cursor), pageable.getPageSize());
+        return ResponseEntity.ok(mapper.toExpressionsForDictionaryListResponse(expressions));
+    }
+
+    @Operation(summary = """
+            Возвращает часть выборки выражений, один из переводов которых совпадает с указанным значением,
+             следующую за указанным курсором. Выражения отсортированы по значению.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400",
+                    description = "Если нарушен хотя бы один из инвариантов связаный с параметрами запроса или курсор некорректен",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "404",
+                    description = "Если пользователя с указанным id не существует.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @GetMapping("/translate/scroll")
+    public ResponseEntity<ScrollResponse<ExpressionForDictionaryListResponse>> scrollByTranslate(
+            @RequestParam
+            @Parameter(description = "Идентификатор пользователя, из выражений которого делается выборка.", required = true)
+            UUID userId,
+            @RequestParam
+            @Parameter(description = "Перевод с английского на родной язык пользователя.", required = true)
+            String translate,
+            @RequestParam(value = "cursor", required = false)
+            @Parameter(description = """
+                    Курсор, полученный в поле nextCursor предыдущего ответа. Если не указан - возвращается
+                     начало выборки.
+                    """)
+            String cursor,
+            @RequestParam(value = "size", required = false)
+            @Parameter(description = "Размер части выборки. Диапозон значений - [1, 100].",
+                    schema = @Schema(defaultValue = "20"))
+            int size) {
+        UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} scroll expressions of user {} by translate '{}', cursor={}, size={}",
+                jwsUserId, userId, translate, cursor, size);
+        authorizer.assertToHasAccess(jwsUserId, "dictionary", userId, "findByTranslate");
+
+        authService.assertExists(userId);
+        Pageable pageable = mapper.toPageable(0, size);
+        Window<Expression> expressions = expressionService.scrollByTranslate(
+                userId, translate, mapper.toScrollPosition(cursor), pageable.getPageSize());
+        return ResponseEntity.ok(mapper.toExpressionsForDictionaryListResponse(expressions));
+    }
+
     @Operation(summary = "Удаляет устойчевое выражение из словаря пользователя")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200"),
@@ -3,9 +3,12 @@ package com.bakuard.flashcards.controller;
 import com.bakuard.flashcards.config.security.RequestContext;
 import com.bakuard.flashcards.controller.message.Messages;
 import com.bakuard.flashcards.dto.DtoMapper;
+import com.bakuard.flashcards.dto.common.AutocompleteResponse;
+import com.bakuard.flashcards.dto.common.ScrollResponse;
 import com.bakuard.flashcards.dto.exceptions.ExceptionResponse;
 import com.bakuard.flashcards.dto.word.*;
 import com.bakuard.flashcards.model.auth.policy.Authorizer;
+import com.bakuard.flashcards.model.filter.SearchMode;
 import com.bakuard.flashcards.model.word.supplementation.AggregateSupplementedWord;
 import com.bakuard.flashcards.model.word.Word;
 import com.bakuard.flashcards.service.AuthService;
@@ -24,9 +27,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
 @Tag(name = "Словарь слов пользователя")
@@ -369,12 +374,22 @@ public class DictionaryOfWordsController {
             @PathVariable
             @Parameter(description = "Значение искомого слова. Не может быть null.", required = true)
             String value,
-            @RequestParam
+            @RequestParam(value = "maxDistance", defaultValue = "1")
             @Parameter(description = """
                     Максимальное редакциооное растояние относительно искомого слова.
-                     Диапозон допустимых значений [1, 20].
+                     Диапозон допустимых значений [1, 20]. Не используется при mode=phonetic.
                     """, schema = @Schema(defaultValue = "1"))
             int maxDistance,
+            @RequestParam(value = "mode", required = false)
+            @Parameter(description = """
+                    Способ поиска (без учета регистра символов):
+                    <ol>
+                        <li>levenshtein - по редакционному расстоянию не более maxDistance</li>
+                        <li>phonetic - по совпадению произношения (фонетический ключ Double Metaphone). Учитываются
+                         только латинские буквы. Результат отсортирован в лексикографическом порядке.</li>
+                    </ol>
+                    """, schema = @Schema(defaultValue = "levenshtein"))
+            String mode,
             @RequestParam("page")
             @Parameter(description = "Номер страницы выборки. Нумерация начинается с нуля.", required = true)
             int page,
@@ -383,15 +398,68 @@ public class DictionaryOfWordsController {
                     schema = @Schema(defaultValue = "20"))
             int size) {
         UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
-        logger.info("user {} get words of user {} by value '{}', levenshtein_distance {}, page {}, size {}",
-                jwsUserId, userId, value, maxDistance, page, size);
+        logger.info("user {} get words of user {} by value '{}', mode {}, levenshtein_distance {}, page {}, size {}",
+                jwsUserId, userId, value, mode, maxDistance, page, size);
         authorizer.assertToHasAccess(jwsUserId, "dictionary", userId, "findByValue");
 
         Pageable pageable = mapper.toPageable(page, size);
-        Page<Word> words = wordService.findByValue(userId, value, maxDistance, pageable);
+        Page<Word> words = switch(SearchMode.of(mode)) {
+            case LEVENSHTEIN -> wordService.findByValue(userId, value, maxDistance, pageable);
+            case PHONETIC -> wordService.findByPhonetic(userId, value, pageable);
+        };
         return ResponseEntity.ok(mapper.toWordsForDictionaryListResponse(words));
     }
 
+    @Operation(summary = """
+            Возвращает слова пользователя, значение которых начинается с указанного текста (без учета
+             регистра), в лексикографическом порядке. Предназначен для подсказок при вводе и, в отличие от
+             поиска по значению, не вычисляет редакционное расстояние.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400",
+                    description = "Если нарушен хотя бы один из инвариантов связаный с параметрами запроса",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<AutocompleteResponse>> autocomplete(
+            @RequestParam
+            @Parameter(description = "Идентификатор пользователя, из слов которого делается выборка.", required = true)
+            UUID userId,
+            @RequestParam
+            @Parameter(description = "Начало значения. Не может быть null.", required = true)
+            String prefix,
+            @RequestParam(value = "size", required = false)
+            @Parameter(description = "Максимальное кол-во вариантов. Диапозон значений - [1, 100].",
+                    schema = @Schema(defaultValue = "20"))
+            int size) {
+        UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} autocomplete words of user {} by prefix '{}', size {}",
+                jwsUserId, userId, prefix, size);
+        authorizer.assertToHasAccess(jwsUserId, "dictionary", userId, "findByValue");
+
+        Pageable pageable = mapper.toPageable(0, size);
+        return ResponseEntity.ok(
+                mapper.toAutocompleteResponse(wordService.autocomplete(userId, prefix, pageable.getPageSize()))
+        );
+    }
+
     @Operation(summary = """
             Возвращает все слова, один из переводов которых совпадает с указанным пользователем значением.
             """)
@@ -446,6 +514,187 @@ public class DictionaryOfWordsController {
         return ResponseEntity.ok(mapper.toWordsForDictionaryListResponse(words));
     }
 
+    @Operation(summary = """
+            Выполняет полнотекстовый поиск слов пользователя по их значениям, примечаниям, толкованиям,
+             переводам и примерам. Результат упорядочен по убыванию релевантности: сначала по кол-ву различных
+             слов запроса, которые содержит запись, затем по кол-ву их вхождений.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400",
+                    description = "Если нарушен хотя бы один из инвариантов связаный с параметрами запроса",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @GetMapping("/search")
+    public ResponseEntity<Page<WordForDictionaryListResponse>> findByText(
+            @RequestParam
+            @Parameter(description = "Идентификатор пользователя, из слов которого делается выборка.", required = true)
+            UUID userId,
+            @RequestParam
+            @Parameter(description = """
+                    Поисковый запрос. Регистр символов не учитывается, 'ё' и 'е' не различаются.
+                     Слова запроса короче двух символов игнорируются.
+                    """, required = true)
+            String query,
+            @RequestParam("page")
+            @Parameter(description = "Номер страницы выборки. Нумерация начинается с нуля.", required = true)
+            int page,
+            @RequestParam(value = "size", required = false)
+            @Parameter(description = "Размер страницы выборки. Диапозон значений - [1, 100].",
+                    schema = @Schema(defaultValue = "20"))
+            int size) {
+        UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} search words of user {} by text '{}', page {}, size {}",
+                jwsUserId, userId, query, page, size);
+        authorizer.assertToHasAccess(jwsUserId, "dictionary", userId, "findByText");
+
+        Pageable pageable = mapper.toPageable(page, size);
+        Page<Word> words = wordService.findByText(userId, query, pageable);
+        return ResponseEntity.ok(mapper.toWordsForDictionaryListResponse(words));
+    }
+
+    @Operation(summary = """
+            Возвращает часть выборки слов из словаря пользователя, следующую за указанным курсором.
+             В отличие от постраничной выборки, время ответа не зависит от того, насколько далеко
+             пользователь пролистал словарь.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400",
+                    description = "Если нарушен хотя бы один из инвариантов связаный с параметрами запроса или курсор некорректен",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "404",
+                    description = "Если пользователя с указанным id не существует.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<ScrollResponse<WordForDictionaryListResponse>> scrollAllBy(
+            @RequestParam
+            @Parameter(description = "Идентификатор пользователя, из слов которого делается выборка", required = true)
+            UUID userId,
+            @RequestParam(value = "cursor", required = false)
+            @Parameter(description = """
+                    Курсор, полученный в поле nextCursor предыдущего ответа. Если не указан - возвращается
+                     начало выборки.
+                    """)
+            String cursor,
+            @RequestParam(value = "size", required = false)
+            @Parameter(description = "Размер части выборки. Диапозон значений - [1, 100].",
+                    schema = @Schema(defaultValue = "20"))
+            int size,
+            @RequestParam(value = "sort", required = false)
+            @Parameter(description = """
+                    Задает порядок сортировки. Допустимые значения совпадают с параметром sort запроса
+                     GET /dictionary/words. Курсор действителен только вместе с тем порядком сортировки,
+                     с которым он был получен.
+                    """,
+                    schema = @Schema(defaultValue = "value.asc"))
+            String sort) {
+        UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} scroll words of user {} by cursor={}, size={}, sort={}",
+                jwsUserId, userId, cursor, size, sort);
+        authorizer.assertToHasAccess(jwsUserId, "dictionary", userId, "findAllBy");
+
+        authService.assertExists(userId);
+        Pageable pageable = mapper.toPageable(0, size, mapper.toWordSort(sort));
+        Window<Word> words = wordService.scrollByUserId(
+                userId, pageable.getSort(), mapper.toScrollPosition(cursor), pageable.getPageSize());
+        return ResponseEntity.ok(mapper.toWordsForDictionaryListResponse(words));
+    }
+
+    @Operation(summary = """
+            Возвращает часть выборки слов, один из переводов которых совпадает с указанным значением,
+             следующую за указанным курсором. Слова отсортированы по значению.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400",
+                    description = "Если нарушен хотя бы один из инвариантов связаный с параметрами запроса или курсор некорректен",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "404",
+                    description = "Если пользователя с указанным id не существует.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @GetMapping("/translate/scroll")
+    public ResponseEntity<ScrollResponse<WordForDictionaryListResponse>> scrollByTranslate(
+            @RequestParam
+            @Parameter(description = "Идентификатор пользователя, из слов которого делается выборка.", required = true)
+            UUID userId,
+            @RequestParam
+            @Parameter(description = "Перевод с английского на родной язык пользователя.", required = true)
+            String translate,
+            @RequestParam(value = "cursor", required = false)
+            @Parameter(description = """
+                    Курсор, полученный в поле nextCursor предыдущего ответа. Если не указан - возвращается
+                     начало выборки.
+                    """)
+            String cursor,
+            @RequestParam(value = "size", required = false)
+            @Parameter(description = "Размер части выборки. Диапозон значений - [1, 100].",
+                    schema = @Schema(defaultValue = "20"))
+            int size) {
+        UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} scroll words of user {} by translate '{}', cursor={}, size={}",
+                jwsUserId, userId, translate, cursor, size);
+        authorizer.assertToHasAccess(jwsUserId, "dictionary", userId, "findByTranslate");
+
+        authService.assertExists(userId);
+        Pageable pageable = mapper.toPageable(0, size);
+        Window<Word> words = wordService.scrollByTranslate(
+                userId, translate, mapper.toScrollPosition(cursor), pageable.getPageSize());
+        return ResponseEntity.ok(mapper.toWordsForDictionaryListResponse(words));
+    }
+
     @Operation(summary = """
             Возвращает часть выборки слов из словаря пользователя. Номер страницы используемый при пагинации
              автоматчиески подбирается таким образом, чтобы первое слово из всех слов пользователя, которое
@@ -7,6 +7,7 @@ import com.bakuard.flashcards.validation.exception.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -100,6 +101,19 @@ public class ExceptionResolver {
                 body(response);
     }
 
+    @ExceptionHandler(value = OptimisticLockingFailureException.class)
+    public ResponseEntity<ExceptionResponse> handle(OptimisticLockingFailureException exception) {
+        logger.error("Concurrent modification", exception);
+
+        ExceptionResponse response = mapper.toExceptionResponse(
+                HttpStatus.CONFLICT,
+                "Entity.concurrentModification");
+
+        return ResponseEntity.
+                status(HttpStatus.CONFLICT).
+                body(response);
+    }
+
     @ExceptionHandler(value = RuntimeException.class)
     public ResponseEntity<ExceptionResponse> handle(RuntimeException exception) {
         logger.error("Unexpected exception", exception);
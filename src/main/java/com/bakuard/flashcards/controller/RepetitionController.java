@@ -0,0 +1,260 @@
+package com.bakuard.flashcards.controller;
+
+import com.bakuard.flashcards.config.security.RequestContext;
+import com.bakuard.flashcards.dto.DtoMapper;
+import com.bakuard.flashcards.dto.common.RepetitionFeedItemResponse;
+import com.bakuard.flashcards.dto.common.RepetitionForecastDayResponse;
+import com.bakuard.flashcards.dto.common.RepetitionSummaryResponse;
+import com.bakuard.flashcards.dto.common.ScrollResponse;
+import com.bakuard.flashcards.dto.exceptions.ExceptionResponse;
+import com.bakuard.flashcards.dto.expression.ExpressionForRepetitionFromEnglishResponse;
+import com.bakuard.flashcards.dto.expression.ExpressionForRepetitionFromNativeResponse;
+import com.bakuard.flashcards.dto.word.WordForRepetitionFromEnglishResponse;
+import com.bakuard.flashcards.dto.word.WordForRepetitionFromNativeResponse;
+import com.bakuard.flashcards.model.auth.policy.Authorizer;
+import com.bakuard.flashcards.model.repetition.RepetitionFeedItem;
+import com.bakuard.flashcards.model.repetition.RepetitionForecastDay;
+import com.bakuard.flashcards.model.repetition.RepetitionSummary;
+import com.bakuard.flashcards.service.RepetitionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.UUID;
+
+@Tag(name = "Сводные данные о повторении слов и устойчивых выражений пользователя")
+@SecurityRequirement(name = "commonToken")
+@RestController
+@RequestMapping("/repetition")
+public class RepetitionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(RepetitionController.class.getName());
+
+
+    private RepetitionService repetitionService;
+    private DtoMapper mapper;
+    private RequestContext requestContext;
+    private Authorizer authorizer;
+
+    @Autowired
+    public RepetitionController(RepetitionService repetitionService,
+                                DtoMapper mapper,
+                                RequestContext requestContext,
+                                Authorizer authorizer) {
+        this.repetitionService = repetitionService;
+        this.mapper = mapper;
+        this.requestContext = requestContext;
+        this.authorizer = authorizer;
+    }
+
+    @Operation(summary = """
+            Возвращает кол-во слов и устойчивых выражений, доступных для повторения в текущую дату, для
+             каждого из направлений повторения, а также кол-во тех, что станут доступны завтра.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400",
+                    description = "Если нарушен хотя бы один из инвариантов связаный с параметрами запроса",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @GetMapping("/summary")
+    public ResponseEntity<RepetitionSummaryResponse> getSummary(
+            @RequestParam
+            @Parameter(description = "Идентификатор пользователя, для словаря которого подсчитываются данные.", required = true)
+            UUID userId) {
+        UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} get repetition summary of user {}", jwsUserId, userId);
+        authorizer.assertToHasAccess(jwsUserId, "repetition", userId, "getSummary");
+
+        RepetitionSummary summary = repetitionService.getSummary(userId);
+
+        return ResponseEntity.ok(mapper.toRepetitionSummaryResponse(summary));
+    }
+
+    @Operation(summary = """
+            Возвращает прогноз нагрузки на указанное кол-во дней, начиная с текущей даты: для каждого дня -
+             кол-во слов и устойчивых выражений, повторение которых приходится на этот день, в каждом из
+             направлений повторения. Просроченные повторения учитываются в текущей дате.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400",
+                    description = "Если нарушен хотя бы один из инвариантов связаный с параметрами запроса",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @GetMapping("/forecast")
+    public ResponseEntity<List<RepetitionForecastDayResponse>> getForecast(
+            @RequestParam
+            @Parameter(description = "Идентификатор пользователя, для словаря которого подсчитываются данные.", required = true)
+            UUID userId,
+            @RequestParam(value = "days", required = false, defaultValue = "30")
+            @Parameter(description = "Кол-во дней прогноза. Диапазон значений - [1, 365].",
+                    schema = @Schema(defaultValue = "30"))
+            int days) {
+        UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} get repetition forecast of user {} for {} days", jwsUserId, userId, days);
+        authorizer.assertToHasAccess(jwsUserId, "repetition", userId, "getForecast");
+
+        List<RepetitionForecastDay> forecast = repetitionService.getForecast(userId, days);
+
+        return ResponseEntity.ok(mapper.toRepetitionForecastResponse(forecast));
+    }
+
+    @Operation(summary = """
+            Возвращает часть общей ленты повторения с английского на родной язык, следующую за указанным
+             курсором. В ленте перемешаны слова и устойчивые выражения, доступные для повторения в текущую дату,
+             упорядоченные по значению. Ответы на элементы ленты отправляются пакетом в соответствии с видом
+             повторения каждого элемента.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400",
+                    description = "Если нарушен хотя бы один из инвариантов связаный с параметрами запроса или курсор некорректен",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @GetMapping("/feed/fromEnglish")
+    public ResponseEntity<ScrollResponse<RepetitionFeedItemResponse<WordForRepetitionFromEnglishResponse, ExpressionForRepetitionFromEnglishResponse>>>
+    scrollFeedFromEnglish(
+            @RequestParam
+            @Parameter(description = "Идентификатор пользователя, из словаря которого формируется лента.", required = true)
+            UUID userId,
+            @RequestParam(value = "cursor", required = false)
+            @Parameter(description = """
+                    Курсор, полученный в поле nextCursor предыдущего ответа. Если не указан - возвращается
+                     начало ленты.
+                    """)
+            String cursor,
+            @RequestParam(value = "size", required = false)
+            @Parameter(description = "Размер части ленты. Диапозон значений - [1, 100].",
+                    schema = @Schema(defaultValue = "20"))
+            int size) {
+        UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} scroll repetition feed from english of user {} by cursor={}, size={}",
+                jwsUserId, userId, cursor, size);
+        authorizer.assertToHasAccess(jwsUserId, "repetition", userId, "scrollFeed");
+
+        Window<RepetitionFeedItem> feed = repetitionService.scrollDue(
+                userId, true, mapper.toScrollPosition(cursor), mapper.toPageable(0, size).getPageSize());
+
+        return ResponseEntity.ok(mapper.toRepetitionFeedFromEnglishResponse(feed));
+    }
+
+    @Operation(summary = """
+            Возвращает часть общей ленты повторения с родного языка на английский, следующую за указанным
+             курсором. В ленте перемешаны слова и устойчивые выражения, доступные для повторения в текущую дату,
+             упорядоченные по значению. Ответы на элементы ленты отправляются пакетом в соответствии с видом
+             повторения каждого элемента.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400",
+                    description = "Если нарушен хотя бы один из инвариантов связаный с параметрами запроса или курсор некорректен",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @GetMapping("/feed/fromNative")
+    public ResponseEntity<ScrollResponse<RepetitionFeedItemResponse<WordForRepetitionFromNativeResponse, ExpressionForRepetitionFromNativeResponse>>>
+    scrollFeedFromNative(
+            @RequestParam
+            @Parameter(description = "Идентификатор пользователя, из словаря которого формируется лента.", required = true)
+            UUID userId,
+            @RequestParam(value = "cursor", required = false)
+            @Parameter(description = """
+                    Курсор, полученный в поле nextCursor предыдущего ответа. Если не указан - возвращается
+                     начало ленты.
+                    """)
+            String cursor,
+            @RequestParam(value = "size", required = false)
+            @Parameter(description = "Размер части ленты. Диапозон значений - [1, 100].",
+                    schema = @Schema(defaultValue = "20"))
+            int size) {
+        UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} scroll repetition feed from native of user {} by cursor={}, size={}",
+                jwsUserId, userId, cursor, size);
+        authorizer.assertToHasAccess(jwsUserId, "repetition", userId, "scrollFeed");
+
+        Window<RepetitionFeedItem> feed = repetitionService.scrollDue(
+                userId, false, mapper.toScrollPosition(cursor), mapper.toPageable(0, size).getPageSize());
+
+        return ResponseEntity.ok(mapper.toRepetitionFeedFromNativeResponse(feed));
+    }
+
+}
@@ -2,14 +2,24 @@ package com.bakuard.flashcards.controller;
 
 import com.bakuard.flashcards.config.security.RequestContext;
 import com.bakuard.flashcards.dto.DtoMapper;
+import com.bakuard.flashcards.dto.common.RepetitionBatchFromEnglishRequest;
+import com.bakuard.flashcards.dto.common.RepetitionBatchFromNativeRequest;
+import com.bakuard.flashcards.dto.common.RepetitionOutcomeResponse;
 import com.bakuard.flashcards.dto.common.RepetitionResponse;
+import com.bakuard.flashcards.dto.common.RepetitionSessionResponse;
 import com.bakuard.flashcards.dto.exceptions.ExceptionResponse;
 import com.bakuard.flashcards.dto.expression.*;
 import com.bakuard.flashcards.model.RepetitionResult;
 import com.bakuard.flashcards.model.auth.policy.Authorizer;
+import com.bakuard.flashcards.model.repetition.RepetitionAnswer;
+import com.bakuard.flashcards.model.repetition.RepetitionBatch;
+import com.bakuard.flashcards.model.repetition.RepetitionOutcome;
+import com.bakuard.flashcards.model.repetition.RepetitionSession;
+import com.bakuard.flashcards.model.repetition.RepetitionType;
 import com.bakuard.flashcards.model.expression.Expression;
 import com.bakuard.flashcards.service.ExpressionService;
-import com.bakuard.flashcards.service.StatisticService;
+import com.bakuard.flashcards.service.RepetitionLocks;
+import com.bakuard.flashcards.service.RepetitionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -26,6 +36,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
 @Tag(name = "Повторение устойчевых выражений пользователя")
@@ -38,19 +49,22 @@ public class RepetitionOfExpressionsController {
 
 
     private ExpressionService expressionService;
-    private StatisticService statisticService;
+    private RepetitionService repetitionService;
+    private RepetitionLocks repetitionLocks;
     private DtoMapper mapper;
     private RequestContext requestContext;
     private Authorizer authorizer;
 
     @Autowired
     public RepetitionOfExpressionsController(ExpressionService expressionService,
-                                             StatisticService statisticService,
+                                             RepetitionService repetitionService,
+                                             RepetitionLocks repetitionLocks,
                                              DtoMapper mapper,
                                              RequestContext requestContext,
                                              Authorizer authorizer) {
         this.expressionService = expressionService;
-        this.statisticService = statisticService;
+        this.repetitionService = repetitionService;
+        this.repetitionLocks = repetitionLocks;
         this.mapper = mapper;
         this.requestContext = requestContext;
         this.authorizer = authorizer;
@@ -147,10 +161,10 @@ public class RepetitionOfExpressionsController {
                 userId, dto.getExpressionId(), dto.getUserId(), dto.isRemember());
         authorizer.assertToHasAccess(userId, "repetition", dto.getUserId(), "repeatFromEnglish");
 
-        Expression expression = expressionService.repeatFromEnglish(dto.getUserId(), dto.getExpressionId(), dto.isRemember());
-        statisticService.appendExpressionFromEnglish(dto.getUserId(), dto.getExpressionId(), dto.isRemember());
-
-        return ResponseEntity.ok(mapper.toExpressionResponse(expression));
+        RepetitionResult<Expression> result = repetitionLocks.execute(dto.getUserId(),
+                () -> repetitionService.repeatExpression(dto.getUserId(), RepetitionType.EXPRESSIONS_FROM_ENGLISH,
+                        RepetitionAnswer.fromEnglish(dto.getExpressionId(), dto.isRemember())));
+        return ResponseEntity.ok(mapper.toExpressionResponse(result.payload()));
     }
 
     @Operation(summary = """
@@ -244,15 +258,11 @@ public class RepetitionOfExpressionsController {
                 userId, dto.getExpressionId(), dto.getUserId(), dto.getInputValue());
         authorizer.assertToHasAccess(userId, "repetition", dto.getUserId(), "repeatFromNative");
 
-        RepetitionResult<Expression> repetitionResult =
-                expressionService.repeatFromNative(dto.getUserId(), dto.getExpressionId(), dto.getInputValue());
-        statisticService.appendExpressionFromNative(dto.getUserId(), dto.getExpressionId(), repetitionResult.isRemember());
-
-        RepetitionResponse<ExpressionResponse> response = mapper.toRepetitionResponse(
-                repetitionResult.isRemember(),
-                mapper.toExpressionResponse(repetitionResult.payload())
-        );
-        return ResponseEntity.ok(response);
+        RepetitionResult<Expression> result = repetitionLocks.execute(dto.getUserId(),
+                () -> repetitionService.repeatExpression(dto.getUserId(), RepetitionType.EXPRESSIONS_FROM_NATIVE,
+                        RepetitionAnswer.fromNative(dto.getExpressionId(), dto.getInputValue())));
+        return ResponseEntity.ok(
+                mapper.toRepetitionResponse(result.isRemember(), mapper.toExpressionResponse(result.payload())));
     }
 
     @Operation(summary = """
@@ -294,9 +304,9 @@ public class RepetitionOfExpressionsController {
                 userId, dto.getExpressionId(), dto.getUserId());
         authorizer.assertToHasAccess(userId, "repetition", dto.getUserId(), "markForRepetitionFromEnglish");
 
-        Expression expression = expressionService.markForRepetitionFromEnglish(dto.getUserId(), dto.getExpressionId());
-        statisticService.appendExpressionFromEnglish(dto.getUserId(), dto.getExpressionId(), false);
-
+        Expression expression = repetitionLocks.execute(dto.getUserId(),
+                () -> repetitionService.markExpressionForRepetition(
+                        dto.getUserId(), RepetitionType.EXPRESSIONS_FROM_ENGLISH, dto.getExpressionId()));
         return ResponseEntity.ok(mapper.toExpressionResponse(expression));
     }
 
@@ -339,10 +349,284 @@ public class RepetitionOfExpressionsController {
                 userId, dto.getExpressionId(), dto.getUserId());
         authorizer.assertToHasAccess(userId, "repetition", dto.getUserId(), "markForRepetitionFromNative");
 
-        Expression expression = expressionService.markForRepetitionFromNative(dto.getUserId(), dto.getExpressionId());
-        statisticService.appendExpressionFromNative(dto.getUserId(), dto.getExpressionId(), false);
-
+        Expression expression = repetitionLocks.execute(dto.getUserId(),
+                () -> repetitionService.markExpressionForRepetition(
+                        dto.getUserId(), RepetitionType.EXPRESSIONS_FROM_NATIVE, dto.getExpressionId()));
         return ResponseEntity.ok(mapper.toExpressionResponse(expression));
     }
 
+    @Operation(summary = """
+            Открывает сессию повторения устойчивых выражений с английского на родной язык пользователя.
+             Идентификаторы всех устойчивых выражений, доступных для повторения в текущую дату, один раз
+             выбираются и сохраняются на сервере, после чего выдаются частями запросом
+             /english/sessions/{sessionId}/next. Ранее открытая сессия повторения
+             устойчивых выражений с английского языка этого пользователя открывается
+             заново с тем же идентификатором.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "404",
+                    description = "Если не удалось найти пользователя с указанным идентификатором.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @PostMapping("/english/sessions")
+    public ResponseEntity<RepetitionSessionResponse<ExpressionForRepetitionFromEnglishResponse>> openSessionFromEnglish(
+            @RequestParam
+            @Parameter(description = "Идентификатор пользователя, из устойчивых выражений которого формируется очередь сессии.", required = true)
+            UUID userId) {
+        UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} open session of repetition expressions from english of user {}", jwsUserId, userId);
+        authorizer.assertToHasAccess(jwsUserId, "repetition", userId, "findAllFromEnglishBy");
+
+        RepetitionSession session = expressionService.openRepetitionSessionFromEnglish(userId);
+        return ResponseEntity.ok(mapper.toRepetitionSessionResponse(session));
+    }
+
+    @Operation(summary = """
+            Возвращает следующую часть очереди сессии повторения устойчивых выражений с английского на родной язык пользователя и сдвигает
+             позицию выдачи сессии. Если очередь исчерпана - возвращает пустой список.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400",
+                    description = "Если нарушен хотя бы один из инвариантов связаный с параметрами запроса",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "404",
+                    description = "Если у пользователя нет сессии повторения устойчивых выражений с английского языка с указанным идентификатором.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @PostMapping("/english/sessions/{sessionId}/next")
+    public ResponseEntity<RepetitionSessionResponse<ExpressionForRepetitionFromEnglishResponse>> nextFromEnglishSession(
+            @PathVariable
+            @Parameter(description = "Идентификатор сессии повторения.", required = true)
+            UUID sessionId,
+            @RequestParam
+            @Parameter(description = "Идентификатор пользователя, открывшего сессию повторения.", required = true)
+            UUID userId,
+            @RequestParam(value = "size", required = false)
+            @Parameter(description = "Размер части очереди. Диапозон значений - [1, 100].",
+                    schema = @Schema(defaultValue = "20"))
+            int size) {
+        UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} get next expressions from english of session {} of user {}, size={}",
+                jwsUserId, sessionId, userId, size);
+        authorizer.assertToHasAccess(jwsUserId, "repetition", userId, "findAllFromEnglishBy");
+
+        int limit = mapper.toPageable(0, size).getPageSize();
+        RepetitionBatch<Expression> batch = expressionService.nextForRepetitionFromEnglish(userId, sessionId, limit);
+        return ResponseEntity.ok(mapper.toExpressionsForRepetitionFromEnglishResponse(batch));
+    }
+
+    @Operation(summary = """
+            Открывает сессию повторения устойчивых выражений с родного языка пользователя на английский.
+             Идентификаторы всех устойчивых выражений, доступных для повторения в текущую дату, один раз
+             выбираются и сохраняются на сервере, после чего выдаются частями запросом
+             /native/sessions/{sessionId}/next. Ранее открытая сессия повторения
+             устойчивых выражений с родного языка этого пользователя открывается
+             заново с тем же идентификатором.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "404",
+                    description = "Если не удалось найти пользователя с указанным идентификатором.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @PostMapping("/native/sessions")
+    public ResponseEntity<RepetitionSessionResponse<ExpressionForRepetitionFromNativeResponse>> openSessionFromNative(
+            @RequestParam
+            @Parameter(description = "Идентификатор пользователя, из устойчивых выражений которого формируется очередь сессии.", required = true)
+            UUID userId) {
+        UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} open session of repetition expressions from native of user {}", jwsUserId, userId);
+        authorizer.assertToHasAccess(jwsUserId, "repetition", userId, "findAllFromNativeBy");
+
+        RepetitionSession session = expressionService.openRepetitionSessionFromNative(userId);
+        return ResponseEntity.ok(mapper.toRepetitionSessionResponse(session));
+    }
+
+    @Operation(summary = """
+            Возвращает следующую часть очереди сессии повторения устойчивых выражений с родного языка пользователя на английский и сдвигает
+             позицию выдачи сессии. Если очередь исчерпана - возвращает пустой список.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400",
+                    description = "Если нарушен хотя бы один из инвариантов связаный с параметрами запроса",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "404",
+                    description = "Если у пользователя нет сессии повторения устойчивых выражений с родного языка с указанным идентификатором.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @PostMapping("/native/sessions/{sessionId}/next")
+    public ResponseEntity<RepetitionSessionResponse<ExpressionForRepetitionFromNativeResponse>> nextFromNativeSession(
+            @PathVariable
+            @Parameter(description = "Идентификатор сессии повторения.", required = true)
+            UUID sessionId,
+            @RequestParam
+            @Parameter(description = "Идентификатор пользователя, открывшего сессию повторения.", required = true)
+            UUID userId,
+            @RequestParam(value = "size", required = false)
+            @Parameter(description = "Размер части очереди. Диапозон значений - [1, 100].",
+                    schema = @Schema(defaultValue = "20"))
+            int size) {
+        UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} get next expressions from native of session {} of user {}, size={}",
+                jwsUserId, sessionId, userId, size);
+        authorizer.assertToHasAccess(jwsUserId, "repetition", userId, "findAllFromNativeBy");
+
+        int limit = mapper.toPageable(0, size).getPageSize();
+        RepetitionBatch<Expression> batch = expressionService.nextForRepetitionFromNative(userId, sessionId, limit);
+        return ResponseEntity.ok(mapper.toExpressionsForRepetitionFromNativeResponse(batch));
+    }
+
+    @Operation(summary = """
+            Применяет в одной транзакции сразу несколько ответов пользователя при повторении устойчивых выражений
+             с английского на родной язык пользователя и возвращает результат обработки каждого ответа в том же порядке.
+             Ответ игнорируется, если в словаре пользователя нет указанного элемента. Несколько ответов для одного
+             элемента применяются последовательно в порядке их следования.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400",
+                    description = "Если нарушен хотя бы один из инвариантов связаный с телом запроса",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @PutMapping("/english/batch")
+    public ResponseEntity<List<RepetitionOutcomeResponse>> repeatAllFromEnglish(@RequestBody RepetitionBatchFromEnglishRequest dto) {
+        UUID userId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} repeat batch of expressions from english as user {}. answers count is {}",
+                userId, dto.getUserId(), dto.getAnswers() == null ? 0 : dto.getAnswers().size());
+        authorizer.assertToHasAccess(userId, "repetition", dto.getUserId(), "repeatFromEnglish");
+
+        List<RepetitionOutcome> outcomes = repetitionLocks.execute(dto.getUserId(),
+                () -> repetitionService.repeatAll(
+                        dto.getUserId(), RepetitionType.EXPRESSIONS_FROM_ENGLISH, mapper.toRepetitionAnswers(dto)));
+
+        return ResponseEntity.ok(mapper.toRepetitionOutcomesResponse(outcomes));
+    }
+
+    @Operation(summary = """
+            Применяет в одной транзакции сразу несколько ответов пользователя при повторении устойчивых выражений
+             с родного языка пользователя на английский и возвращает результат обработки каждого ответа в том же порядке.
+             Ответ игнорируется, если в словаре пользователя нет указанного элемента. Несколько ответов для одного
+             элемента применяются последовательно в порядке их следования.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400",
+                    description = "Если нарушен хотя бы один из инвариантов связаный с телом запроса",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @PutMapping("/native/batch")
+    public ResponseEntity<List<RepetitionOutcomeResponse>> repeatAllFromNative(@RequestBody RepetitionBatchFromNativeRequest dto) {
+        UUID userId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} repeat batch of expressions from native as user {}. answers count is {}",
+                userId, dto.getUserId(), dto.getAnswers() == null ? 0 : dto.getAnswers().size());
+        authorizer.assertToHasAccess(userId, "repetition", dto.getUserId(), "repeatFromNative");
+
+        List<RepetitionOutcome> outcomes = repetitionLocks.execute(dto.getUserId(),
+                () -> repetitionService.repeatAll(
+                        dto.getUserId(), RepetitionType.EXPRESSIONS_FROM_NATIVE, mapper.toRepetitionAnswers(dto)));
+
+        return ResponseEntity.ok(mapper.toRepetitionOutcomesResponse(outcomes));
+    }
+
 }
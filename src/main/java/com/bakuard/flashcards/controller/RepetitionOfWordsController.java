@@ -2,13 +2,23 @@ package com.bakuard.flashcards.controller;
 
 import com.bakuard.flashcards.config.security.RequestContext;
 import com.bakuard.flashcards.dto.DtoMapper;
+import com.bakuard.flashcards.dto.common.RepetitionBatchFromEnglishRequest;
+import com.bakuard.flashcards.dto.common.RepetitionBatchFromNativeRequest;
+import com.bakuard.flashcards.dto.common.RepetitionOutcomeResponse;
 import com.bakuard.flashcards.dto.common.RepetitionResponse;
+import com.bakuard.flashcards.dto.common.RepetitionSessionResponse;
 import com.bakuard.flashcards.dto.exceptions.ExceptionResponse;
 import com.bakuard.flashcards.dto.word.*;
 import com.bakuard.flashcards.model.RepetitionResult;
 import com.bakuard.flashcards.model.auth.policy.Authorizer;
+import com.bakuard.flashcards.model.repetition.RepetitionAnswer;
+import com.bakuard.flashcards.model.repetition.RepetitionBatch;
+import com.bakuard.flashcards.model.repetition.RepetitionOutcome;
+import com.bakuard.flashcards.model.repetition.RepetitionSession;
+import com.bakuard.flashcards.model.repetition.RepetitionType;
 import com.bakuard.flashcards.model.word.Word;
-import com.bakuard.flashcards.service.StatisticService;
+import com.bakuard.flashcards.service.RepetitionLocks;
+import com.bakuard.flashcards.service.RepetitionService;
 import com.bakuard.flashcards.service.WordService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -26,6 +36,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
 @Tag(name = "Повторение слов пользователя")
@@ -38,19 +49,22 @@ public class RepetitionOfWordsController {
 
 
     private WordService wordService;
-    private StatisticService statisticService;
+    private RepetitionService repetitionService;
+    private RepetitionLocks repetitionLocks;
     private DtoMapper mapper;
     private RequestContext requestContext;
     private Authorizer authorizer;
 
     @Autowired
     public RepetitionOfWordsController(WordService wordService,
-                                       StatisticService statisticService,
+                                       RepetitionService repetitionService,
+                                       RepetitionLocks repetitionLocks,
                                        DtoMapper mapper,
                                        RequestContext requestContext,
                                        Authorizer authorizer) {
         this.wordService = wordService;
-        this.statisticService = statisticService;
+        this.repetitionService = repetitionService;
+        this.repetitionLocks = repetitionLocks;
         this.mapper = mapper;
         this.requestContext = requestContext;
         this.authorizer = authorizer;
@@ -146,10 +160,10 @@ public class RepetitionOfWordsController {
                 userId, dto.getWordId(), dto.getUserId(), dto.isRemember());
         authorizer.assertToHasAccess(userId, "repetition", dto.getUserId(), "repeatFromEnglish");
 
-        Word word = wordService.repeatFromEnglish(dto.getUserId(), dto.getWordId(), dto.isRemember());
-        statisticService.appendWordFromEnglish(dto.getUserId(), dto.getWordId(), dto.isRemember());
-
-        return ResponseEntity.ok(mapper.toWordResponse(word));
+        RepetitionResult<Word> result = repetitionLocks.execute(dto.getUserId(),
+                () -> repetitionService.repeatWord(dto.getUserId(), RepetitionType.WORDS_FROM_ENGLISH,
+                        RepetitionAnswer.fromEnglish(dto.getWordId(), dto.isRemember())));
+        return ResponseEntity.ok(mapper.toWordResponse(result.payload()));
     }
 
     @Operation(summary = """
@@ -242,15 +256,10 @@ public class RepetitionOfWordsController {
                 userId, dto.getWordId(), dto.getUserId(), dto.getInputValue());
         authorizer.assertToHasAccess(userId, "repetition", dto.getUserId(), "repeatFromNative");
 
-        RepetitionResult<Word> repetitionResult =
-                wordService.repeatFromNative(dto.getUserId(), dto.getWordId(), dto.getInputValue());
-        statisticService.appendWordFromNative(dto.getUserId(), dto.getWordId(), repetitionResult.isRemember());
-
-        RepetitionResponse<WordResponse> response = mapper.toRepetitionResponse(
-                repetitionResult.isRemember(),
-                mapper.toWordResponse(repetitionResult.payload())
-        );
-        return ResponseEntity.ok(response);
+        RepetitionResult<Word> result = repetitionLocks.execute(dto.getUserId(),
+                () -> repetitionService.repeatWord(dto.getUserId(), RepetitionType.WORDS_FROM_NATIVE,
+                        RepetitionAnswer.fromNative(dto.getWordId(), dto.getInputValue())));
+        return ResponseEntity.ok(mapper.toRepetitionResponse(result.isRemember(), mapper.toWordResponse(result.payload())));
     }
 
     @Operation(summary = """
@@ -292,9 +301,9 @@ public class RepetitionOfWordsController {
                 userId, dto.getWordId(), dto.getUserId());
         authorizer.assertToHasAccess(userId, "repetition", dto.getUserId(), "markForRepetitionFromEnglish");
 
-        Word word = wordService.markForRepetitionFromEnglish(dto.getUserId(), dto.getWordId());
-        statisticService.appendWordFromEnglish(dto.getUserId(), dto.getWordId(), false);
-
+        Word word = repetitionLocks.execute(dto.getUserId(),
+                () -> repetitionService.markWordForRepetition(
+                        dto.getUserId(), RepetitionType.WORDS_FROM_ENGLISH, dto.getWordId()));
         return ResponseEntity.ok(mapper.toWordResponse(word));
     }
 
@@ -337,10 +346,284 @@ public class RepetitionOfWordsController {
                 userId, dto.getWordId(), dto.getUserId());
         authorizer.assertToHasAccess(userId, "repetition", dto.getUserId(), "markForRepetitionFromNative");
 
-        Word word = wordService.markForRepetitionFromNative(dto.getUserId(), dto.getWordId());
-        statisticService.appendWordFromNative(dto.getUserId(), dto.getWordId(), false);
-
+        Word word = repetitionLocks.execute(dto.getUserId(),
+                () -> repetitionService.markWordForRepetition(
+                        dto.getUserId(), RepetitionType.WORDS_FROM_NATIVE, dto.getWordId()));
         return ResponseEntity.ok(mapper.toWordResponse(word));
     }
 
+    @Operation(summary = """
+            Открывает сессию повторения слов с английского на родной язык пользователя.
+             Идентификаторы всех слов, доступных для повторения в текущую дату, один раз
+             выбираются и сохраняются на сервере, после чего выдаются частями запросом
+             /english/sessions/{sessionId}/next. Ранее открытая сессия повторения
+             слов с английского языка этого пользователя открывается
+             заново с тем же идентификатором.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "404",
+                    description = "Если не удалось найти пользователя с указанным идентификатором.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @PostMapping("/english/sessions")
+    public ResponseEntity<RepetitionSessionResponse<WordForRepetitionFromEnglishResponse>> openSessionFromEnglish(
+            @RequestParam
+            @Parameter(description = "Идентификатор пользователя, из слов которого формируется очередь сессии.", required = true)
+            UUID userId) {
+        UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} open session of repetition words from english of user {}", jwsUserId, userId);
+        authorizer.assertToHasAccess(jwsUserId, "repetition", userId, "findAllFromEnglishBy");
+
+        RepetitionSession session = wordService.openRepetitionSessionFromEnglish(userId);
+        return ResponseEntity.ok(mapper.toRepetitionSessionResponse(session));
+    }
+
+    @Operation(summary = """
+            Возвращает следующую часть очереди сессии повторения слов с английского на родной язык пользователя и сдвигает
+             позицию выдачи сессии. Если очередь исчерпана - возвращает пустой список.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400",
+                    description = "Если нарушен хотя бы один из инвариантов связаный с параметрами запроса",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "404",
+                    description = "Если у пользователя нет сессии повторения слов с английского языка с указанным идентификатором.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @PostMapping("/english/sessions/{sessionId}/next")
+    public ResponseEntity<RepetitionSessionResponse<WordForRepetitionFromEnglishResponse>> nextFromEnglishSession(
+            @PathVariable
+            @Parameter(description = "Идентификатор сессии повторения.", required = true)
+            UUID sessionId,
+            @RequestParam
+            @Parameter(description = "Идентификатор пользователя, открывшего сессию повторения.", required = true)
+            UUID userId,
+            @RequestParam(value = "size", required = false)
+            @Parameter(description = "Размер части очереди. Диапозон значений - [1, 100].",
+                    schema = @Schema(defaultValue = "20"))
+            int size) {
+        UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} get next words from english of session {} of user {}, size={}",
+                jwsUserId, sessionId, userId, size);
+        authorizer.assertToHasAccess(jwsUserId, "repetition", userId, "findAllFromEnglishBy");
+
+        int limit = mapper.toPageable(0, size).getPageSize();
+        RepetitionBatch<Word> batch = wordService.nextForRepetitionFromEnglish(userId, sessionId, limit);
+        return ResponseEntity.ok(mapper.toWordsForRepetitionFromEnglishResponse(batch));
+    }
+
+    @Operation(summary = """
+            Открывает сессию повторения слов с родного языка пользователя на английский.
+             Идентификаторы всех слов, доступных для повторения в текущую дату, один раз
+             выбираются и сохраняются на сервере, после чего выдаются частями запросом
+             /native/sessions/{sessionId}/next. Ранее открытая сессия повторения
+             слов с родного языка этого пользователя открывается
+             заново с тем же идентификатором.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "404",
+                    description = "Если не удалось найти пользователя с указанным идентификатором.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @PostMapping("/native/sessions")
+    public ResponseEntity<RepetitionSessionResponse<WordForRepetitionFromNativeResponse>> openSessionFromNative(
+            @RequestParam
+            @Parameter(description = "Идентификатор пользователя, из слов которого формируется очередь сессии.", required = true)
+            UUID userId) {
+        UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} open session of repetition words from native of user {}", jwsUserId, userId);
+        authorizer.assertToHasAccess(jwsUserId, "repetition", userId, "findAllFromNativeBy");
+
+        RepetitionSession session = wordService.openRepetitionSessionFromNative(userId);
+        return ResponseEntity.ok(mapper.toRepetitionSessionResponse(session));
+    }
+
+    @Operation(summary = """
+            Возвращает следующую часть очереди сессии повторения слов с родного языка пользователя на английский и сдвигает
+             позицию выдачи сессии. Если очередь исчерпана - возвращает пустой список.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400",
+                    description = "Если нарушен хотя бы один из инвариантов связаный с параметрами запроса",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "404",
+                    description = "Если у пользователя нет сессии повторения слов с родного языка с указанным идентификатором.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @PostMapping("/native/sessions/{sessionId}/next")
+    public ResponseEntity<RepetitionSessionResponse<WordForRepetitionFromNativeResponse>> nextFromNativeSession(
+            @PathVariable
+            @Parameter(description = "Идентификатор сессии повторения.", required = true)
+            UUID sessionId,
+            @RequestParam
+            @Parameter(description = "Идентификатор пользователя, открывшего сессию повторения.", required = true)
+            UUID userId,
+            @RequestParam(value = "size", required = false)
+            @Parameter(description = "Размер части очереди. Диапозон значений - [1, 100].",
+                    schema = @Schema(defaultValue = "20"))
+            int size) {
+        UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} get next words from native of session {} of user {}, size={}",
+                jwsUserId, sessionId, userId, size);
+        authorizer.assertToHasAccess(jwsUserId, "repetition", userId, "findAllFromNativeBy");
+
+        int limit = mapper.toPageable(0, size).getPageSize();
+        RepetitionBatch<Word> batch = wordService.nextForRepetitionFromNative(userId, sessionId, limit);
+        return ResponseEntity.ok(mapper.toWordsForRepetitionFromNativeResponse(batch));
+    }
+
+    @Operation(summary = """
+            Применяет в одной транзакции сразу несколько ответов пользователя при повторении слов
+             с английского на родной язык пользователя и возвращает результат обработки каждого ответа в том же порядке.
+             Ответ игнорируется, если в словаре пользователя нет указанного элемента. Несколько ответов для одного
+             элемента применяются последовательно в порядке их следования.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400",
+                    description = "Если нарушен хотя бы один из инвариантов связаный с телом запроса",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @PutMapping("/english/batch")
+    public ResponseEntity<List<RepetitionOutcomeResponse>> repeatAllFromEnglish(@RequestBody RepetitionBatchFromEnglishRequest dto) {
+        UUID userId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} repeat batch of words from english as user {}. answers count is {}",
+                userId, dto.getUserId(), dto.getAnswers() == null ? 0 : dto.getAnswers().size());
+        authorizer.assertToHasAccess(userId, "repetition", dto.getUserId(), "repeatFromEnglish");
+
+        List<RepetitionOutcome> outcomes = repetitionLocks.execute(dto.getUserId(),
+                () -> repetitionService.repeatAll(
+                        dto.getUserId(), RepetitionType.WORDS_FROM_ENGLISH, mapper.toRepetitionAnswers(dto)));
+
+        return ResponseEntity.ok(mapper.toRepetitionOutcomesResponse(outcomes));
+    }
+
+    @Operation(summary = """
+            Применяет в одной транзакции сразу несколько ответов пользователя при повторении слов
+             с родного языка пользователя на английский и возвращает результат обработки каждого ответа в том же порядке.
+             Ответ игнорируется, если в словаре пользователя нет указанного элемента. Несколько ответов для одного
+             элемента применяются последовательно в порядке их следования.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400",
+                    description = "Если нарушен хотя бы один из инвариантов связаный с телом запроса",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @PutMapping("/native/batch")
+    public ResponseEntity<List<RepetitionOutcomeResponse>> repeatAllFromNative(@RequestBody RepetitionBatchFromNativeRequest dto) {
+        UUID userId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} repeat batch of words from native as user {}. answers count is {}",
+                userId, dto.getUserId(), dto.getAnswers() == null ? 0 : dto.getAnswers().size());
+        authorizer.assertToHasAccess(userId, "repetition", dto.getUserId(), "repeatFromNative");
+
+        List<RepetitionOutcome> outcomes = repetitionLocks.execute(dto.getUserId(),
+                () -> repetitionService.repeatAll(
+                        dto.getUserId(), RepetitionType.WORDS_FROM_NATIVE, mapper.toRepetitionAnswers(dto)));
+
+        return ResponseEntity.ok(mapper.toRepetitionOutcomesResponse(outcomes));
+    }
+
 }
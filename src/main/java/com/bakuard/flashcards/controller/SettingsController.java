@@ -6,8 +6,10 @@ import com.bakuard.flashcards.dto.DtoMapper;
 import com.bakuard.flashcards.dto.exceptions.ExceptionResponse;
 import com.bakuard.flashcards.dto.settings.IntervalAddRequest;
 import com.bakuard.flashcards.dto.settings.IntervalReplaceRequest;
+import com.bakuard.flashcards.dto.settings.IntervalReplacementResponse;
 import com.bakuard.flashcards.dto.settings.IntervalsResponse;
 import com.bakuard.flashcards.model.auth.policy.Authorizer;
+import com.bakuard.flashcards.model.interval.IntervalReplacement;
 import com.bakuard.flashcards.service.IntervalService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -140,7 +142,10 @@ public class SettingsController {
     @Operation(summary = """
             Заменяет один из указанных интервалов повтоерния указанного пользователя на указанное значение.
              В качестве нового интервала повторения может быть использован один из уже существующих интервалов
-             повторения пользователя.
+             повторения пользователя. Текущие интервалы повторения слов и устойчивых выражений пользователя
+             заменяются в фоне, а список интервалов повторения меняется только после того, как будут заменены
+             все текущие интервалы повторения. Возвращает состояние фоновой замены,
+             которое затем можно запрашивать по ее идентификатору.
             """)
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200"),
@@ -169,15 +174,63 @@ public class SettingsController {
                             schema = @Schema(implementation = ExceptionResponse.class)))
     })
     @PutMapping("/intervals")
-    public ResponseEntity<String> replaceInterval(IntervalReplaceRequest dto) {
+    public ResponseEntity<IntervalReplacementResponse> replaceInterval(IntervalReplaceRequest dto) {
         UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
         logger.info("user {} replace interval {} to {} for user {}",
                 jwsUserId, dto.getOldInterval(), dto.getNewInterval(), dto.getUserId());
         authorizer.assertToHasAccess(jwsUserId, "settings", dto.getUserId(), "replaceInterval");
 
-        intervalService.replace(dto.getUserId(), dto.getOldInterval(), dto.getNewInterval());
+        IntervalReplacement replacement =
+                intervalService.replace(dto.getUserId(), dto.getOldInterval(), dto.getNewInterval());
 
-        return ResponseEntity.ok(messages.getMessage("settings.replaceInterval"));
+        return ResponseEntity.ok(mapper.toIntervalReplacementResponse(replacement));
+    }
+
+    @Operation(summary = """
+            Возвращает состояние фоновой замены интервала повторения, запущенной запросом на замену интервала
+             повторения.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400",
+                    description = "Если нарушен хотя бы один из инвариантов связаный с параметрами запроса",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = """
+                            Если недостаточно прав для выполнения этой операции. Для выполнения этой
+                             операции необходимо одно из следующих прав и привелегий:<br/>
+                            <ol>
+                                <li>Иметь роль супер администратора.</li>
+                                <li>Вы должны быть пользователем, над данными которого выполняется эта операция.</li>
+                            </ol>
+                            """,
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "404",
+                    description = "Если не удалось найти указанного пользователя или замену с указанным идентификатором.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @GetMapping("/intervals/replacement")
+    public ResponseEntity<IntervalReplacementResponse> findIntervalReplacement(
+            @RequestParam
+            @Parameter(description = "Идентификатор пользователя, для которого была запущена замена.", required = true)
+            UUID userId,
+            @RequestParam
+            @Parameter(description = "Идентификатор замены.", required = true)
+            UUID replacementId) {
+        UUID jwsUserId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("user {} find interval replacement {} of user {}", jwsUserId, replacementId, userId);
+        authorizer.assertToHasAccess(jwsUserId, "settings", userId, "findIntervalReplacement");
+
+        IntervalReplacement replacement = intervalService.findReplacement(userId, replacementId);
+
+        return ResponseEntity.ok(mapper.toIntervalReplacementResponse(replacement));
     }
 
 }
@@ -1,5 +1,7 @@
 package com.bakuard.flashcards.dal;
 
+import com.bakuard.flashcards.dal.impl.PhoneticKeys;
+import com.bakuard.flashcards.dal.impl.QGrams;
 import com.bakuard.flashcards.model.expression.Expression;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -11,8 +13,10 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Отвечает за сохранение, извлечение и удаление устойчивых выражений из постоянного хранилища.
@@ -38,7 +42,9 @@ public interface ExpressionRepository extends PagingAndSortingRepository<Express
      * расстояние между значениями которых и значением value не превышает maxDistance. Все устойчивые выражения
      * в выборке упорядочены в порядке возрастания редакционного расстояния относительно заданного значения value,
      * а затем в лексикографическом порядке. Если нет ни одного устойчивого выражения удовлетворяющего описанному
-     * условию - возвращает пустой список.
+     * условию - возвращает пустой список. <br/>
+     * Если позволяет длина value, кандидаты предварительно отбираются по таблице q-грамм
+     * (см. {@link QGramIndex}), и редакционное расстояние вычисляется только для них.
      * @param userId идентификатор пользователя, из устойчивых выражений которого делается выборка
      * @param value искомое значение устойчивого выражения
      * @param maxDistance максимальное значение редакционного расстояния
@@ -47,16 +53,103 @@ public interface ExpressionRepository extends PagingAndSortingRepository<Express
      *               включены в список
      * @return список устойчивых выражений.
      */
+    public default List<Expression> findByValue(UUID userId, String value, int maxDistance, long limit, long offset) {
+        int minShared = QGrams.minShared(value, maxDistance);
+        return minShared > 0 ?
+                findByValueAmongCandidates(userId, value, maxDistance, QGrams.of(value), minShared, limit, offset) :
+                findByValueAmongAll(userId, value, maxDistance, limit, offset);
+    }
+
+    /**
+     * Реализация {@link #findByValue(UUID, String, int, long, long)}, вычисляющая редакционное расстояние
+     * только для устойчивых выражений, имеющих не менее minShared общих q-грамм из qgrams.
+     * @see QGrams
+     */
+    @Query("""
+            select * from expressions
+                where user_id = :userId
+                    and expression_id in (
+                    select expression_id from expressions_qgrams
+                        where user_id = :userId and qgram in (:qgrams)
+                        group by expression_id
+                        having count(*) >= :minShared
+                )
+                    and distance(:value, value, :maxDistance) != -1
+                order by value limit :limit offset :offset;
+            """)
+    public List<Expression> findByValueAmongCandidates(UUID userId, String value, int maxDistance,
+                                             List<String> qgrams, int minShared,
+                                             long limit, long offset);
+
+    /**
+     * Реализация {@link #findByValue(UUID, String, int, long, long)}, вычисляющая редакционное расстояние
+     * для всех устойчивых выражений пользователя. Используется, когда фильтрация по q-граммам невозможна.
+     */
     @Query("""
             select * from expressions
                 where user_id = :userId and distance(:value, value, :maxDistance) != -1
                 order by value limit :limit offset :offset;
             """)
-    public List<Expression> findByValue(UUID userId, String value, int maxDistance, long limit, long offset);
+    public List<Expression> findByValueAmongAll(UUID userId, String value, int maxDistance, long limit, long offset);
+
+    /**
+     * Возвращает идентификаторы всех устойчивых выражений из словаря пользователя с идентификатором userId,
+     * редакционное расстояние между значениями которых и значением value не превышает maxDistance. Порядок
+     * идентификаторов совпадает с порядком выражений в {@link #findByValue(UUID, String, int, long, long)}. <br/>
+     * В отличие от пары методов {@link #findByValue(UUID, String, int, long, long)} и
+     * {@link #countForValue(UUID, String, int)}, редакционное расстояние вычисляется для каждого выражения
+     * пользователя только один раз: размер возвращаемого списка является общим кол-вом найденных выражений,
+     * а любая страница выборки может быть получена по своей части идентификаторов. <br/>
+     * Если позволяет длина value, кандидаты предварительно отбираются по таблице q-грамм
+     * (см. {@link QGramIndex}), и редакционное расстояние вычисляется только для них.
+     * @param userId идентификатор пользователя, из устойчивых выражений которого делается выборка
+     * @param value искомое значение устойчивого выражения
+     * @param maxDistance максимальное значение редакционного расстояния
+     * @return упорядоченный список идентификаторов устойчивых выражений.
+     */
+    public default List<UUID> findIdsByValue(UUID userId, String value, int maxDistance) {
+        int minShared = QGrams.minShared(value, maxDistance);
+        return minShared > 0 ?
+                findIdsByValueAmongCandidates(userId, value, maxDistance, QGrams.of(value), minShared) :
+                findIdsByValueAmongAll(userId, value, maxDistance);
+    }
+
+    /**
+     * Реализация {@link #findIdsByValue(UUID, String, int)}, вычисляющая редакционное расстояние только для
+     * устойчивых выражений, имеющих не менее minShared общих q-грамм из qgrams.
+     * @see QGrams
+     */
+    @Query("""
+            select expression_id from expressions
+                where user_id = :userId
+                    and expression_id in (
+                    select expression_id from expressions_qgrams
+                        where user_id = :userId and qgram in (:qgrams)
+                        group by expression_id
+                        having count(*) >= :minShared
+                )
+                    and distance(:value, value, :maxDistance) != -1
+                order by value;
+            """)
+    public List<UUID> findIdsByValueAmongCandidates(UUID userId, String value, int maxDistance,
+                                                    List<String> qgrams, int minShared);
+
+    /**
+     * Реализация {@link #findIdsByValue(UUID, String, int)}, вычисляющая редакционное расстояние для всех
+     * устойчивых выражений пользователя. Используется, когда фильтрация по q-граммам невозможна.
+     */
+    @Query("""
+            select expression_id from expressions
+                where user_id = :userId and distance(:value, value, :maxDistance) != -1
+                order by value;
+            """)
+    public List<UUID> findIdsByValueAmongAll(UUID userId, String value, int maxDistance);
 
     /**
      * Возвращает выборку устойчивых выражений из словаря пользователя с идентификатором userId, где хотя бы
-     * один из переводов каждого выражения равен значению translate. Все возвращаемые устойчивые выражения
+     * один из переводов каждого выражения равен значению translate без учета регистра, пробельных символов по
+     * краям и различия между 'ё' и 'е' (сравнение выполняется по столбцу expressions_translations.normalized_value).
+     * Все возвращаемые устойчивые выражения
      * отсортированы в лексикографическом порядке. Если нет ни одного устойчивого выражения удовлетворяющего
      * описанному условию - возвращает пустой список.
      * @param userId идентификатор пользователя, из устойчивых выражений которого делается выборка
@@ -66,20 +159,83 @@ public interface ExpressionRepository extends PagingAndSortingRepository<Express
      *               включены в список
      * @return список устойчивых выражений.
      */
-    @Query("""    
-            select * from expressions
-                where expressions.expression_id in (
-                    select expressions.expression_id from expressions
-                        inner join expressions_translations
-                            on  expressions.expression_id = expressions_translations.expression_id
-                                and expressions.user_id = :userId
-                                and expressions_translations.value = :translate
-                )
+    @Query("""
+            select distinct expressions.*
+                from expressions_translations
+                inner join expressions
+                    on expressions.expression_id = expressions_translations.expression_id
+                where expressions_translations.normalized_value = REPLACE(LOWER(TRIM(:translate)), 'ё', 'е')
+                    and expressions.user_id = :userId
                 order by expressions.value
                 limit :limit offset :offset;
             """)
     public List<Expression> findByTranslate(UUID userId, String translate, long limit, long offset);
 
+    /**
+     * Возвращает выборку устойчивых выражений из словаря пользователя с идентификатором userId, которые звучат похоже на
+     * value: основной или альтернативный фонетический ключ Double Metaphone значения совпадает с одним из
+     * ключей value (см. {@link PhoneticKeys}). Ключи хранятся в индексируемых вычисляемых столбцах таблицы,
+     * поэтому выборка не требует сравнения value с каждой записью пользователя. Все возвращаемые устойчивые выражения
+     * отсортированы в лексикографическом порядке. Если value не содержит латинских букв - возвращает пустой
+     * список.
+     * @param userId идентификатор пользователя, из устойчивых выражений которого делается выборка
+     * @param value искомое значение
+     * @param limit максимальное кол-во записей в возвращаемом списке
+     * @param offset кол-во пропущенных записей от начала исходной выборки
+     * @return список устойчивых выражений.
+     */
+    public default List<Expression> findByPhonetic(UUID userId, String value, long limit, long offset) {
+        List<String> keys = phoneticKeys(value);
+        return keys.isEmpty() ? List.of() : findByPhoneticKeys(userId, keys, limit, offset);
+    }
+
+    /**
+     * Возвращает кол-во устойчивых выражений, возвращаемых {@link #findByPhonetic(UUID, String, long, long)} без учета
+     * limit и offset.
+     */
+    public default long countForPhonetic(UUID userId, String value) {
+        List<String> keys = phoneticKeys(value);
+        return keys.isEmpty() ? 0L : countForPhoneticKeys(userId, keys);
+    }
+
+    /**
+     * Реализация {@link #findByPhonetic(UUID, String, long, long)} для уже вычисленных ключей.
+     */
+    @Query("""
+            select * from expressions
+                where expression_id in (
+                    select expression_id from expressions
+                        where user_id = :userId and phonetic_primary_key in (:keys)
+                    union
+                    select expression_id from expressions
+                        where user_id = :userId and phonetic_alternate_key in (:keys)
+                )
+                order by value
+                limit :limit offset :offset;
+            """)
+    public List<Expression> findByPhoneticKeys(UUID userId, List<String> keys, long limit, long offset);
+
+    /**
+     * Реализация {@link #countForPhonetic(UUID, String)} для уже вычисленных ключей.
+     */
+    @Query("""
+            select count(*) from (
+                select expression_id from expressions
+                    where user_id = :userId and phonetic_primary_key in (:keys)
+                union
+                select expression_id from expressions
+                    where user_id = :userId and phonetic_alternate_key in (:keys)
+            );
+            """)
+    public long countForPhoneticKeys(UUID userId, List<String> keys);
+
+    private static List<String> phoneticKeys(String value) {
+        return Stream.of(PhoneticKeys.primary(value), PhoneticKeys.alternate(value)).
+                filter(Objects::nonNull).
+                distinct().
+                toList();
+    }
+
     /**
      * Удаляет устойчивое выражение с идентификатором expressionId из словаря пользователя с идентификатором
      * userId и возвращает true. Если не существует пользователя с таким userId или в словаре данного
@@ -121,7 +277,7 @@ public interface ExpressionRepository extends PagingAndSortingRepository<Express
      */
     @Query("""
             select count(*) from expressions
-             where user_id = :userId and (last_date_of_repeat_from_english + repeat_interval_from_english) <= :date;
+             where user_id = :userId and next_repeat_date_from_english <= :date;
             """)
     public long countForRepeatFromEnglish(UUID userId, LocalDate date);
 
@@ -134,19 +290,51 @@ public interface ExpressionRepository extends PagingAndSortingRepository<Express
      */
     @Query("""
             select count(*) from expressions
-             where user_id = :userId and (last_date_of_repeat_from_native + repeat_interval_from_native) <= :date;
+             where user_id = :userId and next_repeat_date_from_native <= :date;
             """)
     public long countForRepeatFromNative(UUID userId, LocalDate date);
 
     /**
      * Возвращает кол-во всех устойчивых выражений из словаря пользователя с идентификатором userId, редакционное
-     * расстояние между значениями которых и значением value не превышает maxDistance.
+     * расстояние между значениями которых и значением value не превышает maxDistance. <br/>
+     * Если позволяет длина value, кандидаты предварительно отбираются по таблице q-грамм
+     * (см. {@link QGramIndex}), и редакционное расстояние вычисляется только для них.
      * @param userId идентификатор пользователя, из устойчивых выражений которого делается выборка
      * @param value искомое значение устойчивого выражения
      * @param maxDistance максимальное значение редакционного расстояния
      * @return кол-во устойчивых выражений, редакционное расстояние между значениями которых и значением value
      *         не превышает maxDistance.
      */
+    public default long countForValue(UUID userId, String value, int maxDistance) {
+        int minShared = QGrams.minShared(value, maxDistance);
+        return minShared > 0 ?
+                countForValueAmongCandidates(userId, value, maxDistance, QGrams.of(value), minShared) :
+                countForValueAmongAll(userId, value, maxDistance);
+    }
+
+    /**
+     * Реализация {@link #countForValue(UUID, String, int)}, вычисляющая редакционное расстояние только для
+     * устойчивых выражений, имеющих не менее minShared общих q-грамм из qgrams.
+     * @see QGrams
+     */
+    @Query("""
+            select count(*) from expressions
+                where user_id = :userId
+                    and expression_id in (
+                    select expression_id from expressions_qgrams
+                        where user_id = :userId and qgram in (:qgrams)
+                        group by expression_id
+                        having count(*) >= :minShared
+                )
+                    and distance(:value, value, :maxDistance) != -1;
+            """)
+    public long countForValueAmongCandidates(UUID userId, String value, int maxDistance,
+                                             List<String> qgrams, int minShared);
+
+    /**
+     * Реализация {@link #countForValue(UUID, String, int)}, вычисляющая редакционное расстояние для всех
+     * устойчивых выражений пользователя. Используется, когда фильтрация по q-граммам невозможна.
+     */
     @Query("""
             select count(*) from (
                select value
@@ -154,21 +342,23 @@ public interface ExpressionRepository extends PagingAndSortingRepository<Express
                    where user_id = :userId and distance(:value, value, :maxDistance) != -1
             )
             """)
-    public long countForValue(UUID userId, String value, int maxDistance);
+    public long countForValueAmongAll(UUID userId, String value, int maxDistance);
 
     /**
      * Возвращает кол-во всех устойчивых выражений из словаря пользователя с идентификатором userId, где хотя
-     * бы один из переводов каждого устойчивого выражения равен значению translate.
+     * бы один из переводов каждого устойчивого выражения равен значению translate. Переводы сравниваются так же,
+     * как и в {@link #findByTranslate(UUID, String, long, long)}.
      * @param userId идентификатор пользователя, из устойчивых выражений которого делается выборка
      * @param translate один из возможных переводов искомых устойчивых выражений
      * @return кол-во устойчивых выражений, у которых хотя бы один из переводов равен translate
      */
     @Query("""
-            select count(*) from expressions
-                inner join expressions_translations
+            select count(distinct expressions_translations.expression_id)
+                from expressions_translations
+                inner join expressions
                     on expressions.expression_id = expressions_translations.expression_id
-                       and expressions.user_id = :userId
-                       and expressions_translations.value = :translate;
+                where expressions_translations.normalized_value = REPLACE(LOWER(TRIM(:translate)), 'ё', 'е')
+                    and expressions.user_id = :userId;
             """)
     public long countForTranslate(UUID userId, String translate);
 
@@ -186,6 +376,8 @@ public interface ExpressionRepository extends PagingAndSortingRepository<Express
      * язык пользователя. Все устойчивые выражения берутся из словаря пользователя с идентификатором userId.
      * Порядок сортировки выражений - лексикографический. Если нет выражений доступных для повторения в текущую
      * дату - возвращает пустой список.
+     * Отбор выполняется по индексу (user_id, next_repeat_date_from_english, value) - вычисляемый столбец
+     * next_repeat_date_from_english хранит дату следующего повторения.
      * @param userId идентификатор пользователя, из устойчивых выражений которого делается выборка
      * @param date дата для которой подбираются доступные для повторения выражения
      * @param limit максимальное кол-во выражений в возвращаемом списке
@@ -194,7 +386,7 @@ public interface ExpressionRepository extends PagingAndSortingRepository<Express
      */
     @Query("""
             select * from expressions
-             where user_id = :userId and (last_date_of_repeat_from_english + repeat_interval_from_english) <= :date
+             where user_id = :userId and next_repeat_date_from_english <= :date
              order by value limit :limit offset :offset;
             """)
     public List<Expression> findAllForRepeatFromEnglish(UUID userId, LocalDate date, long limit, long offset);
@@ -204,6 +396,8 @@ public interface ExpressionRepository extends PagingAndSortingRepository<Express
      * английский язык. Все устойчивые выражения берутся из словаря пользователя с идентификатором userId.
      * Порядок сортировки выборки выражений - лексикографический. Если нет устойчивых выражений доступных для
      * повторения в текущую дату - возвращает пустой список.
+     * Отбор выполняется по индексу (user_id, next_repeat_date_from_native, value) - вычисляемый столбец
+     * next_repeat_date_from_native хранит дату следующего повторения.
      * @param userId идентификатор пользователя, из устойчивых выражений которого делается выборка
      * @param date дата для которой подбираются доступные для повторения выражения
      * @param limit максимальное кол-во выражений в возвращаемом списке
@@ -212,7 +406,7 @@ public interface ExpressionRepository extends PagingAndSortingRepository<Express
      */
     @Query("""
             select * from expressions
-             where user_id = :userId and (last_date_of_repeat_from_native + repeat_interval_from_native) <= :date
+             where user_id = :userId and next_repeat_date_from_native <= :date
              order by value limit :limit offset :offset;
             """)
     public List<Expression> findAllForRepeatFromNative(UUID userId, LocalDate date, long limit, long offset);
@@ -0,0 +1,66 @@
+package com.bakuard.flashcards.dal;
+
+import com.bakuard.flashcards.model.expression.Expression;
+import com.bakuard.flashcards.model.word.Word;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Инвертированный индекс для полнотекстового поиска по словам и устойчивым выражениям пользователя. Для каждой
+ * записи словаря хранит токены её значения, примечания, толкований, переводов и примеров (таблицы words_tokens
+ * и expressions_tokens), что позволяет выполнять поиск без просмотра дочерних таблиц. <br/><br/>
+ * Найденные записи ранжируются: сначала по кол-ву различных токенов запроса, которые они содержат, затем по
+ * общему кол-ву вхождений этих токенов, затем по идентификатору.
+ * @see com.bakuard.flashcards.dal.impl.Tokens
+ */
+public interface FullTextIndex {
+
+    /**
+     * Заменяет все токены указанного слова токенами его текущего состояния.
+     * @param word сохраненное слово
+     */
+    public void update(Word word);
+
+    /**
+     * Заменяет все токены указанного устойчивого выражения токенами его текущего состояния.
+     * @param expression сохраненное устойчивое выражение
+     */
+    public void update(Expression expression);
+
+    /**
+     * Возвращает часть идентификаторов слов пользователя, содержащих хотя бы один токен запроса,
+     * в порядке убывания ранга. Если запрос не содержит ни одного токена - возвращает пустой список.
+     * @param userId идентификатор пользователя, среди слов которого осуществляется поиск
+     * @param query поисковый запрос
+     * @param limit максимальное кол-во возвращаемых идентификаторов
+     * @param offset кол-во пропускаемых идентификаторов
+     * @return упорядоченный список идентификаторов слов
+     */
+    public List<UUID> findWordIds(UUID userId, String query, long limit, long offset);
+
+    /**
+     * Возвращает кол-во слов пользователя, содержащих хотя бы один токен запроса.
+     * @param userId идентификатор пользователя, среди слов которого осуществляется поиск
+     * @param query поисковый запрос
+     */
+    public long countWords(UUID userId, String query);
+
+    /**
+     * Аналог {@link #findWordIds(UUID, String, long, long)} для устойчивых выражений.
+     */
+    public List<UUID> findExpressionIds(UUID userId, String query, long limit, long offset);
+
+    /**
+     * Аналог {@link #countWords(UUID, String)} для устойчивых выражений.
+     */
+    public long countExpressions(UUID userId, String query);
+
+    /**
+     * Добавляет токены для всех слов и устойчивых выражений, для которых они ещё не были добавлены (например,
+     * сохраненных до появления индекса). Записи обрабатываются порциями, каждая порция - в отдельной транзакции.
+     * @return общее кол-во обработанных слов и выражений.
+     */
+    public int backfill();
+
+}
@@ -0,0 +1,85 @@
+package com.bakuard.flashcards.dal;
+
+import com.bakuard.flashcards.model.interval.IntervalReplacement;
+import com.bakuard.flashcards.model.interval.IntervalReplacementStatus;
+import com.bakuard.flashcards.validation.exception.UnknownEntityException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Отвечает за хранение фоновых замен интервалов повторения (см. {@link IntervalReplacement}). Замены
+ * выполняются строго в порядке их создания, а замена пользователя не начинается, пока не завершатся все
+ * более ранние замены этого пользователя. Благодаря этому несколько последовательных замен одного и того же
+ * пользователя (например, 1 -> 2, а затем 2 -> 3) дают тот же результат, что и их синхронное выполнение.
+ */
+public interface IntervalReplacementRepository {
+
+    /**
+     * Создает новую замену интервала повторения oldInterval на newInterval для пользователя userId.
+     * @param userId идентификатор пользователя
+     * @param oldInterval заменяемый интервал повторения
+     * @param newInterval новый интервал повторения
+     * @param status начальное состояние замены
+     * @return созданная замена
+     * @throws NullPointerException если userId или status равны null
+     * @throws UnknownEntityException если пользователя с таким userId не существует.
+     *                                {@link UnknownEntityException#getMessageKey()} вернет User.unknownId
+     */
+    public IntervalReplacement create(UUID userId, int oldInterval, int newInterval, IntervalReplacementStatus status);
+
+    /**
+     * Возвращает замену с идентификатором replacementId созданную для пользователя userId.
+     * @param userId идентификатор пользователя
+     * @param replacementId идентификатор замены
+     * @return замену или пустой Optional, если такой замены нет
+     * @throws NullPointerException если хотя бы один из параметров равен null
+     */
+    public Optional<IntervalReplacement> findById(UUID userId, UUID replacementId);
+
+    /**
+     * Возвращает все незавершенные замены (в состоянии {@link IntervalReplacementStatus#PENDING},
+     * {@link IntervalReplacementStatus#RUNNING} или {@link IntervalReplacementStatus#FAILED}) в порядке их
+     * создания. Замены в состоянии RUNNING могут остаться после перезапуска приложения и продолжаются с того
+     * места, где были прерваны. Замены в состоянии FAILED выполняются повторно.
+     * @return незавершенные замены или пустой список, если таких замен нет
+     */
+    public List<IntervalReplacement> findAllUnfinished();
+
+    /**
+     * Возвращает все незавершенные замены пользователя userId в порядке их создания
+     * (см. {@link #findAllUnfinished()}).
+     * @param userId идентификатор пользователя
+     * @return незавершенные замены пользователя или пустой список, если таких замен нет
+     * @throws NullPointerException если userId равен null
+     */
+    public List<IntervalReplacement> findAllUnfinished(UUID userId);
+
+    /**
+     * Переводит замену replacementId в состояние {@link IntervalReplacementStatus#RUNNING} и сохраняет общее
+     * кол-во заменяемых текущих интервалов повторения.
+     * @param replacementId идентификатор замены
+     * @param total общее кол-во заменяемых текущих интервалов повторения
+     * @throws NullPointerException если replacementId равен null
+     */
+    public void start(UUID replacementId, int total);
+
+    /**
+     * Увеличивает кол-во уже замененных текущих интервалов повторения замены replacementId на processed.
+     * @param replacementId идентификатор замены
+     * @param processed кол-во замененных интервалов повторения
+     * @throws NullPointerException если replacementId равен null
+     */
+    public void addProcessed(UUID replacementId, int processed);
+
+    /**
+     * Переводит замену replacementId в одно из состояний, которыми завершается очередная попытка ее выполнения.
+     * @param replacementId идентификатор замены
+     * @param status {@link IntervalReplacementStatus#DONE} или {@link IntervalReplacementStatus#FAILED}
+     * @throws NullPointerException если хотя бы один из параметров равен null
+     * @throws IllegalArgumentException если status не является завершающим состоянием
+     */
+    public void finish(UUID replacementId, IntervalReplacementStatus status);
+
+}
@@ -60,7 +60,9 @@ public interface IntervalRepository {
      * слов и устойчивых выражений, текущий интервал повторения которых равен oldInterval, значение интервала
      * будет заменено на newInterval. Метод выполняется над интервалами повторения пользователя userId.
      * <br/><br/>
-     * Особый случай: если oldInterval равен newInterval - метод ничего не делает.
+     * Особый случай: если oldInterval равен newInterval - метод ничего не делает. <br/><br/>
+     * Метод эквивалентен вызову {@link #replaceInterval(UUID, int, int)} и последующему вызову
+     * {@link #replaceInCards(UUID, int, int, int)} без ограничения кол-ва заменяемых интервалов.
      * @param userId идентификатор пользователя
      * @param oldInterval заменяемый интервал повторения
      * @param newInterval новый интервал повторения
@@ -70,6 +72,45 @@ public interface IntervalRepository {
      */
     public void replace(UUID userId, int oldInterval, int newInterval);
 
+    /**
+     * Заменяет интервал повторения равный oldInterval на интервал повторения равный newInterval только в списке
+     * интервалов повторения пользователя userId. Текущие интервалы повторения слов и устойчивых выражений не
+     * меняются - для этого используется метод {@link #replaceInCards(UUID, int, int, int)}. Если у пользователя
+     * уже есть интервал newInterval, то интервал oldInterval просто удаляется из списка.
+     * @param userId идентификатор пользователя
+     * @param oldInterval заменяемый интервал повторения
+     * @param newInterval новый интервал повторения
+     * @return true - если oldInterval не равен newInterval и текущие интервалы повторения слов и устойчивых
+     *         выражений нужно заменить, иначе - false.
+     * @throws InvalidParameter если среди интервалов повторения пользователя userId нет интервала со значением
+     *                          oldInterval. {@link InvalidParameter#getMessageKey()} вернет RepeatInterval.notNegative
+     *                          или RepeatInterval.intervalNotExists
+     */
+    public boolean replaceInterval(UUID userId, int oldInterval, int newInterval);
+
+    /**
+     * Возвращает суммарное кол-во текущих интервалов повторения (с английского и с родного языка) слов и
+     * устойчивых выражений пользователя userId, равных interval.
+     * @param userId идентификатор пользователя
+     * @param interval искомый интервал повторения
+     * @return кол-во текущих интервалов повторения равных interval
+     * @throws NullPointerException если userId равен null
+     */
+    public int countInCards(UUID userId, int interval);
+
+    /**
+     * Заменяет не более limit текущих интервалов повторения (с английского и с родного языка) слов и
+     * устойчивых выражений пользователя userId, равных oldInterval, на newInterval. Вызывая метод повторно
+     * до тех пор, пока он не вернет 0, можно выполнить замену порциями в отдельных транзакциях.
+     * @param userId идентификатор пользователя
+     * @param oldInterval заменяемый интервал повторения
+     * @param newInterval новый интервал повторения
+     * @param limit максимальное кол-во заменяемых интервалов
+     * @return кол-во замененных интервалов. Если oldInterval равен newInterval - возвращает 0.
+     * @throws NullPointerException если userId равен null
+     */
+    public int replaceInCards(UUID userId, int oldInterval, int newInterval, int limit);
+
     /**
      * Находит и возвращает все интервалы повторения пользователя
      * @param userId идентификатор пользователя
@@ -0,0 +1,48 @@
+package com.bakuard.flashcards.dal;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Индекс в оперативной памяти для автодополнения - поиска записей словаря пользователя (слов или выражений)
+ * по началу их значения. <br/><br/>
+ * Индекс строится лениво для каждого пользователя при первом обращении к нему, хранится ограниченное время
+ * и вытесняется первым из давно не используемых индексов, если кол-во пользователей превышает допустимое.
+ * Вызовы {@link #update(UUID, UUID, String)} и {@link #invalidate(UUID)} в рамках транзакции применяется к индексу только после её успешной фиксации.
+ */
+public interface PrefixIndex {
+
+    /**
+     * Запись словаря, найденная по началу её значения.
+     * @param id идентификатор слова или выражения
+     * @param value значение слова или выражения
+     */
+    public record Entry(UUID id, String value) {}
+
+    /**
+     * Возвращает не более limit записей словаря пользователя, значение которых начинается с prefix (без учета
+     * регистра). Записи упорядочены по значению без учета регистра. Если prefix пустой - возвращает пустой список.
+     * @param userId идентификатор пользователя, среди записей которого осуществляется поиск
+     * @param prefix начало значения искомых записей
+     * @param limit максимальное кол-во возвращаемых записей
+     * @return упорядоченный список найденных записей
+     */
+    public List<Entry> findByPrefix(UUID userId, String prefix, int limit);
+
+    /**
+     * Сообщает индексу, что запись пользователя с идентификатором id сохранена со значением value. Если индекс
+     * пользователя загружен и уже содержит эту запись с тем же значением - индекс не изменяется, иначе
+     * индекс пользователя удаляется (см. {@link #invalidate(UUID)}).
+     * @param userId идентификатор пользователя
+     * @param id идентификатор сохраненного слова или выражения
+     * @param value значение сохраненного слова или выражения
+     */
+    public void update(UUID userId, UUID id, String value);
+
+    /**
+     * Удаляет индекс указанного пользователя. При следующем обращении индекс будет построен заново.
+     * @param userId идентификатор пользователя
+     */
+    public void invalidate(UUID userId);
+
+}
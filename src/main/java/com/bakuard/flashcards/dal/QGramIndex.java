@@ -0,0 +1,24 @@
+package com.bakuard.flashcards.dal;
+
+import com.bakuard.flashcards.model.expression.Expression;
+
+/**
+ * Отвечает за актуальность таблицы q-грамм значений устойчивых выражений (expressions_qgrams). По этой
+ * таблице методы findByValue, findIdsByValue и countForValue репозитория {@link ExpressionRepository}
+ * отбирают кандидатов, для которых затем вычисляется точное редакционное расстояние. Нечеткий поиск слов
+ * выполняется по {@link WordValueIndex} и q-граммы не использует. <br/><br/>
+ * Q-граммы выражений, сохраненных до появления этой таблицы, добавляются миграцией
+ * {@link com.bakuard.flashcards.dal.migration.QGramsMigration}, поэтому таблица q-грамм всегда содержит
+ * все устойчивые выражения.
+ * @see com.bakuard.flashcards.dal.impl.QGrams
+ */
+public interface QGramIndex {
+
+    /**
+     * Заменяет все q-граммы указанного устойчивого выражения q-граммами его текущего значения. Если значение
+     * выражения не изменилось, то его q-граммы не перезаписываются.
+     * @param expression сохраненное устойчивое выражение
+     */
+    public void update(Expression expression);
+
+}
@@ -0,0 +1,126 @@
+package com.bakuard.flashcards.dal;
+
+import com.bakuard.flashcards.model.repetition.RepetitionCard;
+import com.bakuard.flashcards.model.repetition.RepetitionFeedKey;
+import com.bakuard.flashcards.model.repetition.RepetitionForecastDay;
+import com.bakuard.flashcards.model.repetition.RepetitionSummary;
+import com.bakuard.flashcards.model.repetition.RepetitionType;
+import com.bakuard.flashcards.validation.exception.InvalidParameter;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Отвечает за чтение и изменение только тех данных слов и устойчивых выражений, которые нужны для их
+ * повторения (см. {@link RepetitionCard}). В отличие от {@link WordRepository#save(Object)} и
+ * {@link ExpressionRepository#save(Object)} не загружает и не перезаписывает переводы, толкования,
+ * транскрипции и примеры.
+ */
+public interface RepetitionCardRepository {
+
+    /**
+     * Возвращает данные для повторения вида type слова или устойчивого выражения id пользователя userId.
+     * @param userId идентификатор пользователя
+     * @param type вид повторения
+     * @param id идентификатор слова или устойчивого выражения
+     * @return данные для повторения или пустой Optional, если у пользователя нет такого слова
+     *         или устойчивого выражения
+     * @throws NullPointerException если хотя бы один из параметров равен null
+     */
+    public Optional<RepetitionCard> findById(UUID userId, RepetitionType type, UUID id);
+
+    /**
+     * Возвращает данные для повторения вида type всех слов или устойчивых выражений пользователя userId,
+     * идентификаторы которых входят в ids. Идентификаторы, которым не соответствует ни одно слово или
+     * устойчивое выражение пользователя, пропускаются.
+     * @param userId идентификатор пользователя
+     * @param type вид повторения
+     * @param ids идентификаторы слов или устойчивых выражений
+     * @return данные для повторения в произвольном порядке
+     * @throws NullPointerException если хотя бы один из параметров равен null
+     */
+    public List<RepetitionCard> findAllById(UUID userId, RepetitionType type, Collection<UUID> ids);
+
+    /**
+     * Сохраняет интервал и дату последнего повторения вида type для каждого из cards одним пакетом
+     * запросов UPDATE. Каждое слово или устойчивое выражение изменяется, только если его версия совпадает
+     * с {@link RepetitionCard#version()}.
+     * @param userId идентификатор пользователя, к словарю которого относятся cards
+     * @param type вид повторения
+     * @param cards измененные данные для повторения
+     * @throws NullPointerException если хотя бы один из параметров равен null
+     * @throws OptimisticLockingFailureException если хотя бы одно слово или устойчивое выражение из cards
+     *                                           было удалено или изменено после чтения его данных
+     */
+    public void updateAll(UUID userId, RepetitionType type, List<RepetitionCard> cards);
+
+    /**
+     * Сохраняет интервал и дату последнего повторения вида type слова или устойчивого выражения
+     * {@link RepetitionCard#id()} одним запросом UPDATE. Значения {@link RepetitionCard#value()} и
+     * {@link RepetitionCard#version()} не используются.
+     * @param userId идентификатор пользователя, к словарю которого относится card
+     * @param type вид повторения
+     * @param card измененные данные для повторения
+     * @return true - если у пользователя есть такое слово или устойчивое выражение и оно было изменено,
+     *         иначе - false.
+     * @throws NullPointerException если хотя бы один из параметров равен null
+     */
+    public boolean update(UUID userId, RepetitionType type, RepetitionCard card);
+
+    /**
+     * Подсчитывает кол-во слов и устойчивых выражений пользователя userId, доступных для повторения на
+     * дату date в каждом из направлений, а также кол-во тех, что станут доступны на следующий день.
+     * Все значения вычисляются одним запросом из подзапросов, каждый из которых подсчитывает строки по
+     * диапазону значений одного столбца с датой следующего повторения и использует его индекс.
+     * @param userId идентификатор пользователя
+     * @param date дата, на которую выполняется подсчет
+     * @return сводку по повторению. Если пользователя не существует - все значения будут равны нулю.
+     * @throws NullPointerException если хотя бы один из параметров равен null
+     */
+    public RepetitionSummary countDue(UUID userId, LocalDate date);
+
+    /**
+     * Возвращает прогноз нагрузки пользователя userId на days дней, начиная с даты from: для каждого дня -
+     * кол-во слов и устойчивых выражений, повторение которых приходится на этот день, в каждом из направлений.
+     * Слова и устойчивые выражения, дата повторения которых наступила раньше from, учитываются в дне from.
+     * Прогноз вычисляется одним запросом с группировкой по столбцам с датой следующего повторения.
+     * @param userId идентификатор пользователя
+     * @param from первый день прогноза
+     * @param days кол-во дней прогноза
+     * @return прогноз из days элементов, упорядоченный по дате. Дни, на которые не приходится ни одного
+     *         повторения, также входят в результат.
+     * @throws NullPointerException если userId или from равны null
+     */
+    public List<RepetitionForecastDay> forecast(UUID userId, LocalDate from, int days);
+
+    /**
+     * Возвращает окно общей ленты повторения пользователя userId в одном направлении: все слова и
+     * устойчивые выражения, доступные для повторения на дату date, объединяются одним запросом (UNION по
+     * столбцам с датой следующего повторения) и упорядочиваются по значению, затем по виду повторения
+     * (слова раньше устойчивых выражений) и по идентификатору. Окно начинается строго после позиции position
+     * (keyset pagination, см. {@link ScrollRepository}). Позиция элемента окна содержит ключи "value", "type"
+     * и "id".
+     * @param userId идентификатор пользователя
+     * @param fromEnglish true - лента повторения с английского на родной язык, false - с родного на английский
+     * @param date дата, на которую подбираются доступные для повторения элементы
+     * @param position позиция, после которой начинается окно
+     * @param limit максимальное кол-во элементов окна
+     * @return окно элементов ленты
+     * @throws NullPointerException если userId, date или position равны null
+     * @throws InvalidParameter если position содержит некорректные значения или относится к другому
+     *                          направлению повторения. {@link InvalidParameter#getMessageKey()} вернет
+     *                          Cursor.invalid
+     */
+    public Window<RepetitionFeedKey> scrollDue(UUID userId,
+                                               boolean fromEnglish,
+                                               LocalDate date,
+                                               KeysetScrollPosition position,
+                                               int limit);
+
+}
@@ -0,0 +1,63 @@
+package com.bakuard.flashcards.dal;
+
+import com.bakuard.flashcards.model.repetition.RepetitionBatch;
+import com.bakuard.flashcards.model.repetition.RepetitionSession;
+import com.bakuard.flashcards.model.repetition.RepetitionType;
+import com.bakuard.flashcards.validation.exception.UnknownEntityException;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Отвечает за хранение сессий повторения. При открытии сессии идентификаторы всех слов или устойчивых
+ * выражений, доступных для повторения, один раз выбираются из хранилища и сохраняются в порядке их значений.
+ * Затем клиент получает их частями, а позиция выдачи хранится вместе с сессией. Благодаря этому выборка
+ * доступных для повторения элементов выполняется один раз на сессию, а не при запросе каждой части, и
+ * не смещается по мере того, как повторенные элементы перестают быть доступными для повторения.
+ */
+public interface RepetitionSessionRepository {
+
+    /**
+     * Открывает новую сессию повторения вида type для пользователя userId. В очередь сессии попадают все
+     * слова или устойчивые выражения пользователя, доступные для повторения в дату date. Если у пользователя
+     * уже есть сессия этого же вида, она открывается заново с тем же идентификатором: ее очередь и позиция
+     * выдачи заменяются. Все изменения выполняются в транзакции вызывающего кода. Если у пользователя есть
+     * актуальный на дату date снимок (см. {@link RepetitionSnapshotRepository}), очередь копируется из него
+     * без обращения к словарю.
+     * @param userId идентификатор пользователя
+     * @param type вид повторения
+     * @param date дата, для которой подбираются доступные для повторения элементы
+     * @return открытая сессия
+     * @throws NullPointerException если хотя бы один из параметров равен null
+     * @throws UnknownEntityException если пользователя с таким userId не существует.
+     *                                {@link UnknownEntityException#getMessageKey()} вернет User.unknownId
+     */
+    public RepetitionSession open(UUID userId, RepetitionType type, LocalDate date);
+
+    /**
+     * Возвращает сессию повторения с идентификатором sessionId открытую пользователем userId.
+     * @param userId идентификатор пользователя
+     * @param sessionId идентификатор сессии
+     * @return сессию повторения или пустой Optional, если такой сессии нет
+     * @throws NullPointerException если хотя бы один из параметров равен null
+     */
+    public Optional<RepetitionSession> findById(UUID userId, UUID sessionId);
+
+    /**
+     * Возвращает не более limit следующих еще не выданных элементов очереди сессии sessionId и сдвигает
+     * позицию выдачи сессии на кол-во возвращенных элементов. Если очередь исчерпана - возвращает пустой
+     * список элементов.
+     * @param userId идентификатор пользователя, открывшего сессию
+     * @param sessionId идентификатор сессии
+     * @param type вид повторения, к которому должна относиться сессия
+     * @param limit максимальное кол-во возвращаемых элементов
+     * @return идентификаторы слов или устойчивых выражений вместе с состоянием сессии после их выдачи
+     * @throws NullPointerException если хотя бы один из параметров равен null
+     * @throws UnknownEntityException если у пользователя userId нет сессии с идентификатором sessionId
+     *                                вида type. {@link UnknownEntityException#getMessageKey()} вернет
+     *                                RepetitionSession.unknownIdOrUserId
+     */
+    public RepetitionBatch<UUID> next(UUID userId, UUID sessionId, RepetitionType type, int limit);
+
+}
@@ -0,0 +1,50 @@
+package com.bakuard.flashcards.dal;
+
+import com.bakuard.flashcards.model.repetition.RepetitionSummary;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Отвечает за хранение заранее вычисленных на определенную дату данных о повторении пользователя: кол-ва
+ * слов и устойчивых выражений, доступных для повторения в каждом из направлений (см. {@link RepetitionSummary}),
+ * и упорядоченных по значению списков их идентификаторов. Эти данные (далее - снимок) используются вместо
+ * запросов к словарю пользователя до тех пор, пока они актуальны: снимок считается актуальным только для
+ * той даты, на которую он вычислен, и только до первого изменения слов, устойчивых выражений или
+ * интервалов повторения пользователя (см. {@link #invalidate(UUID)}).
+ */
+public interface RepetitionSnapshotRepository {
+
+    /**
+     * Вычисляет и сохраняет снимок пользователя userId на дату date, заменяя прежний снимок. Перед чтением
+     * словаря блокирует пользователя, поэтому снимки одного пользователя не вычисляются параллельно.
+     * Изменения, которые параллельная транзакция еще не зафиксировала, в снимок не попадают - такой снимок
+     * будет удален при следующем изменении словаря пользователя или заменен снимком на следующую дату.
+     * @param userId идентификатор пользователя
+     * @param date дата, на которую вычисляется снимок
+     * @return данные о повторении из сохраненного снимка или пустой Optional, если пользователя не существует.
+     * @throws NullPointerException если хотя бы один из параметров равен null
+     */
+    public Optional<RepetitionSummary> save(UUID userId, LocalDate date);
+
+    /**
+     * Возвращает данные о повторении пользователя userId на дату date из снимка.
+     * @param userId идентификатор пользователя
+     * @param date текущая дата
+     * @return данные о повторении или пустой Optional, если у пользователя нет актуального снимка на дату date.
+     * @throws NullPointerException если хотя бы один из параметров равен null
+     */
+    public Optional<RepetitionSummary> findSummary(UUID userId, LocalDate date);
+
+    /**
+     * Удаляет снимок пользователя userId одним запросом DELETE. Должен вызываться в той же транзакции, что и
+     * любое изменение слов, устойчивых выражений или интервалов повторения пользователя. В отличие от
+     * {@link #save(UUID, LocalDate)} не блокирует пользователя, поэтому не выстраивает в очередь параллельные
+     * изменения словаря одного пользователя.
+     * @param userId идентификатор пользователя
+     * @throws NullPointerException если userId равен null
+     */
+    public void invalidate(UUID userId);
+
+}
@@ -0,0 +1,59 @@
+package com.bakuard.flashcards.dal;
+
+import com.bakuard.flashcards.validation.exception.InvalidParameter;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.util.UUID;
+
+/**
+ * Постраничное чтение словаря пользователя по ключу (keyset pagination). В отличие от выборок с limit/offset,
+ * каждая следующая страница отбирается условием "строго после последней записи предыдущей страницы" по
+ * ключу сортировки и идентификатору, поэтому стоимость чтения любой страницы одинакова и не требует подсчета
+ * общего кол-ва записей. <br/><br/>
+ * Все методы возвращают окно идентификаторов. Позиция каждого элемента окна
+ * ({@link Window#positionAt(int)}) содержит значения всех полей сортировки этого элемента и его
+ * идентификатор (ключ "id") и может быть передана в тот же метод для получения следующего окна.
+ * Начальная позиция задается {@link org.springframework.data.domain.ScrollPosition#keyset()}.
+ */
+public interface ScrollRepository {
+
+    /**
+     * Возвращает окно идентификаторов слов пользователя userId, упорядоченных согласно sort и следующих
+     * после позиции position.
+     * @param userId идентификатор пользователя, из слов которого делается выборка
+     * @param sort порядок сортировки. Допустимы те же поля, что и для
+     *             {@link com.bakuard.flashcards.model.filter.SortedEntity#WORD}.
+     * @param position позиция, после которой начинается окно
+     * @param limit максимальное кол-во элементов окна
+     * @return окно идентификаторов слов.
+     * @throws InvalidParameter если position не соответствует sort или содержит некорректные значения.
+     *                          {@link InvalidParameter#getMessageKey()} вернет Cursor.invalid
+     */
+    public Window<UUID> scrollWords(UUID userId, Sort sort, KeysetScrollPosition position, int limit);
+
+    /**
+     * Возвращает окно идентификаторов слов пользователя userId, хотя бы один из переводов которых равен
+     * translate. Слова упорядочены по значению.
+     * @param userId идентификатор пользователя, из слов которого делается выборка
+     * @param translate один из возможных переводов искомых слов
+     * @param position позиция, после которой начинается окно
+     * @param limit максимальное кол-во элементов окна
+     * @return окно идентификаторов слов.
+     * @throws InvalidParameter если position содержит некорректные значения.
+     *                          {@link InvalidParameter#getMessageKey()} вернет Cursor.invalid
+     */
+    public Window<UUID> scrollWordsByTranslate(UUID userId, String translate, KeysetScrollPosition position, int limit);
+
+    /**
+     * Аналог {@link #scrollWords(UUID, Sort, KeysetScrollPosition, int)} для устойчивых выражений.
+     */
+    public Window<UUID> scrollExpressions(UUID userId, Sort sort, KeysetScrollPosition position, int limit);
+
+    /**
+     * Аналог {@link #scrollWordsByTranslate(UUID, String, KeysetScrollPosition, int)} для устойчивых выражений.
+     */
+    public Window<UUID> scrollExpressionsByTranslate(UUID userId, String translate, KeysetScrollPosition position, int limit);
+
+}
@@ -1,19 +1,21 @@
 package com.bakuard.flashcards.dal;
 
+import com.bakuard.flashcards.model.repetition.RepetitionOutcome;
+import com.bakuard.flashcards.model.repetition.RepetitionType;
 import com.bakuard.flashcards.model.statistic.*;
 import com.bakuard.flashcards.validation.exception.InvalidParameter;
 import com.bakuard.flashcards.validation.exception.UnknownEntityException;
-import com.bakuard.flashcards.validation.exception.NotUniqueEntityException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
 
 /**
  * Отвечает за сохранение данных о каждом повторении каждого слова или устойчивого выражения, а также
- * за агрегирование этих данных.
+ * за агрегирование этих данных. Для каждого слова или устойчивого выражения, направления повторения и дня
+ * хранятся счетчики успешных и неуспешных повторений, поэтому повторное добавление результата повторения
+ * в тот же день не приводит к ошибке, а увеличивает соответствующий счетчик.
  */
 public interface StatisticRepository {
 
@@ -25,8 +27,6 @@ public interface StatisticRepository {
      * @throws UnknownEntityException если не существует пользователя с идентификатором {@link RepeatWordFromEnglishStatistic#userId()},
      *                                или слова с идентификатором {@link RepeatWordFromEnglishStatistic#wordId()}.
      *                                {@link UnknownEntityException#getMessageKey()} вернет Statistic.unknownUserIdAndWordId
-     * @throws NotUniqueEntityException если результат повторения указанного слова указанным пользователем в указанную
-     *                                  дату уже сохранен. {@link NotUniqueEntityException#getMessageKey()} вернет Statistic.unique
      * @see RepeatWordFromEnglishStatistic
      */
     public void append(RepeatWordFromEnglishStatistic statistic);
@@ -39,8 +39,6 @@ public interface StatisticRepository {
      * @throws UnknownEntityException если не существует пользователя с идентификатором {@link RepeatWordFromEnglishStatistic#userId()},
      *                                или слова с идентификатором {@link RepeatWordFromEnglishStatistic#wordId()}.
      *                                {@link UnknownEntityException#getMessageKey()} вернет Statistic.unknownUserIdAndWordId
-     * @throws NotUniqueEntityException если результат повторения указанного слова указанным пользователем в указанную
-     *                                  дату уже сохранен. {@link NotUniqueEntityException#getMessageKey()} вернет Statistic.unique
      * @see RepeatWordFromNativeStatistic
      */
     public void append(RepeatWordFromNativeStatistic statistic);
@@ -54,8 +52,6 @@ public interface StatisticRepository {
      * @throws UnknownEntityException если не существует пользователя с идентификатором {@link RepeatExpressionFromEnglishStatistic#userId()},
      *                                или выражения с идентификатором {@link RepeatExpressionFromEnglishStatistic#expressionId()}.
      *                                {@link UnknownEntityException#getMessageKey()} вернет Statistic.unknownUserIdOrExpressionId
-     * @throws NotUniqueEntityException если результат повторения указанного выражения указанным пользователем в указанную
-     *                                  дату уже сохранен. {@link NotUniqueEntityException#getMessageKey()} вернет Statistic.unique
      * @see RepeatExpressionFromEnglishStatistic
      */
     public void append(RepeatExpressionFromEnglishStatistic statistic);
@@ -69,12 +65,35 @@ public interface StatisticRepository {
      * @throws UnknownEntityException если не существует пользователя с идентификатором {@link RepeatExpressionFromEnglishStatistic#userId()},
      *                                или выражения с идентификатором {@link RepeatExpressionFromEnglishStatistic#expressionId()}.
      *                                {@link UnknownEntityException#getMessageKey()} вернет Statistic.unknownUserIdOrExpressionId
-     * @throws NotUniqueEntityException если результат повторения указанного выражения указанным пользователем в указанную
-     *                                  дату уже сохранен. {@link NotUniqueEntityException#getMessageKey()} вернет Statistic.unique
      * @see RepeatExpressionFromNativeStatistic
      */
     public void append(RepeatExpressionFromNativeStatistic statistic);
 
+    /**
+     * Добавляет к общей статистике результаты повторения вида type сразу нескольких слов или устойчивых
+     * выражений пользователя userId в дату date одним пакетом запросов. Каждый результат увеличивает счетчик
+     * успешных или неуспешных повторений за день. Результаты со статусом {@link RepetitionOutcome.Status#UNKNOWN}
+     * не учитываются.
+     * @param userId идентификатор пользователя
+     * @param type вид повторения
+     * @param date дата повторения
+     * @param outcomes результаты повторения
+     * @throws NullPointerException если хотя бы один из параметров равен null
+     */
+    public void appendAll(UUID userId, RepetitionType type, LocalDate date, List<RepetitionOutcome> outcomes);
+
+    /**
+     * Возвращает идентификаторы пользователей, повторявших хотя бы одно слово или устойчивое выражение
+     * в любом из направлений начиная с даты since. Идентификаторы упорядочены по возрастанию, выборка
+     * начинается с первого идентификатора больше afterUserId - это позволяет читать всех таких
+     * пользователей порциями.
+     * @param since дата, начиная с которой пользователь считается активным
+     * @param afterUserId идентификатор последнего пользователя из предыдущей порции или null для первой порции
+     * @param limit максимальный размер порции
+     * @throws NullPointerException если since равен null
+     */
+    public List<UUID> findActiveUserIds(LocalDate since, UUID afterUserId, int limit);
+
     /**
      * Возвращает статистические данные о результатах повторения слова wordId из словаря пользователя
      * userId за указанный период. Если не существует пользователя с идентификатором userId или
@@ -1,5 +1,6 @@
 package com.bakuard.flashcards.dal;
 
+import com.bakuard.flashcards.dal.impl.PhoneticKeys;
 import com.bakuard.flashcards.model.word.Word;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -11,8 +12,10 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Отвечает за сохранение, извлечение и удаление слов из постоянного хранилища.
@@ -34,48 +37,93 @@ public interface WordRepository extends PagingAndSortingRepository<Word, UUID>,
     public Optional<Word> findById(UUID userId, UUID wordId);
 
     /**
-     * Возвращает выборку слов из словаря пользователя с идентификатором userId, редакционное расстояние между
-     * значениями которых и значением value не превышает maxDistance. Все слова в выборке упорядочены в
-     * порядке возрастания редакционного расстояния относительно заданного значения value, а затем в
-     * лексикографическом порядке. Если нет ни одного слова удовлетворяющего описанному условию - возвращает
-     * пустой список.
+     * Возвращает выборку слов из словаря пользователя с идентификатором userId, где хотя бы один из переводов
+     * каждого слова равен значению translate без учета регистра, пробельных символов по краям и различия
+     * между 'ё' и 'е' (сравнение выполняется по столбцу words_translations.normalized_value).
+     * Все возвращаемые слова отсортированы в лексикографическом порядке.
+     * Если нет ни одного слова удовлетворяющего описанному условию - возвращает пустой список.
      * @param userId идентификатор пользователя, из слов которого делается выборка
-     * @param value искомое значение слова
-     * @param maxDistance максимальное значение редакционного расстояния
+     * @param translate один из возможных переводов искомых слов
      * @param limit максимальное кол-во слов в возвращаемом списке
      * @param offset кол-во пропущенных слов от начала исходной выборки, которые не будут включены в список
      * @return список слов.
      */
     @Query("""
-            select * from words
-                where user_id = :userId and distance(:value, value, :maxDistance) != -1
-                order by value limit :limit offset :offset;
+            select distinct words.*
+                from words_translations
+                inner join words
+                    on words.word_id = words_translations.word_id
+                where words_translations.normalized_value = REPLACE(LOWER(TRIM(:translate)), 'ё', 'е')
+                    and words.user_id = :userId
+                order by words.value
+                limit :limit offset :offset;
             """)
-    public List<Word> findByValue(UUID userId, String value, int maxDistance, long limit, long offset);
+    public List<Word> findByTranslate(UUID userId, String translate, long limit, long offset);
 
     /**
-     * Возвращает выборку слов из словаря пользователя с идентификатором userId, где хотя бы один из переводов
-     * каждого слова равен значению translate. Все возвращаемые слова отсортированы в лексикографическом порядке.
-     * Если нет ни одного слова удовлетворяющего описанному условию - возвращает пустой список.
+     * Возвращает выборку слов из словаря пользователя с идентификатором userId, которые звучат похоже на
+     * value: основной или альтернативный фонетический ключ Double Metaphone значения совпадает с одним из
+     * ключей value (см. {@link PhoneticKeys}). Ключи хранятся в индексируемых вычисляемых столбцах таблицы,
+     * поэтому выборка не требует сравнения value с каждой записью пользователя. Все возвращаемые слова
+     * отсортированы в лексикографическом порядке. Если value не содержит латинских букв - возвращает пустой
+     * список.
      * @param userId идентификатор пользователя, из слов которого делается выборка
-     * @param translate один из возможных переводов искомых слов
-     * @param limit максимальное кол-во слов в возвращаемом списке
-     * @param offset кол-во пропущенных слов от начала исходной выборки, которые не будут включены в список
+     * @param value искомое значение
+     * @param limit максимальное кол-во записей в возвращаемом списке
+     * @param offset кол-во пропущенных записей от начала исходной выборки
      * @return список слов.
      */
+    public default List<Word> findByPhonetic(UUID userId, String value, long limit, long offset) {
+        List<String> keys = phoneticKeys(value);
+        return keys.isEmpty() ? List.of() : findByPhoneticKeys(userId, keys, limit, offset);
+    }
+
+    /**
+     * Возвращает кол-во слов, возвращаемых {@link #findByPhonetic(UUID, String, long, long)} без учета
+     * limit и offset.
+     */
+    public default long countForPhonetic(UUID userId, String value) {
+        List<String> keys = phoneticKeys(value);
+        return keys.isEmpty() ? 0L : countForPhoneticKeys(userId, keys);
+    }
+
+    /**
+     * Реализация {@link #findByPhonetic(UUID, String, long, long)} для уже вычисленных ключей.
+     */
     @Query("""
             select * from words
-                where words.word_id in (
-                    select words.word_id from words
-                        inner join words_translations
-                            on  words.word_id = words_translations.word_id
-                                and words.user_id = :userId
-                                and words_translations.value = :translate
+                where word_id in (
+                    select word_id from words
+                        where user_id = :userId and phonetic_primary_key in (:keys)
+                    union
+                    select word_id from words
+                        where user_id = :userId and phonetic_alternate_key in (:keys)
                 )
-                order by words.value
+                order by value
                 limit :limit offset :offset;
             """)
-    public List<Word> findByTranslate(UUID userId, String translate, long limit, long offset);
+    public List<Word> findByPhoneticKeys(UUID userId, List<String> keys, long limit, long offset);
+
+    /**
+     * Реализация {@link #countForPhonetic(UUID, String)} для уже вычисленных ключей.
+     */
+    @Query("""
+            select count(*) from (
+                select word_id from words
+                    where user_id = :userId and phonetic_primary_key in (:keys)
+                union
+                select word_id from words
+                    where user_id = :userId and phonetic_alternate_key in (:keys)
+            );
+            """)
+    public long countForPhoneticKeys(UUID userId, List<String> keys);
+
+    private static List<String> phoneticKeys(String value) {
+        return Stream.of(PhoneticKeys.primary(value), PhoneticKeys.alternate(value)).
+                filter(Objects::nonNull).
+                distinct().
+                toList();
+    }
 
     /**
      * Удаляет слово с идентификатором wordId из словаря пользователя с идентификатором userId и
@@ -105,7 +153,11 @@ public interface WordRepository extends PagingAndSortingRepository<Word, UUID>,
      * @param userId идентификатор пользователя.
      * @return кол-во всех слов в словаре пользователя userId.
      */
-    @Query("select count(*) from words where user_id = :userId")
+    @Query("""
+            select coalesce(sum(words_count), 0)
+                from words_first_characters
+                where user_id = :userId;
+            """)
     public long count(UUID userId);
 
     /**
@@ -117,7 +169,7 @@ public interface WordRepository extends PagingAndSortingRepository<Word, UUID>,
      */
     @Query("""
             select count(*) from words
-             where user_id = :userId and (last_date_of_repeat_from_english + repeat_interval_from_english) <= :date;
+             where user_id = :userId and next_repeat_date_from_english <= :date;
             """)
     public long countForRepeatFromEnglish(UUID userId, LocalDate date);
 
@@ -130,63 +182,78 @@ public interface WordRepository extends PagingAndSortingRepository<Word, UUID>,
      */
     @Query("""
             select count(*) from words
-             where user_id = :userId and (last_date_of_repeat_from_native + repeat_interval_from_native) <= :date;
+             where user_id = :userId and next_repeat_date_from_native <= :date;
             """)
     public long countForRepeatFromNative(UUID userId, LocalDate date);
 
-    /**
-     * Возвращает кол-во всех слов из словаря пользователя с идентификатором userId, редакционное расстояние
-     * между значениями которых и значением value не превышает maxDistance.
-     * @param userId идентификатор пользователя, из слов которого делается выборка
-     * @param value искомое значение слова
-     * @param maxDistance максимальное значение редакционного расстояния
-     * @return кол-во слов, редакционное расстояние между значениями которых и значением value не превышает
-     *         maxDistance.
-     */
-    @Query("""
-            select count(*) from (
-               select value
-                   from words
-                   where user_id = :userId and distance(:value, value, :maxDistance) != -1
-            )
-            """)
-    public long countForValue(UUID userId, String value, int maxDistance);
-
     /**
      * Возвращает кол-во всех слов из словаря пользователя с идентификатором userId, где хотя бы один из
-     * переводов каждого слова равен значению translate.
+     * переводов каждого слова равен значению translate. Переводы сравниваются так же, как и в
+     * {@link #findByTranslate(UUID, String, long, long)}.
      * @param userId идентификатор пользователя, из слов которого делается выборка
      * @param translate один из возможных переводов искомых слов
      * @return кол-во слов, у которых хотя бы один из переводов равен translate
      */
     @Query("""
-            select count(*)
-                from words
-                inner join words_translations
-                    on words_translations.word_id = words.word_id
-                       and words_translations.value = :translate
-                       and words.user_id = :userId;
+            select count(distinct words_translations.word_id)
+                from words_translations
+                inner join words
+                    on words.word_id = words_translations.word_id
+                where words_translations.normalized_value = REPLACE(LOWER(TRIM(:translate)), 'ё', 'е')
+                    and words.user_id = :userId;
             """)
     public long countForTranslate(UUID userId, String translate);
 
     /**
      * Возвращает порядковый номер первого из слов начинающегося на указанную букву. Нумерация слов начинается
-     * с 0. Слова сортируются в лексикографическом порядке.
+     * с 0. Слова сортируются в лексикографическом порядке. Порядковый номер вычисляется по таблице
+     * words_first_characters, хранящей кол-во слов пользователя для каждой первой буквы, и не требует
+     * просмотра всего словаря пользователя.
      * @param userId идентификатор пользователя, из слов которого делается выборка
      * @param firstCharacter первый символ искомого слова
-     * @return порядковый номер первого из слов начинающегося на указанную букву
+     * @return порядковый номер первого из слов начинающегося на указанную букву или -1, если таких слов нет
      */
     @Query("""
-            select COALESCE(min(row_number) - 1, -1) as result
-                from (
-                    select words.value as word_value, row_number() over (order by value) as row_number
-                        from words
-                        where words.user_id = :userId
-                ) as words_with_row_number
-                where lower(left(word_value, 1)) = lower(:firstCharacter);
+            select case
+                    when exists(select 1
+                                    from words_first_characters
+                                    where user_id = :userId
+                                        and first_character = lower(left(:firstCharacter, 1)))
+                        then coalesce(sum(words_count), 0)
+                    else -1
+                end
+                from words_first_characters
+                where user_id = :userId
+                    and first_character < lower(left(:firstCharacter, 1));
             """)
     public long getWordIndexByFirstCharacter(UUID userId, String firstCharacter);
 
+    /**
+     * Возвращает часть слов пользователя userId, отсортированных в лексикографическом порядке: before слов,
+     * непосредственно предшествующих первому слову не меньшему value, и следующие за ними after слов.
+     * Оба диапазона читаются по индексу (user_id, value) и не требуют пропуска предшествующих слов.
+     * @param userId идентификатор пользователя, из слов которого делается выборка
+     * @param value граница диапазонов
+     * @param before кол-во слов меньших value
+     * @param after кол-во слов не меньших value
+     * @return слова в лексикографическом порядке
+     */
+    @Query("""
+            select * from (
+                    (select * from words
+                        where user_id = :userId and value < :value
+                        order by value desc
+                        limit :before)
+                    union all
+                    (select * from words
+                        where user_id = :userId and value >= :value
+                        order by value
+                        limit :after)
+                ) as words_around
+                order by value;
+            """)
+    public List<Word> findAroundValue(UUID userId, String value, long before, long after);
+
     /**
      * Возвращает часть всех слов из словаря пользователя с идентификатором userId. Если в словаре пользователя
      * нет ни одного слова - возвращает пустой список.
@@ -200,6 +267,8 @@ public interface WordRepository extends PagingAndSortingRepository<Word, UUID>,
      * Возвращает слова доступные для повторения в указанную дату с английского языка на родной язык пользователя.
      * Все слова берутся из словаря пользователя с идентификатором userId. Порядок сортировки слов -
      * лексикографический. Если нет слов доступных для повторения в текущую дату - возвращает пустой список.
+     * Отбор выполняется по индексу (user_id, next_repeat_date_from_english, value) - вычисляемый столбец
+     * next_repeat_date_from_english хранит дату следующего повторения.
      * @param userId идентификатор пользователя, из слов которого делается выборка
      * @param date дата для которой подбираются доступные для повторения слова
      * @param limit максимальное кол-во слов в возвращаемом списке
@@ -208,7 +277,7 @@ public interface WordRepository extends PagingAndSortingRepository<Word, UUID>,
      */
     @Query("""
             select * from words
-             where user_id = :userId and (last_date_of_repeat_from_english + repeat_interval_from_english) <= :date
+             where user_id = :userId and next_repeat_date_from_english <= :date
              order by value limit :limit offset :offset;
             """)
     public List<Word> findAllForRepeatFromEnglish(UUID userId, LocalDate date, long limit, long offset);
@@ -217,6 +286,8 @@ public interface WordRepository extends PagingAndSortingRepository<Word, UUID>,
      * Возвращает слова доступные для повторения в текущую дату с родного языка пользователя на английский язык.
      * Все слова берутся из словаря пользователя с идентификатором userId. Порядок сортировки выборки слов -
      * лексикографический. Если нет слов доступных для повторения в текущую дату - возвращает пустой список.
+     * Отбор выполняется по индексу (user_id, next_repeat_date_from_native, value) - вычисляемый столбец
+     * next_repeat_date_from_native хранит дату следующего повторения.
      * @param userId идентификатор пользователя, из слов которого делается выборка
      * @param date дата для которой подбираются доступные для повторения слова
      * @param limit максимальное кол-во слов в возвращаемом списке
@@ -225,7 +296,7 @@ public interface WordRepository extends PagingAndSortingRepository<Word, UUID>,
      */
     @Query("""
             select * from words
-             where user_id = :userId and (last_date_of_repeat_from_native + repeat_interval_from_native) <= :date
+             where user_id = :userId and next_repeat_date_from_native <= :date
              order by value limit :limit offset :offset;
             """)
     public List<Word> findAllForRepeatFromNative(UUID userId, LocalDate date, long limit, long offset);
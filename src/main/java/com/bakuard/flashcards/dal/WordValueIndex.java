@@ -0,0 +1,50 @@
+package com.bakuard.flashcards.dal;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Индекс в оперативной памяти для нечеткого поиска слов пользователя по их значению. Позволяет избежать
+ * вычисления редакционного расстояния для каждого слова пользователя. <br/><br/>
+ * Индекс строится лениво для каждого пользователя при первом обращении к нему и хранится ограниченное время.
+ * Изменения, вносимые методами {@link #put(UUID, UUID, String)}, {@link #remove(UUID, UUID)} и
+ * {@link #invalidate(UUID)} в рамках транзакции, применяются к индексу только после её успешной фиксации.
+ * Эти методы вызываются при каждом сохранении и удалении слова через {@link WordRepository}, а также при
+ * удалении пользователя (см. обработчики событий в {@link com.bakuard.flashcards.config.SpringConfig}).
+ * Удаление слова запросом {@link WordRepository#deleteById(UUID, UUID)} событий не порождает - вызывающий
+ * код должен сам вызвать {@link #remove(UUID, UUID)}.
+ */
+public interface WordValueIndex {
+
+    /**
+     * Возвращает идентификаторы всех слов пользователя, редакционное расстояние от значения которых до value
+     * не превышает maxDistance. Идентификаторы упорядочены по значению слов без учета регистра.
+     * @param userId идентификатор пользователя, среди слов которого осуществляется поиск
+     * @param value значение искомого слова
+     * @param maxDistance максимально допустимое редакционное расстояние
+     * @return упорядоченный список идентификаторов найденных слов
+     */
+    public List<UUID> findIdsByValue(UUID userId, String value, int maxDistance);
+
+    /**
+     * Добавляет слово в индекс пользователя или обновляет значение уже добавленного слова.
+     * @param userId идентификатор пользователя, к словарю которого относится слово
+     * @param wordId идентификатор слова
+     * @param value значение слова
+     */
+    public void put(UUID userId, UUID wordId, String value);
+
+    /**
+     * Удаляет слово из индекса пользователя. Если такого слова нет в индексе - ничего не делает.
+     * @param userId идентификатор пользователя, к словарю которого относится слово
+     * @param wordId идентификатор слова
+     */
+    public void remove(UUID userId, UUID wordId);
+
+    /**
+     * Удаляет индекс указанного пользователя. При следующем обращении индекс будет построен заново.
+     * @param userId идентификатор пользователя
+     */
+    public void invalidate(UUID userId);
+
+}
@@ -0,0 +1,166 @@
+package com.bakuard.flashcards.dal.impl;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Метрическое дерево (BK-дерево) для нечеткого поиска элементов по редакционному расстоянию между их ключами.
+ * Позволяет найти все элементы, расстояние до ключей которых не превышает заданного, посещая лишь
+ * небольшую часть всех элементов дерева. <br/><br/>
+ * Удаление элементов выполняется "мягко": узел помечается как удаленный и перестает попадать в результаты
+ * поиска, но продолжает участвовать в навигации по дереву. Кол-во таких узлов возвращает метод
+ * {@link #deletedSize()} - по нему можно определить, когда дерево выгоднее построить заново. <br/><br/>
+ * Данный класс не является потокобезопасным.
+ * @param <T> тип элементов дерева.
+ */
+public class BkTree<T> {
+
+    /**
+     * Функция расстояния между ключами элементов. Должна удовлетворять аксиомам метрики.
+     */
+    @FunctionalInterface
+    public interface Metric {
+
+        public int distance(String left, String right);
+
+    }
+
+
+    private final Function<T, String> keyExtractor;
+    private final Metric metric;
+    private Node<T> root;
+    private int size;
+    private int deletedSize;
+
+    /**
+     * Создает пустое BK-дерево.
+     * @param keyExtractor функция возвращающая ключ элемента, по которому выполняется поиск.
+     * @param metric функция расстояния между ключами.
+     */
+    public BkTree(Function<T, String> keyExtractor, Metric metric) {
+        this.keyExtractor = Objects.requireNonNull(keyExtractor, "keyExtractor can't be null");
+        this.metric = Objects.requireNonNull(metric, "metric can't be null");
+    }
+
+    /**
+     * Добавляет элемент в дерево.
+     * @param item добавляемый элемент.
+     * @throws NullPointerException если item равен null.
+     */
+    public void add(T item) {
+        Objects.requireNonNull(item, "item can't be null");
+        String key = keyExtractor.apply(item);
+
+        if(root == null) {
+            root = new Node<>(item, key);
+        } else {
+            Node<T> current = root;
+            while(true) {
+                int distance = metric.distance(key, current.key);
+                Node<T> child = current.child(distance);
+                if(child == null) {
+                    current.addChild(distance, new Node<>(item, key));
+                    break;
+                }
+                current = child;
+            }
+        }
+        ++size;
+    }
+
+    /**
+     * Помечает указанный элемент как удаленный. Если такого элемента нет в дереве - ничего не делает.
+     * @param item удаляемый элемент.
+     * @return true - если элемент был найден и удален, иначе - false.
+     */
+    public boolean remove(T item) {
+        Objects.requireNonNull(item, "item can't be null");
+        String key = keyExtractor.apply(item);
+
+        Node<T> current = root;
+        while(current != null) {
+            int distance = metric.distance(key, current.key);
+            if(distance == 0 && !current.deleted && current.item.equals(item)) {
+                current.deleted = true;
+                --size;
+                ++deletedSize;
+                return true;
+            }
+            current = current.child(distance);
+        }
+        return false;
+    }
+
+    /**
+     * Возвращает все не удаленные элементы дерева, редакционное расстояние между ключами которых и значением
+     * key не превышает maxDistance. Порядок элементов в возвращаемом списке не определен.
+     * @param key искомое значение.
+     * @param maxDistance максимально допустимое редакционное расстояние.
+     * @return список найденных элементов.
+     */
+    public List<T> find(String key, int maxDistance) {
+        Objects.requireNonNull(key, "key can't be null");
+        if(maxDistance < 0) {
+            throw new IllegalArgumentException("maxDistance can't be negative. Actual: " + maxDistance);
+        }
+
+        List<T> result = new ArrayList<>();
+        if(root != null) {
+            ArrayDeque<Node<T>> stack = new ArrayDeque<>();
+            stack.push(root);
+            while(!stack.isEmpty()) {
+                Node<T> current = stack.pop();
+                int distance = metric.distance(key, current.key);
+                if(distance <= maxDistance && !current.deleted) result.add(current.item);
+
+                if(current.children != null) {
+                    int from = distance - maxDistance;
+                    int to = distance + maxDistance;
+                    current.children.forEach((childDistance, child) -> {
+                        if(childDistance >= from && childDistance <= to) stack.push(child);
+                    });
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает кол-во не удаленных элементов дерева.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает кол-во элементов помеченных как удаленные.
+     */
+    public int deletedSize() {
+        return deletedSize;
+    }
+
+
+    private static class Node<T> {
+
+        private final T item;
+        private final String key;
+        private boolean deleted;
+        private Map<Integer, Node<T>> children;
+
+        public Node(T item, String key) {
+            this.item = item;
+            this.key = key;
+        }
+
+        public Node<T> child(int distance) {
+            return children == null ? null : children.get(distance);
+        }
+
+        public void addChild(int distance, Node<T> child) {
+            if(children == null) children = new HashMap<>();
+            children.put(distance, child);
+        }
+
+    }
+
+}
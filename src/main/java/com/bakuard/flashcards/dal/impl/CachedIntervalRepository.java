@@ -0,0 +1,141 @@
+package com.bakuard.flashcards.dal.impl;
+
+import com.bakuard.flashcards.config.BackgroundTask;
+import com.bakuard.flashcards.config.configData.ConfigData;
+import com.bakuard.flashcards.dal.IntervalRepository;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кеширует интервалы повторения пользователей, полученные от оборачиваемого {@link IntervalRepository}.
+ * Кеш ограничен по кол-ву пользователей (см. {@link ConfigData#intervalCache()}). Любое изменение
+ * интервалов пользователя через этот объект удаляет его интервалы из кеша сразу и повторно после
+ * завершения текущей транзакции - так в кеше не остаются данные незафиксированной или отмененной
+ * транзакции. Статистика кеша периодически записывается в лог (см. {@link #scheduleStatsLogging()}).
+ */
+public class CachedIntervalRepository implements IntervalRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachedIntervalRepository.class.getName());
+
+    private final IntervalRepository repository;
+    private final LoadingCache<UUID, ImmutableList<Integer>> intervals;
+    private final AtomicLong invalidations;
+    private final ConfigData configData;
+    private BackgroundTask statsLogging;
+
+    public CachedIntervalRepository(IntervalRepository repository, ConfigData configData) {
+        this.repository = repository;
+        this.configData = configData;
+        this.invalidations = new AtomicLong();
+        this.intervals = CacheBuilder.newBuilder().
+                maximumSize(configData.intervalCache().maxUsers()).
+                expireAfterAccess(configData.intervalCache().expireAfterAccessInMinutes(), TimeUnit.MINUTES).
+                recordStats().
+                build(CacheLoader.from(repository::findAll));
+    }
+
+    @Override
+    public void add(UUID userId, int interval) {
+        invalidate(userId);
+        repository.add(userId, interval);
+    }
+
+    @Override
+    public void addAll(UUID userId, int... intervals) {
+        invalidate(userId);
+        repository.addAll(userId, intervals);
+    }
+
+    @Override
+    public void replace(UUID userId, int oldInterval, int newInterval) {
+        invalidate(userId);
+        repository.replace(userId, oldInterval, newInterval);
+    }
+
+    @Override
+    public boolean replaceInterval(UUID userId, int oldInterval, int newInterval) {
+        invalidate(userId);
+        return repository.replaceInterval(userId, oldInterval, newInterval);
+    }
+
+    @Override
+    public int countInCards(UUID userId, int interval) {
+        return repository.countInCards(userId, interval);
+    }
+
+    @Override
+    public int replaceInCards(UUID userId, int oldInterval, int newInterval, int limit) {
+        return repository.replaceInCards(userId, oldInterval, newInterval, limit);
+    }
+
+    @Override
+    public ImmutableList<Integer> findAll(UUID userId) {
+        Objects.requireNonNull(userId, "userId can't be null");
+
+        // Загрузка могла прочитать интервалы до фиксации транзакции, которая инвалидировала кеш уже после
+        // начала загрузки. Такой результат нельзя оставлять в кеше: если за время вызова произошла хотя бы
+        // одна инвалидация, полученное значение удаляется (если его еще не заменили). Инвалидация, начавшаяся
+        // после проверки счетчика, сама удалит значение, т.к. оно уже помещено в кеш.
+        long invalidationsBefore = invalidations.get();
+        ImmutableList<Integer> result = intervals.getUnchecked(userId);
+        if(invalidations.get() != invalidationsBefore) intervals.asMap().remove(userId, result);
+        return result;
+    }
+
+    /**
+     * Возвращает статистику обращений к кешу: кол-во попаданий, промахов, загрузок и вытеснений.
+     */
+    public CacheStats stats() {
+        return intervals.stats();
+    }
+
+    /**
+     * Запускает периодическую запись статистики кеша (см. {@link #stats()}) в лог с интервалом
+     * conf.intervalCache.statsLogIntervalInMinutes.
+     */
+    public void scheduleStatsLogging() {
+        statsLogging = BackgroundTask.runPeriodically(
+                "log interval cache stats",
+                Duration.ofMinutes(configData.intervalCache().statsLogIntervalInMinutes()),
+                () -> logger.info("Interval cache: size={}, {}", intervals.size(), intervals.stats())
+        );
+    }
+
+    /**
+     * Останавливает периодическую запись статистики кеша в лог.
+     */
+    public void shutdown() {
+        if(statsLogging != null) statsLogging.stop();
+    }
+
+
+    private void invalidate(UUID userId) {
+        Objects.requireNonNull(userId, "userId can't be null");
+
+        invalidations.incrementAndGet();
+        intervals.invalidate(userId);
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidations.incrementAndGet();
+                    intervals.invalidate(userId);
+                }
+            });
+        }
+    }
+
+}
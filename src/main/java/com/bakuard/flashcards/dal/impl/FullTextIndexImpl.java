@@ -0,0 +1,237 @@
+package com.bakuard.flashcards.dal.impl;
+
+import com.bakuard.flashcards.config.BackgroundTask;
+import com.bakuard.flashcards.dal.FullTextIndex;
+import com.bakuard.flashcards.model.expression.Expression;
+import com.bakuard.flashcards.model.expression.ExpressionExample;
+import com.bakuard.flashcards.model.expression.ExpressionInterpretation;
+import com.bakuard.flashcards.model.expression.ExpressionTranslation;
+import com.bakuard.flashcards.model.word.Word;
+import com.bakuard.flashcards.model.word.WordExample;
+import com.bakuard.flashcards.model.word.WordInterpretation;
+import com.bakuard.flashcards.model.word.WordTranslation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jdbc.core.JdbcAggregateOperations;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+
+public class FullTextIndexImpl implements FullTextIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(FullTextIndexImpl.class.getName());
+    private static final int BACKFILL_CHUNK_SIZE = 500;
+    private static final UUID MIN_ID = new UUID(0L, 0L);
+
+    private JdbcTemplate jdbcTemplate;
+    private JdbcAggregateOperations jdbcAggregateOperations;
+    private TransactionTemplate transaction;
+    private BackgroundTask task;
+
+    public FullTextIndexImpl(JdbcTemplate jdbcTemplate,
+                             JdbcAggregateOperations jdbcAggregateOperations,
+                             TransactionTemplate transaction) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jdbcAggregateOperations = jdbcAggregateOperations;
+        this.transaction = transaction;
+    }
+
+    /**
+     * Запускает фоновую задачу, однократно выполняющую {@link #backfill()}. Пока задача не завершится,
+     * полнотекстовый поиск не находит слова и устойчивые выражения, которые не изменялись с момента появления
+     * индекса. Если задача завершится ошибкой, то такие записи будут проиндексированы при следующем запуске
+     * приложения.
+     */
+    public void scheduleBackfill() {
+        task = BackgroundTask.runOnce("backfill full text index", () -> {
+            int processed = backfill();
+            if(processed > 0) logger.info("Backfill full text index. {} rows was processed.", processed);
+        });
+    }
+
+    /**
+     * Останавливает задачу, запущенную методом {@link #scheduleBackfill()}.
+     */
+    public void shutdown() {
+        if(task != null) task.stop();
+    }
+
+    @Override
+    public void update(Word word) {
+        List<String> texts = new ArrayList<>();
+        texts.add(word.getValue());
+        texts.add(word.getNote());
+        word.getInterpretations().stream().map(WordInterpretation::getValue).forEach(texts::add);
+        word.getTranslations().stream().map(WordTranslation::getValue).forEach(texts::add);
+        for(WordExample example : word.getExamples()) {
+            texts.add(example.getOrigin());
+            texts.add(example.getTranslate());
+        }
+
+        write("words_tokens", "word_id", word.getId(), word.getUserId(), texts);
+    }
+
+    @Override
+    public void update(Expression expression) {
+        List<String> texts = new ArrayList<>();
+        texts.add(expression.getValue());
+        texts.add(expression.getNote());
+        expression.getInterpretations().stream().map(ExpressionInterpretation::getValue).forEach(texts::add);
+        expression.getTranslations().stream().map(ExpressionTranslation::getValue).forEach(texts::add);
+        for(ExpressionExample example : expression.getExamples()) {
+            texts.add(example.getOrigin());
+            texts.add(example.getTranslate());
+        }
+
+        write("expressions_tokens", "expression_id", expression.getId(), expression.getUserId(), texts);
+    }
+
+    @Override
+    public List<UUID> findWordIds(UUID userId, String query, long limit, long offset) {
+        return findIds("words_tokens", "word_id", userId, query, limit, offset);
+    }
+
+    @Override
+    public long countWords(UUID userId, String query) {
+        return count("words_tokens", "word_id", userId, query);
+    }
+
+    @Override
+    public List<UUID> findExpressionIds(UUID userId, String query, long limit, long offset) {
+        return findIds("expressions_tokens", "expression_id", userId, query, limit, offset);
+    }
+
+    @Override
+    public long countExpressions(UUID userId, String query) {
+        return count("expressions_tokens", "expression_id", userId, query);
+    }
+
+    @Override
+    public int backfill() {
+        return backfill("words", "words_tokens", "word_id", Word.class) +
+                backfill("expressions", "expressions_tokens", "expression_id", Expression.class);
+    }
+
+
+    private List<UUID> findIds(String tokensTable, String idColumn, UUID userId, String query, long limit, long offset) {
+        List<String> tokens = Tokens.query(query);
+        if(tokens.isEmpty()) return List.of();
+
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+        args.addAll(tokens);
+        args.add(limit);
+        args.add(offset);
+        return jdbcTemplate.queryForList("""
+                select %2$s
+                    from %1$s
+                    where user_id = ? and token in (%3$s)
+                    group by %2$s
+                    order by count(*) desc, sum(frequency) desc, %2$s
+                    limit ? offset ?;
+                """.formatted(tokensTable, idColumn, placeholders(tokens.size())),
+                UUID.class,
+                args.toArray());
+    }
+
+    private long count(String tokensTable, String idColumn, UUID userId, String query) {
+        List<String> tokens = Tokens.query(query);
+        if(tokens.isEmpty()) return 0L;
+
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+        args.addAll(tokens);
+        Long result = jdbcTemplate.queryForObject("""
+                select count(distinct %2$s)
+                    from %1$s
+                    where user_id = ? and token in (%3$s);
+                """.formatted(tokensTable, idColumn, placeholders(tokens.size())),
+                Long.class,
+                args.toArray());
+        return result == null ? 0L : result;
+    }
+
+    /*
+     * Записи, не содержащие ни одного токена, не получают строк в таблице токенов. Поэтому таблица
+     * просматривается по возрастанию идентификатора, а не выборкой "записи без токенов" - иначе такие записи
+     * отбирались бы в каждой следующей порции. Записи порции блокируются до конца её транзакции, поэтому
+     * одновременное сохранение той же записи дождется окончания порции и перезапишет её токены актуальными.
+     */
+    private <T> int backfill(String table, String tokensTable, String idColumn, Class<T> type) {
+        int processed = 0;
+        UUID lastId = MIN_ID;
+        List<UUID> ids;
+        do {
+            UUID afterId = lastId;
+            ids = transaction.execute(status -> {
+                List<UUID> chunk = jdbcTemplate.queryForList("""
+                        select %2$s from %1$s
+                            where %2$s > ?
+                                and not exists(select 1 from %3$s where %3$s.%2$s = %1$s.%2$s)
+                            order by %2$s
+                            limit ?
+                            for update;
+                        """.formatted(table, idColumn, tokensTable),
+                        UUID.class,
+                        afterId, BACKFILL_CHUNK_SIZE);
+                jdbcAggregateOperations.findAllById(chunk, type).forEach(aggregate -> {
+                    if(aggregate instanceof Word word) update(word);
+                    else if(aggregate instanceof Expression expression) update(expression);
+                });
+                return chunk;
+            });
+            processed += ids.size();
+            if(!ids.isEmpty()) lastId = ids.get(ids.size() - 1);
+        } while(ids.size() == BACKFILL_CHUNK_SIZE && !Thread.currentThread().isInterrupted());
+        return processed;
+    }
+
+    /*
+     * Удаляет устаревшие токены записи и добавляет или обновляет актуальные. Уникальный ключ (id записи, токен)
+     * и merge исключают дубликаты токенов при одновременной записи одних и тех же токенов.
+     */
+    private void write(String tokensTable, String idColumn, UUID id, UUID userId, List<String> texts) {
+        List<Map.Entry<String, Integer>> tokens = new ArrayList<>(Tokens.frequencies(texts).entrySet());
+
+        List<Object> args = new ArrayList<>();
+        args.add(id);
+        tokens.forEach(token -> args.add(token.getKey()));
+        jdbcTemplate.update(
+                "delete from " + tokensTable + " where " + idColumn + " = ?" +
+                        (tokens.isEmpty() ? ";" : " and token not in (" + placeholders(tokens.size()) + ");"),
+                args.toArray());
+
+        jdbcTemplate.batchUpdate("""
+                merge into %1$s as target
+                    using (values(cast(? as uuid), cast(? as uuid), cast(? as varchar(64)), cast(? as int)))
+                        as source(%2$s, user_id, token, frequency)
+                    on target.%2$s = source.%2$s and target.token = source.token
+                    when matched then update set frequency = source.frequency
+                    when not matched then insert(%2$s, user_id, token, frequency)
+                        values(source.%2$s, source.user_id, source.token, source.frequency);
+                """.formatted(tokensTable, idColumn),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setObject(1, id);
+                        ps.setObject(2, userId);
+                        ps.setString(3, tokens.get(i).getKey());
+                        ps.setInt(4, tokens.get(i).getValue());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return tokens.size();
+                    }
+                });
+    }
+
+    private String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+}
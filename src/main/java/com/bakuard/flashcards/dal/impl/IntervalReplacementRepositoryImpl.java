@@ -0,0 +1,151 @@
+package com.bakuard.flashcards.dal.impl;
+
+import com.bakuard.flashcards.dal.IntervalReplacementRepository;
+import com.bakuard.flashcards.model.interval.IntervalReplacement;
+import com.bakuard.flashcards.model.interval.IntervalReplacementStatus;
+import com.bakuard.flashcards.validation.exception.UnknownEntityException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+public class IntervalReplacementRepositoryImpl implements IntervalReplacementRepository {
+
+    private JdbcTemplate jdbcTemplate;
+
+    public IntervalReplacementRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public IntervalReplacement create(UUID userId,
+                                      int oldInterval,
+                                      int newInterval,
+                                      IntervalReplacementStatus status) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        Objects.requireNonNull(status, "status can't be null");
+
+        IntervalReplacement replacement = new IntervalReplacement(
+                UUID.randomUUID(), userId, oldInterval, newInterval, status, 0, 0);
+        try {
+            jdbcTemplate.update(
+                    """
+                            insert into interval_replacements(replacement_id,
+                                                              user_id,
+                                                              old_interval,
+                                                              new_interval,
+                                                              status,
+                                                              total,
+                                                              processed)
+                                values (?,?,?,?,?,0,0);
+                            """,
+                    ps -> {
+                        ps.setObject(1, replacement.id());
+                        ps.setObject(2, userId);
+                        ps.setInt(3, oldInterval);
+                        ps.setInt(4, newInterval);
+                        ps.setString(5, status.name());
+                    }
+            );
+        } catch(DataIntegrityViolationException e) {
+            throw new UnknownEntityException(
+                    "Unknown user with id=" + userId, e, "User.unknownId", false);
+        }
+        return replacement;
+    }
+
+    @Override
+    public Optional<IntervalReplacement> findById(UUID userId, UUID replacementId) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        Objects.requireNonNull(replacementId, "replacementId can't be null");
+
+        return jdbcTemplate.query(
+                "select * from interval_replacements where replacement_id = ? and user_id = ?;",
+                this::mapReplacement,
+                replacementId, userId
+        ).stream().findFirst();
+    }
+
+    @Override
+    public List<IntervalReplacement> findAllUnfinished() {
+        return jdbcTemplate.query(
+                """
+                        select * from interval_replacements
+                            where status in (?, ?, ?)
+                            order by replacement_number;
+                        """,
+                this::mapReplacement,
+                IntervalReplacementStatus.PENDING.name(),
+                IntervalReplacementStatus.RUNNING.name(),
+                IntervalReplacementStatus.FAILED.name()
+        );
+    }
+
+    @Override
+    public List<IntervalReplacement> findAllUnfinished(UUID userId) {
+        Objects.requireNonNull(userId, "userId can't be null");
+
+        return jdbcTemplate.query(
+                """
+                        select * from interval_replacements
+                            where user_id = ? and status in (?, ?, ?)
+                            order by replacement_number;
+                        """,
+                this::mapReplacement,
+                userId,
+                IntervalReplacementStatus.PENDING.name(),
+                IntervalReplacementStatus.RUNNING.name(),
+                IntervalReplacementStatus.FAILED.name()
+        );
+    }
+
+    @Override
+    public void start(UUID replacementId, int total) {
+        Objects.requireNonNull(replacementId, "replacementId can't be null");
+
+        jdbcTemplate.update(
+                "update interval_replacements set status = ?, total = ?, processed = 0 where replacement_id = ?;",
+                IntervalReplacementStatus.RUNNING.name(), total, replacementId);
+    }
+
+    @Override
+    public void addProcessed(UUID replacementId, int processed) {
+        Objects.requireNonNull(replacementId, "replacementId can't be null");
+
+        jdbcTemplate.update(
+                "update interval_replacements set processed = processed + ? where replacement_id = ?;",
+                processed, replacementId);
+    }
+
+    @Override
+    public void finish(UUID replacementId, IntervalReplacementStatus status) {
+        Objects.requireNonNull(replacementId, "replacementId can't be null");
+        Objects.requireNonNull(status, "status can't be null");
+        if(!status.isFinished()) {
+            throw new IllegalArgumentException("status must be DONE or FAILED. Actual: " + status);
+        }
+
+        jdbcTemplate.update(
+                "update interval_replacements set status = ? where replacement_id = ?;",
+                status.name(), replacementId);
+    }
+
+
+    private IntervalReplacement mapReplacement(ResultSet rs, int rowNum) throws SQLException {
+        return new IntervalReplacement(
+                rs.getObject("replacement_id", UUID.class),
+                rs.getObject("user_id", UUID.class),
+                rs.getInt("old_interval"),
+                rs.getInt("new_interval"),
+                IntervalReplacementStatus.valueOf(rs.getString("status")),
+                rs.getInt("total"),
+                rs.getInt("processed")
+        );
+    }
+
+}
@@ -19,6 +19,13 @@ import java.util.UUID;
 
 public class IntervalRepositoryImpl implements IntervalRepository {
 
+    private static final String[][] CARD_INTERVAL_COLUMNS = {
+            {"words", "word_id", "repeat_interval_from_english"},
+            {"words", "word_id", "repeat_interval_from_native"},
+            {"expressions", "expression_id", "repeat_interval_from_english"},
+            {"expressions", "expression_id", "repeat_interval_from_native"}
+    };
+
     private JdbcTemplate jdbcTemplate;
 
     public IntervalRepositoryImpl(JdbcTemplate jdbcTemplate) {
@@ -84,6 +91,13 @@ public class IntervalRepositoryImpl implements IntervalRepository {
 
     @Override
     public void replace(UUID userId, int oldInterval, int newInterval) {
+        if(replaceInterval(userId, oldInterval, newInterval)) {
+            replaceInCards(userId, oldInterval, newInterval, Integer.MAX_VALUE);
+        }
+    }
+
+    @Override
+    public boolean replaceInterval(UUID userId, int oldInterval, int newInterval) {
         ImmutableList<Integer> intervals = findAll(userId);
 
         assertIntervalNotNegative(newInterval);
@@ -98,15 +112,7 @@ public class IntervalRepositoryImpl implements IntervalRepository {
                         ps.setInt(3, oldInterval);
                     }
             );
-            changeWordIntervalsForRepeatFromEnglish(userId, oldInterval, newInterval);
-            changeWordIntervalsForRepeatFromNative(userId, oldInterval, newInterval);
-            changeExpressionIntervalsForRepeatFromEnglish(userId, oldInterval, newInterval);
-            changeExpressionIntervalsForRepeatFromNative(userId, oldInterval, newInterval);
         } else if(oldInterval != newInterval) {
-            changeWordIntervalsForRepeatFromEnglish(userId, oldInterval, newInterval);
-            changeWordIntervalsForRepeatFromNative(userId, oldInterval, newInterval);
-            changeExpressionIntervalsForRepeatFromEnglish(userId, oldInterval, newInterval);
-            changeExpressionIntervalsForRepeatFromNative(userId, oldInterval, newInterval);
             jdbcTemplate.update(
                     "delete from intervals where user_id = ? and number_days = ?;",
                     ps -> {
@@ -115,6 +121,50 @@ public class IntervalRepositoryImpl implements IntervalRepository {
                     }
             );
         }
+
+        return oldInterval != newInterval;
+    }
+
+    @Override
+    public int countInCards(UUID userId, int interval) {
+        Objects.requireNonNull(userId, "userId can't be null");
+
+        int result = 0;
+        for(String[] column : CARD_INTERVAL_COLUMNS) {
+            result += jdbcTemplate.queryForObject(
+                    "select count(*) from %s where user_id = ? and %s = ?;".formatted(column[0], column[2]),
+                    Integer.class,
+                    userId, interval);
+        }
+        return result;
+    }
+
+    @Override
+    public int replaceInCards(UUID userId, int oldInterval, int newInterval, int limit) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        if(oldInterval == newInterval) return 0;
+
+        int remaining = Math.max(0, limit);
+        for(String[] column : CARD_INTERVAL_COLUMNS) {
+            if(remaining == 0) break;
+            int limitForColumn = remaining;
+            remaining -= jdbcTemplate.update("""
+                        update %1$s set %3$s = ?, version = version + 1
+                            where %2$s in (
+                                select %2$s from %1$s
+                                    where user_id = ? and %3$s = ?
+                                    limit ?
+                            );
+                        """.formatted(column[0], column[1], column[2]),
+                    ps -> {
+                        ps.setInt(1, newInterval);
+                        ps.setObject(2, userId);
+                        ps.setInt(3, oldInterval);
+                        ps.setInt(4, limitForColumn);
+                    }
+            );
+        }
+        return Math.max(0, limit) - remaining;
     }
 
     @Override
@@ -131,63 +181,6 @@ public class IntervalRepositoryImpl implements IntervalRepository {
     }
 
 
-    private void changeWordIntervalsForRepeatFromEnglish(UUID userId, int oldInterval, int newInterval) {
-        jdbcTemplate.update("""
-                    update words set repeat_interval_from_english = ?
-                        where repeat_interval_from_english = ? and
-                              user_id = ?;
-                    """,
-                ps -> {
-                    ps.setInt(1, newInterval);
-                    ps.setInt(2, oldInterval);
-                    ps.setObject(3, userId);
-                }
-        );
-    }
-
-    private void changeWordIntervalsForRepeatFromNative(UUID userId, int oldInterval, int newInterval) {
-        jdbcTemplate.update("""
-                    update words set repeat_interval_from_native = ?
-                        where repeat_interval_from_native = ? and
-                              user_id = ?;
-                    """,
-                ps -> {
-                    ps.setInt(1, newInterval);
-                    ps.setInt(2, oldInterval);
-                    ps.setObject(3, userId);
-                }
-        );
-    }
-
-    private void changeExpressionIntervalsForRepeatFromEnglish(UUID userId, int oldInterval, int newInterval) {
-        jdbcTemplate.update("""
-                    update expressions set repeat_interval_from_english = ?
-                        where repeat_interval_from_english = ? and
-                              user_id = ?;
-                    """,
-                ps -> {
-                    ps.setInt(1, newInterval);
-                    ps.setInt(2, oldInterval);
-                    ps.setObject(3, userId);
-                }
-        );
-    }
-
-    private void changeExpressionIntervalsForRepeatFromNative(UUID userId, int oldInterval, int newInterval) {
-        jdbcTemplate.update("""
-                    update expressions set repeat_interval_from_native = ?
-                        where repeat_interval_from_native = ? and
-                              user_id = ?;
-                    """,
-                ps -> {
-                    ps.setInt(1, newInterval);
-                    ps.setInt(2, oldInterval);
-                    ps.setObject(3, userId);
-                }
-        );
-    }
-
-
     private void assertIntervalsNotNegative(int... intervals) {
         for(int interval : intervals) assertIntervalNotNegative(interval);
     }
@@ -0,0 +1,307 @@
+package com.bakuard.flashcards.dal.impl;
+
+import java.util.Arrays;
+
+/**
+ * Вычисление редакционного расстояния (расстояния Левенштейна) с ограничением сверху, основанное на
+ * бит-параллельном алгоритме Майерса в формулировке Хюрё. Каждый символ более длинной строки обрабатывается
+ * несколькими побитовыми операциями над 64-битным словом, а не построчным заполнением таблицы. <br/><br/>
+ * Если длина одной из строк не превышает 64 символа, используется вариант алгоритма для одного машинного
+ * слова, если не превышает {@link #MAX_BLOCKS_LENGTH} - блочный вариант. Для более длинных строк используется
+ * классический алгоритм динамического программирования с ограничением по диагонали. <br/><br/>
+ * Вспомогательные таблицы хранятся отдельно для каждого потока и переиспользуются между вызовами, поэтому
+ * бит-параллельные варианты алгоритма не выделяют память.
+ */
+public final class LevenshteinDistance {
+
+    /**
+     * Максимальная длина более короткой из строк, для которой используется бит-параллельный алгоритм.
+     */
+    public static final int MAX_BLOCKS_LENGTH = 512;
+
+    private static final int MAX_BLOCKS = MAX_BLOCKS_LENGTH / Long.SIZE;
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private LevenshteinDistance() {}
+
+    /**
+     * Вычисляет редакционное расстояние между строками left и right, если оно не превышает threshold.
+     * @param left первая строка
+     * @param right вторая строка
+     * @param threshold максимально допустимое редакционное расстояние
+     * @return редакционное расстояние между строками или -1, если оно превышает threshold.
+     * @throws IllegalArgumentException если left или right равны null, или если threshold меньше нуля.
+     */
+    public static int distance(String left, String right, int threshold) {
+        if(left == null || right == null) {
+            throw new IllegalArgumentException("CharSequences must not be null");
+        } else if(threshold < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative");
+        }
+
+        int leftLength = left.length();
+        int rightLength = right.length();
+        if(Math.abs(leftLength - rightLength) > threshold) return -1;
+        else if(leftLength == 0) return rightLength;
+        else if(rightLength == 0) return leftLength;
+
+        if(algorithmFor(rightLength) < algorithmFor(leftLength)) {
+            String tmp = left;
+            left = right;
+            right = tmp;
+        }
+
+        return switch(algorithmFor(left.length())) {
+            case 1 -> singleWord(left, right, threshold);
+            case 2 -> blocks(left, right, threshold);
+            default -> left.length() <= right.length() ?
+                    banded(left, right, threshold) :
+                    banded(right, left, threshold);
+        };
+    }
+
+
+    /*
+     * Шаблоном (строкой, для которой строится таблица Peq) по возможности выбирается первый аргумент -
+     * при поиске по словарю это искомое значение, и его таблица переиспользуется между вызовами.
+     * Второй аргумент становится шаблоном, только если для него подходит более быстрый вариант алгоритма.
+     */
+    private static int algorithmFor(int length) {
+        if(length <= Long.SIZE) return 1;
+        else if(length <= MAX_BLOCKS_LENGTH) return 2;
+        else return 3;
+    }
+
+
+    /*
+     * Помимо значения D[m][j] отслеживается значение на диагонали таблицы, на которой лежит итоговая ячейка
+     * D[m][n]. Значения вдоль диагонали не убывают, поэтому, как только оно превысит threshold, вычисление
+     * прекращается. Значение D[i][j] восстанавливается из вертикальных приращений столбца j подсчетом бит.
+     */
+    private static int singleWord(String pattern, String text, int threshold) {
+        Scratch scratch = SCRATCH.get();
+        scratch.prepare(pattern);
+        int m = pattern.length();
+        int n = text.length();
+        int diagonal = n - m;
+
+        long pv = -1L;
+        long mv = 0L;
+        long last = 1L << (m - 1);
+        int score = m;
+        for(int j = 0; j < n; ++j) {
+            long eq = scratch.peq(text.charAt(j), 0);
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+
+            if((ph & last) != 0) ++score;
+            else if((mh & last) != 0) --score;
+
+            ph = (ph << 1) | 1L;
+            mh = mh << 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+
+            int column = j + 1;
+            int row = column - diagonal;
+            if(score - (n - column) > threshold) return -1;
+            if(row > 0 && row <= m) {
+                long mask = row == Long.SIZE ? -1L : (1L << row) - 1L;
+                int value = column + Long.bitCount(pv & mask) - Long.bitCount(mv & mask);
+                if(value > threshold) return -1;
+            }
+        }
+
+        return score <= threshold ? score : -1;
+    }
+
+    private static int blocks(String pattern, String text, int threshold) {
+        Scratch scratch = SCRATCH.get();
+        scratch.prepare(pattern);
+        int m = pattern.length();
+        int n = text.length();
+        int diagonal = n - m;
+        int blocksNumber = (m + Long.SIZE - 1) / Long.SIZE;
+        long[] pv = scratch.pv;
+        long[] mv = scratch.mv;
+        Arrays.fill(pv, 0, blocksNumber, -1L);
+        Arrays.fill(mv, 0, blocksNumber, 0L);
+
+        long lastBlockHighBit = 1L << ((m - 1) % Long.SIZE);
+        int score = m;
+        for(int j = 0; j < n; ++j) {
+            char c = text.charAt(j);
+            int carry = 1;
+            for(int b = 0; b < blocksNumber; ++b) {
+                long highBit = b == blocksNumber - 1 ? lastBlockHighBit : Long.MIN_VALUE;
+                long eq = scratch.peq(c, b);
+                long p = pv[b];
+                long mm = mv[b];
+
+                long xv = eq | mm;
+                if(carry < 0) eq |= 1L;
+                long xh = (((eq & p) + p) ^ p) | eq;
+                long ph = mm | ~(xh | p);
+                long mh = p & xh;
+
+                int carryOut = 0;
+                if((ph & highBit) != 0) carryOut = 1;
+                else if((mh & highBit) != 0) carryOut = -1;
+
+                ph <<= 1;
+                mh <<= 1;
+                if(carry < 0) mh |= 1L;
+                else if(carry > 0) ph |= 1L;
+
+                pv[b] = mh | ~(xv | ph);
+                mv[b] = ph & xv;
+                carry = carryOut;
+            }
+            score += carry;
+
+            int column = j + 1;
+            int row = column - diagonal;
+            if(score - (n - column) > threshold) return -1;
+            if(row > 0 && row <= m) {
+                int value = column;
+                int fullBlocks = row / Long.SIZE;
+                for(int b = 0; b < fullBlocks; ++b) {
+                    value += Long.bitCount(pv[b]) - Long.bitCount(mv[b]);
+                }
+                int rest = row % Long.SIZE;
+                if(rest > 0) {
+                    long mask = (1L << rest) - 1L;
+                    value += Long.bitCount(pv[fullBlocks] & mask) - Long.bitCount(mv[fullBlocks] & mask);
+                }
+                if(value > threshold) return -1;
+            }
+        }
+
+        return score <= threshold ? score : -1;
+    }
+
+    private static int banded(String left, String right, int threshold) {
+        int n = left.length();
+        int m = right.length();
+        int[] p = new int[n + 1];
+        int[] d = new int[n + 1];
+        int boundary = Math.min(n, threshold) + 1;
+
+        for(int i = 0; i < boundary; ++i) p[i] = i;
+        Arrays.fill(p, boundary, p.length, Integer.MAX_VALUE);
+        Arrays.fill(d, Integer.MAX_VALUE);
+
+        for(int j = 1; j <= m; ++j) {
+            char rightJ = right.charAt(j - 1);
+            d[0] = j;
+            int min = Math.max(1, j - threshold);
+            int max = j > Integer.MAX_VALUE - threshold ? n : Math.min(n, j + threshold);
+            if(min > 1) d[min - 1] = Integer.MAX_VALUE;
+
+            int lowerBound = Integer.MAX_VALUE;
+            for(int i = min; i <= max; ++i) {
+                if(left.charAt(i - 1) == rightJ) {
+                    d[i] = p[i - 1];
+                } else {
+                    d[i] = 1 + Math.min(Math.min(d[i - 1], p[i]), p[i - 1]);
+                }
+                lowerBound = Math.min(lowerBound, d[i]);
+            }
+
+            if(lowerBound > threshold) return -1;
+
+            int[] tmp = p;
+            p = d;
+            d = tmp;
+        }
+
+        return p[n] <= threshold ? p[n] : -1;
+    }
+
+
+    /**
+     * Таблица битовых масок вхождений символов шаблона (Peq) и векторы состояния блочного алгоритма.
+     * Для ASCII символов маски хранятся в массиве с прямой адресацией, для остальных - в хеш-таблице
+     * с открытой адресацией. Таблица последнего шаблона сохраняется до вызова с другим шаблоном: при поиске
+     * по словарю искомое значение сравнивается подряд со всеми словами пользователя.
+     */
+    private static final class Scratch {
+
+        private static final int ASCII = 128;
+        private static final int TABLE_SIZE = MAX_BLOCKS_LENGTH * 2;
+
+        private final long[] ascii = new long[ASCII * MAX_BLOCKS];
+        private final char[] keys = new char[TABLE_SIZE];
+        private final boolean[] occupied = new boolean[TABLE_SIZE];
+        private final long[] values = new long[TABLE_SIZE * MAX_BLOCKS];
+        private final int[] usedSlots = new int[MAX_BLOCKS_LENGTH];
+        private int usedSlotsNumber;
+        private String pattern = "";
+        private final long[] pv = new long[MAX_BLOCKS];
+        private final long[] mv = new long[MAX_BLOCKS];
+
+        public void prepare(String newPattern) {
+            if(pattern != newPattern && !pattern.equals(newPattern)) {
+                clear();
+                pattern = newPattern;
+                for(int i = 0; i < pattern.length(); ++i) {
+                    char c = pattern.charAt(i);
+                    long bit = 1L << (i % Long.SIZE);
+                    int block = i / Long.SIZE;
+                    if(c < ASCII) ascii[c * MAX_BLOCKS + block] |= bit;
+                    else values[insert(c) * MAX_BLOCKS + block] |= bit;
+                }
+            }
+        }
+
+        public long peq(char c, int block) {
+            if(c < ASCII) return ascii[c * MAX_BLOCKS + block];
+            int slot = find(c);
+            return slot < 0 ? 0L : values[slot * MAX_BLOCKS + block];
+        }
+
+        private void clear() {
+            int blocksNumber = (pattern.length() + Long.SIZE - 1) / Long.SIZE;
+            for(int i = 0; i < pattern.length(); ++i) {
+                char c = pattern.charAt(i);
+                if(c < ASCII) Arrays.fill(ascii, c * MAX_BLOCKS, c * MAX_BLOCKS + blocksNumber, 0L);
+            }
+            for(int i = 0; i < usedSlotsNumber; ++i) {
+                int slot = usedSlots[i];
+                occupied[slot] = false;
+                Arrays.fill(values, slot * MAX_BLOCKS, slot * MAX_BLOCKS + blocksNumber, 0L);
+            }
+            usedSlotsNumber = 0;
+            pattern = "";
+        }
+
+        private int insert(char c) {
+            int slot = hash(c);
+            while(occupied[slot]) {
+                if(keys[slot] == c) return slot;
+                slot = (slot + 1) & (TABLE_SIZE - 1);
+            }
+            occupied[slot] = true;
+            keys[slot] = c;
+            usedSlots[usedSlotsNumber++] = slot;
+            return slot;
+        }
+
+        private int find(char c) {
+            int slot = hash(c);
+            while(occupied[slot]) {
+                if(keys[slot] == c) return slot;
+                slot = (slot + 1) & (TABLE_SIZE - 1);
+            }
+            return -1;
+        }
+
+        private int hash(char c) {
+            return ((c * 0x9E3779B1) >>> 16) & (TABLE_SIZE - 1);
+        }
+
+    }
+
+}
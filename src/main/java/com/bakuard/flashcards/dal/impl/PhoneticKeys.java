@@ -0,0 +1,61 @@
+package com.bakuard.flashcards.dal.impl;
+
+import org.apache.commons.codec.language.DoubleMetaphone;
+
+import java.util.StringJoiner;
+
+/**
+ * Вычисление фонетических ключей Double Metaphone для значений слов и устойчивых выражений. Каждое слово
+ * значения кодируется отдельно, ключи слов объединяются через пробел. Double Metaphone возвращает для слова
+ * основной и альтернативный ключ - они отличаются для слов, допускающих несколько вариантов произношения.
+ * <br/><br/>
+ * Ключ не зависит от регистра символов и учитывает только латинские буквы. Если значение не содержит ни
+ * одной латинской буквы - ключ равен null.
+ */
+public final class PhoneticKeys {
+
+    public static final int MAX_CODE_LENGTH = 6;
+    public static final int MAX_KEY_LENGTH = 128;
+
+    private static final ThreadLocal<DoubleMetaphone> encoder = ThreadLocal.withInitial(() -> {
+        DoubleMetaphone result = new DoubleMetaphone();
+        result.setMaxCodeLen(MAX_CODE_LENGTH);
+        return result;
+    });
+
+    private PhoneticKeys() {}
+
+    /**
+     * Возвращает основной фонетический ключ значения value или null, если value равен null или не содержит
+     * ни одной латинской буквы.
+     */
+    public static String primary(String value) {
+        return key(value, false);
+    }
+
+    /**
+     * Возвращает альтернативный фонетический ключ значения value или null, если value равен null или не
+     * содержит ни одной латинской буквы.
+     */
+    public static String alternate(String value) {
+        return key(value, true);
+    }
+
+
+    private static String key(String value, boolean alternate) {
+        if(value == null) return null;
+
+        DoubleMetaphone doubleMetaphone = encoder.get();
+        StringJoiner result = new StringJoiner(" ");
+        for(String word : value.split("[^A-Za-z]+")) {
+            if(word.isEmpty()) continue;
+            String code = doubleMetaphone.doubleMetaphone(word, alternate);
+            if(code != null && !code.isEmpty()) result.add(code);
+        }
+
+        String key = result.toString();
+        if(key.isEmpty()) return null;
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.bakuard.flashcards.dal.impl;
+
+import com.bakuard.flashcards.config.configData.ConfigData;
+import com.bakuard.flashcards.dal.PrefixIndex;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+public class PrefixIndexImpl implements PrefixIndex {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String loadQuery;
+    private final LoadingCache<UUID, UserIndex> indexes;
+
+    /**
+     * Создает индекс для одной из таблиц словаря.
+     * @param jdbcTemplate используется для загрузки индекса пользователя
+     * @param configData общие данные конфигурации приложения
+     * @param table таблица, записи которой индексируются (words или expressions)
+     * @param idColumn столбец таблицы table с идентификатором записи
+     */
+    public PrefixIndexImpl(JdbcTemplate jdbcTemplate, ConfigData configData, String table, String idColumn) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.loadQuery = "select " + idColumn + " as id, value from " + table + " where user_id = ?;";
+        this.indexes = CacheBuilder.newBuilder().
+                maximumSize(configData.dictionaryIndex().maxUsers()).
+                expireAfterAccess(configData.dictionaryIndex().expireAfterAccessInMinutes(), TimeUnit.MINUTES).
+                build(CacheLoader.from(this::load));
+    }
+
+    @Override
+    public List<Entry> findByPrefix(UUID userId, String prefix, int limit) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        Objects.requireNonNull(prefix, "prefix can't be null");
+
+        if(prefix.isEmpty() || limit <= 0) return List.of();
+        return indexes.getUnchecked(userId).find(prefix.toLowerCase(), limit);
+    }
+
+    @Override
+    public void update(UUID userId, UUID id, String value) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        Objects.requireNonNull(id, "id can't be null");
+        Objects.requireNonNull(value, "value can't be null");
+
+        UserIndex index = indexes.getIfPresent(userId);
+        if(index == null || !index.contains(new Entry(id, value))) invalidate(userId);
+    }
+
+    @Override
+    public void invalidate(UUID userId) {
+        Objects.requireNonNull(userId, "userId can't be null");
+
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    indexes.invalidate(userId);
+                }
+            });
+        } else {
+            indexes.invalidate(userId);
+        }
+    }
+
+
+    private UserIndex load(UUID userId) {
+        List<Entry> entries = jdbcTemplate.query(
+                loadQuery,
+                ps -> ps.setObject(1, userId),
+                (rs, rowNum) -> new Entry(rs.getObject("id", UUID.class), rs.getString("value"))
+        );
+        return new UserIndex(entries);
+    }
+
+
+    /*
+     * Неизменяемый снимок записей пользователя, отсортированных по значению в нижнем регистре. Поиск по префиксу -
+     * бинарный поиск первого ключа не меньшего префикса и последовательный просмотр следующих за ним ключей.
+     */
+    private static class UserIndex {
+
+        private final String[] keys;
+        private final Entry[] entries;
+        private final Set<Entry> entrySet;
+
+        public UserIndex(List<Entry> entries) {
+            Entry[] sorted = entries.toArray(Entry[]::new);
+            String[] lowerCase = new String[sorted.length];
+            Integer[] order = new Integer[sorted.length];
+            for(int i = 0; i < sorted.length; i++) {
+                lowerCase[i] = sorted[i].value().toLowerCase();
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.
+                    <Integer, String>comparing(i -> lowerCase[i]).
+                    thenComparing(i -> sorted[i].value()));
+
+            this.keys = new String[sorted.length];
+            this.entries = new Entry[sorted.length];
+            for(int i = 0; i < order.length; i++) {
+                this.keys[i] = lowerCase[order[i]];
+                this.entries[i] = sorted[order[i]];
+            }
+            this.entrySet = new HashSet<>(Arrays.asList(sorted));
+        }
+
+        public boolean contains(Entry entry) {
+            return entrySet.contains(entry);
+        }
+
+        public List<Entry> find(String prefix, int limit) {
+            int from = lowerBound(prefix);
+            List<Entry> result = new ArrayList<>(Math.min(limit, keys.length - from));
+            for(int i = from; i < keys.length && result.size() < limit && keys[i].startsWith(prefix); i++) {
+                result.add(entries[i]);
+            }
+            return result;
+        }
+
+        private int lowerBound(String prefix) {
+            int low = 0;
+            int high = keys.length;
+            while(low < high) {
+                int middle = (low + high) >>> 1;
+                if(keys[middle].compareTo(prefix) < 0) low = middle + 1;
+                else high = middle;
+            }
+            return low;
+        }
+
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.bakuard.flashcards.dal.impl;
+
+import com.bakuard.flashcards.dal.QGramIndex;
+import com.bakuard.flashcards.model.expression.Expression;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+public class QGramIndexImpl implements QGramIndex {
+
+    private JdbcTemplate jdbcTemplate;
+
+    public QGramIndexImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void update(Expression expression) {
+        update("expressions_qgrams", "expression_id", expression.getId(), expression.getUserId(), expression.getValue());
+    }
+
+
+    private void update(String qgramsTable, String idColumn, UUID id, UUID userId, String value) {
+        List<String> qgrams = QGrams.of(value);
+        List<String> current = jdbcTemplate.queryForList(
+                "select qgram from " + qgramsTable + " where " + idColumn + " = ?;", String.class, id);
+        if(new HashSet<>(current).equals(new HashSet<>(qgrams))) return;
+
+        jdbcTemplate.update("delete from " + qgramsTable + " where " + idColumn + " = ?;", id);
+        jdbcTemplate.batchUpdate(
+                "insert into " + qgramsTable + "(" + idColumn + ", user_id, qgram) values (?, ?, ?);",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setObject(1, id);
+                        ps.setObject(2, userId);
+                        ps.setString(3, qgrams.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return qgrams.size();
+                    }
+                });
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.bakuard.flashcards.dal.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Разбиение строк на q-граммы (подстроки длины {@link #Q}) для предварительного отбора кандидатов при нечетком
+ * поиске. Строка дополняется символами {@link #PADDING} по краям, поэтому строка длины n содержит ровно
+ * n + Q - 1 q-грамм. Каждая q-грамма дополняется порядковым номером своего вхождения в строку, что позволяет
+ * считать общие q-граммы двух строк как пересечение мультимножеств. <br/><br/>
+ * Если редакционное расстояние между строками s и t не превышает k, то они имеют не менее
+ * |s| + Q - 1 - Q * k общих q-грамм (каждая правка затрагивает не более Q q-грамм). Перед разбиением символы
+ * приводятся к нижнему регистру - это может лишь увеличить кол-во общих q-грамм и не нарушает оценку.
+ */
+public final class QGrams {
+
+    public static final int Q = 3;
+    public static final char PADDING = '#';
+
+    private QGrams() {}
+
+    /**
+     * Возвращает все q-граммы строки value с номерами их вхождений.
+     */
+    public static List<String> of(String value) {
+        StringBuilder padded = new StringBuilder(value.length() + 2 * (Q - 1));
+        padded.append(String.valueOf(PADDING).repeat(Q - 1));
+        for(int i = 0; i < value.length(); i++) padded.append(Character.toLowerCase(value.charAt(i)));
+        padded.append(String.valueOf(PADDING).repeat(Q - 1));
+
+        List<String> result = new ArrayList<>(value.length() + Q - 1);
+        Map<String, Integer> occurrences = new HashMap<>();
+        for(int i = 0; i + Q <= padded.length(); i++) {
+            String qgram = padded.substring(i, i + Q);
+            int occurrence = occurrences.merge(qgram, 1, Integer::sum);
+            result.add(qgram + occurrence);
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает минимальное кол-во общих q-грамм, которое должно быть у строки value с любой строкой,
+     * редакционное расстояние до которой не превышает maxDistance. Если возвращаемое значение не больше нуля -
+     * фильтрация по q-граммам невозможна.
+     */
+    public static int minShared(String value, int maxDistance) {
+        return value.length() + Q - 1 - Q * maxDistance;
+    }
+
+}
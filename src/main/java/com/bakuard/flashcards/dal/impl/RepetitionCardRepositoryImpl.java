@@ -0,0 +1,307 @@
+package com.bakuard.flashcards.dal.impl;
+
+import com.bakuard.flashcards.dal.RepetitionCardRepository;
+import com.bakuard.flashcards.model.repetition.RepetitionCard;
+import com.bakuard.flashcards.model.repetition.RepetitionFeedKey;
+import com.bakuard.flashcards.model.repetition.RepetitionForecastDay;
+import com.bakuard.flashcards.model.repetition.RepetitionSummary;
+import com.bakuard.flashcards.model.repetition.RepetitionType;
+import com.bakuard.flashcards.validation.exception.InvalidParameter;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+public class RepetitionCardRepositoryImpl implements RepetitionCardRepository {
+
+    private JdbcTemplate jdbcTemplate;
+
+    public RepetitionCardRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<RepetitionCard> findById(UUID userId, RepetitionType type, UUID id) {
+        Objects.requireNonNull(id, "id can't be null");
+        return findAllById(userId, type, List.of(id)).stream().findFirst();
+    }
+
+    @Override
+    public List<RepetitionCard> findAllById(UUID userId, RepetitionType type, Collection<UUID> ids) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        Objects.requireNonNull(type, "type can't be null");
+        Objects.requireNonNull(ids, "ids can't be null");
+        if(ids.isEmpty()) return List.of();
+
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+        args.addAll(new LinkedHashSet<>(ids));
+        return jdbcTemplate.query("""
+                select %2$s, value, %3$s, %4$s, version
+                    from %1$s
+                    where user_id = ? and %2$s in (%5$s);
+                """.formatted(table(type), idColumn(type), intervalColumn(type), dateColumn(type),
+                        placeholders(args.size() - 1)),
+                (rs, rowNum) -> new RepetitionCard(
+                        rs.getObject(1, UUID.class),
+                        rs.getString(2),
+                        rs.getInt(3),
+                        rs.getObject(4, LocalDate.class),
+                        rs.getLong(5)
+                ),
+                args.toArray());
+    }
+
+    @Override
+    public void updateAll(UUID userId, RepetitionType type, List<RepetitionCard> cards) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        Objects.requireNonNull(type, "type can't be null");
+        Objects.requireNonNull(cards, "cards can't be null");
+        if(cards.isEmpty()) return;
+
+        int[] counts = jdbcTemplate.batchUpdate(updateSql(type) + " and version = ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        RepetitionCard card = cards.get(i);
+                        ps.setInt(1, card.interval());
+                        ps.setDate(2, Date.valueOf(card.lastDateOfRepeat()));
+                        ps.setObject(3, card.id());
+                        ps.setObject(4, userId);
+                        ps.setLong(5, Objects.requireNonNull(card.version(), "card version can't be null"));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return cards.size();
+                    }
+                });
+
+        for(int i = 0; i < counts.length; i++) {
+            if(counts[i] == 0) {
+                throw new OptimisticLockingFailureException(
+                        "Optimistic lock exception on saving repeat data of " + table(type) +
+                                " with id=" + cards.get(i).id() + " and version=" + cards.get(i).version());
+            }
+        }
+    }
+
+    @Override
+    public boolean update(UUID userId, RepetitionType type, RepetitionCard card) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        Objects.requireNonNull(type, "type can't be null");
+        Objects.requireNonNull(card, "card can't be null");
+
+        return jdbcTemplate.update(updateSql(type),
+                card.interval(), Date.valueOf(card.lastDateOfRepeat()), card.id(), userId) > 0;
+    }
+
+    @Override
+    public RepetitionSummary countDue(UUID userId, LocalDate date) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        Objects.requireNonNull(date, "date can't be null");
+
+        List<RepetitionType> types = List.of(
+                RepetitionType.WORDS_FROM_ENGLISH,
+                RepetitionType.WORDS_FROM_NATIVE,
+                RepetitionType.EXPRESSIONS_FROM_ENGLISH,
+                RepetitionType.EXPRESSIONS_FROM_NATIVE
+        );
+        LocalDate tomorrow = date.plusDays(1);
+        StringJoiner due = new StringJoiner(",\n       ");
+        StringJoiner dueTomorrow = new StringJoiner(" +\n       ");
+        List<Object> args = new ArrayList<>();
+        for(RepetitionType type : types) {
+            due.add(countDueSql(type, "<="));
+            args.addAll(List.of(userId, date));
+        }
+        for(RepetitionType type : types) {
+            dueTomorrow.add(countDueSql(type, "="));
+            args.addAll(List.of(userId, tomorrow));
+        }
+        return jdbcTemplate.queryForObject(
+                "select " + due + ",\n       " + dueTomorrow + ";",
+                (rs, rowNum) -> new RepetitionSummary(
+                        date,
+                        rs.getInt(1),
+                        rs.getInt(2),
+                        rs.getInt(3),
+                        rs.getInt(4),
+                        rs.getInt(5)
+                ),
+                args.toArray());
+    }
+
+    @Override
+    public List<RepetitionForecastDay> forecast(UUID userId, LocalDate from, int days) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        Objects.requireNonNull(from, "from can't be null");
+
+        LocalDate to = from.plusDays(days);
+        Map<RepetitionType, int[]> counts = new EnumMap<>(RepetitionType.class);
+        List<Object> args = new ArrayList<>();
+        StringJoiner union = new StringJoiner(" union all ");
+        for(RepetitionType type : RepetitionType.values()) {
+            counts.put(type, new int[days]);
+            union.add("""
+                    select greatest(%2$s, ?) repeat_date, '%3$s' repetition_type
+                        from %1$s
+                        where user_id = ? and %2$s < ?
+                    """.formatted(table(type), nextDateColumn(type), type.name()));
+            args.addAll(List.of(from, userId, to));
+        }
+        jdbcTemplate.query("""
+                select repeat_date, repetition_type, count(*) cards
+                    from (%s) due
+                    group by repeat_date, repetition_type;
+                """.formatted(union),
+                rs -> {
+                    int day = (int) ChronoUnit.DAYS.between(from, rs.getObject("repeat_date", LocalDate.class));
+                    RepetitionType type = RepetitionType.valueOf(rs.getString("repetition_type"));
+                    counts.get(type)[day] = rs.getInt("cards");
+                },
+                args.toArray());
+
+        List<RepetitionForecastDay> result = new ArrayList<>(days);
+        for(int day = 0; day < days; day++) {
+            result.add(new RepetitionForecastDay(
+                    from.plusDays(day),
+                    counts.get(RepetitionType.WORDS_FROM_ENGLISH)[day],
+                    counts.get(RepetitionType.WORDS_FROM_NATIVE)[day],
+                    counts.get(RepetitionType.EXPRESSIONS_FROM_ENGLISH)[day],
+                    counts.get(RepetitionType.EXPRESSIONS_FROM_NATIVE)[day]
+            ));
+        }
+        return result;
+    }
+
+    @Override
+    public Window<RepetitionFeedKey> scrollDue(UUID userId,
+                                               boolean fromEnglish,
+                                               LocalDate date,
+                                               KeysetScrollPosition position,
+                                               int limit) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        Objects.requireNonNull(date, "date can't be null");
+        Objects.requireNonNull(position, "position can't be null");
+
+        List<RepetitionType> types = Arrays.stream(RepetitionType.values()).
+                filter(type -> type.isFromEnglish() == fromEnglish).
+                toList();
+        List<Object> after = position.isInitial() ? null : toFeedKeys(position, types);
+
+        List<Object> args = new ArrayList<>();
+        StringJoiner union = new StringJoiner(" union all ");
+        for(RepetitionType type : types) {
+            union.add("""
+                    select %4$d type_index, %2$s card_id, value
+                        from %1$s
+                        where user_id = ? and %3$s <= ?%5$s
+                    """.formatted(table(type), idColumn(type), nextDateColumn(type), type.ordinal(),
+                            after == null ? "" : " and value >= ?"));
+            args.add(userId);
+            args.add(date);
+            if(after != null) args.add(after.get(0));
+        }
+        if(after != null) args.addAll(after);
+        args.add(Math.max(0, limit) + 1);
+
+        List<Map<String, Object>> rows = jdbcTemplate.query("""
+                select type_index, card_id, value
+                    from (%s) due
+                    %s
+                    order by value, type_index, card_id
+                    limit ?;
+                """.formatted(union, after == null ? "" : "where (value, type_index, card_id) > (?, ?, ?)"),
+                (rs, rowNum) -> {
+                    Map<String, Object> keys = new LinkedHashMap<>();
+                    keys.put("value", rs.getString("value"));
+                    keys.put("type", RepetitionType.values()[rs.getInt("type_index")]);
+                    keys.put("id", rs.getObject("card_id", UUID.class));
+                    return keys;
+                },
+                args.toArray());
+
+        boolean hasNext = rows.size() > Math.max(0, limit);
+        List<Map<String, Object>> content = hasNext ? rows.subList(0, Math.max(0, limit)) : rows;
+        return Window.from(
+                content.stream().
+                        map(keys -> new RepetitionFeedKey((RepetitionType) keys.get("type"), (UUID) keys.get("id"))).
+                        toList(),
+                index -> ScrollPosition.forward(content.get(index)),
+                hasNext
+        );
+    }
+
+
+    private List<Object> toFeedKeys(KeysetScrollPosition position, List<RepetitionType> types) {
+        Map<String, Object> keys = position.getKeys();
+        try {
+            if(position.scrollsBackward() || keys.size() != 3) throw new IllegalArgumentException("Invalid keys");
+
+            Object value = Objects.requireNonNull(keys.get("value"));
+            Object type = Objects.requireNonNull(keys.get("type"));
+            Object id = Objects.requireNonNull(keys.get("id"));
+            RepetitionType repetitionType = type instanceof RepetitionType ?
+                    (RepetitionType) type : RepetitionType.valueOf(type.toString());
+            if(!types.contains(repetitionType)) throw new IllegalArgumentException("Other repetition direction");
+
+            return List.of(
+                    value.toString(),
+                    repetitionType.ordinal(),
+                    id instanceof UUID ? id : UUID.fromString(id.toString())
+            );
+        } catch(RuntimeException e) {
+            throw new InvalidParameter("Scroll position doesn't match repetition feed or contains invalid values",
+                    e,
+                    "Cursor.invalid",
+                    false);
+        }
+    }
+
+    private String countDueSql(RepetitionType type, String operator) {
+        return "(select count(*) from %s where user_id = ? and %s %s ?)".
+                formatted(table(type), nextDateColumn(type), operator);
+    }
+
+    private String updateSql(RepetitionType type) {
+        return """
+                update %1$s set %3$s = ?, %4$s = ?, version = version + 1
+                    where %2$s = ? and user_id = ?
+                """.formatted(table(type), idColumn(type), intervalColumn(type), dateColumn(type));
+    }
+
+    private String table(RepetitionType type) {
+        return type.isWords() ? "words" : "expressions";
+    }
+
+    private String idColumn(RepetitionType type) {
+        return type.isWords() ? "word_id" : "expression_id";
+    }
+
+    private String intervalColumn(RepetitionType type) {
+        return type.isFromEnglish() ? "repeat_interval_from_english" : "repeat_interval_from_native";
+    }
+
+    private String dateColumn(RepetitionType type) {
+        return type.isFromEnglish() ? "last_date_of_repeat_from_english" : "last_date_of_repeat_from_native";
+    }
+
+    private String nextDateColumn(RepetitionType type) {
+        return type.isFromEnglish() ? "next_repeat_date_from_english" : "next_repeat_date_from_native";
+    }
+
+    private String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+}
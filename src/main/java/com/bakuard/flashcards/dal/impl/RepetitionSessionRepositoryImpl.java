@@ -0,0 +1,206 @@
+package com.bakuard.flashcards.dal.impl;
+
+import com.bakuard.flashcards.dal.RepetitionSessionRepository;
+import com.bakuard.flashcards.model.repetition.RepetitionBatch;
+import com.bakuard.flashcards.model.repetition.RepetitionSession;
+import com.bakuard.flashcards.model.repetition.RepetitionType;
+import com.bakuard.flashcards.validation.exception.UnknownEntityException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+public class RepetitionSessionRepositoryImpl implements RepetitionSessionRepository {
+
+    private JdbcTemplate jdbcTemplate;
+
+    public RepetitionSessionRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public RepetitionSession open(UUID userId, RepetitionType type, LocalDate date) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        Objects.requireNonNull(type, "type can't be null");
+        Objects.requireNonNull(date, "date can't be null");
+
+        // Сессия пользователя для вида повторения сохраняет свой идентификатор: карточки старой сессии
+        // удаляются, а сама сессия перезаписывается одним запросом MERGE по (user_id, repetition_type).
+        jdbcTemplate.update(
+                """
+                        delete from repetition_sessions_cards
+                            where session_id in (select session_id from repetition_sessions
+                                                    where user_id = ? and repetition_type = ?);
+                        """,
+                userId, type.name());
+        try {
+            jdbcTemplate.update(
+                    """
+                            merge into repetition_sessions as target
+                                using (values (cast(? as UUID), cast(? as UUID), cast(? as VARCHAR(32)), cast(? as DATE)))
+                                    as source(session_id, user_id, repetition_type, creation_date)
+                                on target.user_id = source.user_id
+                                    and target.repetition_type = source.repetition_type
+                                when matched then update set
+                                    creation_date = source.creation_date,
+                                    position = 0,
+                                    total = 0
+                                when not matched then insert(session_id,
+                                                             user_id,
+                                                             repetition_type,
+                                                             creation_date,
+                                                             position,
+                                                             total)
+                                    values(source.session_id, source.user_id, source.repetition_type,
+                                           source.creation_date, 0, 0);
+                            """,
+                    ps -> {
+                        ps.setObject(1, UUID.randomUUID());
+                        ps.setObject(2, userId);
+                        ps.setString(3, type.name());
+                        ps.setDate(4, Date.valueOf(date));
+                    }
+            );
+        } catch(DataIntegrityViolationException e) {
+            throw new UnknownEntityException(
+                    "Unknown user with id=" + userId, e, "User.unknownId", false);
+        }
+        UUID sessionId = jdbcTemplate.queryForObject(
+                "select session_id from repetition_sessions where user_id = ? and repetition_type = ?;",
+                UUID.class,
+                userId, type.name());
+
+        int total = hasSnapshot(userId, date) ?
+                jdbcTemplate.update(
+                        """
+                                insert into repetition_sessions_cards(session_id, card_index, card_id)
+                                    select ?, card_index, card_id from repetition_snapshots_cards
+                                        where user_id = ? and repetition_type = ?;
+                                """,
+                        sessionId, userId, type.name()
+                ) :
+                jdbcTemplate.update(
+                        """
+                                insert into repetition_sessions_cards(session_id, card_index, card_id)
+                                    select ?, row_number() over(order by value) - 1, %s from %s
+                                        where user_id = ? and %s <= ?;
+                                """.formatted(idColumn(type), table(type), dateColumn(type)),
+                        ps -> {
+                            ps.setObject(1, sessionId);
+                            ps.setObject(2, userId);
+                            ps.setDate(3, Date.valueOf(date));
+                        }
+                );
+        jdbcTemplate.update("update repetition_sessions set total = ? where session_id = ?;", total, sessionId);
+
+        return new RepetitionSession(sessionId, userId, type, date, 0, total);
+    }
+
+    @Override
+    public Optional<RepetitionSession> findById(UUID userId, UUID sessionId) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        Objects.requireNonNull(sessionId, "sessionId can't be null");
+
+        return jdbcTemplate.query(
+                "select * from repetition_sessions where session_id = ? and user_id = ?;",
+                this::mapSession,
+                sessionId, userId
+        ).stream().findFirst();
+    }
+
+    @Override
+    public RepetitionBatch<UUID> next(UUID userId, UUID sessionId, RepetitionType type, int limit) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        Objects.requireNonNull(sessionId, "sessionId can't be null");
+        Objects.requireNonNull(type, "type can't be null");
+
+        RepetitionSession session = jdbcTemplate.query(
+                """
+                        select * from repetition_sessions
+                            where session_id = ? and user_id = ? and repetition_type = ?
+                            for update;
+                        """,
+                this::mapSession,
+                sessionId, userId, type.name()
+        ).stream().
+                findFirst().
+                orElseThrow(() -> new UnknownEntityException(
+                        "User with id=" + userId + " hasn't repetition session with id=" + sessionId +
+                                " and type=" + type,
+                        "RepetitionSession.unknownIdOrUserId"));
+
+        List<UUID> cards = jdbcTemplate.queryForList(
+                """
+                        select card_id from repetition_sessions_cards
+                            where session_id = ? and card_index >= ?
+                            order by card_index limit ?;
+                        """,
+                UUID.class,
+                sessionId, session.position(), Math.max(0, limit)
+        );
+
+        RepetitionSession moved = new RepetitionSession(
+                session.id(),
+                session.userId(),
+                session.type(),
+                session.creationDate(),
+                session.position() + cards.size(),
+                session.total()
+        );
+        if(!cards.isEmpty()) {
+            jdbcTemplate.update(
+                    "update repetition_sessions set position = ? where session_id = ?;",
+                    moved.position(), sessionId);
+        }
+
+        return new RepetitionBatch<>(moved, cards);
+    }
+
+
+    private boolean hasSnapshot(UUID userId, LocalDate date) {
+        return jdbcTemplate.queryForObject(
+                "select count(*) from repetition_snapshots where user_id = ? and snapshot_date = ?;",
+                Integer.class,
+                userId, Date.valueOf(date)) > 0;
+    }
+
+    private RepetitionSession mapSession(ResultSet rs, int rowNum) throws SQLException {
+        return new RepetitionSession(
+                rs.getObject("session_id", UUID.class),
+                rs.getObject("user_id", UUID.class),
+                RepetitionType.valueOf(rs.getString("repetition_type")),
+                rs.getObject("creation_date", LocalDate.class),
+                rs.getInt("position"),
+                rs.getInt("total")
+        );
+    }
+
+    private String table(RepetitionType type) {
+        return switch(type) {
+            case WORDS_FROM_ENGLISH, WORDS_FROM_NATIVE -> "words";
+            case EXPRESSIONS_FROM_ENGLISH, EXPRESSIONS_FROM_NATIVE -> "expressions";
+        };
+    }
+
+    private String idColumn(RepetitionType type) {
+        return switch(type) {
+            case WORDS_FROM_ENGLISH, WORDS_FROM_NATIVE -> "word_id";
+            case EXPRESSIONS_FROM_ENGLISH, EXPRESSIONS_FROM_NATIVE -> "expression_id";
+        };
+    }
+
+    private String dateColumn(RepetitionType type) {
+        return switch(type) {
+            case WORDS_FROM_ENGLISH, EXPRESSIONS_FROM_ENGLISH -> "next_repeat_date_from_english";
+            case WORDS_FROM_NATIVE, EXPRESSIONS_FROM_NATIVE -> "next_repeat_date_from_native";
+        };
+    }
+
+}
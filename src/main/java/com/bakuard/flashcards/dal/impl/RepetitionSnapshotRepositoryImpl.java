@@ -0,0 +1,129 @@
+package com.bakuard.flashcards.dal.impl;
+
+import com.bakuard.flashcards.dal.RepetitionSnapshotRepository;
+import com.bakuard.flashcards.model.repetition.RepetitionSummary;
+import com.bakuard.flashcards.model.repetition.RepetitionType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+public class RepetitionSnapshotRepositoryImpl implements RepetitionSnapshotRepository {
+
+    private JdbcTemplate jdbcTemplate;
+
+    public RepetitionSnapshotRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<RepetitionSummary> save(UUID userId, LocalDate date) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        Objects.requireNonNull(date, "date can't be null");
+
+        if(!lockUser(userId)) return Optional.empty();
+
+        jdbcTemplate.update("delete from repetition_snapshots where user_id = ?;", userId);
+        jdbcTemplate.update("""
+                insert into repetition_snapshots(user_id,
+                                                 snapshot_date,
+                                                 words_from_english,
+                                                 words_from_native,
+                                                 expressions_from_english,
+                                                 expressions_from_native,
+                                                 due_tomorrow)
+                    values (?,?,0,0,0,0,0);
+                """,
+                userId, Date.valueOf(date));
+
+        int[] counts = new int[RepetitionType.values().length];
+        for(RepetitionType type : RepetitionType.values()) {
+            counts[type.ordinal()] = jdbcTemplate.update("""
+                    insert into repetition_snapshots_cards(user_id, repetition_type, card_index, card_id)
+                        select user_id, ?, row_number() over(order by value) - 1, %s from %s
+                            where user_id = ? and %s <= ?;
+                    """.formatted(idColumn(type), table(type), dateColumn(type)),
+                    type.name(), userId, Date.valueOf(date));
+        }
+        int dueTomorrow = 0;
+        for(RepetitionType type : RepetitionType.values()) {
+            dueTomorrow += jdbcTemplate.queryForObject(
+                    "select count(*) from %s where user_id = ? and %s = ?;".formatted(table(type), dateColumn(type)),
+                    Integer.class,
+                    userId, Date.valueOf(date.plusDays(1)));
+        }
+
+        RepetitionSummary summary = new RepetitionSummary(
+                date,
+                counts[RepetitionType.WORDS_FROM_ENGLISH.ordinal()],
+                counts[RepetitionType.WORDS_FROM_NATIVE.ordinal()],
+                counts[RepetitionType.EXPRESSIONS_FROM_ENGLISH.ordinal()],
+                counts[RepetitionType.EXPRESSIONS_FROM_NATIVE.ordinal()],
+                dueTomorrow
+        );
+        jdbcTemplate.update("""
+                update repetition_snapshots set words_from_english = ?,
+                                                words_from_native = ?,
+                                                expressions_from_english = ?,
+                                                expressions_from_native = ?,
+                                                due_tomorrow = ?
+                    where user_id = ?;
+                """,
+                summary.wordsFromEnglish(),
+                summary.wordsFromNative(),
+                summary.expressionsFromEnglish(),
+                summary.expressionsFromNative(),
+                summary.dueTomorrow(),
+                userId);
+        return Optional.of(summary);
+    }
+
+    @Override
+    public Optional<RepetitionSummary> findSummary(UUID userId, LocalDate date) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        Objects.requireNonNull(date, "date can't be null");
+
+        return jdbcTemplate.query(
+                "select * from repetition_snapshots where user_id = ? and snapshot_date = ?;",
+                (rs, rowNum) -> new RepetitionSummary(
+                        rs.getObject("snapshot_date", LocalDate.class),
+                        rs.getInt("words_from_english"),
+                        rs.getInt("words_from_native"),
+                        rs.getInt("expressions_from_english"),
+                        rs.getInt("expressions_from_native"),
+                        rs.getInt("due_tomorrow")
+                ),
+                userId, Date.valueOf(date)
+        ).stream().findFirst();
+    }
+
+    @Override
+    public void invalidate(UUID userId) {
+        Objects.requireNonNull(userId, "userId can't be null");
+
+        jdbcTemplate.update("delete from repetition_snapshots where user_id = ?;", userId);
+    }
+
+
+    private boolean lockUser(UUID userId) {
+        return !jdbcTemplate.queryForList(
+                "select user_id from users where user_id = ? for update;", UUID.class, userId
+        ).isEmpty();
+    }
+
+    private String table(RepetitionType type) {
+        return type.isWords() ? "words" : "expressions";
+    }
+
+    private String idColumn(RepetitionType type) {
+        return type.isWords() ? "word_id" : "expression_id";
+    }
+
+    private String dateColumn(RepetitionType type) {
+        return type.isFromEnglish() ? "next_repeat_date_from_english" : "next_repeat_date_from_native";
+    }
+
+}
@@ -0,0 +1,188 @@
+package com.bakuard.flashcards.dal.impl;
+
+import com.bakuard.flashcards.dal.ScrollRepository;
+import com.bakuard.flashcards.validation.exception.InvalidParameter;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.*;
+
+public class ScrollRepositoryImpl implements ScrollRepository {
+
+    private enum KeyType {STRING, INTEGER, DATE}
+
+    private static final Map<String, KeyType> SORT_COLUMNS = Map.of(
+            "value", KeyType.STRING,
+            "repeat_interval_from_english", KeyType.INTEGER,
+            "repeat_interval_from_native", KeyType.INTEGER,
+            "last_date_of_repeat_from_english", KeyType.DATE,
+            "last_date_of_repeat_from_native", KeyType.DATE
+    );
+    private static final String ID_KEY = "id";
+
+    private JdbcTemplate jdbcTemplate;
+
+    public ScrollRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Window<UUID> scrollWords(UUID userId, Sort sort, KeysetScrollPosition position, int limit) {
+        return scroll("words", "word_id", "", List.of(userId), sort, position, limit);
+    }
+
+    @Override
+    public Window<UUID> scrollWordsByTranslate(UUID userId, String translate, KeysetScrollPosition position, int limit) {
+        return scroll("words",
+                "word_id",
+                """
+                 and exists(select 1 from words_translations
+                    where words_translations.word_id = words.word_id
+                        and words_translations.normalized_value = REPLACE(LOWER(TRIM(?)), 'ё', 'е'))
+                """,
+                List.of(userId, translate),
+                Sort.by("value"),
+                position,
+                limit);
+    }
+
+    @Override
+    public Window<UUID> scrollExpressions(UUID userId, Sort sort, KeysetScrollPosition position, int limit) {
+        return scroll("expressions", "expression_id", "", List.of(userId), sort, position, limit);
+    }
+
+    @Override
+    public Window<UUID> scrollExpressionsByTranslate(UUID userId, String translate, KeysetScrollPosition position, int limit) {
+        return scroll("expressions",
+                "expression_id",
+                """
+                 and exists(select 1 from expressions_translations
+                    where expressions_translations.expression_id = expressions.expression_id
+                        and expressions_translations.normalized_value = REPLACE(LOWER(TRIM(?)), 'ё', 'е'))
+                """,
+                List.of(userId, translate),
+                Sort.by("value"),
+                position,
+                limit);
+    }
+
+
+    private Window<UUID> scroll(String table,
+                                String idColumn,
+                                String condition,
+                                List<Object> conditionArgs,
+                                Sort sort,
+                                KeysetScrollPosition position,
+                                int limit) {
+        Objects.requireNonNull(position, "position can't be null");
+        List<Sort.Order> orders = sort.stream().
+                map(order -> order.withProperty(toColumn(order.getProperty()))).
+                toList();
+
+        StringBuilder sql = new StringBuilder("select ").append(idColumn);
+        orders.forEach(order -> sql.append(", ").append(order.getProperty()));
+        sql.append(" from ").append(table).append(" where user_id = ?").append(condition);
+        List<Object> args = new ArrayList<>(conditionArgs);
+
+        if(!position.isInitial()) {
+            List<Object> keys = toKeys(orders, position);
+            sql.append(" and (");
+            for(int i = 0; i <= orders.size(); i++) {
+                if(i > 0) sql.append(" or ");
+                sql.append('(');
+                for(int j = 0; j < i; j++) {
+                    sql.append(orders.get(j).getProperty()).append(" = ? and ");
+                    args.add(keys.get(j));
+                }
+                if(i < orders.size()) {
+                    sql.append(orders.get(i).getProperty()).append(orders.get(i).isAscending() ? " > ?" : " < ?");
+                } else {
+                    sql.append(idColumn).append(" > ?");
+                }
+                args.add(keys.get(i));
+                sql.append(')');
+            }
+            sql.append(')');
+        }
+
+        sql.append(" order by ");
+        orders.forEach(order -> sql.append(order.getProperty()).append(' ').append(order.getDirection()).append(", "));
+        sql.append(idColumn).append(" asc limit ?;");
+        args.add(limit + 1);
+
+        List<Map<String, Object>> rows = jdbcTemplate.query(
+                sql.toString(),
+                (rs, rowNum) -> toPositionKeys(rs, idColumn, orders),
+                args.toArray()
+        );
+
+        boolean hasNext = rows.size() > limit;
+        List<Map<String, Object>> content = hasNext ? rows.subList(0, limit) : rows;
+        return Window.from(
+                content.stream().map(keys -> (UUID) keys.get(ID_KEY)).toList(),
+                index -> ScrollPosition.forward(content.get(index)),
+                hasNext
+        );
+    }
+
+    private String toColumn(String property) {
+        String column = property.toLowerCase();
+        if(!SORT_COLUMNS.containsKey(column)) {
+            throw new InvalidParameter("Invalid sort parameter '" + property + '\'',
+                    "SortRules.invalidParameter");
+        }
+        return column;
+    }
+
+    private Map<String, Object> toPositionKeys(ResultSet rs, String idColumn, List<Sort.Order> orders) throws SQLException {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for(Sort.Order order : orders) {
+            String column = order.getProperty();
+            switch(SORT_COLUMNS.get(column)) {
+                case STRING -> keys.put(column, rs.getString(column));
+                case INTEGER -> keys.put(column, rs.getInt(column));
+                case DATE -> keys.put(column, rs.getObject(column, LocalDate.class));
+            }
+        }
+        keys.put(ID_KEY, rs.getObject(idColumn, UUID.class));
+        return keys;
+    }
+
+    private List<Object> toKeys(List<Sort.Order> orders, KeysetScrollPosition position) {
+        Map<String, Object> positionKeys = position.getKeys();
+        if(position.scrollsBackward() || positionKeys.size() != orders.size() + 1) {
+            throw invalidCursor(null);
+        }
+
+        try {
+            List<Object> result = new ArrayList<>();
+            for(Sort.Order order : orders) {
+                Object key = Objects.requireNonNull(positionKeys.get(order.getProperty()));
+                switch(SORT_COLUMNS.get(order.getProperty())) {
+                    case STRING -> result.add(key.toString());
+                    case INTEGER -> result.add(key instanceof Integer ? key : Integer.valueOf(key.toString()));
+                    case DATE -> result.add(key instanceof LocalDate ? key : LocalDate.parse(key.toString()));
+                }
+            }
+            Object id = Objects.requireNonNull(positionKeys.get(ID_KEY));
+            result.add(id instanceof UUID ? id : UUID.fromString(id.toString()));
+            return result;
+        } catch(RuntimeException e) {
+            throw invalidCursor(e);
+        }
+    }
+
+    private InvalidParameter invalidCursor(Throwable cause) {
+        return new InvalidParameter("Scroll position doesn't match sort or contains invalid values",
+                cause,
+                "Cursor.invalid",
+                false);
+    }
+
+}
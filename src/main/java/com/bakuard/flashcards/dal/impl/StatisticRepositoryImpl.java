@@ -1,12 +1,12 @@
 package com.bakuard.flashcards.dal.impl;
 
 import com.bakuard.flashcards.dal.StatisticRepository;
+import com.bakuard.flashcards.model.repetition.RepetitionOutcome;
+import com.bakuard.flashcards.model.repetition.RepetitionType;
 import com.bakuard.flashcards.model.statistic.*;
 import com.bakuard.flashcards.validation.exception.InvalidParameter;
-import com.bakuard.flashcards.validation.exception.NotUniqueEntityException;
 import com.bakuard.flashcards.validation.exception.UnknownEntityException;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -30,27 +30,11 @@ public class StatisticRepositoryImpl implements StatisticRepository {
         Objects.requireNonNull(statistic, "statistic can't be null");
 
         try {
-            jdbcTemplate.update(
-                    """
-                            insert into repeat_words_from_english_statistic(user_id,
-                                                                            word_id,
-                                                                            repetition_date,
-                                                                            is_remember)
-                                values (?,?,?,?);
-                            """,
-                    ps -> {
-                        ps.setObject(1, statistic.userId());
-                        ps.setObject(2, statistic.wordId());
-                        ps.setDate(3, Date.valueOf(statistic.currentDate()));
-                        ps.setBoolean(4, statistic.isRemember());
-                    }
-            );
-        } catch(DuplicateKeyException e) {
-            throw new NotUniqueEntityException(
-                    "Statistic " + statistic + " already exists",
-                    e,
-                    "Statistic.unique",
-                    true);
+            insert(RepetitionType.WORDS_FROM_ENGLISH,
+                    statistic.userId(),
+                    statistic.wordId(),
+                    statistic.currentDate(),
+                    statistic.isRemember());
         } catch(DataIntegrityViolationException e) {
             throw new UnknownEntityException(
                     "Unknown user with id=" + statistic.userId() + " or word with id=" + statistic.wordId(),
@@ -65,27 +49,11 @@ public class StatisticRepositoryImpl implements StatisticRepository {
         Objects.requireNonNull(statistic, "statistic can't be null");
 
         try {
-            jdbcTemplate.update(
-                    """
-                            insert into repeat_words_from_native_statistic(user_id,
-                                                                           word_id,
-                                                                           repetition_date,
-                                                                           is_remember)
-                                values (?,?,?,?);
-                            """,
-                    ps -> {
-                        ps.setObject(1, statistic.userId());
-                        ps.setObject(2, statistic.wordId());
-                        ps.setDate(3, Date.valueOf(statistic.currentDate()));
-                        ps.setBoolean(4, statistic.isRemember());
-                    }
-            );
-        } catch(DuplicateKeyException e) {
-            throw new NotUniqueEntityException(
-                    "Statistic " + statistic + " already exists",
-                    e,
-                    "Statistic.unique",
-                    true);
+            insert(RepetitionType.WORDS_FROM_NATIVE,
+                    statistic.userId(),
+                    statistic.wordId(),
+                    statistic.currentDate(),
+                    statistic.isRemember());
         } catch(DataIntegrityViolationException e) {
             throw new UnknownEntityException(
                     "Unknown user with id=" + statistic.userId() + " or word with id=" + statistic.wordId(),
@@ -100,27 +68,11 @@ public class StatisticRepositoryImpl implements StatisticRepository {
         Objects.requireNonNull(statistic, "statistic can't be null");
 
         try {
-            jdbcTemplate.update(
-                    """
-                            insert into repeat_expressions_from_english_statistic(user_id,
-                                                                                  expression_id,
-                                                                                  repetition_date,
-                                                                                  is_remember)
-                                values (?,?,?,?);
-                            """,
-                    ps -> {
-                        ps.setObject(1, statistic.userId());
-                        ps.setObject(2, statistic.expressionId());
-                        ps.setDate(3, Date.valueOf(statistic.currentDate()));
-                        ps.setBoolean(4, statistic.isRemember());
-                    }
-            );
-        } catch(DuplicateKeyException e) {
-            throw new NotUniqueEntityException(
-                    "Statistic " + statistic + " already exists",
-                    e,
-                    "Statistic.unique",
-                    true);
+            insert(RepetitionType.EXPRESSIONS_FROM_ENGLISH,
+                    statistic.userId(),
+                    statistic.expressionId(),
+                    statistic.currentDate(),
+                    statistic.isRemember());
         } catch(DataIntegrityViolationException e) {
             throw new UnknownEntityException(
                     "Unknown user with id=" + statistic.userId() + " or expression with id=" + statistic.expressionId(),
@@ -135,27 +87,11 @@ public class StatisticRepositoryImpl implements StatisticRepository {
         Objects.requireNonNull(statistic, "statistic can't be null");
 
         try {
-            jdbcTemplate.update(
-                    """
-                            insert into repeat_expressions_from_native_statistic(user_id,
-                                                                                 expression_id,
-                                                                                 repetition_date,
-                                                                                 is_remember)
-                                values (?,?,?,?);
-                            """,
-                    ps -> {
-                        ps.setObject(1, statistic.userId());
-                        ps.setObject(2, statistic.expressionId());
-                        ps.setDate(3, Date.valueOf(statistic.currentDate()));
-                        ps.setBoolean(4, statistic.isRemember());
-                    }
-            );
-        } catch(DuplicateKeyException e) {
-            throw new NotUniqueEntityException(
-                    "Statistic " + statistic + " already exists",
-                    e,
-                    "Statistic.unique",
-                    true);
+            insert(RepetitionType.EXPRESSIONS_FROM_NATIVE,
+                    statistic.userId(),
+                    statistic.expressionId(),
+                    statistic.currentDate(),
+                    statistic.isRemember());
         } catch(DataIntegrityViolationException e) {
             throw new UnknownEntityException(
                     "Unknown user with id=" + statistic.userId() + " or expression with id=" + statistic.expressionId(),
@@ -165,6 +101,47 @@ public class StatisticRepositoryImpl implements StatisticRepository {
         }
     }
 
+    @Override
+    public void appendAll(UUID userId, RepetitionType type, LocalDate date, List<RepetitionOutcome> outcomes) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        Objects.requireNonNull(type, "type can't be null");
+        Objects.requireNonNull(date, "date can't be null");
+        Objects.requireNonNull(outcomes, "outcomes can't be null");
+
+        List<RepetitionOutcome> repeated = outcomes.stream().
+                filter(outcome -> outcome.status() != RepetitionOutcome.Status.UNKNOWN).
+                toList();
+        if(repeated.isEmpty()) return;
+
+        List<Object[]> args = repeated.stream().
+                map(outcome -> new Object[]{userId, outcome.cardId(), Date.valueOf(date), outcome.isRemember()}).
+                toList();
+        jdbcTemplate.batchUpdate(statisticMergeSql(type), args);
+    }
+
+    @Override
+    public List<UUID> findActiveUserIds(LocalDate since, UUID afterUserId, int limit) {
+        Objects.requireNonNull(since, "since can't be null");
+
+        List<Object> args = new ArrayList<>();
+        StringJoiner union = new StringJoiner(" union ");
+        for(String table : List.of("repeat_words_statistic", "repeat_expressions_statistic")) {
+            union.add("select user_id from %s where repetition_date >= ?".formatted(table));
+            args.add(Date.valueOf(since));
+        }
+        String after = "";
+        if(afterUserId != null) {
+            after = " where user_id > ?";
+            args.add(afterUserId);
+        }
+        args.add(limit);
+
+        return jdbcTemplate.queryForList(
+                "select user_id from (%s) active%s order by user_id limit ?;".formatted(union, after),
+                UUID.class,
+                args.toArray());
+    }
+
     @Override
     public Optional<WordRepetitionByPeriodStatistic> wordRepetitionByPeriod(
             UUID userId, UUID wordId, LocalDate start, LocalDate end) {
@@ -189,10 +166,14 @@ public class StatisticRepositoryImpl implements StatisticRepository {
         if(value != null) {
             result = jdbcTemplate.query(
                     """
-                    select countTrue(repeat_words_statistic.eng_is_remember) as remember_from_english,
-                           countFalse(repeat_words_statistic.eng_is_remember) as not_remember_from_english,
-                           countTrue(repeat_words_statistic.ntv_is_remember) as remember_from_native,
-                           countFalse(repeat_words_statistic.ntv_is_remember) as not_remember_from_native
+                    select coalesce(sum(case when direction = 'ENGLISH' then remember_count end), 0)
+                                as remember_from_english,
+                           coalesce(sum(case when direction = 'ENGLISH' then not_remember_count end), 0)
+                                as not_remember_from_english,
+                           coalesce(sum(case when direction = 'NATIVE' then remember_count end), 0)
+                                as remember_from_native,
+                           coalesce(sum(case when direction = 'NATIVE' then not_remember_count end), 0)
+                                as not_remember_from_native
                      from repeat_words_statistic
                      where user_id = ?
                            and repetition_date >= ?
@@ -257,10 +238,14 @@ public class StatisticRepositoryImpl implements StatisticRepository {
         if(value != null) {
             result = jdbcTemplate.query(
                     """
-                    select countTrue(repeat_expressions_statistic.eng_is_remember) as remember_from_english,
-                           countFalse(repeat_expressions_statistic.eng_is_remember) as not_remember_from_english,
-                           countTrue(repeat_expressions_statistic.ntv_is_remember) as remember_from_native,
-                           countFalse(repeat_expressions_statistic.ntv_is_remember) as not_remember_from_native
+                    select coalesce(sum(case when direction = 'ENGLISH' then remember_count end), 0)
+                                as remember_from_english,
+                           coalesce(sum(case when direction = 'ENGLISH' then not_remember_count end), 0)
+                                as not_remember_from_english,
+                           coalesce(sum(case when direction = 'NATIVE' then remember_count end), 0)
+                                as remember_from_native,
+                           coalesce(sum(case when direction = 'NATIVE' then not_remember_count end), 0)
+                                as not_remember_from_native
                      from repeat_expressions_statistic
                      where user_id = ?
                            and repetition_date >= ?
@@ -312,15 +297,20 @@ public class StatisticRepositoryImpl implements StatisticRepository {
 
         List<WordRepetitionByPeriodStatistic> statistics = jdbcTemplate.query(
                 """
-                select repeat_words_statistic.value,
-                       repeat_words_statistic.word_id,
-                       countTrue(repeat_words_statistic.eng_is_remember) as remember_from_english,
-                       countFalse(repeat_words_statistic.eng_is_remember) as not_remember_from_english,
-                       countTrue(repeat_words_statistic.ntv_is_remember) as remember_from_native,
-                       countFalse(repeat_words_statistic.ntv_is_remember) as not_remember_from_native
-                 from repeat_words_statistic
-                 where user_id = ? and repetition_date >= ? and repetition_date <= ?
-                 group by word_id, value
+                select words.value,
+                       stat.word_id,
+                       coalesce(sum(case when stat.direction = 'ENGLISH' then stat.remember_count end), 0)
+                            as remember_from_english,
+                       coalesce(sum(case when stat.direction = 'ENGLISH' then stat.not_remember_count end), 0)
+                            as not_remember_from_english,
+                       coalesce(sum(case when stat.direction = 'NATIVE' then stat.remember_count end), 0)
+                            as remember_from_native,
+                       coalesce(sum(case when stat.direction = 'NATIVE' then stat.not_remember_count end), 0)
+                            as not_remember_from_native
+                 from repeat_words_statistic stat
+                 inner join words on stat.word_id = words.word_id
+                 where stat.user_id = ? and stat.repetition_date >= ? and stat.repetition_date <= ?
+                 group by stat.word_id, words.value
                  order by %s
                  limit ? offset ?;
                 """.formatted(toSortString(pageable.getSort())),
@@ -361,15 +351,20 @@ public class StatisticRepositoryImpl implements StatisticRepository {
 
         List<ExpressionRepetitionByPeriodStatistic> statistics = jdbcTemplate.query(
                 """
-                select repeat_expressions_statistic.value,
-                       repeat_expressions_statistic.expression_id,
-                       countTrue(repeat_expressions_statistic.eng_is_remember) as remember_from_english,
-                       countFalse(repeat_expressions_statistic.eng_is_remember) as not_remember_from_english,
-                       countTrue(repeat_expressions_statistic.ntv_is_remember) as remember_from_native,
-                       countFalse(repeat_expressions_statistic.ntv_is_remember) as not_remember_from_native
-                 from repeat_expressions_statistic
-                 where user_id = ? and repetition_date >= ? and repetition_date <= ?
-                 group by expression_id, value
+                select expressions.value,
+                       stat.expression_id,
+                       coalesce(sum(case when stat.direction = 'ENGLISH' then stat.remember_count end), 0)
+                            as remember_from_english,
+                       coalesce(sum(case when stat.direction = 'ENGLISH' then stat.not_remember_count end), 0)
+                            as not_remember_from_english,
+                       coalesce(sum(case when stat.direction = 'NATIVE' then stat.remember_count end), 0)
+                            as remember_from_native,
+                       coalesce(sum(case when stat.direction = 'NATIVE' then stat.not_remember_count end), 0)
+                            as not_remember_from_native
+                 from repeat_expressions_statistic stat
+                 inner join expressions on stat.expression_id = expressions.expression_id
+                 where stat.user_id = ? and stat.repetition_date >= ? and stat.repetition_date <= ?
+                 group by stat.expression_id, expressions.value
                  order by %s
                  limit ? offset ?;
                 """.formatted(toSortString(pageable.getSort())),
@@ -400,6 +395,46 @@ public class StatisticRepositoryImpl implements StatisticRepository {
     }
 
 
+    private void insert(RepetitionType type, UUID userId, UUID cardId, LocalDate date, boolean isRemember) {
+        jdbcTemplate.update(statisticMergeSql(type), userId, cardId, Date.valueOf(date), isRemember);
+    }
+
+    private String statisticTable(RepetitionType type) {
+        return type.isWords() ? "repeat_words_statistic" : "repeat_expressions_statistic";
+    }
+
+    private String direction(RepetitionType type) {
+        return type.isFromEnglish() ? "ENGLISH" : "NATIVE";
+    }
+
+    private String statisticIdColumn(RepetitionType type) {
+        return type.isWords() ? "word_id" : "expression_id";
+    }
+
+    /**
+     * Возвращает запрос, который увеличивает на единицу счетчик успешных или неуспешных повторений вида type
+     * за день, добавляя строку статистики, если ее еще нет. Параметры запроса: user_id, идентификатор слова
+     * или устойчивого выражения, дата повторения, is_remember.
+     */
+    private String statisticMergeSql(RepetitionType type) {
+        return """
+                merge into %1$s as target
+                    using (values (cast(? as UUID), cast(? as UUID), cast(? as DATE), cast(? as BOOLEAN)))
+                        as source(user_id, %2$s, repetition_date, is_remember)
+                    on target.user_id = source.user_id
+                        and target.repetition_date = source.repetition_date
+                        and target.%2$s = source.%2$s
+                        and target.direction = '%3$s'
+                    when matched then update set
+                        remember_count = target.remember_count + casewhen(source.is_remember, 1, 0),
+                        not_remember_count = target.not_remember_count + casewhen(source.is_remember, 0, 1)
+                    when not matched then insert(user_id, %2$s, repetition_date, direction,
+                                                 remember_count, not_remember_count)
+                        values(source.user_id, source.%2$s, source.repetition_date, '%3$s',
+                               casewhen(source.is_remember, 1, 0), casewhen(source.is_remember, 0, 1));
+                """.formatted(statisticTable(type), statisticIdColumn(type), direction(type));
+    }
+
     private void assertPeriodIsValid(LocalDate start, LocalDate end) {
         if(start.isAfter(end)) {
             throw new InvalidParameter("Invalid period border: " + start + ", " + end,
@@ -0,0 +1,65 @@
+package com.bakuard.flashcards.dal.impl;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Разбиение текста на токены для полнотекстового поиска. Токен - непрерывная последовательность букв и цифр
+ * длиной не менее {@link #MIN_LENGTH} символов, приведенная к виду {@link #normalize(String)}. Токены длиннее
+ * {@link #MAX_LENGTH} символов усекаются.
+ */
+public final class Tokens {
+
+    public static final int MIN_LENGTH = 2;
+    public static final int MAX_LENGTH = 64;
+    public static final int MAX_QUERY_TOKENS = 16;
+
+    private Tokens() {}
+
+    /**
+     * Приводит строку к виду, в котором сравниваются токены и ключи поиска: удаляет пробельные символы
+     * по краям, приводит к нижнему регистру и заменяет 'ё' на 'е'.
+     */
+    public static String normalize(String value) {
+        return value.strip().toLowerCase(Locale.ROOT).replace('ё', 'е');
+    }
+
+    /**
+     * Возвращает все токены указанных текстов вместе с кол-вом их вхождений. Значения null пропускаются.
+     */
+    public static Map<String, Integer> frequencies(Collection<String> texts) {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for(String text : texts) {
+            if(text != null) split(text, token -> result.merge(token, 1, Integer::sum));
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает различные токены поискового запроса в порядке их первого вхождения, но не более
+     * {@link #MAX_QUERY_TOKENS}.
+     */
+    public static List<String> query(String query) {
+        Set<String> result = new LinkedHashSet<>();
+        split(query, token -> {
+            if(result.size() < MAX_QUERY_TOKENS) result.add(token);
+        });
+        return List.copyOf(result);
+    }
+
+
+    private static void split(String text, Consumer<String> consumer) {
+        String normalized = normalize(text);
+        int start = -1;
+        for(int i = 0; i <= normalized.length(); i++) {
+            boolean isTokenChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if(isTokenChar && start < 0) {
+                start = i;
+            } else if(!isTokenChar && start >= 0) {
+                if(i - start >= MIN_LENGTH) consumer.accept(normalized.substring(start, Math.min(i, start + MAX_LENGTH)));
+                start = -1;
+            }
+        }
+    }
+
+}
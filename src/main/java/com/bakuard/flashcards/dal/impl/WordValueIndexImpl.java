@@ -0,0 +1,178 @@
+package com.bakuard.flashcards.dal.impl;
+
+import com.bakuard.flashcards.config.configData.ConfigData;
+import com.bakuard.flashcards.dal.WordValueIndex;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+public class WordValueIndexImpl implements WordValueIndex {
+
+    private static final Comparator<Entry> ORDER = Comparator.
+            comparing(Entry::value, String.CASE_INSENSITIVE_ORDER).
+            thenComparing(Entry::value).
+            thenComparing(Entry::wordId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate loading;
+    private final Cache<UUID, UserIndex> indexes;
+
+    public WordValueIndexImpl(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              ConfigData configData) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.loading = new TransactionTemplate(transactionManager);
+        this.loading.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loading.setReadOnly(true);
+        this.indexes = CacheBuilder.newBuilder().
+                maximumSize(configData.dictionaryIndex().maxUsers()).
+                expireAfterAccess(configData.dictionaryIndex().expireAfterAccessInMinutes(), TimeUnit.MINUTES).
+                build();
+    }
+
+    @Override
+    public List<UUID> findIdsByValue(UUID userId, String value, int maxDistance) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        Objects.requireNonNull(value, "value can't be null");
+
+        return indexes.asMap().computeIfAbsent(userId, UserIndex::new).find(value, maxDistance);
+    }
+
+    @Override
+    public void put(UUID userId, UUID wordId, String value) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        Objects.requireNonNull(wordId, "wordId can't be null");
+        Objects.requireNonNull(value, "value can't be null");
+
+        afterCommit(() -> {
+            UserIndex index = indexes.getIfPresent(userId);
+            if(index != null) index.put(new Entry(wordId, value));
+        });
+    }
+
+    @Override
+    public void remove(UUID userId, UUID wordId) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        Objects.requireNonNull(wordId, "wordId can't be null");
+
+        afterCommit(() -> {
+            UserIndex index = indexes.getIfPresent(userId);
+            if(index != null) index.remove(wordId);
+        });
+    }
+
+    @Override
+    public void invalidate(UUID userId) {
+        Objects.requireNonNull(userId, "userId can't be null");
+
+        afterCommit(() -> indexes.invalidate(userId));
+    }
+
+
+    private void afterCommit(Runnable action) {
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static int distance(String left, String right) {
+        return StoredProcedures.levenshteinDistance(left, right, Math.max(left.length(), right.length()));
+    }
+
+
+    private record Entry(UUID wordId, String value) {}
+
+    /*
+     * Индекс пользователя сначала добавляется в кеш пустым и загружается из БД при первом поиске под тем же
+     * монитором, под которым к нему применяются изменения. Поэтому изменение, зафиксированное во время
+     * загрузки, либо будет прочитано самой загрузкой, либо дождется её окончания и будет применено к уже
+     * загруженному индексу. Изменения, пришедшие до загрузки, не применяются - загрузка выполняется после
+     * фиксации их транзакций и прочитает их из БД. Загрузка выполняется в отдельной транзакции только для
+     * чтения, поэтому незафиксированные изменения транзакции, в которой выполняется поиск, не попадают в
+     * общий для всех транзакций индекс.
+     */
+    private class UserIndex {
+
+        private final UUID userId;
+        private boolean loaded;
+        private BkTree<Entry> tree;
+        private final Map<UUID, Entry> entries;
+
+        public UserIndex(UUID userId) {
+            this.userId = userId;
+            tree = new BkTree<>(Entry::value, WordValueIndexImpl::distance);
+            entries = new HashMap<>();
+        }
+
+        public synchronized List<UUID> find(String value, int maxDistance) {
+            loadIfNecessary();
+
+            List<Entry> found = tree.find(value, maxDistance);
+            found.sort(ORDER);
+
+            List<UUID> result = new ArrayList<>(found.size());
+            for(Entry entry : found) result.add(entry.wordId());
+            return result;
+        }
+
+        public synchronized void put(Entry entry) {
+            if(loaded) add(entry);
+        }
+
+        public synchronized void remove(UUID wordId) {
+            if(!loaded) return;
+
+            Entry previous = entries.remove(wordId);
+            if(previous != null) {
+                tree.remove(previous);
+                rebuildIfNecessary();
+            }
+        }
+
+        private void loadIfNecessary() {
+            if(loaded) return;
+
+            loading.executeWithoutResult(status -> jdbcTemplate.query(
+                    "select word_id, value from words where user_id = ?;",
+                    ps -> ps.setObject(1, userId),
+                    rs -> {
+                        add(new Entry(rs.getObject("word_id", UUID.class), rs.getString("value")));
+                    }
+            ));
+            loaded = true;
+        }
+
+        private void add(Entry entry) {
+            Entry previous = entries.put(entry.wordId(), entry);
+            if(!entry.equals(previous)) {
+                if(previous != null) tree.remove(previous);
+                tree.add(entry);
+                rebuildIfNecessary();
+            }
+        }
+
+        private void rebuildIfNecessary() {
+            if(tree.deletedSize() > 64 && tree.deletedSize() > tree.size()) {
+                tree = new BkTree<>(Entry::value, WordValueIndexImpl::distance);
+                entries.values().forEach(tree::add);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.bakuard.flashcards.dal.impl;
+
+import org.h2.tools.TriggerAdapter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Триггер таблицы words, поддерживающий в актуальном состоянии таблицу words_first_characters - кол-во слов
+ * каждого пользователя для каждой первой буквы. Срабатывает на добавление, удаление и изменение значения слова
+ * в той же транзакции, что и изменение самого слова.
+ */
+public class WordsFirstCharacterTrigger extends TriggerAdapter {
+
+    public WordsFirstCharacterTrigger() {
+
+    }
+
+    @Override
+    public void fire(Connection conn, ResultSet oldRow, ResultSet newRow) throws SQLException {
+        String oldCharacter = oldRow != null ? firstCharacter(oldRow.getString("value")) : null;
+        String newCharacter = newRow != null ? firstCharacter(newRow.getString("value")) : null;
+        UUID oldUserId = oldRow != null ? oldRow.getObject("user_id", UUID.class) : null;
+        UUID newUserId = newRow != null ? newRow.getObject("user_id", UUID.class) : null;
+
+        if(Objects.equals(oldCharacter, newCharacter) && Objects.equals(oldUserId, newUserId)) return;
+
+        if(oldRow != null) decrement(conn, oldUserId, oldCharacter);
+        if(newRow != null) increment(conn, newUserId, newCharacter);
+    }
+
+
+    private void increment(Connection conn, UUID userId, String firstCharacter) throws SQLException {
+        try(PreparedStatement statement = conn.prepareStatement("""
+                merge into words_first_characters as target
+                    using (values(cast(? as uuid), cast(? as varchar(1)))) as source(user_id, first_character)
+                    on target.user_id = source.user_id and target.first_character = source.first_character
+                    when matched then update set words_count = target.words_count + 1
+                    when not matched then insert(user_id, first_character, words_count)
+                        values(source.user_id, source.first_character, 1);
+                """)) {
+            statement.setObject(1, userId);
+            statement.setString(2, firstCharacter);
+            statement.executeUpdate();
+        }
+    }
+
+    /*
+     * Только update и delete: при каскадном удалении пользователя его строка в users может быть
+     * уже удалена, а вставка в words_first_characters нарушила бы внешний ключ.
+     */
+    private void decrement(Connection conn, UUID userId, String firstCharacter) throws SQLException {
+        try(PreparedStatement statement = conn.prepareStatement("""
+                update words_first_characters
+                    set words_count = words_count - 1
+                    where user_id = ? and first_character = ?;
+                """)) {
+            statement.setObject(1, userId);
+            statement.setString(2, firstCharacter);
+            statement.executeUpdate();
+        }
+        try(PreparedStatement statement = conn.prepareStatement("""
+                delete from words_first_characters
+                    where user_id = ? and first_character = ? and words_count <= 0;
+                """)) {
+            statement.setObject(1, userId);
+            statement.setString(2, firstCharacter);
+            statement.executeUpdate();
+        }
+    }
+
+    private String firstCharacter(String value) {
+        return value.isEmpty() ? "" : value.substring(0, 1).toLowerCase(Locale.ROOT);
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.bakuard.flashcards.dal.migration;
+
+import com.bakuard.flashcards.dal.impl.QGrams;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Миграция, заново заполняющая таблицу q-грамм (expressions_qgrams) для всех устойчивых выражений,
+ * сохраненных до появления этой таблицы. Ранее заполненные q-граммы предварительно удаляются. Миграция
+ * выполняется до запуска приложения, поэтому нечеткий поиск по q-граммам никогда не работает с неполной
+ * таблицей q-грамм. <br/><br/>
+ * Контрольная сумма миграции вычисляется по параметрам разбиения на q-граммы (см. {@link QGrams}), поэтому
+ * их изменение после применения миграции будет обнаружено при проверке миграций Flyway.
+ */
+public class QGramsMigration implements JavaMigration {
+
+    private static final int BATCH_SIZE = 500;
+    private static final String DEFINITION =
+            "expressions_qgrams: Q=" + QGrams.Q + ", PADDING=" + QGrams.PADDING + ", lower case, numbered";
+
+    public QGramsMigration() {
+
+    }
+
+    @Override
+    public MigrationVersion getVersion() {
+        return MigrationVersion.fromVersion("16");
+    }
+
+    @Override
+    public String getDescription() {
+        return "rebuild qgrams";
+    }
+
+    @Override
+    public Integer getChecksum() {
+        CRC32 crc = new CRC32();
+        crc.update(DEFINITION.getBytes(StandardCharsets.UTF_8));
+        return (int) crc.getValue();
+    }
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return true;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection conn = context.getConnection();
+        rebuild(conn, "expressions", "expressions_qgrams", "expression_id");
+    }
+
+
+    private void rebuild(Connection conn, String table, String qgramsTable, String idColumn) throws SQLException {
+        try(Statement statement = conn.createStatement()) {
+            statement.executeUpdate("delete from " + qgramsTable + ";");
+        }
+
+        try(PreparedStatement select = conn.prepareStatement(
+                    "select " + idColumn + ", user_id, value from " + table + ";");
+            PreparedStatement insert = conn.prepareStatement(
+                    "insert into " + qgramsTable + "(" + idColumn + ", user_id, qgram) values (?, ?, ?);");
+            ResultSet rs = select.executeQuery()) {
+            int batched = 0;
+            while(rs.next()) {
+                UUID id = rs.getObject(idColumn, UUID.class);
+                UUID userId = rs.getObject("user_id", UUID.class);
+                for(String qgram : QGrams.of(rs.getString("value"))) {
+                    insert.setObject(1, id);
+                    insert.setObject(2, userId);
+                    insert.setString(3, qgram);
+                    insert.addBatch();
+                    if(++batched % BATCH_SIZE == 0) insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+}
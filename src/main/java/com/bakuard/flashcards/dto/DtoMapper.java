@@ -2,11 +2,13 @@ package com.bakuard.flashcards.dto;
 
 import com.bakuard.flashcards.config.configData.ConfigData;
 import com.bakuard.flashcards.controller.message.Messages;
+import com.bakuard.flashcards.dal.PrefixIndex;
 import com.bakuard.flashcards.dto.common.*;
 import com.bakuard.flashcards.dto.credential.*;
 import com.bakuard.flashcards.dto.exceptions.ExceptionReasonResponse;
 import com.bakuard.flashcards.dto.exceptions.ExceptionResponse;
 import com.bakuard.flashcards.dto.expression.*;
+import com.bakuard.flashcards.dto.settings.IntervalReplacementResponse;
 import com.bakuard.flashcards.dto.settings.IntervalsResponse;
 import com.bakuard.flashcards.dto.statistic.ExpressionRepetitionByPeriodResponse;
 import com.bakuard.flashcards.dto.statistic.WordRepetitionByPeriodResponse;
@@ -20,6 +22,14 @@ import com.bakuard.flashcards.model.expression.ExpressionExample;
 import com.bakuard.flashcards.model.expression.ExpressionInterpretation;
 import com.bakuard.flashcards.model.expression.ExpressionTranslation;
 import com.bakuard.flashcards.model.filter.SortRules;
+import com.bakuard.flashcards.model.interval.IntervalReplacement;
+import com.bakuard.flashcards.model.repetition.RepetitionAnswer;
+import com.bakuard.flashcards.model.repetition.RepetitionFeedItem;
+import com.bakuard.flashcards.model.repetition.RepetitionBatch;
+import com.bakuard.flashcards.model.repetition.RepetitionForecastDay;
+import com.bakuard.flashcards.model.repetition.RepetitionOutcome;
+import com.bakuard.flashcards.model.repetition.RepetitionSession;
+import com.bakuard.flashcards.model.repetition.RepetitionSummary;
 import com.bakuard.flashcards.model.filter.SortedEntity;
 import com.bakuard.flashcards.model.statistic.ExpressionRepetitionByPeriodStatistic;
 import com.bakuard.flashcards.model.statistic.WordRepetitionByPeriodStatistic;
@@ -31,18 +41,15 @@ import com.bakuard.flashcards.service.AuthService;
 import com.bakuard.flashcards.service.ExpressionService;
 import com.bakuard.flashcards.service.IntervalService;
 import com.bakuard.flashcards.service.WordService;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import com.bakuard.flashcards.validation.exception.InvalidParameter;
+import org.springframework.data.domain.*;
 import org.springframework.http.HttpStatus;
 
 import jakarta.validation.ConstraintViolationException;
+import java.nio.charset.StandardCharsets;
 import java.time.Clock;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 public class DtoMapper {
@@ -115,40 +122,68 @@ public class DtoMapper {
     }
 
     public Page<WordForDictionaryListResponse> toWordsForDictionaryListResponse(Page<Word> words) {
-        return words.map(
-                word -> new WordForDictionaryListResponse().
-                        setWordId(word.getId()).
-                        setUserId(word.getUserId()).
-                        setValue(word.getValue()).
-                        setHotRepeatFromEnglish(wordService.isHotRepeatFromEnglish(word)).
-                        setHotRepeatFromNative(wordService.isHotRepeatFromNative(word))
-        );
+        return words.map(this::toWordForDictionaryListResponse);
+    }
+
+    public List<AutocompleteResponse> toAutocompleteResponse(List<PrefixIndex.Entry> entries) {
+        return entries.stream().
+                map(entry -> new AutocompleteResponse().setId(entry.id()).setValue(entry.value())).
+                toList();
+    }
+
+    public ScrollResponse<WordForDictionaryListResponse> toWordsForDictionaryListResponse(Window<Word> words) {
+        return new ScrollResponse<WordForDictionaryListResponse>().
+                setContent(words.map(this::toWordForDictionaryListResponse).getContent()).
+                setNextCursor(toNextCursor(words));
+    }
+
+    public WordForDictionaryListResponse toWordForDictionaryListResponse(Word word) {
+        return new WordForDictionaryListResponse().
+                setWordId(word.getId()).
+                setUserId(word.getUserId()).
+                setValue(word.getValue()).
+                setHotRepeatFromEnglish(wordService.isHotRepeatFromEnglish(word)).
+                setHotRepeatFromNative(wordService.isHotRepeatFromNative(word));
     }
 
     public Page<WordForRepetitionFromEnglishResponse> toWordsForRepetitionFromEnglishResponse(Page<Word> words) {
-        return words.map(
-                word -> new WordForRepetitionFromEnglishResponse().
-                        setWordId(word.getId()).
-                        setUserId(word.getUserId()).
-                        setValue(word.getValue()).
-                        setExamples(word.getExamples().stream().
-                                map(WordExample::getOrigin).
-                                toList())
-        );
+        return words.map(this::toWordForRepetitionFromEnglishResponse);
+    }
+
+    public RepetitionSessionResponse<WordForRepetitionFromEnglishResponse> toWordsForRepetitionFromEnglishResponse(
+            RepetitionBatch<Word> batch) {
+        return toRepetitionSessionResponse(batch, this::toWordForRepetitionFromEnglishResponse);
+    }
+
+    public WordForRepetitionFromEnglishResponse toWordForRepetitionFromEnglishResponse(Word word) {
+        return new WordForRepetitionFromEnglishResponse().
+                setWordId(word.getId()).
+                setUserId(word.getUserId()).
+                setValue(word.getValue()).
+                setExamples(word.getExamples().stream().
+                        map(WordExample::getOrigin).
+                        toList());
     }
 
     public Page<WordForRepetitionFromNativeResponse> toWordsForRepetitionFromNativeResponse(Page<Word> words) {
-        return words.map(
-                word -> new WordForRepetitionFromNativeResponse().
-                        setWordId(word.getId()).
-                        setUserId(word.getUserId()).
-                        setInterpretations(word.getInterpretations().stream().
-                                map(this::toInterpretationResponse).
-                                toList()).
-                        setTranslations(word.getTranslations().stream().
-                                map(this::toTranslateResponse).
-                                toList())
-        );
+        return words.map(this::toWordForRepetitionFromNativeResponse);
+    }
+
+    public RepetitionSessionResponse<WordForRepetitionFromNativeResponse> toWordsForRepetitionFromNativeResponse(
+            RepetitionBatch<Word> batch) {
+        return toRepetitionSessionResponse(batch, this::toWordForRepetitionFromNativeResponse);
+    }
+
+    public WordForRepetitionFromNativeResponse toWordForRepetitionFromNativeResponse(Word word) {
+        return new WordForRepetitionFromNativeResponse().
+                setWordId(word.getId()).
+                setUserId(word.getUserId()).
+                setInterpretations(word.getInterpretations().stream().
+                        map(this::toInterpretationResponse).
+                        toList()).
+                setTranslations(word.getTranslations().stream().
+                        map(this::toTranslateResponse).
+                        toList());
     }
 
     public Word toWord(WordAddRequest dto) {
@@ -211,40 +246,62 @@ public class DtoMapper {
     }
 
     public Page<ExpressionForDictionaryListResponse> toExpressionsForDictionaryListResponse(Page<Expression> expressions) {
-        return expressions.map(
-                expression -> new ExpressionForDictionaryListResponse().
-                        setUserId(expression.getUserId()).
-                        setExpressionId(expression.getId()).
-                        setValue(expression.getValue()).
-                        setHotRepeatFromEnglish(expressionService.isHotRepeatFromEnglish(expression)).
-                        setHotRepeatFromNative(expressionService.isHotRepeatFromNative(expression))
-        );
+        return expressions.map(this::toExpressionForDictionaryListResponse);
+    }
+
+    public ScrollResponse<ExpressionForDictionaryListResponse> toExpressionsForDictionaryListResponse(Window<Expression> expressions) {
+        return new ScrollResponse<ExpressionForDictionaryListResponse>().
+                setContent(expressions.map(this::toExpressionForDictionaryListResponse).getContent()).
+                setNextCursor(toNextCursor(expressions));
+    }
+
+    public ExpressionForDictionaryListResponse toExpressionForDictionaryListResponse(Expression expression) {
+        return new ExpressionForDictionaryListResponse().
+                setUserId(expression.getUserId()).
+                setExpressionId(expression.getId()).
+                setValue(expression.getValue()).
+                setHotRepeatFromEnglish(expressionService.isHotRepeatFromEnglish(expression)).
+                setHotRepeatFromNative(expressionService.isHotRepeatFromNative(expression));
     }
 
     public Page<ExpressionForRepetitionFromEnglishResponse> toExpressionsForRepetitionFromEnglishResponse(Page<Expression> expressions) {
-        return expressions.map(
-                expression -> new ExpressionForRepetitionFromEnglishResponse().
-                        setExpressionId(expression.getId()).
-                        setUserId(expression.getUserId()).
-                        setValue(expression.getValue()).
-                        setExamples(expression.getExamples().stream().
-                                map(ExpressionExample::getOrigin).
-                                toList())
-        );
+        return expressions.map(this::toExpressionForRepetitionFromEnglishResponse);
+    }
+
+    public RepetitionSessionResponse<ExpressionForRepetitionFromEnglishResponse> toExpressionsForRepetitionFromEnglishResponse(
+            RepetitionBatch<Expression> batch) {
+        return toRepetitionSessionResponse(batch, this::toExpressionForRepetitionFromEnglishResponse);
+    }
+
+    public ExpressionForRepetitionFromEnglishResponse toExpressionForRepetitionFromEnglishResponse(Expression expression) {
+        return new ExpressionForRepetitionFromEnglishResponse().
+                setExpressionId(expression.getId()).
+                setUserId(expression.getUserId()).
+                setValue(expression.getValue()).
+                setExamples(expression.getExamples().stream().
+                        map(ExpressionExample::getOrigin).
+                        toList());
     }
 
     public Page<ExpressionForRepetitionFromNativeResponse> toExpressionForRepetitionFromNativeResponse(Page<Expression> expressions) {
-        return expressions.map(
-                expression -> new ExpressionForRepetitionFromNativeResponse().
-                        setExpressionId(expression.getId()).
-                        setUserId(expression.getUserId()).
-                        setInterpretations(expression.getInterpretations().stream().
-                                map(this::toInterpretationResponse).
-                                toList()).
-                        setTranslations(expression.getTranslations().stream().
-                                map(this::toTranslateResponse).
-                                toList())
-        );
+        return expressions.map(this::toExpressionForRepetitionFromNativeResponse);
+    }
+
+    public RepetitionSessionResponse<ExpressionForRepetitionFromNativeResponse> toExpressionsForRepetitionFromNativeResponse(
+            RepetitionBatch<Expression> batch) {
+        return toRepetitionSessionResponse(batch, this::toExpressionForRepetitionFromNativeResponse);
+    }
+
+    public ExpressionForRepetitionFromNativeResponse toExpressionForRepetitionFromNativeResponse(Expression expression) {
+        return new ExpressionForRepetitionFromNativeResponse().
+                setExpressionId(expression.getId()).
+                setUserId(expression.getUserId()).
+                setInterpretations(expression.getInterpretations().stream().
+                        map(this::toInterpretationResponse).
+                        toList()).
+                setTranslations(expression.getTranslations().stream().
+                        map(this::toTranslateResponse).
+                        toList());
     }
 
     public Expression toExpression(ExpressionAddRequest dto) {
@@ -333,6 +390,17 @@ public class DtoMapper {
                 setIntervals(intervals);
     }
 
+    public IntervalReplacementResponse toIntervalReplacementResponse(IntervalReplacement replacement) {
+        return new IntervalReplacementResponse().
+                setReplacementId(replacement.id()).
+                setUserId(replacement.userId()).
+                setOldInterval(replacement.oldInterval()).
+                setNewInterval(replacement.newInterval()).
+                setStatus(replacement.status().name()).
+                setTotal(replacement.total()).
+                setProcessed(replacement.processed());
+    }
+
 
     public WordRepetitionByPeriodResponse toWordRepetitionByPeriodResponse(WordRepetitionByPeriodStatistic statistic) {
         return new WordRepetitionByPeriodResponse().
@@ -398,6 +466,74 @@ public class DtoMapper {
     }
 
 
+    public <T> RepetitionSessionResponse<T> toRepetitionSessionResponse(RepetitionSession session) {
+        return new RepetitionSessionResponse<T>().
+                setSessionId(session.id()).
+                setTotal(session.total()).
+                setRemaining(session.remaining()).
+                setContent(List.of());
+    }
+
+    public List<RepetitionAnswer> toRepetitionAnswers(RepetitionBatchFromEnglishRequest dto) {
+        return Objects.requireNonNullElse(dto.getAnswers(), List.<RepetitionAnswerFromEnglishRequest>of()).stream().
+                map(answer -> RepetitionAnswer.fromEnglish(answer.getId(), answer.isRemember())).
+                toList();
+    }
+
+    public List<RepetitionAnswer> toRepetitionAnswers(RepetitionBatchFromNativeRequest dto) {
+        return Objects.requireNonNullElse(dto.getAnswers(), List.<RepetitionAnswerFromNativeRequest>of()).stream().
+                map(answer -> RepetitionAnswer.fromNative(answer.getId(), answer.getInputValue())).
+                toList();
+    }
+
+    public List<RepetitionOutcomeResponse> toRepetitionOutcomesResponse(List<RepetitionOutcome> outcomes) {
+        return outcomes.stream().
+                map(outcome -> new RepetitionOutcomeResponse().
+                        setId(outcome.cardId()).
+                        setStatus(outcome.status().name()).
+                        setRemember(outcome.isRemember()).
+                        setRepeatInterval(outcome.interval()).
+                        setLastDateOfRepeat(outcome.lastDateOfRepeat())).
+                toList();
+    }
+
+    public RepetitionSummaryResponse toRepetitionSummaryResponse(RepetitionSummary summary) {
+        return new RepetitionSummaryResponse().
+                setDate(summary.date()).
+                setWordsFromEnglish(summary.wordsFromEnglish()).
+                setWordsFromNative(summary.wordsFromNative()).
+                setExpressionsFromEnglish(summary.expressionsFromEnglish()).
+                setExpressionsFromNative(summary.expressionsFromNative()).
+                setTotal(summary.total()).
+                setDueTomorrow(summary.dueTomorrow());
+    }
+
+    public List<RepetitionForecastDayResponse> toRepetitionForecastResponse(List<RepetitionForecastDay> forecast) {
+        return forecast.stream().
+                map(day -> new RepetitionForecastDayResponse().
+                        setDate(day.date()).
+                        setWordsFromEnglish(day.wordsFromEnglish()).
+                        setWordsFromNative(day.wordsFromNative()).
+                        setExpressionsFromEnglish(day.expressionsFromEnglish()).
+                        setExpressionsFromNative(day.expressionsFromNative()).
+                        setTotal(day.total())).
+                toList();
+    }
+
+    public ScrollResponse<RepetitionFeedItemResponse<WordForRepetitionFromEnglishResponse, ExpressionForRepetitionFromEnglishResponse>>
+    toRepetitionFeedFromEnglishResponse(Window<RepetitionFeedItem> feed) {
+        return toRepetitionFeedResponse(feed,
+                this::toWordForRepetitionFromEnglishResponse,
+                this::toExpressionForRepetitionFromEnglishResponse);
+    }
+
+    public ScrollResponse<RepetitionFeedItemResponse<WordForRepetitionFromNativeResponse, ExpressionForRepetitionFromNativeResponse>>
+    toRepetitionFeedFromNativeResponse(Window<RepetitionFeedItem> feed) {
+        return toRepetitionFeedResponse(feed,
+                this::toWordForRepetitionFromNativeResponse,
+                this::toExpressionForRepetitionFromNativeResponse);
+    }
+
     public <T> RepetitionResponse<T> toRepetitionResponse(boolean isRemember, T payload) {
         return new RepetitionResponse<T>().
                 setRemember(isRemember).
@@ -420,6 +556,45 @@ public class DtoMapper {
         return PageRequest.of(page, size, sort);
     }
 
+    /**
+     * Преобразует курсор, полученный клиентом из {@link ScrollResponse#getNextCursor()}, в позицию выборки.
+     * Если cursor равен null или не содержит отображаемых символов - возвращает начальную позицию.
+     * @throws InvalidParameter если курсор поврежден. {@link InvalidParameter#getMessageKey()} вернет Cursor.invalid
+     */
+    public KeysetScrollPosition toScrollPosition(String cursor) {
+        if(cursor == null || cursor.isBlank()) return ScrollPosition.keyset();
+
+        try {
+            String[] parts = cursor.trim().split("\\.");
+            if(parts.length % 2 != 0) throw new IllegalArgumentException("Odd number of cursor parts");
+
+            Map<String, Object> keys = new LinkedHashMap<>();
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            for(int i = 0; i < parts.length; i += 2) {
+                keys.put(
+                        new String(decoder.decode(parts[i]), StandardCharsets.UTF_8),
+                        new String(decoder.decode(parts[i + 1]), StandardCharsets.UTF_8)
+                );
+            }
+            return ScrollPosition.forward(keys);
+        } catch(IllegalArgumentException e) {
+            throw new InvalidParameter("Invalid cursor '" + cursor + '\'', e, "Cursor.invalid", false);
+        }
+    }
+
+    /**
+     * Преобразует позицию выборки в курсор, передаваемый клиенту.
+     */
+    public String toCursor(KeysetScrollPosition position) {
+        StringJoiner result = new StringJoiner(".");
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        position.getKeys().forEach((key, value) -> {
+            result.add(encoder.encodeToString(key.getBytes(StandardCharsets.UTF_8)));
+            result.add(encoder.encodeToString(String.valueOf(value).getBytes(StandardCharsets.UTF_8)));
+        });
+        return result.toString();
+    }
+
 
     private ExampleResponse toExampleResponse(WordExample wordExample) {
         return new ExampleResponse().
@@ -564,4 +739,33 @@ public class DtoMapper {
         return collection == null ? Stream.empty() : collection.stream();
     }
 
+    private <T, R> RepetitionSessionResponse<R> toRepetitionSessionResponse(RepetitionBatch<T> batch,
+                                                                           Function<T, R> mapper) {
+        return new RepetitionSessionResponse<R>().
+                setSessionId(batch.session().id()).
+                setTotal(batch.session().total()).
+                setRemaining(batch.session().remaining()).
+                setContent(batch.cards().stream().map(mapper).toList());
+    }
+
+    private <W, E> ScrollResponse<RepetitionFeedItemResponse<W, E>> toRepetitionFeedResponse(
+            Window<RepetitionFeedItem> feed,
+            Function<Word, W> wordMapper,
+            Function<Expression, E> expressionMapper) {
+        return new ScrollResponse<RepetitionFeedItemResponse<W, E>>().
+                setContent(feed.map(item -> new RepetitionFeedItemResponse<W, E>().
+                                setType(item.type().name()).
+                                setWord(item.word() != null ? wordMapper.apply(item.word()) : null).
+                                setExpression(item.expression() != null ?
+                                        expressionMapper.apply(item.expression()) : null)).
+                        getContent()).
+                setNextCursor(toNextCursor(feed));
+    }
+
+    private String toNextCursor(Window<?> window) {
+        return window.hasNext() && !window.isEmpty() ?
+                toCursor((KeysetScrollPosition) window.positionAt(window.size() - 1)) :
+                null;
+    }
+
 }
@@ -0,0 +1,59 @@
+package com.bakuard.flashcards.dto.common;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Objects;
+import java.util.UUID;
+
+@Schema(description = "Вариант автодополнения - слово или устойчивое выражение, начинающееся с введенного текста.")
+public class AutocompleteResponse {
+
+    @Schema(description = "Уникальный идентификатор слова или устойчивого выражения.")
+    private UUID id;
+    @Schema(description = "Значение слова или устойчивого выражения.")
+    private String value;
+
+    public AutocompleteResponse() {
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public AutocompleteResponse setId(UUID id) {
+        this.id = id;
+        return this;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public AutocompleteResponse setValue(String value) {
+        this.value = value;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AutocompleteResponse that = (AutocompleteResponse) o;
+        return Objects.equals(id, that.id) &&
+                Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, value);
+    }
+
+    @Override
+    public String toString() {
+        return "AutocompleteResponse{" +
+                "id=" + id +
+                ", value='" + value + '\'' +
+                '}';
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.bakuard.flashcards.dto.common;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Objects;
+import java.util.UUID;
+
+@Schema(description = "Ответ пользователя при повторении слова или устойчивого выражения с английского на родной язык.")
+public class RepetitionAnswerFromEnglishRequest {
+
+    @Schema(description = """
+            Уникальный идентификатор слова или устойчивого выражения. <br/>
+            Ограничения: не должен быть null.
+            """)
+    private UUID id;
+    @Schema(description = "Указывает - помнит ли пользователь данное слово или устойчивое выражение или нет.")
+    private boolean isRemember;
+
+    public RepetitionAnswerFromEnglishRequest() {
+
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public RepetitionAnswerFromEnglishRequest setId(UUID id) {
+        this.id = id;
+        return this;
+    }
+
+    public boolean isRemember() {
+        return isRemember;
+    }
+
+    public RepetitionAnswerFromEnglishRequest setRemember(boolean remember) {
+        this.isRemember = remember;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RepetitionAnswerFromEnglishRequest that = (RepetitionAnswerFromEnglishRequest) o;
+        return Objects.equals(id, that.id) &&
+                isRemember == that.isRemember;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, isRemember);
+    }
+
+    @Override
+    public String toString() {
+        return "RepetitionAnswerFromEnglishRequest{" +
+                "id=" + id +
+                ", isRemember=" + isRemember +
+                '}';
+    }
+
+}
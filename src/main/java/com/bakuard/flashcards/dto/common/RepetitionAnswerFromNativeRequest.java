@@ -0,0 +1,63 @@
+package com.bakuard.flashcards.dto.common;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Objects;
+import java.util.UUID;
+
+@Schema(description = "Ответ пользователя при повторении слова или устойчивого выражения с родного языка на английский.")
+public class RepetitionAnswerFromNativeRequest {
+
+    @Schema(description = """
+            Уникальный идентификатор слова или устойчивого выражения. <br/>
+            Ограничения: не должен быть null.
+            """)
+    private UUID id;
+    @Schema(description = "Значение слова или устойчивого выражения на английском языке записанное пользователем по памяти.")
+    private String inputValue;
+
+    public RepetitionAnswerFromNativeRequest() {
+
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public RepetitionAnswerFromNativeRequest setId(UUID id) {
+        this.id = id;
+        return this;
+    }
+
+    public String getInputValue() {
+        return inputValue;
+    }
+
+    public RepetitionAnswerFromNativeRequest setInputValue(String inputValue) {
+        this.inputValue = inputValue;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RepetitionAnswerFromNativeRequest that = (RepetitionAnswerFromNativeRequest) o;
+        return Objects.equals(id, that.id) &&
+                Objects.equals(inputValue, that.inputValue);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, inputValue);
+    }
+
+    @Override
+    public String toString() {
+        return "RepetitionAnswerFromNativeRequest{" +
+                "id=" + id +
+                ", inputValue='" + inputValue + '\'' +
+                '}';
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.bakuard.flashcards.dto.common;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+@Schema(description = "Пакет ответов пользователя при повторении с английского на родной язык.")
+public class RepetitionBatchFromEnglishRequest {
+
+    @Schema(description = """
+            Идентификатор пользователя, с которым связаны слова или устойчивые выражения. <br/>
+            Ограничения: не должен быть null.
+            """)
+    private UUID userId;
+    @Schema(description = """
+            Ответы пользователя в порядке их получения. <br/>
+            Ограничения: не должен быть null, не более 500 ответов.
+            """)
+    private List<RepetitionAnswerFromEnglishRequest> answers;
+
+    public RepetitionBatchFromEnglishRequest() {
+
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public RepetitionBatchFromEnglishRequest setUserId(UUID userId) {
+        this.userId = userId;
+        return this;
+    }
+
+    public List<RepetitionAnswerFromEnglishRequest> getAnswers() {
+        return answers;
+    }
+
+    public RepetitionBatchFromEnglishRequest setAnswers(List<RepetitionAnswerFromEnglishRequest> answers) {
+        this.answers = answers;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RepetitionBatchFromEnglishRequest that = (RepetitionBatchFromEnglishRequest) o;
+        return Objects.equals(userId, that.userId) &&
+                Objects.equals(answers, that.answers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, answers);
+    }
+
+    @Override
+    public String toString() {
+        return "RepetitionBatchFromEnglishRequest{" +
+                "userId=" + userId +
+                ", answers=" + answers +
+                '}';
+    }
+
+}
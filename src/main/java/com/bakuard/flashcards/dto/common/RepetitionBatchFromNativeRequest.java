@@ -0,0 +1,67 @@
+package com.bakuard.flashcards.dto.common;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+@Schema(description = "Пакет ответов пользователя при повторении с родного языка на английский.")
+public class RepetitionBatchFromNativeRequest {
+
+    @Schema(description = """
+            Идентификатор пользователя, с которым связаны слова или устойчивые выражения. <br/>
+            Ограничения: не должен быть null.
+            """)
+    private UUID userId;
+    @Schema(description = """
+            Ответы пользователя в порядке их получения. <br/>
+            Ограничения: не должен быть null, не более 500 ответов.
+            """)
+    private List<RepetitionAnswerFromNativeRequest> answers;
+
+    public RepetitionBatchFromNativeRequest() {
+
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public RepetitionBatchFromNativeRequest setUserId(UUID userId) {
+        this.userId = userId;
+        return this;
+    }
+
+    public List<RepetitionAnswerFromNativeRequest> getAnswers() {
+        return answers;
+    }
+
+    public RepetitionBatchFromNativeRequest setAnswers(List<RepetitionAnswerFromNativeRequest> answers) {
+        this.answers = answers;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RepetitionBatchFromNativeRequest that = (RepetitionBatchFromNativeRequest) o;
+        return Objects.equals(userId, that.userId) &&
+                Objects.equals(answers, that.answers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, answers);
+    }
+
+    @Override
+    public String toString() {
+        return "RepetitionBatchFromNativeRequest{" +
+                "userId=" + userId +
+                ", answers=" + answers +
+                '}';
+    }
+
+}
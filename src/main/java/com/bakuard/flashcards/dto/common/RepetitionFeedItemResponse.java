@@ -0,0 +1,78 @@
+package com.bakuard.flashcards.dto.common;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Objects;
+
+@Schema(description = """
+        Элемент общей ленты повторения: слово или устойчивое выражение. Заполнено ровно одно из полей word и
+         expression.
+        """)
+public class RepetitionFeedItemResponse<W, E> {
+
+    @Schema(description = """
+            Вид повторения элемента. Используется при отправке ответов пакетом.
+            """,
+            allowableValues = {"WORDS_FROM_ENGLISH", "WORDS_FROM_NATIVE", "EXPRESSIONS_FROM_ENGLISH", "EXPRESSIONS_FROM_NATIVE"})
+    private String type;
+    @Schema(description = "Слово, если элемент ленты является словом, иначе - null.")
+    private W word;
+    @Schema(description = "Устойчивое выражение, если элемент ленты является устойчивым выражением, иначе - null.")
+    private E expression;
+
+    public RepetitionFeedItemResponse() {
+
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public RepetitionFeedItemResponse<W, E> setType(String type) {
+        this.type = type;
+        return this;
+    }
+
+    public W getWord() {
+        return word;
+    }
+
+    public RepetitionFeedItemResponse<W, E> setWord(W word) {
+        this.word = word;
+        return this;
+    }
+
+    public E getExpression() {
+        return expression;
+    }
+
+    public RepetitionFeedItemResponse<W, E> setExpression(E expression) {
+        this.expression = expression;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RepetitionFeedItemResponse<?, ?> that = (RepetitionFeedItemResponse<?, ?>) o;
+        return Objects.equals(type, that.type) &&
+                Objects.equals(word, that.word) &&
+                Objects.equals(expression, that.expression);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, word, expression);
+    }
+
+    @Override
+    public String toString() {
+        return "RepetitionFeedItemResponse{" +
+                "type='" + type + '\'' +
+                ", word=" + word +
+                ", expression=" + expression +
+                '}';
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.bakuard.flashcards.dto.common;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+@Schema(description = "Кол-во слов и устойчивых выражений, повторение которых приходится на один день прогноза.")
+public class RepetitionForecastDayResponse {
+
+    @Schema(description = "День прогноза.")
+    private LocalDate date;
+    @Schema(description = "Кол-во слов, для повторения с английского на родной язык.")
+    private int wordsFromEnglish;
+    @Schema(description = "Кол-во слов, для повторения с родного языка на английский.")
+    private int wordsFromNative;
+    @Schema(description = "Кол-во устойчивых выражений, для повторения с английского на родной язык.")
+    private int expressionsFromEnglish;
+    @Schema(description = "Кол-во устойчивых выражений, для повторения с родного языка на английский.")
+    private int expressionsFromNative;
+    @Schema(description = "Суммарное кол-во слов и устойчивых выражений, для повторения сегодня.")
+    private int total;
+
+    public RepetitionForecastDayResponse() {
+
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public RepetitionForecastDayResponse setDate(LocalDate date) {
+        this.date = date;
+        return this;
+    }
+
+    public int getWordsFromEnglish() {
+        return wordsFromEnglish;
+    }
+
+    public RepetitionForecastDayResponse setWordsFromEnglish(int wordsFromEnglish) {
+        this.wordsFromEnglish = wordsFromEnglish;
+        return this;
+    }
+
+    public int getWordsFromNative() {
+        return wordsFromNative;
+    }
+
+    public RepetitionForecastDayResponse setWordsFromNative(int wordsFromNative) {
+        this.wordsFromNative = wordsFromNative;
+        return this;
+    }
+
+    public int getExpressionsFromEnglish() {
+        return expressionsFromEnglish;
+    }
+
+    public RepetitionForecastDayResponse setExpressionsFromEnglish(int expressionsFromEnglish) {
+        this.expressionsFromEnglish = expressionsFromEnglish;
+        return this;
+    }
+
+    public int getExpressionsFromNative() {
+        return expressionsFromNative;
+    }
+
+    public RepetitionForecastDayResponse setExpressionsFromNative(int expressionsFromNative) {
+        this.expressionsFromNative = expressionsFromNative;
+        return this;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public RepetitionForecastDayResponse setTotal(int total) {
+        this.total = total;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RepetitionForecastDayResponse that = (RepetitionForecastDayResponse) o;
+        return wordsFromEnglish == that.wordsFromEnglish &&
+                wordsFromNative == that.wordsFromNative &&
+                expressionsFromEnglish == that.expressionsFromEnglish &&
+                expressionsFromNative == that.expressionsFromNative &&
+                total == that.total &&
+                Objects.equals(date, that.date);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(date, wordsFromEnglish, wordsFromNative,
+                expressionsFromEnglish, expressionsFromNative, total);
+    }
+
+    @Override
+    public String toString() {
+        return "RepetitionForecastDayResponse{" +
+                "date=" + date +
+                ", wordsFromEnglish=" + wordsFromEnglish +
+                ", wordsFromNative=" + wordsFromNative +
+                ", expressionsFromEnglish=" + expressionsFromEnglish +
+                ", expressionsFromNative=" + expressionsFromNative +
+                ", total=" + total +
+                '}';
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.bakuard.flashcards.dto.common;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.UUID;
+
+@Schema(description = "Результат обработки одного ответа из пакета ответов пользователя.")
+public class RepetitionOutcomeResponse {
+
+    @Schema(description = "Уникальный идентификатор слова или устойчивого выражения.")
+    private UUID id;
+    @Schema(description = """
+            Результат обработки ответа:<br/>
+            <ol>
+                <li>REPEATED - ответ применен.</li>
+                <li>UNKNOWN - у пользователя нет слова или устойчивого выражения с таким идентификатором.</li>
+            </ol>
+            """)
+    private String status;
+    @Schema(description = "Указывает результат повторения. Не имеет смысла для статуса UNKNOWN.")
+    private boolean isRemember;
+    @Schema(description = "Интервал повторения после обработки ответа. Равен null для статуса UNKNOWN.")
+    private Integer repeatInterval;
+    @Schema(description = "Дата последнего повторения после обработки ответа. Равна null для статуса UNKNOWN.")
+    private LocalDate lastDateOfRepeat;
+
+    public RepetitionOutcomeResponse() {
+
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public RepetitionOutcomeResponse setId(UUID id) {
+        this.id = id;
+        return this;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public RepetitionOutcomeResponse setStatus(String status) {
+        this.status = status;
+        return this;
+    }
+
+    public boolean isRemember() {
+        return isRemember;
+    }
+
+    public RepetitionOutcomeResponse setRemember(boolean remember) {
+        this.isRemember = remember;
+        return this;
+    }
+
+    public Integer getRepeatInterval() {
+        return repeatInterval;
+    }
+
+    public RepetitionOutcomeResponse setRepeatInterval(Integer repeatInterval) {
+        this.repeatInterval = repeatInterval;
+        return this;
+    }
+
+    public LocalDate getLastDateOfRepeat() {
+        return lastDateOfRepeat;
+    }
+
+    public RepetitionOutcomeResponse setLastDateOfRepeat(LocalDate lastDateOfRepeat) {
+        this.lastDateOfRepeat = lastDateOfRepeat;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RepetitionOutcomeResponse that = (RepetitionOutcomeResponse) o;
+        return Objects.equals(id, that.id) &&
+                Objects.equals(status, that.status) &&
+                isRemember == that.isRemember &&
+                Objects.equals(repeatInterval, that.repeatInterval) &&
+                Objects.equals(lastDateOfRepeat, that.lastDateOfRepeat);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, status, isRemember, repeatInterval, lastDateOfRepeat);
+    }
+
+    @Override
+    public String toString() {
+        return "RepetitionOutcomeResponse{" +
+                "id=" + id +
+                ", status='" + status + '\'' +
+                ", isRemember=" + isRemember +
+                ", repeatInterval=" + repeatInterval +
+                ", lastDateOfRepeat=" + lastDateOfRepeat +
+                '}';
+    }
+
+}
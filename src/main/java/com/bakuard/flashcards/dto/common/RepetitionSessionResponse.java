@@ -0,0 +1,91 @@
+package com.bakuard.flashcards.dto.common;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+@Schema(description = """
+        Очередная часть очереди сессии повторения. Очередь формируется один раз при открытии сессии
+         и выдается частями, позиция выдачи хранится на сервере.
+        """)
+public class RepetitionSessionResponse<T> {
+
+    @Schema(description = "Идентификатор сессии повторения.")
+    private UUID sessionId;
+    @Schema(description = "Общее кол-во элементов в очереди сессии.")
+    private int total;
+    @Schema(description = "Кол-во элементов очереди, которые еще не были выданы клиенту.")
+    private int remaining;
+    @Schema(description = """
+            Элементы текущей части очереди. Пустой список, если часть не запрашивалась или очередь исчерпана.
+            """)
+    private List<T> content;
+
+    public RepetitionSessionResponse() {
+    }
+
+    public UUID getSessionId() {
+        return sessionId;
+    }
+
+    public RepetitionSessionResponse<T> setSessionId(UUID sessionId) {
+        this.sessionId = sessionId;
+        return this;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public RepetitionSessionResponse<T> setTotal(int total) {
+        this.total = total;
+        return this;
+    }
+
+    public int getRemaining() {
+        return remaining;
+    }
+
+    public RepetitionSessionResponse<T> setRemaining(int remaining) {
+        this.remaining = remaining;
+        return this;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public RepetitionSessionResponse<T> setContent(List<T> content) {
+        this.content = content;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RepetitionSessionResponse<?> that = (RepetitionSessionResponse<?>) o;
+        return total == that.total &&
+                remaining == that.remaining &&
+                Objects.equals(sessionId, that.sessionId) &&
+                Objects.equals(content, that.content);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sessionId, total, remaining, content);
+    }
+
+    @Override
+    public String toString() {
+        return "RepetitionSessionResponse{" +
+                "sessionId=" + sessionId +
+                ", total=" + total +
+                ", remaining=" + remaining +
+                ", content=" + content +
+                '}';
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.bakuard.flashcards.dto.common;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+@Schema(description = "Кол-во слов и устойчивых выражений, доступных для повторения в текущую дату.")
+public class RepetitionSummaryResponse {
+
+    @Schema(description = "Текущая дата, на которую подсчитаны данные.")
+    private LocalDate date;
+    @Schema(description = "Кол-во слов, доступных для повторения с английского на родной язык.")
+    private int wordsFromEnglish;
+    @Schema(description = "Кол-во слов, доступных для повторения с родного языка на английский.")
+    private int wordsFromNative;
+    @Schema(description = "Кол-во устойчивых выражений, доступных для повторения с английского на родной язык.")
+    private int expressionsFromEnglish;
+    @Schema(description = "Кол-во устойчивых выражений, доступных для повторения с родного языка на английский.")
+    private int expressionsFromNative;
+    @Schema(description = "Суммарное кол-во слов и устойчивых выражений, доступных для повторения сегодня.")
+    private int total;
+    @Schema(description = """
+            Суммарное по всем направлениям кол-во слов и устойчивых выражений, которые станут доступны
+             для повторения только завтра.
+            """)
+    private int dueTomorrow;
+
+    public RepetitionSummaryResponse() {
+
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public RepetitionSummaryResponse setDate(LocalDate date) {
+        this.date = date;
+        return this;
+    }
+
+    public int getWordsFromEnglish() {
+        return wordsFromEnglish;
+    }
+
+    public RepetitionSummaryResponse setWordsFromEnglish(int wordsFromEnglish) {
+        this.wordsFromEnglish = wordsFromEnglish;
+        return this;
+    }
+
+    public int getWordsFromNative() {
+        return wordsFromNative;
+    }
+
+    public RepetitionSummaryResponse setWordsFromNative(int wordsFromNative) {
+        this.wordsFromNative = wordsFromNative;
+        return this;
+    }
+
+    public int getExpressionsFromEnglish() {
+        return expressionsFromEnglish;
+    }
+
+    public RepetitionSummaryResponse setExpressionsFromEnglish(int expressionsFromEnglish) {
+        this.expressionsFromEnglish = expressionsFromEnglish;
+        return this;
+    }
+
+    public int getExpressionsFromNative() {
+        return expressionsFromNative;
+    }
+
+    public RepetitionSummaryResponse setExpressionsFromNative(int expressionsFromNative) {
+        this.expressionsFromNative = expressionsFromNative;
+        return this;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public RepetitionSummaryResponse setTotal(int total) {
+        this.total = total;
+        return this;
+    }
+
+    public int getDueTomorrow() {
+        return dueTomorrow;
+    }
+
+    public RepetitionSummaryResponse setDueTomorrow(int dueTomorrow) {
+        this.dueTomorrow = dueTomorrow;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RepetitionSummaryResponse that = (RepetitionSummaryResponse) o;
+        return wordsFromEnglish == that.wordsFromEnglish &&
+                wordsFromNative == that.wordsFromNative &&
+                expressionsFromEnglish == that.expressionsFromEnglish &&
+                expressionsFromNative == that.expressionsFromNative &&
+                total == that.total &&
+                dueTomorrow == that.dueTomorrow &&
+                Objects.equals(date, that.date);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(date, wordsFromEnglish, wordsFromNative,
+                expressionsFromEnglish, expressionsFromNative, total, dueTomorrow);
+    }
+
+    @Override
+    public String toString() {
+        return "RepetitionSummaryResponse{" +
+                "date=" + date +
+                ", wordsFromEnglish=" + wordsFromEnglish +
+                ", wordsFromNative=" + wordsFromNative +
+                ", expressionsFromEnglish=" + expressionsFromEnglish +
+                ", expressionsFromNative=" + expressionsFromNative +
+                ", total=" + total +
+                ", dueTomorrow=" + dueTomorrow +
+                '}';
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.bakuard.flashcards.dto.common;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.Objects;
+
+@Schema(description = "Часть выборки, полученная постраничным чтением по курсору.")
+public class ScrollResponse<T> {
+
+    @Schema(description = "Элементы текущей части выборки.")
+    private List<T> content;
+    @Schema(description = """
+            Курсор для получения следующей части выборки. Передается в том же запросе в качестве параметра
+             cursor вместе с теми же параметрами сортировки. Равен null, если текущая часть выборки последняя.
+            """)
+    private String nextCursor;
+
+    public ScrollResponse() {
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public ScrollResponse<T> setContent(List<T> content) {
+        this.content = content;
+        return this;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public ScrollResponse<T> setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ScrollResponse<?> that = (ScrollResponse<?>) o;
+        return Objects.equals(content, that.content) &&
+                Objects.equals(nextCursor, that.nextCursor);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(content, nextCursor);
+    }
+
+    @Override
+    public String toString() {
+        return "ScrollResponse{" +
+                "content=" + content +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+
+}
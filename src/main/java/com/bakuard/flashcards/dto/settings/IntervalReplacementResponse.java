@@ -0,0 +1,130 @@
+package com.bakuard.flashcards.dto.settings;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Objects;
+import java.util.UUID;
+
+@Schema(description = """
+        Состояние фоновой замены интервала повторения в словах и устойчивых выражениях пользователя.
+        """)
+public class IntervalReplacementResponse {
+
+    @Schema(description = "Уникальный идентификатор замены.")
+    private UUID replacementId;
+    @Schema(description = "Уникальный идентификатор пользователя.")
+    private UUID userId;
+    @Schema(description = "Заменяемый интервал повторения.")
+    private int oldInterval;
+    @Schema(description = "Новый интервал повторения.")
+    private int newInterval;
+    @Schema(description = "Состояние замены.", allowableValues = {"PENDING", "RUNNING", "DONE", "FAILED"})
+    private String status;
+    @Schema(description = """
+            Кол-во текущих интервалов повторения слов и устойчивых выражений, которые нужно заменить.
+             Равно 0, пока замена не запущена.
+            """)
+    private int total;
+    @Schema(description = "Кол-во уже замененных текущих интервалов повторения.")
+    private int processed;
+
+    public IntervalReplacementResponse() {
+
+    }
+
+    public UUID getReplacementId() {
+        return replacementId;
+    }
+
+    public IntervalReplacementResponse setReplacementId(UUID replacementId) {
+        this.replacementId = replacementId;
+        return this;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public IntervalReplacementResponse setUserId(UUID userId) {
+        this.userId = userId;
+        return this;
+    }
+
+    public int getOldInterval() {
+        return oldInterval;
+    }
+
+    public IntervalReplacementResponse setOldInterval(int oldInterval) {
+        this.oldInterval = oldInterval;
+        return this;
+    }
+
+    public int getNewInterval() {
+        return newInterval;
+    }
+
+    public IntervalReplacementResponse setNewInterval(int newInterval) {
+        this.newInterval = newInterval;
+        return this;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public IntervalReplacementResponse setStatus(String status) {
+        this.status = status;
+        return this;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public IntervalReplacementResponse setTotal(int total) {
+        this.total = total;
+        return this;
+    }
+
+    public int getProcessed() {
+        return processed;
+    }
+
+    public IntervalReplacementResponse setProcessed(int processed) {
+        this.processed = processed;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        IntervalReplacementResponse that = (IntervalReplacementResponse) o;
+        return oldInterval == that.oldInterval &&
+                newInterval == that.newInterval &&
+                total == that.total &&
+                processed == that.processed &&
+                Objects.equals(replacementId, that.replacementId) &&
+                Objects.equals(userId, that.userId) &&
+                Objects.equals(status, that.status);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(replacementId, userId, oldInterval, newInterval, status, total, processed);
+    }
+
+    @Override
+    public String toString() {
+        return "IntervalReplacementResponse{" +
+                "replacementId=" + replacementId +
+                ", userId=" + userId +
+                ", oldInterval=" + oldInterval +
+                ", newInterval=" + newInterval +
+                ", status='" + status + '\'' +
+                ", total=" + total +
+                ", processed=" + processed +
+                '}';
+    }
+
+}
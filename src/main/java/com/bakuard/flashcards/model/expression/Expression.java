@@ -3,12 +3,14 @@ package com.bakuard.flashcards.model.expression;
 import com.bakuard.flashcards.model.Entity;
 import com.bakuard.flashcards.model.RepeatDataFromEnglish;
 import com.bakuard.flashcards.model.RepeatDataFromNative;
+import com.bakuard.flashcards.model.repetition.RepetitionCard;
 import com.bakuard.flashcards.validation.annotation.AllUnique;
 import com.bakuard.flashcards.validation.annotation.NotBlankOrNull;
 import com.bakuard.flashcards.validation.annotation.NotContainsNull;
 import com.google.common.collect.ImmutableList;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.PersistenceCreator;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Embedded;
 import org.springframework.data.relational.core.mapping.MappedCollection;
@@ -57,6 +59,9 @@ public class Expression implements Entity {
     @Embedded.Nullable
     @Valid
     private RepeatDataFromNative repeatDataFromNative;
+    @Version
+    @Column("version")
+    private Long version;
 
     /**
      * Данный конструктор используется слоем доступа к данным для загрузки устойчивого выражения.
@@ -128,6 +133,16 @@ public class Expression implements Entity {
         return userId;
     }
 
+    /**
+     * Возвращает версию устойчивого выражения, которая увеличивается при каждом его изменении. Используется для
+     * оптимистической блокировки: сохранение устойчивого выражения, прочитанного до его последнего изменения, завершится
+     * ошибкой {@link org.springframework.dao.OptimisticLockingFailureException}. Для нового устойчивого выражения возвращает null.
+     * @return версию устойчивого выражения или null.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
     /**
      * Возвращает устойчивое выражение на английском языке
      * @return устойчивое выражение на английском языке
@@ -295,10 +310,9 @@ public class Expression implements Entity {
      *                  пользователя.
      */
     public void repeatFromEnglish(boolean isRemember, LocalDate lastDateOfRepeat, ImmutableList<Integer> intervals) {
-        int index = isRemember ?
-                Math.min(intervals.indexOf(repeatDataFromEnglish.interval()) + 1, intervals.size() - 1) : 0;
-
-        repeatDataFromEnglish = new RepeatDataFromEnglish(intervals.get(index), lastDateOfRepeat);
+        repeatDataFromEnglish = new RepeatDataFromEnglish(
+                RepetitionCard.nextInterval(repeatDataFromEnglish.interval(), isRemember, intervals),
+                lastDateOfRepeat);
     }
 
     /**
@@ -318,10 +332,9 @@ public class Expression implements Entity {
      */
     public boolean repeatFromNative(String inputValue, LocalDate lastDateOfRepeat, ImmutableList<Integer> intervals) {
         boolean isRemember = inputValue.equalsIgnoreCase(value);
-        int index = inputValue.equalsIgnoreCase(value) ?
-                Math.min(intervals.indexOf(repeatDataFromNative.interval()) + 1, intervals.size() - 1) : 0;
-
-        repeatDataFromNative = new RepeatDataFromNative(intervals.get(index), lastDateOfRepeat);
+        repeatDataFromNative = new RepeatDataFromNative(
+                RepetitionCard.nextInterval(repeatDataFromNative.interval(), isRemember, intervals),
+                lastDateOfRepeat);
 
         return isRemember;
     }
@@ -375,6 +388,7 @@ public class Expression implements Entity {
                 ", examples=" + examples +
                 ", repeatDataFromEnglish=" + repeatDataFromEnglish +
                 ", repeatDataFromNative=" + repeatDataFromNative +
+                ", version=" + version +
                 '}';
     }
 
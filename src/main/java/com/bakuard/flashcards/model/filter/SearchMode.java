@@ -0,0 +1,34 @@
+package com.bakuard.flashcards.model.filter;
+
+import com.bakuard.flashcards.validation.exception.InvalidParameter;
+
+/**
+ * Способы поиска слов и устойчивых выражений по значению.
+ */
+public enum SearchMode {
+
+    /**
+     * Поиск по редакционному расстоянию Левенштейна.
+     */
+    LEVENSHTEIN,
+    /**
+     * Поиск по совпадению фонетических ключей Double Metaphone.
+     */
+    PHONETIC;
+
+    /**
+     * Возвращает способ поиска по его имени без учета регистра. Если mode равен null или пустой строке -
+     * возвращает {@link #LEVENSHTEIN}.
+     * @throws InvalidParameter если способа поиска с таким именем не существует.
+     *                          {@link InvalidParameter#getMessageKey()} вернет SearchMode.unknown
+     */
+    public static SearchMode of(String mode) {
+        if(mode == null || mode.isBlank()) return LEVENSHTEIN;
+
+        for(SearchMode value : values()) {
+            if(value.name().equalsIgnoreCase(mode.trim())) return value;
+        }
+        throw new InvalidParameter("Unknown search mode '" + mode + '\'', "SearchMode.unknown");
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.bakuard.flashcards.model.interval;
+
+import java.util.UUID;
+
+/**
+ * Фоновая замена интервала повторения oldInterval на newInterval во всех словах и устойчивых выражениях
+ * пользователя. Текущие интервалы повторения слов и устойчивых выражений заменяются в фоне, порциями, а
+ * список интервалов повторения пользователя меняется только вместе с последней порцией, когда замена
+ * переходит в состояние {@link IntervalReplacementStatus#DONE}.
+ * @param id идентификатор замены.
+ * @param userId идентификатор пользователя, интервал повторения которого заменяется.
+ * @param oldInterval заменяемый интервал повторения.
+ * @param newInterval новый интервал повторения.
+ * @param status состояние замены.
+ * @param total кол-во текущих интервалов повторения слов и устойчивых выражений, которые нужно заменить.
+ *              Вычисляется при запуске замены, до этого равен 0.
+ * @param processed кол-во уже замененных текущих интервалов повторения.
+ */
+public record IntervalReplacement(UUID id,
+                                  UUID userId,
+                                  int oldInterval,
+                                  int newInterval,
+                                  IntervalReplacementStatus status,
+                                  int total,
+                                  int processed) {}
@@ -0,0 +1,32 @@
+package com.bakuard.flashcards.model.interval;
+
+/**
+ * Состояния фоновой замены интервала повторения в словах и устойчивых выражениях пользователя.
+ */
+public enum IntervalReplacementStatus {
+
+    /**
+     * Замена ожидает своей очереди.
+     */
+    PENDING,
+    /**
+     * Замена выполняется.
+     */
+    RUNNING,
+    /**
+     * Интервал повторения заменен во всех словах и устойчивых выражениях пользователя.
+     */
+    DONE,
+    /**
+     * Последняя попытка выполнить замену прервана из-за ошибки. Такая замена будет выполнена повторно.
+     */
+    FAILED;
+
+    /**
+     * Возвращает true, если очередная попытка выполнить замену завершена (успешно или с ошибкой), иначе - false.
+     */
+    public boolean isFinished() {
+        return this == DONE || this == FAILED;
+    }
+
+}
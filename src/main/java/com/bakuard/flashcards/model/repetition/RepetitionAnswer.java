@@ -0,0 +1,34 @@
+package com.bakuard.flashcards.model.repetition;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Ответ пользователя при повторении одного слова или устойчивого выражения. При повторении с английского
+ * языка ответом является отметка пользователя - вспомнил ли он слово (isRemember). При повторении с родного
+ * языка ответом является значение, введенное пользователем по памяти (inputValue).
+ * @param cardId идентификатор слова или устойчивого выражения.
+ * @param isRemember отметка пользователя. Используется при повторении с английского языка.
+ * @param inputValue значение введенное пользователем. Используется при повторении с родного языка.
+ */
+public record RepetitionAnswer(UUID cardId, boolean isRemember, String inputValue) {
+
+    public RepetitionAnswer {
+        Objects.requireNonNull(cardId, "cardId can't be null");
+    }
+
+    /**
+     * Создает ответ для повторения с английского на родной язык пользователя.
+     */
+    public static RepetitionAnswer fromEnglish(UUID cardId, boolean isRemember) {
+        return new RepetitionAnswer(cardId, isRemember, null);
+    }
+
+    /**
+     * Создает ответ для повторения с родного языка пользователя на английский.
+     */
+    public static RepetitionAnswer fromNative(UUID cardId, String inputValue) {
+        return new RepetitionAnswer(cardId, false, inputValue);
+    }
+
+}
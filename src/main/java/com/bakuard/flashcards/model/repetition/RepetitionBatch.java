@@ -0,0 +1,11 @@
+package com.bakuard.flashcards.model.repetition;
+
+import java.util.List;
+
+/**
+ * Очередная часть очереди сессии повторения, выданная клиенту.
+ * @param session состояние сессии после выдачи этой части очереди.
+ * @param cards элементы очереди в порядке их следования в сессии.
+ * @param <T> тип элементов очереди.
+ */
+public record RepetitionBatch<T>(RepetitionSession session, List<T> cards) {}
@@ -0,0 +1,61 @@
+package com.bakuard.flashcards.model.repetition;
+
+import com.google.common.collect.ImmutableList;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Данные слова или устойчивого выражения, необходимые для его повторения в одном направлении: значение и
+ * данные о последнем повторении в этом направлении. Позволяет выполнить повторение без загрузки и сохранения
+ * всего слова или устойчивого выражения вместе с его переводами, толкованиями и примерами.
+ * @param id идентификатор слова или устойчивого выражения.
+ * @param value значение слова или устойчивого выражения.
+ * @param interval текущий интервал повторения.
+ * @param lastDateOfRepeat дата последнего повторения.
+ * @param version версия слова или устойчивого выражения на момент чтения этих данных или null, если данные
+ *                не были прочитаны из БД.
+ */
+public record RepetitionCard(UUID id, String value, int interval, LocalDate lastDateOfRepeat, Long version) {
+
+    /**
+     * Возвращает интервал повторения, который следует установить после очередного повторения с текущим
+     * интервалом interval: <br/>
+     * 1. Если повторение было успешно (isRemember = true), то будет выбран наименьший интервал из списка
+     *    intervals, который больше текущего интервала. Если текущий интервал больше или равен наибольшему
+     *    в списке - будет выбран наибольший интервал. <br/>
+     * 2. Если повторение не было успешно (isRemember = false), то будет выбран наименьший интервал
+     *    из списка intervals.
+     * @param interval текущий интервал повторения.
+     * @param isRemember true - если повторение было успешно, иначе - false.
+     * @param intervals все интервалы повторения пользователя упорядоченные по возрастанию.
+     */
+    public static int nextInterval(int interval, boolean isRemember, ImmutableList<Integer> intervals) {
+        if(!isRemember) return intervals.get(0);
+
+        for(int next : intervals) {
+            if(next > interval) return next;
+        }
+        return intervals.get(intervals.size() - 1);
+    }
+
+    /**
+     * Возвращает данные о повторении после очередного повторения. Интервал повторения выбирается методом
+     * {@link #nextInterval(int, boolean, ImmutableList)}.
+     * @param isRemember true - если повторение было успешно, иначе - false.
+     * @param lastDateOfRepeat дата текущего повторения.
+     * @param intervals все интервалы повторения пользователя упорядоченные по возрастанию.
+     */
+    public RepetitionCard repeat(boolean isRemember, LocalDate lastDateOfRepeat, ImmutableList<Integer> intervals) {
+        return new RepetitionCard(id, value, nextInterval(interval, isRemember, intervals), lastDateOfRepeat, version);
+    }
+
+    /**
+     * Возвращает true, если введенное пользователем значение inputValue совпадает со значением слова или
+     * устойчивого выражения без учета регистра.
+     */
+    public boolean isRemember(String inputValue) {
+        return inputValue != null && inputValue.equalsIgnoreCase(value);
+    }
+
+}
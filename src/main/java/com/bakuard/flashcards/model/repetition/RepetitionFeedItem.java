@@ -0,0 +1,39 @@
+package com.bakuard.flashcards.model.repetition;
+
+import com.bakuard.flashcards.model.expression.Expression;
+import com.bakuard.flashcards.model.word.Word;
+
+import java.util.Objects;
+
+/**
+ * Элемент общей ленты повторения: слово или устойчивое выражение вместе с видом повторения. Ровно одно из
+ * полей word и expression не равно null.
+ * @param type вид повторения.
+ * @param word слово, если элемент ленты является словом, иначе - null.
+ * @param expression устойчивое выражение, если элемент ленты является устойчивым выражением, иначе - null.
+ */
+public record RepetitionFeedItem(RepetitionType type, Word word, Expression expression) {
+
+    public RepetitionFeedItem {
+        Objects.requireNonNull(type, "type can't be null");
+        if(type.isWords() ? word == null || expression != null : expression == null || word != null) {
+            throw new IllegalArgumentException("Feed item of type " + type + " must contain only " +
+                    (type.isWords() ? "word" : "expression"));
+        }
+    }
+
+    /**
+     * Создает элемент ленты для слова.
+     */
+    public static RepetitionFeedItem of(RepetitionType type, Word word) {
+        return new RepetitionFeedItem(type, word, null);
+    }
+
+    /**
+     * Создает элемент ленты для устойчивого выражения.
+     */
+    public static RepetitionFeedItem of(RepetitionType type, Expression expression) {
+        return new RepetitionFeedItem(type, null, expression);
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.bakuard.flashcards.model.repetition;
+
+import java.util.UUID;
+
+/**
+ * Элемент общей ленты повторения слов и устойчивых выражений (см.
+ * {@link com.bakuard.flashcards.dal.RepetitionCardRepository#scrollDue(UUID, boolean, java.time.LocalDate,
+ * org.springframework.data.domain.KeysetScrollPosition, int)}).
+ * @param type вид повторения. Определяет, является ли элемент словом или устойчивым выражением.
+ * @param id идентификатор слова или устойчивого выражения.
+ */
+public record RepetitionFeedKey(RepetitionType type, UUID id) {}
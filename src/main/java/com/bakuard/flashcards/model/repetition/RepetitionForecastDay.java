@@ -0,0 +1,28 @@
+package com.bakuard.flashcards.model.repetition;
+
+import java.time.LocalDate;
+
+/**
+ * Кол-во слов и устойчивых выражений пользователя, повторение которых приходится на указанный день,
+ * в каждом из направлений повторения.
+ * @param date день прогноза.
+ * @param wordsFromEnglish кол-во слов для повторения с английского на родной язык.
+ * @param wordsFromNative кол-во слов для повторения с родного языка на английский.
+ * @param expressionsFromEnglish кол-во устойчивых выражений для повторения с английского на родной язык.
+ * @param expressionsFromNative кол-во устойчивых выражений для повторения с родного языка на английский.
+ */
+public record RepetitionForecastDay(LocalDate date,
+                                    int wordsFromEnglish,
+                                    int wordsFromNative,
+                                    int expressionsFromEnglish,
+                                    int expressionsFromNative) {
+
+    /**
+     * Возвращает суммарное по всем направлениям кол-во слов и устойчивых выражений для повторения
+     * в день {@link #date()}.
+     */
+    public int total() {
+        return wordsFromEnglish + wordsFromNative + expressionsFromEnglish + expressionsFromNative;
+    }
+
+}
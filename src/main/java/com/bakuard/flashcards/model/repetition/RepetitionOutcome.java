@@ -0,0 +1,47 @@
+package com.bakuard.flashcards.model.repetition;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Результат обработки одного ответа из пакета ответов пользователя.
+ * @param cardId идентификатор слова или устойчивого выражения.
+ * @param status результат обработки ответа.
+ * @param isRemember true - если пользователь успешно повторил слово или устойчивое выражение, иначе - false.
+ *                   Не имеет смысла для статуса {@link Status#UNKNOWN}.
+ * @param interval интервал повторения после обработки ответа или null, если слово или устойчивое выражение
+ *                 не найдено.
+ * @param lastDateOfRepeat дата последнего повторения после обработки ответа или null, если слово или
+ *                         устойчивое выражение не найдено.
+ */
+public record RepetitionOutcome(UUID cardId,
+                                Status status,
+                                boolean isRemember,
+                                Integer interval,
+                                LocalDate lastDateOfRepeat) {
+
+    /**
+     * Результат обработки ответа.
+     */
+    public enum Status {
+
+        /**
+         * Ответ применен: данные о повторении изменены и добавлены в статистику.
+         */
+        REPEATED,
+        /**
+         * Ответ не применен: у пользователя нет слова или устойчивого выражения с таким идентификатором.
+         */
+        UNKNOWN
+
+    }
+
+    public static RepetitionOutcome repeated(RepetitionCard card, boolean isRemember) {
+        return new RepetitionOutcome(card.id(), Status.REPEATED, isRemember, card.interval(), card.lastDateOfRepeat());
+    }
+
+    public static RepetitionOutcome rejected(UUID cardId, Status status) {
+        return new RepetitionOutcome(cardId, status, false, null, null);
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.bakuard.flashcards.model.repetition;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Сессия повторения - зафиксированная в момент открытия сессии очередь слов или устойчивых выражений,
+ * доступных пользователю для повторения, и позиция, до которой эта очередь уже выдана клиенту.
+ * @param id идентификатор сессии.
+ * @param userId идентификатор пользователя, открывшего сессию.
+ * @param type вид повторения.
+ * @param creationDate дата открытия сессии.
+ * @param position кол-во элементов очереди, уже выданных клиенту.
+ * @param total общее кол-во элементов очереди.
+ */
+public record RepetitionSession(UUID id,
+                                UUID userId,
+                                RepetitionType type,
+                                LocalDate creationDate,
+                                int position,
+                                int total) {
+
+    /**
+     * Возвращает кол-во элементов очереди, которые еще не были выданы клиенту.
+     */
+    public int remaining() {
+        return total - position;
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.bakuard.flashcards.model.repetition;
+
+import java.time.LocalDate;
+
+/**
+ * Кол-во слов и устойчивых выражений пользователя, доступных для повторения на указанную дату, в каждом
+ * из направлений повторения.
+ * @param date дата, на которую подсчитаны данные.
+ * @param wordsFromEnglish кол-во слов, доступных для повторения с английского на родной язык.
+ * @param wordsFromNative кол-во слов, доступных для повторения с родного языка на английский.
+ * @param expressionsFromEnglish кол-во устойчивых выражений, доступных для повторения с английского
+ *                               на родной язык.
+ * @param expressionsFromNative кол-во устойчивых выражений, доступных для повторения с родного языка
+ *                              на английский.
+ * @param dueTomorrow суммарное по всем направлениям кол-во слов и устойчивых выражений, которые станут
+ *                    доступны для повторения только на следующий после date день.
+ */
+public record RepetitionSummary(LocalDate date,
+                                int wordsFromEnglish,
+                                int wordsFromNative,
+                                int expressionsFromEnglish,
+                                int expressionsFromNative,
+                                int dueTomorrow) {
+
+    /**
+     * Возвращает суммарное по всем направлениям кол-во слов и устойчивых выражений, доступных для
+     * повторения на дату {@link #date()}.
+     */
+    public int total() {
+        return wordsFromEnglish + wordsFromNative + expressionsFromEnglish + expressionsFromNative;
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.bakuard.flashcards.model.repetition;
+
+/**
+ * Виды повторения, для которых может быть открыта сессия повторения.
+ */
+public enum RepetitionType {
+
+    /**
+     * Повторение слов с английского на родной язык пользователя.
+     */
+    WORDS_FROM_ENGLISH,
+    /**
+     * Повторение слов с родного языка пользователя на английский.
+     */
+    WORDS_FROM_NATIVE,
+    /**
+     * Повторение устойчивых выражений с английского на родной язык пользователя.
+     */
+    EXPRESSIONS_FROM_ENGLISH,
+    /**
+     * Повторение устойчивых выражений с родного языка пользователя на английский.
+     */
+    EXPRESSIONS_FROM_NATIVE;
+
+    /**
+     * Возвращает true, если повторение выполняется с английского на родной язык пользователя, иначе - false.
+     */
+    public boolean isFromEnglish() {
+        return this == WORDS_FROM_ENGLISH || this == EXPRESSIONS_FROM_ENGLISH;
+    }
+
+    /**
+     * Возвращает true, если повторяются слова, и false - если устойчивые выражения.
+     */
+    public boolean isWords() {
+        return this == WORDS_FROM_ENGLISH || this == WORDS_FROM_NATIVE;
+    }
+
+}
@@ -3,12 +3,14 @@ package com.bakuard.flashcards.model.word;
 import com.bakuard.flashcards.model.Entity;
 import com.bakuard.flashcards.model.RepeatDataFromEnglish;
 import com.bakuard.flashcards.model.RepeatDataFromNative;
+import com.bakuard.flashcards.model.repetition.RepetitionCard;
 import com.bakuard.flashcards.validation.annotation.AllUnique;
 import com.bakuard.flashcards.validation.annotation.NotBlankOrNull;
 import com.bakuard.flashcards.validation.annotation.NotContainsNull;
 import com.google.common.collect.ImmutableList;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.PersistenceCreator;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Embedded;
 import org.springframework.data.relational.core.mapping.MappedCollection;
@@ -62,6 +64,9 @@ public class Word implements Entity {
     @Embedded.Nullable
     @Valid
     private RepeatDataFromNative repeatDataFromNative;
+    @Version
+    @Column("version")
+    private Long version;
 
     /**
      * Данный конструктор используется слоем доступа к данным для загрузки слова.
@@ -141,6 +146,7 @@ public class Word implements Entity {
                 collect(Collectors.toCollection(ArrayList::new));
         this.repeatDataFromEnglish = RepeatDataFromEnglish.copy(other.repeatDataFromEnglish);
         this.repeatDataFromNative = RepeatDataFromNative.copy(other.repeatDataFromNative);
+        this.version = other.version;
     }
 
     /**
@@ -159,6 +165,16 @@ public class Word implements Entity {
         return userId;
     }
 
+    /**
+     * Возвращает версию слова, которая увеличивается при каждом его изменении. Используется для
+     * оптимистической блокировки: сохранение слова, прочитанного до его последнего изменения, завершится
+     * ошибкой {@link org.springframework.dao.OptimisticLockingFailureException}. Для нового слова возвращает null.
+     * @return версию слова или null.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
     /**
      * Возвращает значение слова на английском языке.
      * @return значение слова на английском языке.
@@ -392,10 +408,9 @@ public class Word implements Entity {
      *                  пользователя.
      */
     public void repeatFromEnglish(boolean isRemember, LocalDate lastDateOfRepeat, ImmutableList<Integer> intervals) {
-        int index = isRemember ?
-                Math.min(intervals.indexOf(repeatDataFromEnglish.interval()) + 1, intervals.size() - 1) : 0;
-
-        repeatDataFromEnglish = new RepeatDataFromEnglish(intervals.get(index), lastDateOfRepeat);
+        repeatDataFromEnglish = new RepeatDataFromEnglish(
+                RepetitionCard.nextInterval(repeatDataFromEnglish.interval(), isRemember, intervals),
+                lastDateOfRepeat);
     }
 
     /**
@@ -415,10 +430,9 @@ public class Word implements Entity {
      */
     public boolean repeatFromNative(String inputValue, LocalDate lastDateOfRepeat, ImmutableList<Integer> intervals) {
         boolean isRemember = inputValue.equalsIgnoreCase(value);
-        int index = isRemember ?
-                Math.min(intervals.indexOf(repeatDataFromNative.interval()) + 1, intervals.size() - 1) : 0;
-
-        repeatDataFromNative = new RepeatDataFromNative(intervals.get(index), lastDateOfRepeat);
+        repeatDataFromNative = new RepeatDataFromNative(
+                RepetitionCard.nextInterval(repeatDataFromNative.interval(), isRemember, intervals),
+                lastDateOfRepeat);
 
         return isRemember;
     }
@@ -473,6 +487,7 @@ public class Word implements Entity {
                 ", examples=" + examples +
                 ", repeatDataFromEnglish=" + repeatDataFromEnglish +
                 ", repeatDataFromNative=" + repeatDataFromNative +
+                ", version=" + version +
                 '}';
     }
 
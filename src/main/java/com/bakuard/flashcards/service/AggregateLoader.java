@@ -0,0 +1,68 @@
+package com.bakuard.flashcards.service;
+
+import com.bakuard.flashcards.model.Entity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Загрузка слов и устойчивых выражений по заранее вычисленному упорядоченному списку идентификаторов (результату
+ * поиска по индексу, очередной порции сессии повторения и т.п.). Порядок идентификаторов сохраняется, а записи,
+ * удаленные после вычисления списка, пропускаются.
+ */
+public final class AggregateLoader {
+
+    private AggregateLoader() {}
+
+    /**
+     * Загружает все записи с идентификаторами из ids одним запросом findAllById.
+     * @param ids идентификаторы загружаемых записей
+     * @param findAllById метод репозитория, загружающий записи по идентификаторам
+     * @return записи, сгруппированные по идентификатору
+     */
+    public static <T extends Entity> Map<UUID, T> findAllAsMap(List<UUID> ids,
+                                                              Function<List<UUID>, Iterable<T>> findAllById) {
+        Map<UUID, T> result = new HashMap<>();
+        findAllById.apply(ids).forEach(aggregate -> result.put(aggregate.getId(), aggregate));
+        return result;
+    }
+
+    /**
+     * Загружает все записи с идентификаторами из ids и возвращает их в порядке ids.
+     * @param ids упорядоченные идентификаторы загружаемых записей
+     * @param findAllById метод репозитория, загружающий записи по идентификаторам
+     * @return найденные записи в порядке ids
+     */
+    public static <T extends Entity> List<T> findAllInOrder(List<UUID> ids,
+                                                           Function<List<UUID>, Iterable<T>> findAllById) {
+        Map<UUID, T> aggregates = findAllAsMap(ids, findAllById);
+        return ids.stream().
+                map(aggregates::get).
+                filter(Objects::nonNull).
+                toList();
+    }
+
+    /**
+     * Возвращает страницу pageable выборки, заданной полным упорядоченным списком идентификаторов ids.
+     * Из хранилища загружаются только записи возвращаемой страницы, общее кол-во записей равно размеру ids.
+     * @param ids упорядоченные идентификаторы всех записей выборки
+     * @param pageable запрашиваемая страница
+     * @param findAllById метод репозитория, загружающий записи по идентификаторам
+     * @return страница записей
+     */
+    public static <T extends Entity> Page<T> page(List<UUID> ids,
+                                                  Pageable pageable,
+                                                  Function<List<UUID>, Iterable<T>> findAllById) {
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + pageable.getPageSize(), ids.size());
+        return PageableExecutionUtils.getPage(findAllInOrder(ids.subList(from, to), findAllById), pageable, ids::size);
+    }
+
+}
@@ -2,16 +2,25 @@ package com.bakuard.flashcards.service;
 
 import com.bakuard.flashcards.config.configData.ConfigData;
 import com.bakuard.flashcards.dal.ExpressionRepository;
+import com.bakuard.flashcards.dal.FullTextIndex;
 import com.bakuard.flashcards.dal.IntervalRepository;
-import com.bakuard.flashcards.model.RepetitionResult;
+import com.bakuard.flashcards.dal.PrefixIndex;
+import com.bakuard.flashcards.dal.RepetitionSessionRepository;
+import com.bakuard.flashcards.dal.RepetitionSnapshotRepository;
+import com.bakuard.flashcards.dal.ScrollRepository;
+import com.bakuard.flashcards.model.repetition.RepetitionBatch;
+import com.bakuard.flashcards.model.repetition.RepetitionSession;
+import com.bakuard.flashcards.model.repetition.RepetitionType;
 import com.bakuard.flashcards.model.expression.Expression;
 import com.bakuard.flashcards.validation.exception.NotUniqueEntityException;
 import com.bakuard.flashcards.validation.exception.UnknownEntityException;
 import com.bakuard.flashcards.validation.ValidatorUtil;
-import com.google.common.collect.ImmutableList;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.relational.core.conversion.DbActionExecutionException;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,9 +28,7 @@ import org.springframework.transaction.annotation.Transactional;
 import jakarta.validation.ConstraintViolationException;
 import java.time.Clock;
 import java.time.LocalDate;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
 
 /**
  * Набор операций над устойчивыми выражениями в словаре пользователя требующие обращения к внешнему хранилищу
@@ -31,7 +38,12 @@ import java.util.UUID;
 public class ExpressionService {
 
     private ExpressionRepository expressionRepository;
+    private PrefixIndex expressionPrefixIndex;
+    private FullTextIndex fullTextIndex;
+    private ScrollRepository scrollRepository;
     private IntervalRepository intervalRepository;
+    private RepetitionSessionRepository repetitionSessionRepository;
+    private RepetitionSnapshotRepository repetitionSnapshotRepository;
     private Clock clock;
     private ConfigData configData;
     private ValidatorUtil validator;
@@ -39,18 +51,33 @@ public class ExpressionService {
     /**
      * Создает новый сервис для устойчивых выражений.
      * @param expressionRepository репозиторий устойчивых выражений
+     * @param expressionPrefixIndex индекс для автодополнения значений устойчивых выражений
+     * @param fullTextIndex индекс для полнотекстового поиска
+     * @param scrollRepository репозиторий для постраничного чтения словаря по ключу
      * @param intervalRepository репозиторий интервалов повторения
+     * @param repetitionSessionRepository репозиторий сессий повторения
+     * @param repetitionSnapshotRepository репозиторий заранее вычисленных снимков данных о повторении
      * @param clock часы используемые для получения текущей даты (параметр добавлен для удобства тестирования)
      * @param configData общие данные конфигурации приложения
      * @param validator объект отвечающий за валидация входных данных пользователя
      */
     public ExpressionService(ExpressionRepository expressionRepository,
+                             PrefixIndex expressionPrefixIndex,
+                             FullTextIndex fullTextIndex,
+                             ScrollRepository scrollRepository,
                              IntervalRepository intervalRepository,
+                             RepetitionSessionRepository repetitionSessionRepository,
+                             RepetitionSnapshotRepository repetitionSnapshotRepository,
                              Clock clock,
                              ConfigData configData,
                              ValidatorUtil validator) {
         this.expressionRepository = expressionRepository;
+        this.expressionPrefixIndex = expressionPrefixIndex;
+        this.fullTextIndex = fullTextIndex;
+        this.scrollRepository = scrollRepository;
         this.intervalRepository = intervalRepository;
+        this.repetitionSessionRepository = repetitionSessionRepository;
+        this.repetitionSnapshotRepository = repetitionSnapshotRepository;
         this.clock = clock;
         this.configData = configData;
         this.validator = validator;
@@ -68,7 +95,10 @@ public class ExpressionService {
     public Expression save(Expression expression) {
         try {
             validator.assertValid(expression);
-            return expressionRepository.save(expression);
+            repetitionSnapshotRepository.invalidate(expression.getUserId());
+            Expression savedExpression = expressionRepository.save(expression);
+            expressionPrefixIndex.update(savedExpression.getUserId(), savedExpression.getId(), savedExpression.getValue());
+            return savedExpression;
         } catch (DbActionExecutionException e) {
             if(e.getCause() instanceof DuplicateKeyException) {
                 throw new NotUniqueEntityException(
@@ -86,12 +116,14 @@ public class ExpressionService {
      *                                {@link UnknownEntityException#getMessageKey()} вернет Expression.unknownIdOrUserId
      */
     public void tryDeleteById(UUID userId, UUID expressionId) {
+        repetitionSnapshotRepository.invalidate(userId);
         boolean wasDeleted = expressionRepository.deleteById(userId, expressionId);
         if(!wasDeleted) {
             throw new UnknownEntityException(
                     "User with id=" + userId + " not exists or hasn't expression with id=" + expressionId,
                     "Expression.unknownIdOrUserId");
         }
+        expressionPrefixIndex.invalidate(userId);
     }
 
     /**
@@ -109,21 +141,54 @@ public class ExpressionService {
     }
 
     /**
-     * Делегирует вызов методу {@link ExpressionRepository#findByValue(UUID, String, int, long, long)}.
-     * Оборачивает возвращаемое значение в объект Page.
+     * Возвращает страницу устойчивых выражений пользователя, редакционное расстояние от значения которых до value
+     * не превышает maxDistance. Выборка вычисляется один раз с помощью
+     * {@link ExpressionRepository#findIdsByValue(UUID, String, int)}, после чего из хранилища загружаются только
+     * выражения возвращаемой страницы. Общее кол-во найденных выражений определяется по той же выборке.
      */
     public Page<Expression> findByValue(UUID userId, String value, int maxDistance, Pageable pageable) {
         maxDistance = Math.max(maxDistance, 1);
         maxDistance = Math.min(configData.levenshteinMaxDistance(), maxDistance);
-        final int distance = maxDistance;
 
+        List<UUID> ids = expressionRepository.findIdsByValue(userId, value, maxDistance);
+        return AggregateLoader.page(ids, pageable, expressionRepository::findAllById);
+    }
+
+    /**
+     * Делегирует вызов методу {@link ExpressionRepository#findByPhonetic(UUID, String, long, long)}.
+     * Оборачивает возвращаемое значение в объект Page.
+     */
+    public Page<Expression> findByPhonetic(UUID userId, String value, Pageable pageable) {
         return PageableExecutionUtils.getPage(
-                expressionRepository.findByValue(userId, value, maxDistance, pageable.getPageSize(), pageable.getOffset()),
+                expressionRepository.findByPhonetic(userId, value, pageable.getPageSize(), pageable.getOffset()),
                 pageable,
-                () -> expressionRepository.countForValue(userId, value, distance)
+                () -> expressionRepository.countForPhonetic(userId, value)
         );
     }
 
+    /**
+     * Возвращает не более limit устойчивых выражений пользователя, значение которых начинается с prefix (без учета регистра),
+     * упорядоченных по значению. Выборка выполняется по индексу в оперативной памяти и не обращается к БД,
+     * если индекс пользователя уже загружен.
+     * @see PrefixIndex#findByPrefix(UUID, String, int)
+     */
+    public List<PrefixIndex.Entry> autocomplete(UUID userId, String prefix, int limit) {
+        return expressionPrefixIndex.findByPrefix(userId, prefix, limit);
+    }
+
+    /**
+     * Возвращает страницу устойчивых выражений пользователя, найденных полнотекстовым поиском по {@link FullTextIndex}
+     * среди значений, примечаний, толкований, переводов и примеров, в порядке убывания ранга.
+     * Из хранилища загружаются только устойчивые выражения возвращаемой страницы.
+     */
+    public Page<Expression> findByText(UUID userId, String query, Pageable pageable) {
+        List<UUID> ids = fullTextIndex.findExpressionIds(userId, query, pageable.getPageSize(), pageable.getOffset());
+        return PageableExecutionUtils.getPage(
+                AggregateLoader.findAllInOrder(ids, expressionRepository::findAllById),
+                pageable,
+                () -> fullTextIndex.countExpressions(userId, query));
+    }
+
     /**
      * Делегирует вызов методу {@link ExpressionRepository#findByTranslate(UUID, String, long, long)}.
      * Оборачивает возвращаемое значение в объект Page.
@@ -159,9 +224,29 @@ public class ExpressionService {
         return expressionRepository.findByUserId(userId, pageable);
     }
 
+    /**
+     * Возвращает окно устойчивых выражений пользователя userId, упорядоченных согласно sort и следующих после позиции
+     * position. В отличие от {@link #findByUserId(UUID, Pageable)}, стоимость получения окна не зависит от
+     * того, насколько далеко оно находится от начала выборки, и не требует подсчета общего кол-ва устойчивых выражений.
+     * @see ScrollRepository#scrollExpressions(UUID, Sort, KeysetScrollPosition, int)
+     */
+    public Window<Expression> scrollByUserId(UUID userId, Sort sort, KeysetScrollPosition position, int size) {
+        return load(scrollRepository.scrollExpressions(userId, sort, position, size));
+    }
+
+    /**
+     * Возвращает окно устойчивых выражений пользователя userId, хотя бы один из переводов которых равен translate,
+     * следующих после позиции position.
+     * @see ScrollRepository#scrollExpressionsByTranslate(UUID, String, KeysetScrollPosition, int)
+     */
+    public Window<Expression> scrollByTranslate(UUID userId, String translate, KeysetScrollPosition position, int size) {
+        return load(scrollRepository.scrollExpressionsByTranslate(userId, translate, position, size));
+    }
+
     /**
      * Делегирует вызов методу {@link ExpressionRepository#findAllForRepeatFromEnglish(UUID, LocalDate, long, long)}.
-     * Оборачивая возвращаемое значение в объект Page.
+     * Оборачивая возвращаемое значение в объект Page. Общее кол-во элементов выборки берется из актуального
+     * снимка пользователя (см. {@link RepetitionSnapshotRepository}), если он есть.
      */
     public Page<Expression> findAllForRepeatFromEnglish(UUID userId, Pageable pageable) {
         LocalDate date = LocalDate.now(clock);
@@ -169,13 +254,16 @@ public class ExpressionService {
         return PageableExecutionUtils.getPage(
                 expressionRepository.findAllForRepeatFromEnglish(userId, date, pageable.getPageSize(), pageable.getOffset()),
                 pageable,
-                () -> expressionRepository.countForRepeatFromEnglish(userId, date)
+                () -> repetitionSnapshotRepository.findSummary(userId, date).
+                        map(summary -> (long) summary.expressionsFromEnglish()).
+                        orElseGet(() -> expressionRepository.countForRepeatFromEnglish(userId, date))
         );
     }
 
     /**
      * Делегирует вызов методу {@link ExpressionRepository#findAllForRepeatFromNative(UUID, LocalDate, long, long)}.
-     * Оборачивает возвращаемое значение в объект Page.
+     * Оборачивает возвращаемое значение в объект Page. Общее кол-во элементов выборки берется из актуального
+     * снимка пользователя (см. {@link RepetitionSnapshotRepository}), если он есть.
      */
     public Page<Expression> findAllForRepeatFromNative(UUID userId, Pageable pageable) {
         LocalDate date = LocalDate.now(clock);
@@ -183,57 +271,46 @@ public class ExpressionService {
         return PageableExecutionUtils.getPage(
                 expressionRepository.findAllForRepeatFromNative(userId, date, pageable.getPageSize(), pageable.getOffset()),
                 pageable,
-                () -> expressionRepository.countForRepeatFromNative(userId, date)
+                () -> repetitionSnapshotRepository.findSummary(userId, date).
+                        map(summary -> (long) summary.expressionsFromNative()).
+                        orElseGet(() -> expressionRepository.countForRepeatFromNative(userId, date))
         );
     }
 
     /**
-     * Делегирует вызов методу {@link Expression#repeatFromEnglish(boolean, LocalDate, ImmutableList)} выражения,
-     * имеющего идентификатор expressionId, сохраняет указанное устойчивое выражение, а затем возвращает его.
-     * @return устойчивое выражение с идентификатором expressionId.
+     * Открывает сессию повторения устойчивых выражений пользователя userId с английского на родной язык пользователя.
+     * Очередь сессии составляют все устойчивые выражения, доступные для повторения в текущую дату.
+     * @see RepetitionSessionRepository#open(UUID, RepetitionType, LocalDate)
      */
-    public Expression repeatFromEnglish(UUID userId, UUID expressionId, boolean isRemember) {
-        Expression expression = tryFindById(userId, expressionId);
-        expression.repeatFromEnglish(isRemember, LocalDate.now(clock), intervalRepository.findAll(expression.getUserId()));
-        save(expression);
-        return expression;
+    public RepetitionSession openRepetitionSessionFromEnglish(UUID userId) {
+        return repetitionSessionRepository.open(userId, RepetitionType.EXPRESSIONS_FROM_ENGLISH, LocalDate.now(clock));
     }
 
     /**
-     * Делегирует вызов методу {@link Expression#repeatFromNative(String, LocalDate, ImmutableList)} выражения,
-     * имеющего идентификатор expressionId, сохраняет указанное устойчивое выражение, а затем возвращает его.
-     * @return устойчивое выражение с идентификатором expressionId.
+     * Открывает сессию повторения устойчивых выражений пользователя userId с родного языка пользователя на английский.
+     * Очередь сессии составляют все устойчивые выражения, доступные для повторения в текущую дату.
+     * @see RepetitionSessionRepository#open(UUID, RepetitionType, LocalDate)
      */
-    public RepetitionResult<Expression> repeatFromNative(UUID userId, UUID expressionId, String inputWordValue) {
-        Expression expression = tryFindById(userId, expressionId);
-        boolean isRemember = expression.repeatFromNative(
-                inputWordValue, LocalDate.now(clock), intervalRepository.findAll(userId));
-        save(expression);
-        return new RepetitionResult<>(expression, isRemember);
+    public RepetitionSession openRepetitionSessionFromNative(UUID userId) {
+        return repetitionSessionRepository.open(userId, RepetitionType.EXPRESSIONS_FROM_NATIVE, LocalDate.now(clock));
     }
 
     /**
-     * Делегирует вызов методу {@link Expression#markForRepetitionFromEnglish(LocalDate, int)} выражения,
-     * имеющего идентификатор expressionId, сохраняет указанное устойчивое выражение, а затем возвращает его.
-     * @return устойчивое выражение с идентификатором expressionId.
+     * Возвращает не более size следующих устойчивых выражений из очереди сессии повторения с английского языка sessionId.
+     * Устойчивые выражения, удаленные из словаря после открытия сессии, пропускаются.
+     * @see RepetitionSessionRepository#next(UUID, UUID, RepetitionType, int)
      */
-    public Expression markForRepetitionFromEnglish(UUID userId, UUID expressionId) {
-        Expression expression = tryFindById(userId, expressionId);
-        expression.markForRepetitionFromEnglish(LocalDate.now(clock), intervalRepository.findAll(userId).get(0));
-        save(expression);
-        return expression;
+    public RepetitionBatch<Expression> nextForRepetitionFromEnglish(UUID userId, UUID sessionId, int size) {
+        return loadInOrder(repetitionSessionRepository.next(userId, sessionId, RepetitionType.EXPRESSIONS_FROM_ENGLISH, size));
     }
 
     /**
-     * Делегирует вызов методу {@link Expression#markForRepetitionFromNative(LocalDate, int)} выражения,
-     * имеющего идентификатор expressionId, сохраняет указанное устойчивое выражение, а затем возвращает его.
-     * @return устойчивое выражение с идентификатором expressionId.
+     * Возвращает не более size следующих устойчивых выражений из очереди сессии повторения с родного языка sessionId.
+     * Устойчивые выражения, удаленные из словаря после открытия сессии, пропускаются.
+     * @see RepetitionSessionRepository#next(UUID, UUID, RepetitionType, int)
      */
-    public Expression markForRepetitionFromNative(UUID userId, UUID expressionId) {
-        Expression expression = tryFindById(userId, expressionId);
-        expression.markForRepetitionFromNative(LocalDate.now(clock), intervalRepository.findAll(userId).get(0));
-        save(expression);
-        return expression;
+    public RepetitionBatch<Expression> nextForRepetitionFromNative(UUID userId, UUID sessionId, int size) {
+        return loadInOrder(repetitionSessionRepository.next(userId, sessionId, RepetitionType.EXPRESSIONS_FROM_NATIVE, size));
     }
 
     /**
@@ -254,4 +331,24 @@ public class ExpressionService {
         return expression.getRepeatDataFromNative().isHotRepeat(intervals.get(0));
     }
 
+
+    private Window<Expression> load(Window<UUID> ids) {
+        Map<UUID, Expression> expressions = AggregateLoader.findAllAsMap(ids.getContent(), expressionRepository::findAllById);
+
+        List<Expression> content = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for(int i = 0; i < ids.size(); i++) {
+            Expression expression = expressions.get(ids.getContent().get(i));
+            if(expression != null) {
+                content.add(expression);
+                positions.add(i);
+            }
+        }
+        return Window.from(content, index -> ids.positionAt(positions.get(index)), ids.hasNext());
+    }
+
+    private RepetitionBatch<Expression> loadInOrder(RepetitionBatch<UUID> ids) {
+        return new RepetitionBatch<>(ids.session(), AggregateLoader.findAllInOrder(ids.cards(), expressionRepository::findAllById));
+    }
+
 }
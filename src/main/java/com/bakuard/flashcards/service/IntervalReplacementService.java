@@ -0,0 +1,149 @@
+package com.bakuard.flashcards.service;
+
+import com.bakuard.flashcards.config.BackgroundTask;
+import com.bakuard.flashcards.config.configData.ConfigData;
+import com.bakuard.flashcards.dal.IntervalReplacementRepository;
+import com.bakuard.flashcards.dal.IntervalRepository;
+import com.bakuard.flashcards.dal.RepetitionSnapshotRepository;
+import com.bakuard.flashcards.model.interval.IntervalReplacement;
+import com.bakuard.flashcards.model.interval.IntervalReplacementStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Выполняет в фоне замены интервалов повторения, созданные методом
+ * {@link IntervalService#replace(java.util.UUID, int, int)}. Каждая замена выполняется порциями по
+ * conf.intervalReplacement.chunkSize интервалов повторения, каждая порция - в отдельной короткой транзакции,
+ * поэтому замена в большом словаре не удерживает блокировки на время всей операции. Заменяемый интервал
+ * остается в списке интервалов повторения пользователя до последней транзакции замены, которая под
+ * блокировкой повторения пользователя (см. {@link RepetitionLocks}) заменяет оставшиеся текущие интервалы
+ * повторения и меняет список интервалов.
+ */
+public class IntervalReplacementService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IntervalReplacementService.class.getName());
+
+
+    private IntervalRepository intervalRepository;
+    private IntervalReplacementRepository intervalReplacementRepository;
+    private RepetitionSnapshotRepository repetitionSnapshotRepository;
+    private RepetitionLocks repetitionLocks;
+    private TransactionTemplate transaction;
+    private ConfigData configData;
+    private BackgroundTask task;
+
+    /**
+     * Создает новый сервис для фонового выполнения замен интервалов повторения.
+     * @param intervalRepository репозиторий интервалов повторения
+     * @param intervalReplacementRepository репозиторий фоновых замен интервалов повторения
+     * @param repetitionSnapshotRepository репозиторий заранее вычисленных снимков данных о повторении
+     * @param repetitionLocks блокировки, под которыми применяются ответы пользователя при повторении
+     * @param transaction объект для выполнения каждой порции замены в отдельной транзакции
+     * @param configData общие данные конфигурации приложения
+     */
+    public IntervalReplacementService(IntervalRepository intervalRepository,
+                                      IntervalReplacementRepository intervalReplacementRepository,
+                                      RepetitionSnapshotRepository repetitionSnapshotRepository,
+                                      RepetitionLocks repetitionLocks,
+                                      TransactionTemplate transaction,
+                                      ConfigData configData) {
+        this.intervalRepository = intervalRepository;
+        this.intervalReplacementRepository = intervalReplacementRepository;
+        this.repetitionSnapshotRepository = repetitionSnapshotRepository;
+        this.repetitionLocks = repetitionLocks;
+        this.transaction = transaction;
+        this.configData = configData;
+    }
+
+    /**
+     * Создает (если это разрешено конфигурацией) отдельный поток, который раз в
+     * conf.intervalReplacement.checkIntervalInMillis миллисекунд выполняет все незавершенные замены
+     * (см. {@link #processAll()}).
+     */
+    public void scheduleReplacements() {
+        if(!configData.intervalReplacement().enabled()) return;
+
+        task = BackgroundTask.runPeriodically(
+                "process interval replacements",
+                Duration.ofMillis(configData.intervalReplacement().checkIntervalInMillis()),
+                this::processAll);
+    }
+
+    /**
+     * Останавливает поток, созданный методом {@link #scheduleReplacements()}.
+     */
+    public void shutdown() {
+        if(task != null) task.stop();
+    }
+
+    /**
+     * Последовательно, в порядке создания, выполняет все незавершенные замены интервалов повторения, в том
+     * числе повторно выполняет замены, завершившиеся ошибкой. Ошибка при выполнении одной замены переводит ее
+     * в состояние {@link IntervalReplacementStatus#FAILED} и откладывает до следующего вызова этого метода
+     * все последующие замены того же пользователя, но не прерывает выполнение замен других пользователей.
+     * @return кол-во успешно завершенных замен
+     */
+    public int processAll() {
+        int processed = 0;
+        Set<UUID> failedUsers = new HashSet<>();
+        List<IntervalReplacement> replacements = transaction.execute(
+                status -> intervalReplacementRepository.findAllUnfinished());
+        for(IntervalReplacement replacement : replacements) {
+            if(Thread.currentThread().isInterrupted()) break;
+            if(failedUsers.contains(replacement.userId())) continue;
+
+            if(process(replacement)) ++processed;
+            else failedUsers.add(replacement.userId());
+        }
+        return processed;
+    }
+
+
+    private boolean process(IntervalReplacement replacement) {
+        try {
+            transaction.executeWithoutResult(status -> intervalReplacementRepository.start(
+                    replacement.id(),
+                    intervalRepository.countInCards(replacement.userId(), replacement.oldInterval())));
+
+            int chunkSize = configData.intervalReplacement().chunkSize();
+            int replaced;
+            do {
+                replaced = transaction.execute(status -> {
+                    repetitionSnapshotRepository.invalidate(replacement.userId());
+                    int result = intervalRepository.replaceInCards(
+                            replacement.userId(), replacement.oldInterval(), replacement.newInterval(), chunkSize);
+                    intervalReplacementRepository.addProcessed(replacement.id(), result);
+                    return result;
+                });
+            } while(replaced > 0);
+
+            repetitionLocks.execute(replacement.userId(), () -> transaction.execute(status -> {
+                repetitionSnapshotRepository.invalidate(replacement.userId());
+                int result = intervalRepository.replaceInCards(
+                        replacement.userId(), replacement.oldInterval(), replacement.newInterval(), Integer.MAX_VALUE);
+                intervalReplacementRepository.addProcessed(replacement.id(), result);
+                intervalRepository.replaceInterval(
+                        replacement.userId(), replacement.oldInterval(), replacement.newInterval());
+                intervalReplacementRepository.finish(replacement.id(), IntervalReplacementStatus.DONE);
+                return result;
+            }));
+            logger.info("Replace interval {} to {} for user {}",
+                    replacement.oldInterval(), replacement.newInterval(), replacement.userId());
+            return true;
+        } catch(Exception e) {
+            logger.error("Fail to replace interval " + replacement.oldInterval() + " to " +
+                    replacement.newInterval() + " for user " + replacement.userId(), e);
+            transaction.executeWithoutResult(
+                    status -> intervalReplacementRepository.finish(replacement.id(), IntervalReplacementStatus.FAILED));
+            return false;
+        }
+    }
+
+}
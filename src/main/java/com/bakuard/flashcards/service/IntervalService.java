@@ -1,9 +1,16 @@
 package com.bakuard.flashcards.service;
 
+import com.bakuard.flashcards.dal.IntervalReplacementRepository;
 import com.bakuard.flashcards.dal.IntervalRepository;
+import com.bakuard.flashcards.model.interval.IntervalReplacement;
+import com.bakuard.flashcards.model.interval.IntervalReplacementStatus;
+import com.bakuard.flashcards.validation.exception.InvalidParameter;
+import com.bakuard.flashcards.validation.exception.UnknownEntityException;
 import com.google.common.collect.ImmutableList;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -15,13 +22,17 @@ import java.util.UUID;
 public class IntervalService {
 
     private IntervalRepository intervalRepository;
+    private IntervalReplacementRepository intervalReplacementRepository;
 
     /**
      * Создает новый сервис для редактирования списка всех интервалов повторения конкретного пользователя.
      * @param intervalRepository репозиторий интервалов повторения
+     * @param intervalReplacementRepository репозиторий фоновых замен интервалов повторения
      */
-    public IntervalService(IntervalRepository intervalRepository) {
+    public IntervalService(IntervalRepository intervalRepository,
+                           IntervalReplacementRepository intervalReplacementRepository) {
         this.intervalRepository = intervalRepository;
+        this.intervalReplacementRepository = intervalReplacementRepository;
     }
 
     /**
@@ -32,10 +43,58 @@ public class IntervalService {
     }
 
     /**
-     * Делегирует вызов методу {@link IntervalRepository#replace(UUID, int, int)}.
+     * Создает фоновую замену интервала повторения oldInterval на newInterval, которую выполнит
+     * {@link IntervalReplacementService}. Список интервалов повторения пользователя меняется только после того,
+     * как интервал будет заменен во всех словах и устойчивых выражениях пользователя, поэтому до завершения
+     * замены слова и устойчивые выражения с интервалом oldInterval повторяются как обычно. Интервалы
+     * проверяются с учетом всех незавершенных замен пользователя, поэтому замену можно создать, не дожидаясь
+     * завершения предыдущей (например, 1 -> 2, а затем 2 -> 3). Если oldInterval равен newInterval - замена
+     * создается сразу в состоянии {@link IntervalReplacementStatus#DONE}.
+     * @param userId идентификатор пользователя
+     * @param oldInterval заменяемый интервал повторения
+     * @param newInterval новый интервал повторения
+     * @return созданная замена, по идентификатору которой можно узнать ее состояние
+     * @throws InvalidParameter если newInterval < 1 или если среди интервалов повторения пользователя (с учетом
+     *                          незавершенных замен) нет интервала oldInterval. {@link InvalidParameter#getMessageKey()}
+     *                          вернет RepeatInterval.notNegative или RepeatInterval.intervalNotExists
+     */
+    public IntervalReplacement replace(UUID userId, int oldInterval, int newInterval) {
+        List<Integer> intervals = new ArrayList<>(intervalRepository.findAll(userId));
+        for(IntervalReplacement unfinished : intervalReplacementRepository.findAllUnfinished(userId)) {
+            intervals.remove(Integer.valueOf(unfinished.oldInterval()));
+            if(!intervals.contains(unfinished.newInterval())) intervals.add(unfinished.newInterval());
+        }
+
+        if(newInterval < 1) {
+            throw new InvalidParameter(
+                    "interval can't be less then 1. Actual: " + newInterval,
+                    "RepeatInterval.notNegative");
+        }
+        if(!intervals.contains(oldInterval)) {
+            throw new InvalidParameter(
+                    "User with id=" + userId + " hasn't interval=" + oldInterval,
+                    "RepeatInterval.intervalNotExists");
+        }
+
+        return intervalReplacementRepository.create(userId, oldInterval, newInterval,
+                oldInterval != newInterval ? IntervalReplacementStatus.PENDING : IntervalReplacementStatus.DONE);
+    }
+
+    /**
+     * Возвращает замену интервала повторения с идентификатором replacementId созданную для пользователя userId.
+     * @param userId идентификатор пользователя
+     * @param replacementId идентификатор замены
+     * @return замену интервала повторения
+     * @throws UnknownEntityException если у пользователя userId нет замены с идентификатором replacementId.
+     *                                {@link UnknownEntityException#getMessageKey()} вернет
+     *                                IntervalReplacement.unknownIdOrUserId
      */
-    public void replace(UUID userId, int oldInterval, int newInterval) {
-        intervalRepository.replace(userId, oldInterval, newInterval);
+    @Transactional(readOnly = true)
+    public IntervalReplacement findReplacement(UUID userId, UUID replacementId) {
+        return intervalReplacementRepository.findById(userId, replacementId).
+                orElseThrow(() -> new UnknownEntityException(
+                        "User with id=" + userId + " hasn't interval replacement with id=" + replacementId,
+                        "IntervalReplacement.unknownIdOrUserId"));
     }
 
     /**
@@ -0,0 +1,53 @@
+package com.bakuard.flashcards.service;
+
+import com.bakuard.flashcards.config.configData.ConfigData;
+import com.google.common.util.concurrent.Striped;
+
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+
+/**
+ * Набор блокировок, используемых для последовательного применения ответов одного пользователя при повторении
+ * слов и устойчивых выражений. Блокировки разделены на фиксированное кол-во полос (stripes): ответы одного
+ * пользователя всегда выполняются последовательно, а ответы разных пользователей - параллельно, если их
+ * идентификаторы не попали в одну полосу.
+ * <br/><br/>
+ * Блокировка должна захватываться до начала транзакции и освобождаться после ее фиксации. Тогда второй из
+ * одновременно отправленных ответов увидит результат первого, а ожидающие потоки не удерживают соединения
+ * с БД. Блокировки действуют только в пределах одного экземпляра приложения.
+ */
+public class RepetitionLocks {
+
+    private final Striped<Lock> locks;
+
+    /**
+     * Создает новый набор блокировок.
+     * @param configData общие данные конфигурации приложения
+     */
+    public RepetitionLocks(ConfigData configData) {
+        this.locks = Striped.lock(configData.repetitionLock().stripes());
+    }
+
+    /**
+     * Выполняет action, удерживая блокировку пользователя userId, и возвращает его результат.
+     * @param userId идентификатор пользователя
+     * @param action выполняемое действие
+     * @return результат action
+     * @throws NullPointerException если хотя бы один из параметров равен null
+     */
+    public <T> T execute(UUID userId, Supplier<T> action) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        Objects.requireNonNull(action, "action can't be null");
+
+        Lock lock = locks.get(userId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
@@ -0,0 +1,354 @@
+package com.bakuard.flashcards.service;
+
+import com.bakuard.flashcards.dal.ExpressionRepository;
+import com.bakuard.flashcards.dal.IntervalRepository;
+import com.bakuard.flashcards.dal.RepetitionCardRepository;
+import com.bakuard.flashcards.dal.RepetitionSnapshotRepository;
+import com.bakuard.flashcards.dal.WordRepository;
+import com.bakuard.flashcards.model.RepetitionResult;
+import com.bakuard.flashcards.model.expression.Expression;
+import com.bakuard.flashcards.model.repetition.RepetitionAnswer;
+import com.bakuard.flashcards.model.repetition.RepetitionCard;
+import com.bakuard.flashcards.model.repetition.RepetitionFeedItem;
+import com.bakuard.flashcards.model.repetition.RepetitionFeedKey;
+import com.bakuard.flashcards.model.repetition.RepetitionForecastDay;
+import com.bakuard.flashcards.model.repetition.RepetitionOutcome;
+import com.bakuard.flashcards.model.repetition.RepetitionSummary;
+import com.bakuard.flashcards.model.repetition.RepetitionType;
+import com.bakuard.flashcards.model.word.Word;
+import com.bakuard.flashcards.validation.exception.InvalidParameter;
+import com.bakuard.flashcards.validation.exception.UnknownEntityException;
+import com.google.common.collect.ImmutableList;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Сервис для обработки ответов пользователя при повторении слов и устойчивых выражений и для
+ * получения сводных данных о предстоящих повторениях. Каждый метод этого класса выполняется в отдельной
+ * транзакции.
+ */
+@Transactional
+public class RepetitionService {
+
+    /**
+     * Максимальное кол-во ответов в одном пакете.
+     */
+    public static final int MAX_BATCH_SIZE = 500;
+    /**
+     * Максимальное кол-во дней в прогнозе нагрузки.
+     */
+    public static final int MAX_FORECAST_DAYS = 365;
+
+    private RepetitionCardRepository repetitionCardRepository;
+    private RepetitionSnapshotRepository repetitionSnapshotRepository;
+    private WordRepository wordRepository;
+    private ExpressionRepository expressionRepository;
+    private IntervalRepository intervalRepository;
+    private StatisticAppendBuffer statisticAppendBuffer;
+    private Clock clock;
+
+    /**
+     * Создает новый сервис для пакетной обработки ответов пользователя.
+     * @param repetitionCardRepository репозиторий данных слов и устойчивых выражений, необходимых для повторения
+     * @param repetitionSnapshotRepository репозиторий заранее вычисленных снимков данных о повторении
+     * @param wordRepository репозиторий слов
+     * @param expressionRepository репозиторий устойчивых выражений
+     * @param intervalRepository репозиторий интервалов повторения
+     * @param statisticAppendBuffer буфер для отложенной пакетной записи статистики
+     * @param clock часы используемые для получения текущей даты (параметр добавлен для удобства тестирования)
+     */
+    public RepetitionService(RepetitionCardRepository repetitionCardRepository,
+                             RepetitionSnapshotRepository repetitionSnapshotRepository,
+                             WordRepository wordRepository,
+                             ExpressionRepository expressionRepository,
+                             IntervalRepository intervalRepository,
+                             StatisticAppendBuffer statisticAppendBuffer,
+                             Clock clock) {
+        this.repetitionCardRepository = repetitionCardRepository;
+        this.repetitionSnapshotRepository = repetitionSnapshotRepository;
+        this.wordRepository = wordRepository;
+        this.expressionRepository = expressionRepository;
+        this.intervalRepository = intervalRepository;
+        this.statisticAppendBuffer = statisticAppendBuffer;
+        this.clock = clock;
+    }
+
+    /**
+     * Применяет все ответы answers пользователя userId при повторении вида type в одной транзакции. Данные
+     * для повторения всех слов или устойчивых выражений пакета читаются одним запросом, изменяются одним
+     * пакетом запросов UPDATE, а результаты повторения добавляются в статистику через {@link StatisticAppendBuffer}.
+     * <br/><br/>
+     * Ответ игнорируется, если у пользователя нет слова или устойчивого выражения с указанным идентификатором.
+     * Каждый ответ изменяет интервал повторения. Если пакет содержит несколько ответов для одного и того же
+     * слова или устойчивого выражения, они применяются последовательно в порядке их получения, а в БД
+     * записывается только итоговое состояние.
+     * @param userId идентификатор пользователя
+     * @param type вид повторения
+     * @param answers ответы пользователя в порядке их получения
+     * @return результат обработки каждого ответа в том же порядке, что и answers
+     * @throws NullPointerException если хотя бы один из параметров равен null
+     * @throws InvalidParameter если кол-во ответов больше {@link #MAX_BATCH_SIZE}.
+     *                          {@link InvalidParameter#getMessageKey()} вернет RepetitionBatch.maxSize
+     */
+    public List<RepetitionOutcome> repeatAll(UUID userId, RepetitionType type, List<RepetitionAnswer> answers) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        Objects.requireNonNull(type, "type can't be null");
+        Objects.requireNonNull(answers, "answers can't be null");
+        if(answers.size() > MAX_BATCH_SIZE) {
+            throw new InvalidParameter(
+                    "Batch contains " + answers.size() + " answers, max is " + MAX_BATCH_SIZE,
+                    "RepetitionBatch.maxSize");
+        }
+        if(answers.isEmpty()) return List.of();
+
+        LocalDate date = LocalDate.now(clock);
+        List<UUID> ids = answers.stream().map(RepetitionAnswer::cardId).toList();
+        Map<UUID, RepetitionCard> cards = new HashMap<>();
+        repetitionCardRepository.findAllById(userId, type, ids).forEach(card -> cards.put(card.id(), card));
+        ImmutableList<Integer> intervals = cards.isEmpty() ? ImmutableList.of() : intervalRepository.findAll(userId);
+
+        List<RepetitionOutcome> outcomes = new ArrayList<>();
+        Map<UUID, RepetitionCard> changed = new LinkedHashMap<>();
+        for(RepetitionAnswer answer : answers) {
+            RepetitionCard card = cards.get(answer.cardId());
+            if(card == null) {
+                outcomes.add(RepetitionOutcome.rejected(answer.cardId(), RepetitionOutcome.Status.UNKNOWN));
+                continue;
+            }
+
+            boolean isRemember = type.isFromEnglish() ? answer.isRemember() : card.isRemember(answer.inputValue());
+            RepetitionCard next = card.repeat(isRemember, date, intervals);
+            cards.put(next.id(), next);
+            changed.put(next.id(), next);
+            outcomes.add(RepetitionOutcome.repeated(next, isRemember));
+        }
+
+        if(!changed.isEmpty()) repetitionSnapshotRepository.invalidate(userId);
+        repetitionCardRepository.updateAll(userId, type, List.copyOf(changed.values()));
+        statisticAppendBuffer.appendAll(userId, type, date, outcomes);
+        return outcomes;
+    }
+
+    /**
+     * Применяет один ответ answer пользователя userId при повторении вида type. Данные о повторении и
+     * статистика изменяются в одной транзакции по тем же правилам, что и в
+     * {@link #repeatAll(UUID, RepetitionType, List)}, но ответ для неизвестного слова или устойчивого
+     * выражения приводит к исключению.
+     * @param userId идентификатор пользователя
+     * @param type вид повторения
+     * @param answer ответ пользователя
+     * @return результат применения ответа
+     * @throws NullPointerException если хотя бы один из параметров равен null
+     * @throws UnknownEntityException если у пользователя нет слова или устойчивого выражения с указанным
+     *                                идентификатором. {@link UnknownEntityException#getMessageKey()} вернет
+     *                                Word.unknownIdOrUserId или Expression.unknownIdOrUserId.
+     */
+    public RepetitionOutcome repeat(UUID userId, RepetitionType type, RepetitionAnswer answer) {
+        Objects.requireNonNull(answer, "answer can't be null");
+
+        RepetitionOutcome outcome = repeatAll(userId, type, List.of(answer)).get(0);
+        if(outcome.status() == RepetitionOutcome.Status.UNKNOWN) throw unknownCard(userId, type, answer.cardId());
+        return outcome;
+    }
+
+    /**
+     * Применяет ответ answer пользователя userId при повторении слова вида type так же, как
+     * {@link #repeat(UUID, RepetitionType, RepetitionAnswer)}, и возвращает повторенное слово. Данные о
+     * повторении изменяются одним запросом UPDATE, а само слово только читается в той же транзакции.
+     * @param userId идентификатор пользователя
+     * @param type вид повторения слов
+     * @param answer ответ пользователя
+     * @return повторенное слово и результат повторения
+     * @throws NullPointerException если хотя бы один из параметров равен null
+     * @throws UnknownEntityException если у пользователя нет слова с указанным идентификатором.
+     *                                {@link UnknownEntityException#getMessageKey()} вернет Word.unknownIdOrUserId
+     */
+    public RepetitionResult<Word> repeatWord(UUID userId, RepetitionType type, RepetitionAnswer answer) {
+        RepetitionOutcome outcome = repeat(userId, type, answer);
+        return new RepetitionResult<>(findWord(userId, answer.cardId()), outcome.isRemember());
+    }
+
+    /**
+     * Применяет ответ answer пользователя userId при повторении устойчивого выражения вида type так же, как
+     * {@link #repeat(UUID, RepetitionType, RepetitionAnswer)}, и возвращает повторенное устойчивое выражение.
+     * Данные о повторении изменяются одним запросом UPDATE, а само устойчивое выражение только читается в
+     * той же транзакции.
+     * @param userId идентификатор пользователя
+     * @param type вид повторения устойчивых выражений
+     * @param answer ответ пользователя
+     * @return повторенное устойчивое выражение и результат повторения
+     * @throws NullPointerException если хотя бы один из параметров равен null
+     * @throws UnknownEntityException если у пользователя нет устойчивого выражения с указанным
+     *                                идентификатором. {@link UnknownEntityException#getMessageKey()} вернет
+     *                                Expression.unknownIdOrUserId
+     */
+    public RepetitionResult<Expression> repeatExpression(UUID userId, RepetitionType type, RepetitionAnswer answer) {
+        RepetitionOutcome outcome = repeat(userId, type, answer);
+        return new RepetitionResult<>(findExpression(userId, answer.cardId()), outcome.isRemember());
+    }
+
+    /**
+     * Устанавливает для слова wordId наименьший интервал повторения вида type и текущую дату в качестве
+     * даты последнего повторения (см. {@link Word#markForRepetitionFromEnglish(LocalDate, int)}), добавляет
+     * в статистику неуспешное повторение и возвращает слово. Данные о повторении изменяются одним запросом
+     * UPDATE без чтения слова, а само слово только читается. Все это выполняется в одной транзакции.
+     * @param userId идентификатор пользователя
+     * @param type вид повторения слов
+     * @param wordId идентификатор слова
+     * @return отмеченное для повторения слово
+     * @throws NullPointerException если хотя бы один из параметров равен null
+     * @throws UnknownEntityException если у пользователя нет слова с указанным идентификатором.
+     *                                {@link UnknownEntityException#getMessageKey()} вернет Word.unknownIdOrUserId
+     */
+    public Word markWordForRepetition(UUID userId, RepetitionType type, UUID wordId) {
+        markForRepetition(userId, type, wordId);
+        return findWord(userId, wordId);
+    }
+
+    /**
+     * Устанавливает для устойчивого выражения expressionId наименьший интервал повторения вида type и текущую
+     * дату в качестве даты последнего повторения (см. {@link Expression#markForRepetitionFromEnglish(LocalDate, int)}),
+     * добавляет в статистику неуспешное повторение и возвращает устойчивое выражение. Данные о повторении
+     * изменяются одним запросом UPDATE без чтения устойчивого выражения, а само устойчивое выражение только
+     * читается. Все это выполняется в одной транзакции.
+     * @param userId идентификатор пользователя
+     * @param type вид повторения устойчивых выражений
+     * @param expressionId идентификатор устойчивого выражения
+     * @return отмеченное для повторения устойчивое выражение
+     * @throws NullPointerException если хотя бы один из параметров равен null
+     * @throws UnknownEntityException если у пользователя нет устойчивого выражения с указанным
+     *                                идентификатором. {@link UnknownEntityException#getMessageKey()} вернет
+     *                                Expression.unknownIdOrUserId
+     */
+    public Expression markExpressionForRepetition(UUID userId, RepetitionType type, UUID expressionId) {
+        markForRepetition(userId, type, expressionId);
+        return findExpression(userId, expressionId);
+    }
+
+    /**
+     * Возвращает кол-во слов и устойчивых выражений пользователя userId, доступных для повторения в текущую
+     * дату в каждом из направлений, и кол-во тех, что станут доступны завтра
+     * (см. {@link RepetitionCardRepository#countDue(UUID, LocalDate)}). Если у пользователя есть актуальный
+     * снимок (см. {@link RepetitionSnapshotRepository}), данные берутся из него.
+     * @param userId идентификатор пользователя
+     * @throws NullPointerException если userId равен null
+     */
+    @Transactional(readOnly = true)
+    public RepetitionSummary getSummary(UUID userId) {
+        LocalDate date = LocalDate.now(clock);
+        return repetitionSnapshotRepository.findSummary(userId, date).
+                orElseGet(() -> repetitionCardRepository.countDue(userId, date));
+    }
+
+    /**
+     * Возвращает прогноз нагрузки пользователя userId на days дней, начиная с текущей даты
+     * (см. {@link RepetitionCardRepository#forecast(UUID, LocalDate, int)}). Слова и устойчивые выражения,
+     * повторение которых просрочено, учитываются в текущей дате.
+     * @param userId идентификатор пользователя
+     * @param days кол-во дней прогноза
+     * @throws NullPointerException если userId равен null
+     * @throws InvalidParameter если days меньше 1 или больше {@link #MAX_FORECAST_DAYS}.
+     *                          {@link InvalidParameter#getMessageKey()} вернет RepetitionForecast.days
+     */
+    @Transactional(readOnly = true)
+    public List<RepetitionForecastDay> getForecast(UUID userId, int days) {
+        if(days < 1 || days > MAX_FORECAST_DAYS) {
+            throw new InvalidParameter(
+                    "Forecast days must be in range [1, " + MAX_FORECAST_DAYS + "]. Actual: " + days,
+                    "RepetitionForecast.days");
+        }
+        return repetitionCardRepository.forecast(userId, LocalDate.now(clock), days);
+    }
+
+    /**
+     * Возвращает окно общей ленты повторения пользователя userId в одном направлении, в которой слова и
+     * устойчивые выражения, доступные для повторения в текущую дату, перемешаны и упорядочены по значению
+     * (см. {@link RepetitionCardRepository#scrollDue(UUID, boolean, LocalDate, KeysetScrollPosition, int)}).
+     * Все слова и все устойчивые выражения окна загружаются двумя запросами. Позволяет клиенту повторять
+     * слова и устойчивые выражения одной последовательностью запросов, а ответы отправлять через
+     * {@link #repeatAll(UUID, RepetitionType, List)} с видом повторения каждого элемента ленты.
+     * @param userId идентификатор пользователя
+     * @param fromEnglish true - лента повторения с английского на родной язык, false - с родного на английский
+     * @param position позиция, после которой начинается окно
+     * @param size максимальное кол-во элементов окна
+     * @return окно элементов ленты
+     * @throws NullPointerException если userId или position равны null
+     * @throws InvalidParameter если position некорректна. {@link InvalidParameter#getMessageKey()} вернет
+     *                          Cursor.invalid
+     */
+    @Transactional(readOnly = true)
+    public Window<RepetitionFeedItem> scrollDue(UUID userId,
+                                                boolean fromEnglish,
+                                                KeysetScrollPosition position,
+                                                int size) {
+        Window<RepetitionFeedKey> keys = repetitionCardRepository.scrollDue(
+                userId, fromEnglish, LocalDate.now(clock), position, size);
+
+        Map<UUID, Word> words = new HashMap<>();
+        wordRepository.findAllById(idsOf(keys, true)).forEach(word -> words.put(word.getId(), word));
+        Map<UUID, Expression> expressions = new HashMap<>();
+        expressionRepository.findAllById(idsOf(keys, false)).
+                forEach(expression -> expressions.put(expression.getId(), expression));
+
+        List<RepetitionFeedItem> content = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for(int i = 0; i < keys.size(); i++) {
+            RepetitionFeedKey key = keys.getContent().get(i);
+            Word word = words.get(key.id());
+            Expression expression = expressions.get(key.id());
+            if(key.type().isWords() && word != null) {
+                content.add(RepetitionFeedItem.of(key.type(), word));
+                positions.add(i);
+            } else if(!key.type().isWords() && expression != null) {
+                content.add(RepetitionFeedItem.of(key.type(), expression));
+                positions.add(i);
+            }
+        }
+        return Window.from(content, index -> keys.positionAt(positions.get(index)), keys.hasNext());
+    }
+
+
+    private void markForRepetition(UUID userId, RepetitionType type, UUID cardId) {
+        Objects.requireNonNull(userId, "userId can't be null");
+        Objects.requireNonNull(type, "type can't be null");
+        Objects.requireNonNull(cardId, "cardId can't be null");
+
+        repetitionSnapshotRepository.invalidate(userId);
+        LocalDate date = LocalDate.now(clock);
+        ImmutableList<Integer> intervals = intervalRepository.findAll(userId);
+        if(intervals.isEmpty()) throw unknownCard(userId, type, cardId);
+
+        RepetitionCard card = new RepetitionCard(cardId, null, intervals.get(0), date, null);
+        if(!repetitionCardRepository.update(userId, type, card)) throw unknownCard(userId, type, cardId);
+        statisticAppendBuffer.appendAll(userId, type, date, List.of(RepetitionOutcome.repeated(card, false)));
+    }
+
+    private Word findWord(UUID userId, UUID wordId) {
+        return wordRepository.findById(userId, wordId).
+                orElseThrow(() -> unknownCard(userId, RepetitionType.WORDS_FROM_ENGLISH, wordId));
+    }
+
+    private Expression findExpression(UUID userId, UUID expressionId) {
+        return expressionRepository.findById(userId, expressionId).
+                orElseThrow(() -> unknownCard(userId, RepetitionType.EXPRESSIONS_FROM_ENGLISH, expressionId));
+    }
+
+    private UnknownEntityException unknownCard(UUID userId, RepetitionType type, UUID cardId) {
+        return new UnknownEntityException(
+                "Unknown card with id=" + cardId + " and userId=" + userId,
+                type.isWords() ? "Word.unknownIdOrUserId" : "Expression.unknownIdOrUserId");
+    }
+
+    private List<UUID> idsOf(Window<RepetitionFeedKey> keys, boolean isWords) {
+        return keys.stream().
+                filter(key -> key.type().isWords() == isWords).
+                map(RepetitionFeedKey::id).
+                toList();
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.bakuard.flashcards.service;
+
+import com.bakuard.flashcards.config.BackgroundTask;
+import com.bakuard.flashcards.config.configData.ConfigData;
+import com.bakuard.flashcards.dal.RepetitionSnapshotRepository;
+import com.bakuard.flashcards.dal.StatisticRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Заранее, сразу после смены даты, вычисляет снимки данных о повторении (см. {@link RepetitionSnapshotRepository})
+ * для всех активных пользователей, чтобы первые за день запросы к повторению не выполняли одни и те же
+ * запросы к словарю одновременно. Активными считаются пользователи, повторявшие хотя бы одно слово или
+ * устойчивое выражение за последние conf.repetitionSnapshot.activeDays дней.
+ */
+public class RepetitionSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RepetitionSnapshotService.class.getName());
+
+
+    private RepetitionSnapshotRepository repetitionSnapshotRepository;
+    private StatisticRepository statisticRepository;
+    private TransactionTemplate transaction;
+    private Clock clock;
+    private ConfigData configData;
+    private BackgroundTask task;
+    private volatile LocalDate lastSnapshotDate;
+
+    /**
+     * Создает новый сервис для вычисления снимков данных о повторении.
+     * @param repetitionSnapshotRepository репозиторий снимков данных о повторении
+     * @param statisticRepository репозиторий статистики (используется для поиска активных пользователей)
+     * @param transaction объект для выполнения каждой порции пользователей в отдельной транзакции
+     * @param clock часы используемые для получения текущей даты (параметр добавлен для удобства тестирования)
+     * @param configData общие данные конфигурации приложения
+     */
+    public RepetitionSnapshotService(RepetitionSnapshotRepository repetitionSnapshotRepository,
+                                     StatisticRepository statisticRepository,
+                                     TransactionTemplate transaction,
+                                     Clock clock,
+                                     ConfigData configData) {
+        this.repetitionSnapshotRepository = repetitionSnapshotRepository;
+        this.statisticRepository = statisticRepository;
+        this.transaction = transaction;
+        this.clock = clock;
+        this.configData = configData;
+    }
+
+    /**
+     * Создает (если это разрешено конфигурацией) отдельный поток, который раз в
+     * conf.repetitionSnapshot.checkIntervalInSeconds секунд проверяет, сменилась ли текущая дата по часам
+     * {@link Clock}, и если сменилась - вычисляет снимки на новую дату (см. {@link #createSnapshots(LocalDate)}).
+     * Первое вычисление выполняется сразу после запуска.
+     */
+    public void scheduleSnapshots() {
+        if(!configData.repetitionSnapshot().enabled()) return;
+
+        task = BackgroundTask.runPeriodically(
+                "create repetition snapshots",
+                Duration.ofSeconds(configData.repetitionSnapshot().checkIntervalInSeconds()),
+                () -> {
+                    LocalDate today = LocalDate.now(clock);
+                    if(!today.equals(lastSnapshotDate)) {
+                        int processed = createSnapshots(today);
+                        lastSnapshotDate = today;
+                        logger.info("Create repetition snapshots for {}. {} users was processed.", today, processed);
+                    }
+                });
+    }
+
+    /**
+     * Останавливает поток, созданный методом {@link #scheduleSnapshots()}.
+     */
+    public void shutdown() {
+        if(task != null) task.stop();
+    }
+
+    /**
+     * Вычисляет снимки на дату date для всех активных пользователей. Пользователи читаются порциями по
+     * conf.repetitionSnapshot.chunkSize, каждая порция обрабатывается в отдельной транзакции, одновременно
+     * обрабатывается не более conf.repetitionSnapshot.parallelism порций. Ошибка при обработке одной порции
+     * не прерывает обработку остальных.
+     * @param date дата, на которую вычисляются снимки
+     * @return кол-во пользователей, для которых был сохранен снимок
+     */
+    public int createSnapshots(LocalDate date) {
+        LocalDate since = date.minusDays(configData.repetitionSnapshot().activeDays());
+        int chunkSize = configData.repetitionSnapshot().chunkSize();
+        ExecutorService executor = Executors.newFixedThreadPool(configData.repetitionSnapshot().parallelism());
+        try {
+            List<Future<Integer>> chunks = new ArrayList<>();
+            List<UUID> userIds = statisticRepository.findActiveUserIds(since, null, chunkSize);
+            while(!userIds.isEmpty()) {
+                List<UUID> chunk = userIds;
+                chunks.add(executor.submit(() -> transaction.execute(status -> createSnapshots(chunk, date))));
+                userIds = statisticRepository.findActiveUserIds(since, chunk.get(chunk.size() - 1), chunkSize);
+            }
+
+            int processed = 0;
+            for(Future<Integer> chunk : chunks) {
+                try {
+                    processed += chunk.get();
+                } catch(ExecutionException e) {
+                    logger.error("Fail to create repetition snapshots for chunk of users", e.getCause());
+                }
+            }
+            return processed;
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    private int createSnapshots(List<UUID> userIds, LocalDate date) {
+        int processed = 0;
+        for(UUID userId : userIds) {
+            if(repetitionSnapshotRepository.save(userId, date).isPresent()) ++processed;
+        }
+        return processed;
+    }
+
+}
@@ -0,0 +1,296 @@
+package com.bakuard.flashcards.service;
+
+import com.bakuard.flashcards.config.BackgroundTask;
+import com.bakuard.flashcards.config.configData.ConfigData;
+import com.bakuard.flashcards.dal.StatisticRepository;
+import com.bakuard.flashcards.model.repetition.RepetitionOutcome;
+import com.bakuard.flashcards.model.repetition.RepetitionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ограниченный буфер в памяти для отложенной записи статистики повторений. Результаты повторения попадают
+ * в очередь емкостью conf.statisticBuffer.capacity только после фиксации транзакции, в которой они были
+ * получены, и записываются отдельным потоком каждые conf.statisticBuffer.flushIntervalInMillis миллисекунд
+ * пакетами по conf.statisticBuffer.batchSize записей (см.
+ * {@link StatisticRepository#appendAll(UUID, RepetitionType, LocalDate, List)}).
+ * <br/><br/>
+ * Буферизуются только те записи, которые не читаются в транзакции, добавившей их. Код, читающий статистику,
+ * должен предварительно вызвать {@link #flush()}, чтобы увидеть все зафиксированные результаты повторения.
+ * <br/><br/>
+ * Если очередь заполнена и не освобождается в течение conf.statisticBuffer.offerTimeoutInMillis миллисекунд,
+ * запись выполняется синхронно в вызывающем потоке. Если запись пакета завершилась ошибкой, записи этого
+ * пакета повторно записываются по одной, а те из них, что записать не удалось, пропускаются.
+ * <br/><br/>
+ * Если буфер отключен конфигурацией, все записи выполняются синхронно в транзакции вызывающего кода.
+ */
+public class StatisticAppendBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatisticAppendBuffer.class.getName());
+
+
+    private final StatisticRepository statisticRepository;
+    private final TransactionTemplate transaction;
+    private final ConfigData configData;
+    private final BlockingQueue<Entry> queue;
+    private final Object flushLock;
+    private final AtomicLong flushedCount;
+    private final AtomicLong droppedCount;
+    private final AtomicLong lastFlushLatencyInMillis;
+    private final AtomicLong maxFlushLatencyInMillis;
+    private BackgroundTask flushing;
+    private BackgroundTask statsLogging;
+
+    /**
+     * Создает новый буфер статистики.
+     * @param statisticRepository репозиторий статистики
+     * @param transactionManager менеджер транзакций. Каждый пакет записывается в отдельной транзакции.
+     * @param configData общие данные конфигурации приложения
+     */
+    public StatisticAppendBuffer(StatisticRepository statisticRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 ConfigData configData) {
+        this.statisticRepository = statisticRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.configData = configData;
+        this.queue = new ArrayBlockingQueue<>(configData.statisticBuffer().capacity());
+        this.flushLock = new Object();
+        this.flushedCount = new AtomicLong();
+        this.droppedCount = new AtomicLong();
+        this.lastFlushLatencyInMillis = new AtomicLong();
+        this.maxFlushLatencyInMillis = new AtomicLong();
+    }
+
+    /**
+     * Добавляет в буфер результаты повторения outcomes вида type пользователя userId в дату date. Результаты
+     * со статусом {@link RepetitionOutcome.Status#UNKNOWN} пропускаются. Если метод вызван в транзакции,
+     * результаты попадут в буфер только после ее успешной фиксации.
+     * @param userId идентификатор пользователя
+     * @param type вид повторения
+     * @param date дата повторения
+     * @param outcomes результаты повторения
+     * @throws NullPointerException если хотя бы один из параметров равен null
+     */
+    public void appendAll(UUID userId, RepetitionType type, LocalDate date, List<RepetitionOutcome> outcomes) {
+        Objects.requireNonNull(outcomes, "outcomes can't be null");
+
+        if(!configData.statisticBuffer().enabled()) {
+            statisticRepository.appendAll(userId, type, date, outcomes);
+            return;
+        }
+
+        List<Entry> entries = outcomes.stream().
+                filter(outcome -> outcome.status() != RepetitionOutcome.Status.UNKNOWN).
+                map(outcome -> new Entry(type, userId, outcome.cardId(), date, outcome.isRemember())).
+                toList();
+        if(entries.isEmpty()) return;
+
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offerAll(entries);
+                }
+            });
+        } else {
+            offerAll(entries);
+        }
+    }
+
+    /**
+     * Добавляет в буфер результат повторения вида type слова или устойчивого выражения cardId пользователем
+     * userId в дату date. Аналогичен {@link #appendAll(UUID, RepetitionType, LocalDate, List)} для одного
+     * результата повторения.
+     * @param type вид повторения
+     * @param userId идентификатор пользователя
+     * @param cardId идентификатор слова или устойчивого выражения
+     * @param date дата повторения
+     * @param isRemember true - если пользователь успешно повторил слово или устойчивое выражение, иначе - false.
+     * @throws NullPointerException если хотя бы один из параметров равен null
+     */
+    public void append(RepetitionType type, UUID userId, UUID cardId, LocalDate date, boolean isRemember) {
+        appendAll(userId, type, date,
+                List.of(new RepetitionOutcome(cardId, RepetitionOutcome.Status.REPEATED, isRemember, null, null)));
+    }
+
+    /**
+     * Запускает (если это разрешено конфигурацией) периодическую запись накопленных записей каждые
+     * conf.statisticBuffer.flushIntervalInMillis миллисекунд и периодическую запись метрик буфера в лог
+     * каждые conf.statisticBuffer.statsLogIntervalInMinutes минут.
+     */
+    public void scheduleFlush() {
+        if(!configData.statisticBuffer().enabled()) return;
+
+        flushing = BackgroundTask.runPeriodically(
+                "flush statistic buffer",
+                Duration.ofMillis(configData.statisticBuffer().flushIntervalInMillis()),
+                this::flush
+        );
+        statsLogging = BackgroundTask.runPeriodically(
+                "log statistic buffer stats",
+                Duration.ofMinutes(configData.statisticBuffer().statsLogIntervalInMinutes()),
+                () -> logger.info("Statistic buffer: queueDepth={}, flushed={}, dropped={}, " +
+                                "lastFlushLatencyInMillis={}, maxFlushLatencyInMillis={}",
+                        getQueueDepth(), getFlushedCount(), getDroppedCount(),
+                        getLastFlushLatencyInMillis(), getMaxFlushLatencyInMillis())
+        );
+    }
+
+    /**
+     * Останавливает потоки, запущенные методом {@link #scheduleFlush()}, и записывает все оставшиеся в
+     * буфере записи (см. {@link #flush()}).
+     */
+    public void shutdown() {
+        if(flushing != null) flushing.stop();
+        if(statsLogging != null) statsLogging.stop();
+        flush();
+    }
+
+    /**
+     * Немедленно записывает все накопленные в буфере записи пакетами по conf.statisticBuffer.batchSize записей.
+     * Если в этот момент записи записываются другим потоком, дожидается окончания их записи.
+     * @return кол-во записанных этим вызовом записей
+     */
+    public int flush() {
+        int result = 0;
+        synchronized(flushLock) {
+            List<Entry> batch = new ArrayList<>();
+            while(queue.drainTo(batch, configData.statisticBuffer().batchSize()) > 0) {
+                result += write(batch);
+                batch.clear();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает текущее кол-во записей в буфере, ожидающих записи.
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Возвращает общее кол-во записей, записанных из буфера с момента его создания.
+     */
+    public long getFlushedCount() {
+        return flushedCount.get();
+    }
+
+    /**
+     * Возвращает общее кол-во записей, которые не удалось записать из буфера с момента его создания.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Возвращает продолжительность записи последнего пакета в миллисекундах.
+     */
+    public long getLastFlushLatencyInMillis() {
+        return lastFlushLatencyInMillis.get();
+    }
+
+    /**
+     * Возвращает наибольшую продолжительность записи одного пакета в миллисекундах с момента создания буфера.
+     */
+    public long getMaxFlushLatencyInMillis() {
+        return maxFlushLatencyInMillis.get();
+    }
+
+
+    private void offerAll(List<Entry> entries) {
+        for(Entry entry : entries) {
+            boolean accepted = false;
+            try {
+                accepted = queue.offer(entry,
+                        configData.statisticBuffer().offerTimeoutInMillis(), TimeUnit.MILLISECONDS);
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if(!accepted) {
+                logger.warn("Statistic buffer is full. Write statistic {} synchronously", entry);
+                writeOneByOne(List.of(entry));
+            }
+        }
+    }
+
+    private int write(List<Entry> batch) {
+        if(batch.isEmpty()) return 0;
+
+        long start = System.nanoTime();
+        Map<GroupKey, List<Entry>> groups = new LinkedHashMap<>();
+        batch.forEach(entry -> groups.computeIfAbsent(
+                new GroupKey(entry.type(), entry.userId(), entry.date()), key -> new ArrayList<>()).add(entry));
+
+        int written = 0;
+        for(Map.Entry<GroupKey, List<Entry>> group : groups.entrySet()) {
+            GroupKey key = group.getKey();
+            List<RepetitionOutcome> outcomes = group.getValue().stream().map(Entry::toOutcome).toList();
+            try {
+                transaction.executeWithoutResult(status ->
+                        statisticRepository.appendAll(key.userId(), key.type(), key.date(), outcomes));
+                written += outcomes.size();
+            } catch(Exception e) {
+                logger.warn("Fail to write statistic batch for user " + key.userId() + ". Write it one by one", e);
+                written += writeOneByOne(group.getValue());
+            }
+        }
+
+        long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        flushedCount.addAndGet(written);
+        lastFlushLatencyInMillis.set(latency);
+        maxFlushLatencyInMillis.accumulateAndGet(latency, Math::max);
+        logger.debug("Flush {} of {} statistic entries in {} ms. Queue depth is {}",
+                written, batch.size(), latency, queue.size());
+        return written;
+    }
+
+    private int writeOneByOne(List<Entry> entries) {
+        int written = 0;
+        for(Entry entry : entries) {
+            try {
+                transaction.executeWithoutResult(status -> statisticRepository.appendAll(
+                        entry.userId(), entry.type(), entry.date(), List.of(entry.toOutcome())));
+                ++written;
+            } catch(Exception e) {
+                droppedCount.incrementAndGet();
+                logger.error("Fail to write statistic " + entry, e);
+            }
+        }
+        return written;
+    }
+
+
+    private record Entry(RepetitionType type, UUID userId, UUID cardId, LocalDate date, boolean isRemember) {
+
+        private Entry {
+            Objects.requireNonNull(type, "type can't be null");
+            Objects.requireNonNull(userId, "userId can't be null");
+            Objects.requireNonNull(cardId, "cardId can't be null");
+            Objects.requireNonNull(date, "date can't be null");
+        }
+
+        public RepetitionOutcome toOutcome() {
+            return new RepetitionOutcome(cardId, RepetitionOutcome.Status.REPEATED, isRemember, null, null);
+        }
+
+    }
+
+    private record GroupKey(RepetitionType type, UUID userId, LocalDate date) {}
+
+}
@@ -1,6 +1,7 @@
 package com.bakuard.flashcards.service;
 
 import com.bakuard.flashcards.dal.StatisticRepository;
+import com.bakuard.flashcards.model.repetition.RepetitionType;
 import com.bakuard.flashcards.model.statistic.*;
 import com.bakuard.flashcards.validation.exception.UnknownEntityException;
 import org.springframework.data.domain.Page;
@@ -13,26 +14,33 @@ import java.util.UUID;
 
 /**
  * Сервис по сбору и предоставлению статистики связанной с повторением слов и устойчивых выражений.
- * Каждый метод этого класса выполняется в отдельной транзакции.
+ * Каждый метод этого класса выполняется в отдельной транзакции. Перед чтением статистики все накопленные
+ * в {@link StatisticAppendBuffer} записи записываются в БД.
  */
 @Transactional
 public class StatisticService {
 
     private StatisticRepository statisticRepository;
+    private StatisticAppendBuffer statisticAppendBuffer;
     private Clock clock;
 
     /**
      * Создает новый сервис статистики.
      * @param statisticRepository репозиторий статистики
+     * @param statisticAppendBuffer буфер для отложенной пакетной записи статистики
      * @param clock часы используемые для получения текущей даты (параметр добавлен для удобства тестирования)
      */
-    public StatisticService(StatisticRepository statisticRepository, Clock clock) {
+    public StatisticService(StatisticRepository statisticRepository,
+                            StatisticAppendBuffer statisticAppendBuffer,
+                            Clock clock) {
         this.statisticRepository = statisticRepository;
+        this.statisticAppendBuffer = statisticAppendBuffer;
         this.clock = clock;
     }
 
     /**
-     * Делегирует вызов методу {@link StatisticRepository#append(RepeatWordFromEnglishStatistic)}.
+     * Добавляет в буфер статистики (см. {@link StatisticAppendBuffer}) данные о повторении, которые будут
+     * записаны методом {@link StatisticRepository#append(RepeatWordFromEnglishStatistic)}.
      * @param userId идентификатор пользователя, к словарю которого относится слово
      * @param wordId идентификатор слова
      * @param isRemember true - если пользователь успешно повторил слово, иначе - false.
@@ -40,18 +48,12 @@ public class StatisticService {
      * @see RepeatWordFromEnglishStatistic
      */
     public void appendWordFromEnglish(UUID userId, UUID wordId, boolean isRemember) {
-        statisticRepository.append(
-                new RepeatWordFromEnglishStatistic(
-                        userId,
-                        wordId,
-                        LocalDate.now(clock),
-                        isRemember)
-        );
+        statisticAppendBuffer.append(RepetitionType.WORDS_FROM_ENGLISH, userId, wordId, LocalDate.now(clock), isRemember);
     }
 
     /**
-     * Делегирует вызов методу {@link StatisticRepository#append(RepeatWordFromNativeStatistic)}.
-     * userId. Данные относятся к повторению слова с родного на английский язык.
+     * Добавляет в буфер статистики (см. {@link StatisticAppendBuffer}) данные о повторении, которые будут
+     * записаны методом {@link StatisticRepository#append(RepeatWordFromNativeStatistic)}.
      * @param userId идентификатор пользователя, к словарю которого относится слово
      * @param wordId идентификатор слова
      * @param isRemember true - если пользователь успешно повторил слово, иначе - false.
@@ -59,17 +61,12 @@ public class StatisticService {
      * @see RepeatWordFromNativeStatistic
      */
     public void appendWordFromNative(UUID userId, UUID wordId, boolean isRemember) {
-        statisticRepository.append(
-                new RepeatWordFromNativeStatistic(
-                        userId,
-                        wordId,
-                        LocalDate.now(clock),
-                        isRemember)
-        );
+        statisticAppendBuffer.append(RepetitionType.WORDS_FROM_NATIVE, userId, wordId, LocalDate.now(clock), isRemember);
     }
 
     /**
-     * Делегирует вызов методу {@link StatisticRepository#append(RepeatExpressionFromEnglishStatistic)}.
+     * Добавляет в буфер статистики (см. {@link StatisticAppendBuffer}) данные о повторении, которые будут
+     * записаны методом {@link StatisticRepository#append(RepeatExpressionFromEnglishStatistic)}.
      * @param userId идентификатор пользователя, к словарю которого относится слово
      * @param expressionId идентификатор устойчивого выражения
      * @param isRemember true - если пользователь успешно повторил устойчивое выражение, иначе - false.
@@ -77,17 +74,12 @@ public class StatisticService {
      * @see RepeatExpressionFromEnglishStatistic
      */
     public void appendExpressionFromEnglish(UUID userId, UUID expressionId, boolean isRemember) {
-        statisticRepository.append(
-                new RepeatExpressionFromEnglishStatistic(
-                        userId,
-                        expressionId,
-                        LocalDate.now(clock),
-                        isRemember)
-        );
+        statisticAppendBuffer.append(RepetitionType.EXPRESSIONS_FROM_ENGLISH, userId, expressionId, LocalDate.now(clock), isRemember);
     }
 
     /**
-     * Делегирует вызов методу {@link StatisticRepository#append(RepeatExpressionFromNativeStatistic)}.
+     * Добавляет в буфер статистики (см. {@link StatisticAppendBuffer}) данные о повторении, которые будут
+     * записаны методом {@link StatisticRepository#append(RepeatExpressionFromNativeStatistic)}.
      * @param userId идентификатор пользователя, к словарю которого относится слово
      * @param expressionId идентификатор устойчивого выражения
      * @param isRemember true - если пользователь успешно повторил устойчивое выражение, иначе - false.
@@ -95,13 +87,7 @@ public class StatisticService {
      * @see RepeatExpressionFromNativeStatistic
      */
     public void appendExpressionFromNative(UUID userId, UUID expressionId, boolean isRemember) {
-        statisticRepository.append(
-                new RepeatExpressionFromNativeStatistic(
-                        userId,
-                        expressionId,
-                        LocalDate.now(clock),
-                        isRemember)
-        );
+        statisticAppendBuffer.append(RepetitionType.EXPRESSIONS_FROM_NATIVE, userId, expressionId, LocalDate.now(clock), isRemember);
     }
 
     /**
@@ -113,6 +99,7 @@ public class StatisticService {
      */
     public WordRepetitionByPeriodStatistic tryGetWordRepetitionByPeriod(
             UUID userId, UUID wordId, String start, String end) {
+        statisticAppendBuffer.flush();
         return statisticRepository.wordRepetitionByPeriod(
                 userId, wordId, LocalDate.parse(start), LocalDate.parse(end)
         ).orElseThrow(() -> new UnknownEntityException(
@@ -129,6 +116,7 @@ public class StatisticService {
      */
     public ExpressionRepetitionByPeriodStatistic tryGetExpressionRepetitionByPeriod(
             UUID userId, UUID expressionId, String start, String end) {
+        statisticAppendBuffer.flush();
         return statisticRepository.expressionRepetitionByPeriod(
                 userId, expressionId, LocalDate.parse(start), LocalDate.parse(end)
         ).orElseThrow(() -> new UnknownEntityException(
@@ -142,6 +130,7 @@ public class StatisticService {
      */
     public Page<WordRepetitionByPeriodStatistic> getWordsRepetitionByPeriod(
             UUID userId, String start, String end, Pageable pageable) {
+        statisticAppendBuffer.flush();
         return statisticRepository.wordsRepetitionByPeriod(
                 userId, LocalDate.parse(start), LocalDate.parse(end), pageable
         );
@@ -153,6 +142,7 @@ public class StatisticService {
      */
     public Page<ExpressionRepetitionByPeriodStatistic> getExpressionsRepetitionByPeriod(
             UUID userId, String start, String end, Pageable pageable) {
+        statisticAppendBuffer.flush();
         return statisticRepository.expressionsRepetitionByPeriod(
                 userId, LocalDate.parse(start), LocalDate.parse(end), pageable
         );
@@ -1,27 +1,35 @@
 package com.bakuard.flashcards.service;
 
 import com.bakuard.flashcards.config.configData.ConfigData;
+import com.bakuard.flashcards.dal.FullTextIndex;
 import com.bakuard.flashcards.dal.IntervalRepository;
+import com.bakuard.flashcards.dal.PrefixIndex;
+import com.bakuard.flashcards.dal.RepetitionSessionRepository;
+import com.bakuard.flashcards.dal.RepetitionSnapshotRepository;
+import com.bakuard.flashcards.dal.ScrollRepository;
 import com.bakuard.flashcards.dal.WordRepository;
-import com.bakuard.flashcards.model.RepetitionResult;
+import com.bakuard.flashcards.dal.WordValueIndex;
+import com.bakuard.flashcards.model.repetition.RepetitionBatch;
+import com.bakuard.flashcards.model.repetition.RepetitionSession;
+import com.bakuard.flashcards.model.repetition.RepetitionType;
 import com.bakuard.flashcards.model.word.Word;
 import com.bakuard.flashcards.validation.exception.NotUniqueEntityException;
 import com.bakuard.flashcards.validation.exception.UnknownEntityException;
 import com.bakuard.flashcards.validation.ValidatorUtil;
-import com.google.common.collect.ImmutableList;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.validation.ConstraintViolationException;
 import java.time.Clock;
 import java.time.LocalDate;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
 
 /**
  * Набор операций над словами в словаре пользователя требующие обращения к внешнему хранилищу или другим
@@ -31,7 +39,13 @@ import java.util.UUID;
 public class WordService {
 
     private WordRepository wordRepository;
+    private ScrollRepository scrollRepository;
+    private WordValueIndex wordValueIndex;
+    private PrefixIndex wordPrefixIndex;
+    private FullTextIndex fullTextIndex;
     private IntervalRepository intervalRepository;
+    private RepetitionSessionRepository repetitionSessionRepository;
+    private RepetitionSnapshotRepository repetitionSnapshotRepository;
     private Clock clock;
     private ConfigData configData;
     private ValidatorUtil validator;
@@ -39,18 +53,36 @@ public class WordService {
     /**
      * Создает новый сервис для слов.
      * @param wordRepository репозиторий слов
+     * @param wordValueIndex индекс для нечеткого поиска слов по значению
+     * @param wordPrefixIndex индекс для автодополнения значений слов
+     * @param fullTextIndex индекс для полнотекстового поиска
+     * @param scrollRepository репозиторий для постраничного чтения словаря по ключу
      * @param intervalRepository репозиторий интервалов повторения
+     * @param repetitionSessionRepository репозиторий сессий повторения
+     * @param repetitionSnapshotRepository репозиторий заранее вычисленных снимков данных о повторении
      * @param clock часы используемые для получения текущей даты (параметр добавлен для удобства тестирования)
      * @param configData общие данные конфигурации приложения
      * @param validator объект отвечающий за валидация входных данных пользователя
      */
     public WordService(WordRepository wordRepository,
+                       WordValueIndex wordValueIndex,
+                       PrefixIndex wordPrefixIndex,
+                       FullTextIndex fullTextIndex,
+                       ScrollRepository scrollRepository,
                        IntervalRepository intervalRepository,
+                       RepetitionSessionRepository repetitionSessionRepository,
+                       RepetitionSnapshotRepository repetitionSnapshotRepository,
                        Clock clock,
                        ConfigData configData,
                        ValidatorUtil validator) {
         this.wordRepository = wordRepository;
+        this.wordValueIndex = wordValueIndex;
+        this.wordPrefixIndex = wordPrefixIndex;
+        this.fullTextIndex = fullTextIndex;
+        this.scrollRepository = scrollRepository;
         this.intervalRepository = intervalRepository;
+        this.repetitionSessionRepository = repetitionSessionRepository;
+        this.repetitionSnapshotRepository = repetitionSnapshotRepository;
         this.clock = clock;
         this.configData = configData;
         this.validator = validator;
@@ -67,7 +99,10 @@ public class WordService {
     public Word save(Word word) {
         try {
             validator.assertValid(word);
-            return wordRepository.save(word);
+            repetitionSnapshotRepository.invalidate(word.getUserId());
+            Word savedWord = wordRepository.save(word);
+            wordPrefixIndex.update(savedWord.getUserId(), savedWord.getId(), savedWord.getValue());
+            return savedWord;
         } catch (Exception e) {
             if(e.getCause() instanceof DuplicateKeyException) {
                 throw new NotUniqueEntityException(
@@ -85,12 +120,15 @@ public class WordService {
      *                                {@link UnknownEntityException#getMessageKey()} вернет Word.unknownIdOrUserId
      */
     public void tryDeleteById(UUID userId, UUID wordId) {
+        repetitionSnapshotRepository.invalidate(userId);
         boolean wasDeleted = wordRepository.deleteById(userId, wordId);
         if(!wasDeleted) {
             throw new UnknownEntityException(
                     "User with id=" + userId + " not exists or hasn't word with id=" + wordId,
                     "Word.unknownIdOrUserId");
         }
+        wordValueIndex.remove(userId, wordId);
+        wordPrefixIndex.invalidate(userId);
     }
 
     /**
@@ -108,21 +146,54 @@ public class WordService {
     }
 
     /**
-     * Делегирует вызов методу {@link WordRepository#findByValue(UUID, String, int, long, long)}.
-     * Оборачивает возвращаемое значение в объект Page.
+     * Возвращает страницу слов пользователя, редакционное расстояние от значения которых до value не превышает
+     * maxDistance, упорядоченных по значению. Поиск выполняется по {@link WordValueIndex} и не требует
+     * вычисления расстояния для каждого слова пользователя. Из хранилища загружаются только слова
+     * возвращаемой страницы.
      */
     public Page<Word> findByValue(UUID userId, String value, int maxDistance, Pageable pageable) {
         maxDistance = Math.max(maxDistance, 1);
         maxDistance = Math.min(configData.levenshteinMaxDistance(), maxDistance);
-        final int distance = maxDistance;
 
+        List<UUID> ids = wordValueIndex.findIdsByValue(userId, value, maxDistance);
+        return AggregateLoader.page(ids, pageable, wordRepository::findAllById);
+    }
+
+    /**
+     * Делегирует вызов методу {@link WordRepository#findByPhonetic(UUID, String, long, long)}.
+     * Оборачивает возвращаемое значение в объект Page.
+     */
+    public Page<Word> findByPhonetic(UUID userId, String value, Pageable pageable) {
         return PageableExecutionUtils.getPage(
-                wordRepository.findByValue(userId, value, maxDistance, pageable.getPageSize(), pageable.getOffset()),
+                wordRepository.findByPhonetic(userId, value, pageable.getPageSize(), pageable.getOffset()),
                 pageable,
-                () -> wordRepository.countForValue(userId, value, distance)
+                () -> wordRepository.countForPhonetic(userId, value)
         );
     }
 
+    /**
+     * Возвращает не более limit слов пользователя, значение которых начинается с prefix (без учета регистра),
+     * упорядоченных по значению. Выборка выполняется по индексу в оперативной памяти и не обращается к БД,
+     * если индекс пользователя уже загружен.
+     * @see PrefixIndex#findByPrefix(UUID, String, int)
+     */
+    public List<PrefixIndex.Entry> autocomplete(UUID userId, String prefix, int limit) {
+        return wordPrefixIndex.findByPrefix(userId, prefix, limit);
+    }
+
+    /**
+     * Возвращает страницу слов пользователя, найденных полнотекстовым поиском по {@link FullTextIndex}
+     * среди значений, примечаний, толкований, переводов и примеров, в порядке убывания ранга.
+     * Из хранилища загружаются только слова возвращаемой страницы.
+     */
+    public Page<Word> findByText(UUID userId, String query, Pageable pageable) {
+        List<UUID> ids = fullTextIndex.findWordIds(userId, query, pageable.getPageSize(), pageable.getOffset());
+        return PageableExecutionUtils.getPage(
+                AggregateLoader.findAllInOrder(ids, wordRepository::findAllById),
+                pageable,
+                () -> fullTextIndex.countWords(userId, query));
+    }
+
     /**
      * Делегирует вызов методу {@link WordRepository#findByTranslate(UUID, String, long, long)}.
      * Оборачивает возвращаемое значение в объект Page.
@@ -148,19 +219,17 @@ public class WordService {
     public Page<Word> jumpToCharacter(UUID userId, String wordFirstCharacter, int size) {
         Page<Word> result = Page.empty();
 
-        long count = wordRepository.count(userId);
-        if(count > 0) {
-            long pageNumber = wordRepository.getWordIndexByFirstCharacter(userId, wordFirstCharacter) / count;
-            if(pageNumber >= 0) {
-                size = size == 0 ? configData.pagination().defaultPageSize() :
-                        Math.max(Math.min(size, configData.pagination().maxPageSize()), configData.pagination().minPageSize());
-                Pageable pageable = PageRequest.of((int) pageNumber, size);
-                result = PageableExecutionUtils.getPage(
-                        wordRepository.findByTranslate(userId, wordFirstCharacter, pageable.getPageSize(), pageable.getOffset()),
-                        pageable,
-                        () -> count
-                );
-            }
+        long index = wordRepository.getWordIndexByFirstCharacter(userId, wordFirstCharacter);
+        if(index >= 0) {
+            size = size == 0 ? configData.pagination().defaultPageSize() :
+                    Math.max(Math.min(size, configData.pagination().maxPageSize()), configData.pagination().minPageSize());
+            Pageable pageable = PageRequest.of((int) (index / size), size);
+            long before = index - pageable.getOffset();
+            result = PageableExecutionUtils.getPage(
+                    wordRepository.findAroundValue(userId, wordFirstCharacter.substring(0, 1), before, size - before),
+                    pageable,
+                    () -> wordRepository.count(userId)
+            );
         }
 
         return result;
@@ -189,80 +258,93 @@ public class WordService {
         return wordRepository.findByUserId(userId, pageable);
     }
 
+    /**
+     * Возвращает окно слов пользователя userId, упорядоченных согласно sort и следующих после позиции
+     * position. В отличие от {@link #findByUserId(UUID, Pageable)}, стоимость получения окна не зависит от
+     * того, насколько далеко оно находится от начала выборки, и не требует подсчета общего кол-ва слов.
+     * @see ScrollRepository#scrollWords(UUID, Sort, KeysetScrollPosition, int)
+     */
+    public Window<Word> scrollByUserId(UUID userId, Sort sort, KeysetScrollPosition position, int size) {
+        return load(scrollRepository.scrollWords(userId, sort, position, size));
+    }
+
+    /**
+     * Возвращает окно слов пользователя userId, хотя бы один из переводов которых равен translate,
+     * следующих после позиции position.
+     * @see ScrollRepository#scrollWordsByTranslate(UUID, String, KeysetScrollPosition, int)
+     */
+    public Window<Word> scrollByTranslate(UUID userId, String translate, KeysetScrollPosition position, int size) {
+        return load(scrollRepository.scrollWordsByTranslate(userId, translate, position, size));
+    }
+
     /**
      * Делегирует вызов методу {@link WordRepository#findAllForRepeatFromEnglish(UUID, LocalDate, long, long)}.
-     * Оборачивает возвращаемое значение в объект Page.
+     * Оборачивает возвращаемое значение в объект Page. Общее кол-во элементов выборки берется из актуального
+     * снимка пользователя (см. {@link RepetitionSnapshotRepository}), если он есть.
      */
     public Page<Word> findAllForRepeatFromEnglish(UUID userId, Pageable pageable) {
         LocalDate date = LocalDate.now(clock);
 
         return PageableExecutionUtils.getPage(
-                wordRepository.findAllForRepeatFromEnglish(userId, date, pageable.getPageSize(), pageable.getPageNumber()),
+                wordRepository.findAllForRepeatFromEnglish(userId, date, pageable.getPageSize(), pageable.getOffset()),
                 pageable,
-                () -> wordRepository.countForRepeatFromEnglish(userId, date)
+                () -> repetitionSnapshotRepository.findSummary(userId, date).
+                        map(summary -> (long) summary.wordsFromEnglish()).
+                        orElseGet(() -> wordRepository.countForRepeatFromEnglish(userId, date))
         );
     }
 
     /**
      * Делегирует вызов методу {@link WordRepository#findAllForRepeatFromNative(UUID, LocalDate, long, long)}.
-     * Оборачивает возвращаемое значение в объект Page.
+     * Оборачивает возвращаемое значение в объект Page. Общее кол-во элементов выборки берется из актуального
+     * снимка пользователя (см. {@link RepetitionSnapshotRepository}), если он есть.
      */
     public Page<Word> findAllForRepeatFromNative(UUID userId, Pageable pageable) {
         LocalDate date = LocalDate.now(clock);
 
         return PageableExecutionUtils.getPage(
-                wordRepository.findAllForRepeatFromNative(userId, date, pageable.getPageSize(), pageable.getPageNumber()),
+                wordRepository.findAllForRepeatFromNative(userId, date, pageable.getPageSize(), pageable.getOffset()),
                 pageable,
-                () -> wordRepository.countForRepeatFromNative(userId, date)
+                () -> repetitionSnapshotRepository.findSummary(userId, date).
+                        map(summary -> (long) summary.wordsFromNative()).
+                        orElseGet(() -> wordRepository.countForRepeatFromNative(userId, date))
         );
     }
 
     /**
-     * Делегирует вызов методу {@link Word#repeatFromEnglish(boolean, LocalDate, ImmutableList)} слова,
-     * имеющего идентификатор wordId, сохраняет указанное слово, а затем возвращает его.
-     * @return слово с идентификатором wordId.
+     * Открывает сессию повторения слов пользователя userId с английского на родной язык пользователя.
+     * Очередь сессии составляют все слова, доступные для повторения в текущую дату.
+     * @see RepetitionSessionRepository#open(UUID, RepetitionType, LocalDate)
      */
-    public Word repeatFromEnglish(UUID userId, UUID wordId, boolean isRemember) {
-        Word word = tryFindById(userId, wordId);
-        word.repeatFromEnglish(isRemember, LocalDate.now(clock), intervalRepository.findAll(userId));
-        save(word);
-        return word;
+    public RepetitionSession openRepetitionSessionFromEnglish(UUID userId) {
+        return repetitionSessionRepository.open(userId, RepetitionType.WORDS_FROM_ENGLISH, LocalDate.now(clock));
     }
 
     /**
-     * Делегирует вызов методу {@link Word#repeatFromNative(String, LocalDate, ImmutableList)} слова,
-     * имеющего идентификатор wordId, сохраняет указанное слово, а затем возвращает его.
-     * @return слово с идентификатором wordId.
+     * Открывает сессию повторения слов пользователя userId с родного языка пользователя на английский.
+     * Очередь сессии составляют все слова, доступные для повторения в текущую дату.
+     * @see RepetitionSessionRepository#open(UUID, RepetitionType, LocalDate)
      */
-    public RepetitionResult<Word> repeatFromNative(UUID userId, UUID wordId, String inputWordValue) {
-        Word word = tryFindById(userId, wordId);
-        boolean isRemember = word.repeatFromNative(inputWordValue, LocalDate.now(clock), intervalRepository.findAll(userId));
-        save(word);
-        return new RepetitionResult<>(word, isRemember);
+    public RepetitionSession openRepetitionSessionFromNative(UUID userId) {
+        return repetitionSessionRepository.open(userId, RepetitionType.WORDS_FROM_NATIVE, LocalDate.now(clock));
     }
 
     /**
-     * Делегирует вызов методу {@link Word#markForRepetitionFromEnglish(LocalDate, int)} слова,
-     * имеющего идентификатор wordId, сохраняет указанное слово, а затем возвращает его.
-     * @return слово с идентификатором wordId.
+     * Возвращает не более size следующих слов из очереди сессии повторения с английского языка sessionId.
+     * Слова, удаленные из словаря после открытия сессии, пропускаются.
+     * @see RepetitionSessionRepository#next(UUID, UUID, RepetitionType, int)
      */
-    public Word markForRepetitionFromEnglish(UUID userId, UUID wordId) {
-        Word word = tryFindById(userId, wordId);
-        word.markForRepetitionFromEnglish(LocalDate.now(clock), intervalRepository.findAll(userId).get(0));
-        save(word);
-        return word;
+    public RepetitionBatch<Word> nextForRepetitionFromEnglish(UUID userId, UUID sessionId, int size) {
+        return loadInOrder(repetitionSessionRepository.next(userId, sessionId, RepetitionType.WORDS_FROM_ENGLISH, size));
     }
 
     /**
-     * Делегирует вызов методу {@link Word#markForRepetitionFromNative(LocalDate, int)} слова,
-     * имеющего идентификатор wordId, сохраняет указанное слово, а затем возвращает его.
-     * @return слово с идентификатором wordId.
+     * Возвращает не более size следующих слов из очереди сессии повторения с родного языка sessionId.
+     * Слова, удаленные из словаря после открытия сессии, пропускаются.
+     * @see RepetitionSessionRepository#next(UUID, UUID, RepetitionType, int)
      */
-    public Word markForRepetitionFromNative(UUID userId, UUID wordId) {
-        Word word = tryFindById(userId, wordId);
-        word.markForRepetitionFromNative(LocalDate.now(clock), intervalRepository.findAll(userId).get(0));
-        save(word);
-        return word;
+    public RepetitionBatch<Word> nextForRepetitionFromNative(UUID userId, UUID sessionId, int size) {
+        return loadInOrder(repetitionSessionRepository.next(userId, sessionId, RepetitionType.WORDS_FROM_NATIVE, size));
     }
 
     /**
@@ -284,4 +366,23 @@ public class WordService {
     }
 
 
+    private Window<Word> load(Window<UUID> ids) {
+        Map<UUID, Word> words = AggregateLoader.findAllAsMap(ids.getContent(), wordRepository::findAllById);
+
+        List<Word> content = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for(int i = 0; i < ids.size(); i++) {
+            Word word = words.get(ids.getContent().get(i));
+            if(word != null) {
+                content.add(word);
+                positions.add(i);
+            }
+        }
+        return Window.from(content, index -> ids.positionAt(positions.get(index)), ids.hasNext());
+    }
+
+    private RepetitionBatch<Word> loadInOrder(RepetitionBatch<UUID> ids) {
+        return new RepetitionBatch<>(ids.session(), AggregateLoader.findAllInOrder(ids.cards(), wordRepository::findAllById));
+    }
+
 }
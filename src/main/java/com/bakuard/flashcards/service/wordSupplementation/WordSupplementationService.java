@@ -1,5 +1,6 @@
 package com.bakuard.flashcards.service.wordSupplementation;
 
+import com.bakuard.flashcards.config.BackgroundTask;
 import com.bakuard.flashcards.dal.WordOuterSourceBuffer;
 import com.bakuard.flashcards.model.word.supplementation.AggregateSupplementedWord;
 import com.bakuard.flashcards.model.word.Word;
@@ -10,8 +11,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Отвечает за заполнение переданного слова транскрипциями, толкованиями, переводами и переводами примеров
@@ -25,7 +26,7 @@ public class WordSupplementationService {
     private ValidatorUtil validator;
     private WordOuterSourceBuffer wordOuterSourceBuffer;
     private List<WordSupplementation> outerServices;
-    private Thread thread;
+    private BackgroundTask task;
     private final TransactionTemplate transaction;
 
     /**
@@ -70,19 +71,20 @@ public class WordSupplementationService {
      * не используемых примеров.
      */
     public void scheduleDeleteUnusedExamples() {
-        thread = new Thread(() -> {
-            while (!Thread.currentThread().isInterrupted()) {
-                try {
+        task = BackgroundTask.runPeriodically(
+                "delete unused examples from outer source",
+                Duration.ofHours(2),
+                () -> {
                     int deletedRowsNumber = transaction.execute(status -> wordOuterSourceBuffer.deleteUnusedExamples());
                     logger.info("Delete unused examples from outer source. {} rows was deleted.", deletedRowsNumber);
-                    TimeUnit.HOURS.sleep(2);
-                } catch (Exception e) {
-                    logger.error("Fail to delete unused examples from outer source", e);
-                }
-            }
-        });
-        thread.setDaemon(true);
-        thread.start();
+                });
+    }
+
+    /**
+     * Останавливает поток, созданный методом {@link #scheduleDeleteUnusedExamples()}.
+     */
+    public void shutdown() {
+        if(task != null) task.stop();
     }
 
 }
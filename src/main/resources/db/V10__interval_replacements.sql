@@ -0,0 +1,19 @@
+CREATE INDEX words_repeat_interval_from_english ON words(user_id, repeat_interval_from_english);
+CREATE INDEX words_repeat_interval_from_native ON words(user_id, repeat_interval_from_native);
+CREATE INDEX expressions_repeat_interval_from_english ON expressions(user_id, repeat_interval_from_english);
+CREATE INDEX expressions_repeat_interval_from_native ON expressions(user_id, repeat_interval_from_native);
+
+CREATE TABLE interval_replacements (
+    replacement_id UUID NOT NULL,
+    replacement_number BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id UUID NOT NULL,
+    old_interval INT NOT NULL,
+    new_interval INT NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    total INT NOT NULL,
+    processed INT NOT NULL,
+    FOREIGN KEY(user_id) REFERENCES users(user_id) ON DELETE CASCADE ON UPDATE CASCADE,
+    PRIMARY KEY(replacement_id)
+);
+CREATE INDEX interval_replacements_status ON interval_replacements(status, replacement_number);
+CREATE INDEX interval_replacements_user_id ON interval_replacements(user_id, replacement_number);
@@ -0,0 +1,2 @@
+ALTER TABLE words ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE expressions ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,48 @@
+DROP VIEW repeat_words_statistic;
+DROP VIEW repeat_expressions_statistic;
+
+CREATE TABLE repeat_words_statistic (
+    user_id UUID NOT NULL,
+    word_id UUID NOT NULL,
+    repetition_date DATE NOT NULL,
+    direction VARCHAR(16) NOT NULL,
+    is_remember BOOLEAN NOT NULL,
+    UNIQUE(user_id, repetition_date, word_id, direction),
+    FOREIGN KEY (word_id) REFERENCES words(word_id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
+);
+
+CREATE TABLE repeat_expressions_statistic (
+    user_id UUID NOT NULL,
+    expression_id UUID NOT NULL,
+    repetition_date DATE NOT NULL,
+    direction VARCHAR(16) NOT NULL,
+    is_remember BOOLEAN NOT NULL,
+    UNIQUE(user_id, repetition_date, expression_id, direction),
+    FOREIGN KEY (expression_id) REFERENCES expressions(expression_id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
+);
+
+CREATE INDEX repeat_words_statistic_date ON repeat_words_statistic(repetition_date, user_id);
+CREATE INDEX repeat_expressions_statistic_date ON repeat_expressions_statistic(repetition_date, user_id);
+
+INSERT INTO repeat_words_statistic(user_id, word_id, repetition_date, direction, is_remember)
+SELECT user_id, word_id, repetition_date, 'ENGLISH', is_remember
+    FROM repeat_words_from_english_statistic;
+
+INSERT INTO repeat_words_statistic(user_id, word_id, repetition_date, direction, is_remember)
+SELECT user_id, word_id, repetition_date, 'NATIVE', is_remember
+    FROM repeat_words_from_native_statistic;
+
+INSERT INTO repeat_expressions_statistic(user_id, expression_id, repetition_date, direction, is_remember)
+SELECT user_id, expression_id, repetition_date, 'ENGLISH', is_remember
+    FROM repeat_expressions_from_english_statistic;
+
+INSERT INTO repeat_expressions_statistic(user_id, expression_id, repetition_date, direction, is_remember)
+SELECT user_id, expression_id, repetition_date, 'NATIVE', is_remember
+    FROM repeat_expressions_from_native_statistic;
+
+DROP TABLE repeat_words_from_english_statistic;
+DROP TABLE repeat_words_from_native_statistic;
+DROP TABLE repeat_expressions_from_english_statistic;
+DROP TABLE repeat_expressions_from_native_statistic;
@@ -0,0 +1,13 @@
+ALTER TABLE repeat_words_statistic ADD COLUMN remember_count INT DEFAULT 0 NOT NULL;
+ALTER TABLE repeat_words_statistic ADD COLUMN not_remember_count INT DEFAULT 0 NOT NULL;
+UPDATE repeat_words_statistic
+    SET remember_count = CASEWHEN(is_remember, 1, 0),
+        not_remember_count = CASEWHEN(is_remember, 0, 1);
+ALTER TABLE repeat_words_statistic DROP COLUMN is_remember;
+
+ALTER TABLE repeat_expressions_statistic ADD COLUMN remember_count INT DEFAULT 0 NOT NULL;
+ALTER TABLE repeat_expressions_statistic ADD COLUMN not_remember_count INT DEFAULT 0 NOT NULL;
+UPDATE repeat_expressions_statistic
+    SET remember_count = CASEWHEN(is_remember, 1, 0),
+        not_remember_count = CASEWHEN(is_remember, 0, 1);
+ALTER TABLE repeat_expressions_statistic DROP COLUMN is_remember;
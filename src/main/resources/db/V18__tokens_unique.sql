@@ -0,0 +1,21 @@
+CREATE TABLE words_tokens_distinct AS
+    SELECT word_id, user_id, token, MAX(frequency) AS frequency
+        FROM words_tokens
+        GROUP BY word_id, user_id, token;
+DELETE FROM words_tokens;
+INSERT INTO words_tokens(word_id, user_id, token, frequency)
+    SELECT word_id, user_id, token, frequency FROM words_tokens_distinct;
+DROP TABLE words_tokens_distinct;
+DROP INDEX words_tokens_word_id;
+ALTER TABLE words_tokens ADD CONSTRAINT words_tokens_word_id_token UNIQUE(word_id, token);
+
+CREATE TABLE expressions_tokens_distinct AS
+    SELECT expression_id, user_id, token, MAX(frequency) AS frequency
+        FROM expressions_tokens
+        GROUP BY expression_id, user_id, token;
+DELETE FROM expressions_tokens;
+INSERT INTO expressions_tokens(expression_id, user_id, token, frequency)
+    SELECT expression_id, user_id, token, frequency FROM expressions_tokens_distinct;
+DROP TABLE expressions_tokens_distinct;
+DROP INDEX expressions_tokens_expression_id;
+ALTER TABLE expressions_tokens ADD CONSTRAINT expressions_tokens_expression_id_token UNIQUE(expression_id, token);
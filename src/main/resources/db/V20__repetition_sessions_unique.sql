@@ -0,0 +1,8 @@
+DELETE FROM repetition_sessions AS s
+    WHERE EXISTS (SELECT 1 FROM repetition_sessions AS other
+                      WHERE other.user_id = s.user_id
+                          AND other.repetition_type = s.repetition_type
+                          AND (other.creation_date > s.creation_date
+                              OR (other.creation_date = s.creation_date AND other.session_id > s.session_id)));
+DROP INDEX repetition_sessions_user_id_type;
+ALTER TABLE repetition_sessions ADD CONSTRAINT repetition_sessions_user_id_type UNIQUE(user_id, repetition_type);
@@ -0,0 +1,8 @@
+CREATE TABLE expressions_qgrams (
+    expression_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    qgram VARCHAR(16) NOT NULL,
+    FOREIGN KEY(expression_id) REFERENCES expressions(expression_id) ON DELETE CASCADE,
+    CONSTRAINT expressions_qgrams_expression_id_qgram UNIQUE(expression_id, qgram)
+);
+CREATE INDEX expressions_qgrams_user_id_qgram ON expressions_qgrams(user_id, qgram);
@@ -0,0 +1,16 @@
+CREATE TABLE words_first_characters (
+    user_id UUID NOT NULL,
+    first_character VARCHAR(1) NOT NULL,
+    words_count INT NOT NULL,
+    PRIMARY KEY(user_id, first_character),
+    FOREIGN KEY(user_id) REFERENCES users(user_id) ON DELETE CASCADE ON UPDATE CASCADE
+);
+
+INSERT INTO words_first_characters(user_id, first_character, words_count)
+    SELECT user_id, lower(left(value, 1)), count(*)
+        FROM words
+        GROUP BY user_id, lower(left(value, 1));
+
+CREATE TRIGGER words_first_characters_counter
+    AFTER INSERT, UPDATE, DELETE ON words
+    FOR EACH ROW CALL 'com.bakuard.flashcards.dal.impl.WordsFirstCharacterTrigger';
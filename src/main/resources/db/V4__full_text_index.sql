@@ -0,0 +1,19 @@
+CREATE TABLE words_tokens (
+    word_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    token VARCHAR(64) NOT NULL,
+    frequency INT NOT NULL,
+    FOREIGN KEY(word_id) REFERENCES words(word_id) ON DELETE CASCADE
+);
+CREATE INDEX words_tokens_user_id_token ON words_tokens(user_id, token, word_id);
+CREATE INDEX words_tokens_word_id ON words_tokens(word_id);
+
+CREATE TABLE expressions_tokens (
+    expression_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    token VARCHAR(64) NOT NULL,
+    frequency INT NOT NULL,
+    FOREIGN KEY(expression_id) REFERENCES expressions(expression_id) ON DELETE CASCADE
+);
+CREATE INDEX expressions_tokens_user_id_token ON expressions_tokens(user_id, token, expression_id);
+CREATE INDEX expressions_tokens_expression_id ON expressions_tokens(expression_id);
@@ -0,0 +1,7 @@
+ALTER TABLE words_translations
+    ADD COLUMN normalized_value VARCHAR(64) GENERATED ALWAYS AS (REPLACE(LOWER(TRIM(value)), 'ё', 'е'));
+CREATE INDEX words_translations_normalized_value ON words_translations(normalized_value, word_id);
+
+ALTER TABLE expressions_translations
+    ADD COLUMN normalized_value VARCHAR(64) GENERATED ALWAYS AS (REPLACE(LOWER(TRIM(value)), 'ё', 'е'));
+CREATE INDEX expressions_translations_normalized_value ON expressions_translations(normalized_value, expression_id);
@@ -0,0 +1,12 @@
+CREATE ALIAS phonetic_primary DETERMINISTIC FOR 'com.bakuard.flashcards.dal.impl.StoredProcedures.phoneticPrimary';
+CREATE ALIAS phonetic_alternate DETERMINISTIC FOR 'com.bakuard.flashcards.dal.impl.StoredProcedures.phoneticAlternate';
+
+ALTER TABLE words ADD COLUMN phonetic_primary_key VARCHAR(128) GENERATED ALWAYS AS (phonetic_primary(value));
+ALTER TABLE words ADD COLUMN phonetic_alternate_key VARCHAR(128) GENERATED ALWAYS AS (phonetic_alternate(value));
+CREATE INDEX words_phonetic_primary_key ON words(user_id, phonetic_primary_key);
+CREATE INDEX words_phonetic_alternate_key ON words(user_id, phonetic_alternate_key);
+
+ALTER TABLE expressions ADD COLUMN phonetic_primary_key VARCHAR(128) GENERATED ALWAYS AS (phonetic_primary(value));
+ALTER TABLE expressions ADD COLUMN phonetic_alternate_key VARCHAR(128) GENERATED ALWAYS AS (phonetic_alternate(value));
+CREATE INDEX expressions_phonetic_primary_key ON expressions(user_id, phonetic_primary_key);
+CREATE INDEX expressions_phonetic_alternate_key ON expressions(user_id, phonetic_alternate_key);
@@ -0,0 +1,13 @@
+ALTER TABLE words ADD COLUMN next_repeat_date_from_english DATE
+    GENERATED ALWAYS AS (DATEADD(DAY, repeat_interval_from_english, last_date_of_repeat_from_english));
+ALTER TABLE words ADD COLUMN next_repeat_date_from_native DATE
+    GENERATED ALWAYS AS (DATEADD(DAY, repeat_interval_from_native, last_date_of_repeat_from_native));
+CREATE INDEX words_next_repeat_date_from_english ON words(user_id, next_repeat_date_from_english, value);
+CREATE INDEX words_next_repeat_date_from_native ON words(user_id, next_repeat_date_from_native, value);
+
+ALTER TABLE expressions ADD COLUMN next_repeat_date_from_english DATE
+    GENERATED ALWAYS AS (DATEADD(DAY, repeat_interval_from_english, last_date_of_repeat_from_english));
+ALTER TABLE expressions ADD COLUMN next_repeat_date_from_native DATE
+    GENERATED ALWAYS AS (DATEADD(DAY, repeat_interval_from_native, last_date_of_repeat_from_native));
+CREATE INDEX expressions_next_repeat_date_from_english ON expressions(user_id, next_repeat_date_from_english, value);
+CREATE INDEX expressions_next_repeat_date_from_native ON expressions(user_id, next_repeat_date_from_native, value);
@@ -0,0 +1,19 @@
+CREATE TABLE repetition_sessions (
+    session_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    repetition_type VARCHAR(32) NOT NULL,
+    creation_date DATE NOT NULL,
+    position INT NOT NULL,
+    total INT NOT NULL,
+    FOREIGN KEY(user_id) REFERENCES users(user_id) ON DELETE CASCADE ON UPDATE CASCADE,
+    PRIMARY KEY(session_id)
+);
+CREATE INDEX repetition_sessions_user_id_type ON repetition_sessions(user_id, repetition_type);
+
+CREATE TABLE repetition_sessions_cards (
+    session_id UUID NOT NULL,
+    card_index INT NOT NULL,
+    card_id UUID NOT NULL,
+    FOREIGN KEY(session_id) REFERENCES repetition_sessions(session_id) ON DELETE CASCADE ON UPDATE CASCADE,
+    PRIMARY KEY(session_id, card_index)
+);
@@ -0,0 +1,25 @@
+CREATE TABLE repetition_snapshots (
+    user_id UUID NOT NULL,
+    snapshot_date DATE NOT NULL,
+    words_from_english INT NOT NULL,
+    words_from_native INT NOT NULL,
+    expressions_from_english INT NOT NULL,
+    expressions_from_native INT NOT NULL,
+    due_tomorrow INT NOT NULL,
+    FOREIGN KEY(user_id) REFERENCES users(user_id) ON DELETE CASCADE ON UPDATE CASCADE,
+    PRIMARY KEY(user_id)
+);
+
+CREATE TABLE repetition_snapshots_cards (
+    user_id UUID NOT NULL,
+    repetition_type VARCHAR(32) NOT NULL,
+    card_index INT NOT NULL,
+    card_id UUID NOT NULL,
+    FOREIGN KEY(user_id) REFERENCES repetition_snapshots(user_id) ON DELETE CASCADE ON UPDATE CASCADE,
+    PRIMARY KEY(user_id, repetition_type, card_index)
+);
+
+CREATE INDEX repeat_words_from_english_statistic_date ON repeat_words_from_english_statistic(repetition_date, user_id);
+CREATE INDEX repeat_words_from_native_statistic_date ON repeat_words_from_native_statistic(repetition_date, user_id);
+CREATE INDEX repeat_expressions_from_english_statistic_date ON repeat_expressions_from_english_statistic(repetition_date, user_id);
+CREATE INDEX repeat_expressions_from_native_statistic_date ON repeat_expressions_from_native_statistic(repetition_date, user_id);
@@ -0,0 +1,123 @@
+package com.bakuard.flashcards.benchmark;
+
+import com.bakuard.flashcards.dal.impl.LevenshteinDistance;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение {@link LevenshteinDistance} с прежней реализацией StoredProcedures.levenshteinDistance на выборке,
+ * имитирующей сканирование словаря одного пользователя. Запуск: main() этого класса из тестового classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LevenshteinDistanceBenchmark {
+
+    @Param({"12", "48", "300"})
+    private int length;
+
+    @Param({"2", "20"})
+    private int threshold;
+
+    private String[] dictionary;
+    private String query;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42L);
+        dictionary = new String[10_000];
+        for(int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = randomValue(random, Math.max(1, length - 4), length + 4);
+        }
+        query = randomValue(random, length, length);
+    }
+
+    @Benchmark
+    public void bitParallel(Blackhole blackhole) {
+        for(String value : dictionary) {
+            blackhole.consume(LevenshteinDistance.distance(query, value, threshold));
+        }
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        for(String value : dictionary) {
+            blackhole.consume(legacyDistance(query, value, threshold));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(
+                new OptionsBuilder().
+                        include(LevenshteinDistanceBenchmark.class.getSimpleName()).
+                        build()
+        ).run();
+    }
+
+
+    private static String randomValue(Random random, int minLength, int maxLength) {
+        int length = random.nextInt(minLength, maxLength + 1);
+        StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < length; i++) builder.append((char) ('a' + random.nextInt(26)));
+        return builder.toString();
+    }
+
+    /*
+     * Прежняя реализация StoredProcedures.levenshteinDistance.
+     */
+    private static int legacyDistance(String left, String right, int threshold) {
+        int n = left.length();
+        int m = right.length();
+        if(n == 0) return m <= threshold ? m : -1;
+        else if(m == 0) return n <= threshold ? n : -1;
+
+        if(n > m) {
+            String tmp = left;
+            left = right;
+            right = tmp;
+            n = m;
+            m = tmp.length();
+        }
+        if(m - n > threshold) return -1;
+
+        int[] p = new int[n + 1];
+        int[] d = new int[n + 1];
+        int boundary = Math.min(n, threshold) + 1;
+        for(int i = 0; i < boundary; ++i) p[i] = i;
+        Arrays.fill(p, boundary, p.length, Integer.MAX_VALUE);
+        Arrays.fill(d, Integer.MAX_VALUE);
+
+        for(int j = 1; j <= m; ++j) {
+            char rightJ = right.charAt(j - 1);
+            d[0] = j;
+            int min = Math.max(1, j - threshold);
+            int max = j > Integer.MAX_VALUE - threshold ? n : Math.min(n, j + threshold);
+            if(min > 1) d[min - 1] = Integer.MAX_VALUE;
+
+            int lowerBound = Integer.MAX_VALUE;
+            for(int i = min; i <= max; ++i) {
+                if(left.charAt(i - 1) == rightJ) d[i] = p[i - 1];
+                else d[i] = 1 + Math.min(Math.min(d[i - 1], p[i]), p[i - 1]);
+                lowerBound = Math.min(lowerBound, d[i]);
+            }
+            if(lowerBound > threshold) return -1;
+
+            int[] tmp = p;
+            p = d;
+            d = tmp;
+        }
+
+        return p[n] <= threshold ? p[n] : -1;
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.bakuard.flashcards.dal;
+
+import com.bakuard.flashcards.config.SpringConfig;
+import com.bakuard.flashcards.config.TestConfig;
+import com.bakuard.flashcards.dal.impl.BkTree;
+import com.bakuard.flashcards.dal.impl.StoredProcedures;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+@ExtendWith(SpringExtension.class)
+@TestPropertySource(locations = "classpath:test.properties")
+@Import({SpringConfig.class, TestConfig.class})
+class BkTreeTest {
+
+    @Test
+    @DisplayName("""
+            find(key, maxDistance):
+             tree is empty
+             => return empty list
+            """)
+    public void find1() {
+        BkTree<String> tree = tree();
+
+        List<String> actual = tree.find("value", 3);
+
+        Assertions.assertThat(actual).isEmpty();
+    }
+
+    @Test
+    @DisplayName("""
+            find(key, maxDistance):
+             maxDistance < 0
+             => exception
+            """)
+    public void find2() {
+        BkTree<String> tree = tree();
+        tree.add("value");
+
+        Assertions.assertThatIllegalArgumentException().
+                isThrownBy(() -> tree.find("value", -1));
+    }
+
+    @Test
+    @DisplayName("""
+            find(key, maxDistance):
+             tree contains many items,
+             tree contains items with same key
+             => return all items with distance <= maxDistance
+            """)
+    public void find3() {
+        Random random = new Random(100L);
+        List<String> values = randomValues(random, 2000);
+        values.addAll(values.subList(0, 50));
+        BkTree<String> tree = tree();
+        values.forEach(tree::add);
+
+        for(int i = 0; i < 50; i++) {
+            String key = randomValue(random);
+            int maxDistance = random.nextInt(1, 5);
+
+            List<String> actual = tree.find(key, maxDistance);
+
+            Assertions.assertThat(actual).
+                    containsExactlyInAnyOrderElementsOf(bruteForce(values, key, maxDistance));
+        }
+    }
+
+    @Test
+    @DisplayName("""
+            remove(item):
+             tree contains many items,
+             remove some of them
+             => find(key, maxDistance) doesn't return removed items
+            """)
+    public void remove1() {
+        Random random = new Random(200L);
+        List<String> values = randomValues(random, 1000);
+        BkTree<String> tree = tree();
+        values.forEach(tree::add);
+
+        List<String> removed = new ArrayList<>(values.subList(0, 300));
+        removed.forEach(tree::remove);
+        List<String> expected = new ArrayList<>(values.subList(300, values.size()));
+
+        for(int i = 0; i < 30; i++) {
+            String key = randomValue(random);
+
+            List<String> actual = tree.find(key, 3);
+
+            Assertions.assertThat(actual).
+                    containsExactlyInAnyOrderElementsOf(bruteForce(expected, key, 3));
+        }
+        Assertions.assertThat(tree.size()).isEqualTo(700);
+        Assertions.assertThat(tree.deletedSize()).isEqualTo(300);
+    }
+
+    @Test
+    @DisplayName("""
+            remove(item):
+             tree doesn't contain item
+             => return false
+            """)
+    public void remove2() {
+        BkTree<String> tree = tree();
+        tree.add("value");
+
+        boolean actual = tree.remove("other");
+
+        Assertions.assertThat(actual).isFalse();
+        Assertions.assertThat(tree.size()).isEqualTo(1);
+    }
+
+
+    private BkTree<String> tree() {
+        return new BkTree<>(Function.identity(), BkTreeTest::distance);
+    }
+
+    private static int distance(String left, String right) {
+        return StoredProcedures.levenshteinDistance(left, right, Math.max(left.length(), right.length()));
+    }
+
+    private List<String> bruteForce(List<String> values, String key, int maxDistance) {
+        return values.stream().
+                filter(value -> StoredProcedures.levenshteinDistance(key, value, maxDistance) != -1).
+                toList();
+    }
+
+    private List<String> randomValues(Random random, int count) {
+        List<String> result = new ArrayList<>();
+        for(int i = 0; i < count; i++) result.add(randomValue(random));
+        return result;
+    }
+
+    private String randomValue(Random random) {
+        int length = random.nextInt(1, 10);
+        StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < length; i++) builder.append((char) ('a' + random.nextInt(6)));
+        return builder.toString();
+    }
+
+}
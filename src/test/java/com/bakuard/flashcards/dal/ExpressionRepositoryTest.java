@@ -61,10 +61,8 @@ class ExpressionRepositoryTest {
                 "words",
                 "intervals",
                 "users",
-                "repeat_words_from_english_statistic",
-                "repeat_words_from_native_statistic",
-                "repeat_expressions_from_english_statistic",
-                "repeat_expressions_from_native_statistic",
+                "repeat_words_statistic",
+                "repeat_expressions_statistic",
                 "word_outer_source",
                 "words_examples_outer_source"
         ));
@@ -264,6 +262,43 @@ class ExpressionRepositoryTest {
                 containsExactly(expressions.get(0), expressions.get(1));
     }
 
+    @Test
+    @DisplayName("""
+            findIdsByValue(userId, value, maxDistance):
+             user with userId hasn't any expressions
+             => return empty list
+            """)
+    public void findIdsByValue1() {
+        User user = commit(() -> userRepository.save(user(1)));
+
+        List<UUID> actual = expressionRepository.findIdsByValue(user.getId(), "cockroach", 2);
+
+        Assertions.assertThat(actual).isEmpty();
+    }
+
+    @Test
+    @DisplayName("""
+            findIdsByValue(userId, value, maxDistance):
+             user has some expressions,
+             there are expressions with maxDistance <= 2
+             => return ids of these expressions in lexicographic order
+            """)
+    public void findIdsByValue2() {
+        User user = commit(() -> userRepository.save(user(1)));
+        List<Expression> expressions = List.of(
+                expression(user.getId(), "frog1", "note", 1),
+                expression(user.getId(), "frog", "note", 3),
+                expression(user.getId(), "broom", "note", 5),
+                expression(user.getId(), "distance", "note", 10)
+        );
+        commit(() -> expressions.forEach(expression -> expressionRepository.save(expression)));
+
+        List<UUID> actual = expressionRepository.findIdsByValue(user.getId(), "frog", 2);
+
+        Assertions.assertThat(actual).
+                containsExactly(expressions.get(1).getId(), expressions.get(0).getId());
+    }
+
     @Test
     @DisplayName("""
             deleteById(userId, expressionId):
@@ -895,6 +930,27 @@ class ExpressionRepositoryTest {
                 usingRecursiveFieldByFieldElementComparator().
                 containsExactly(expressionD, expressionE, expressionF);
     }
+
+    @Test
+    @DisplayName("""
+            findByPhonetic(userId, value, limit, offset):
+             user has expression that sounds like value
+             => return this expression
+            """)
+    public void findByPhonetic1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Expression expression = commit(() -> {
+            expressionRepository.save(expression(user.getId(), "break a leg", "note", 1));
+            return expressionRepository.save(expression(user.getId(), "piece of cake", "note", 1));
+        });
+
+        List<Expression> actual = expressionRepository.findByPhonetic(user.getId(), "peace of cake", 10, 0);
+
+        Assertions.assertThat(actual).
+                extracting(Expression::getId).
+                containsExactly(expression.getId());
+        Assertions.assertThat(expressionRepository.countForPhonetic(user.getId(), "peace of cake")).isEqualTo(1);
+    }
     
 
     private UUID toUUID(int number) {
@@ -0,0 +1,235 @@
+package com.bakuard.flashcards.dal;
+
+import com.bakuard.flashcards.config.MutableClock;
+import com.bakuard.flashcards.config.SpringConfig;
+import com.bakuard.flashcards.config.TestConfig;
+import com.bakuard.flashcards.model.auth.credential.Credential;
+import com.bakuard.flashcards.model.auth.credential.User;
+import com.bakuard.flashcards.model.expression.Expression;
+import com.bakuard.flashcards.model.word.Word;
+import com.bakuard.flashcards.model.word.WordExample;
+import com.bakuard.flashcards.model.word.WordInterpretation;
+import com.bakuard.flashcards.model.word.WordTranslation;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+@ExtendWith(SpringExtension.class)
+@TestPropertySource(locations = "classpath:test.properties")
+@Import({SpringConfig.class, TestConfig.class})
+class FullTextIndexTest {
+
+    @Autowired
+    private FullTextIndex fullTextIndex;
+    @Autowired
+    private WordRepository wordRepository;
+    @Autowired
+    private ExpressionRepository expressionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSourceTransactionManager transactionManager;
+    @Autowired
+    private MutableClock clock;
+
+    @BeforeEach
+    public void beforeEach() {
+        commit(() -> JdbcTestUtils.deleteFromTables(jdbcTemplate,
+                "expressions",
+                "words",
+                "intervals",
+                "users",
+                "repeat_words_statistic",
+                "repeat_expressions_statistic",
+                "word_outer_source",
+                "words_examples_outer_source"
+        ));
+        clock.setDate(2022, 7, 7);
+    }
+
+    @Test
+    @DisplayName("""
+            findWordIds(userId, query, limit, offset):
+             query matches translations and examples of several words
+             => return words containing more query tokens first
+            """)
+    public void findWordIds1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        User otherUser = commit(() -> userRepository.save(user(2)));
+        Word frog = commit(() -> wordRepository.save(
+                word(user.getId(), "frog").
+                        addTranslation(new WordTranslation("лягушка", null)).
+                        addExample(new WordExample("The frog jumped into the pond.", "Лягушка прыгнула в пруд.", null))
+        ));
+        Word pond = commit(() -> wordRepository.save(
+                word(user.getId(), "pond").
+                        addInterpretation(new WordInterpretation("A small body of still water."))
+        ));
+        commit(() -> wordRepository.save(word(user.getId(), "distance")));
+        commit(() -> wordRepository.save(word(otherUser.getId(), "pond")));
+
+        List<UUID> actual = fullTextIndex.findWordIds(user.getId(), "frog pond", 10, 0);
+
+        Assertions.assertThat(actual).containsExactly(frog.getId(), pond.getId());
+        Assertions.assertThat(fullTextIndex.countWords(user.getId(), "frog pond")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("""
+            findWordIds(userId, query, limit, offset):
+             query differs from word text in case and 'ё'/'е'
+             => return this word
+            """)
+    public void findWordIds2() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word word = commit(() -> wordRepository.save(
+                word(user.getId(), "hedgehog").addTranslation(new WordTranslation("Ёжик", null))
+        ));
+
+        List<UUID> actual = fullTextIndex.findWordIds(user.getId(), "ежик", 10, 0);
+
+        Assertions.assertThat(actual).containsExactly(word.getId());
+    }
+
+    @Test
+    @DisplayName("""
+            findWordIds(userId, query, limit, offset):
+             word was saved,
+             then translation of word was changed
+             => search by old translation doesn't return this word
+            """)
+    public void findWordIds3() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word word = commit(() -> wordRepository.save(
+                word(user.getId(), "frog").addTranslation(new WordTranslation("жаба", null))
+        ));
+        commit(() -> wordRepository.save(word.setTranslations(List.of(new WordTranslation("лягушка", null)))));
+
+        Assertions.assertThat(fullTextIndex.findWordIds(user.getId(), "жаба", 10, 0)).isEmpty();
+        Assertions.assertThat(fullTextIndex.findWordIds(user.getId(), "лягушка", 10, 0)).containsExactly(word.getId());
+    }
+
+    @Test
+    @DisplayName("""
+            findExpressionIds(userId, query, limit, offset):
+             query contains only tokens shorter than two characters
+             => return empty list
+            """)
+    public void findExpressionIds1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> expressionRepository.save(expression(user.getId(), "a piece of cake")));
+
+        List<UUID> actual = fullTextIndex.findExpressionIds(user.getId(), "a ?", 10, 0);
+
+        Assertions.assertThat(actual).isEmpty();
+        Assertions.assertThat(fullTextIndex.countExpressions(user.getId(), "a ?")).isZero();
+    }
+
+    @Test
+    @DisplayName("""
+            backfill():
+             there are words and expressions without tokens
+             => add tokens for them
+            """)
+    public void backfill1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word word = commit(() -> wordRepository.save(
+                word(user.getId(), "frog").addTranslation(new WordTranslation("лягушка", null))
+        ));
+        Expression expression = commit(() -> expressionRepository.save(expression(user.getId(), "a piece of cake")));
+        commit(() -> JdbcTestUtils.deleteFromTables(jdbcTemplate, "words_tokens", "expressions_tokens"));
+
+        int actual = fullTextIndex.backfill();
+
+        Assertions.assertThat(actual).isEqualTo(2);
+        Assertions.assertThat(fullTextIndex.findWordIds(user.getId(), "лягушка", 10, 0)).
+                containsExactly(word.getId());
+        Assertions.assertThat(fullTextIndex.findExpressionIds(user.getId(), "cake", 10, 0)).
+                containsExactly(expression.getId());
+    }
+
+
+    @Test
+    @DisplayName("""
+            update(word):
+             tokens of word were already written
+             => don't duplicate tokens, update frequencies
+            """)
+    public void update1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word word = commit(() -> wordRepository.save(
+                word(user.getId(), "frog").addTranslation(new WordTranslation("лягушка", null))
+        ));
+
+        commit(() -> fullTextIndex.update(word.addInterpretation(new WordInterpretation("A frog."))));
+
+        List<Map<String, Object>> actual = jdbcTemplate.queryForList(
+                "select token, frequency from words_tokens where word_id = ?;", word.getId());
+        Assertions.assertThat(actual).
+                extracting(row -> row.get("TOKEN"), row -> row.get("FREQUENCY")).
+                containsExactlyInAnyOrder(
+                        Assertions.tuple("frog", 2),
+                        Assertions.tuple("лягушка", 1)
+                );
+    }
+
+
+    private User user(int number) {
+        return new User(new Credential("me" + number + "@mail.com", "password" + number)).
+                setOrGenerateSalt("salt" + number).
+                addRole("role1");
+    }
+
+    private Word word(UUID userId, String value) {
+        return new Word(userId, 1, 1, clock).setValue(value);
+    }
+
+    private Expression expression(UUID userId, String value) {
+        return new Expression(userId, 1, 1, clock).setValue(value).setNote("note");
+    }
+
+    private void commit(Executable executable) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            executable.execute();
+            transactionManager.commit(status);
+        } catch(Throwable e) {
+            transactionManager.rollback(status);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private <T> T commit(Supplier<T> supplier) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            T result = supplier.get();
+            transactionManager.commit(status);
+            return result;
+        } catch(Throwable e) {
+            transactionManager.rollback(status);
+            throw new RuntimeException(e);
+        }
+    }
+
+}
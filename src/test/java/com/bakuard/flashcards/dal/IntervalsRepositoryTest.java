@@ -2,6 +2,7 @@ package com.bakuard.flashcards.dal;
 
 import com.bakuard.flashcards.config.SpringConfig;
 import com.bakuard.flashcards.config.TestConfig;
+import com.bakuard.flashcards.dal.impl.CachedIntervalRepository;
 import com.bakuard.flashcards.model.auth.credential.Credential;
 import com.bakuard.flashcards.model.auth.credential.User;
 import com.bakuard.flashcards.model.expression.Expression;
@@ -29,6 +30,7 @@ import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.DefaultTransactionDefinition;
 
 import java.time.Clock;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 import java.util.function.Supplier;
@@ -62,10 +64,8 @@ class IntervalsRepositoryTest {
                 "words",
                 "intervals",
                 "users",
-                "repeat_words_from_english_statistic",
-                "repeat_words_from_native_statistic",
-                "repeat_expressions_from_english_statistic",
-                "repeat_expressions_from_native_statistic",
+                "repeat_words_statistic",
+                "repeat_expressions_statistic",
                 "word_outer_source",
                 "words_examples_outer_source"
         ));
@@ -860,6 +860,158 @@ class IntervalsRepositoryTest {
                 containsExactlyInAnyOrderElementsOf(expressions);
     }
 
+    @Test
+    @DisplayName("""
+            replace(userId, oldInterval, newInterval):
+             user with userId has oldInterval,
+             user has words with oldInterval
+             => next repeat date of these words is moved according to newInterval
+            """)
+    public void replace24() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> {
+            intervalRepository.add(user.getId(), 1);
+            intervalRepository.add(user.getId(), 3);
+            intervalRepository.add(user.getId(), 5);
+            intervalRepository.add(user.getId(), 10);
+        });
+        commit(() -> wordRepository.save(word(user.getId(), "valueA", "noteA", 3, 3)));
+        LocalDate tomorrow = LocalDate.now(clock).plusDays(1);
+
+        commit(() -> intervalRepository.replace(user.getId(), 3, 1));
+
+        Assertions.assertThat(wordRepository.countForRepeatFromEnglish(user.getId(), tomorrow)).isEqualTo(1);
+        Assertions.assertThat(wordRepository.countForRepeatFromNative(user.getId(), tomorrow)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("""
+            replaceInterval(userId, oldInterval, newInterval):
+             user with userId has oldInterval,
+             user has words with oldInterval
+             => replace interval only in list of user intervals,
+                don't change words,
+                return true
+            """)
+    public void replaceInterval1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> intervalRepository.addAll(user.getId(), 1, 3, 5, 10));
+        commit(() -> wordRepository.save(word(user.getId(), "valueA", "noteA", 10, 10)));
+
+        boolean actual = commit(() -> intervalRepository.replaceInterval(user.getId(), 10, 30));
+
+        Assertions.assertThat(actual).isTrue();
+        Assertions.assertThat(intervalRepository.findAll(user.getId())).containsExactly(1, 3, 5, 30);
+        Assertions.assertThat(intervalRepository.countInCards(user.getId(), 10)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("""
+            replaceInCards(userId, oldInterval, newInterval, limit):
+             user has more intervals equal oldInterval in words and expressions than limit
+             => replace only limit intervals,
+                return limit
+            """)
+    public void replaceInCards1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> intervalRepository.addAll(user.getId(), 1, 3, 5, 10));
+        commit(() -> {
+            wordRepository.save(word(user.getId(), "valueA", "noteA", 10, 10));
+            wordRepository.save(word(user.getId(), "valueB", "noteB", 10, 1));
+            expressionRepository.save(expression(user.getId(), "valueA", "noteA", 10, 10));
+        });
+
+        int actual = commit(() -> intervalRepository.replaceInCards(user.getId(), 10, 30, 3));
+
+        Assertions.assertThat(actual).isEqualTo(3);
+        Assertions.assertThat(intervalRepository.countInCards(user.getId(), 10)).isEqualTo(2);
+        Assertions.assertThat(intervalRepository.countInCards(user.getId(), 30)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("""
+            replaceInCards(userId, oldInterval, newInterval, limit):
+             method is called until it returns 0
+             => replace all intervals equal oldInterval in words and expressions
+            """)
+    public void replaceInCards2() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> intervalRepository.addAll(user.getId(), 1, 3, 5, 10));
+        commit(() -> {
+            wordRepository.save(word(user.getId(), "valueA", "noteA", 10, 10));
+            wordRepository.save(word(user.getId(), "valueB", "noteB", 10, 1));
+            expressionRepository.save(expression(user.getId(), "valueA", "noteA", 10, 10));
+            expressionRepository.save(expression(user.getId(), "valueB", "noteB", 1, 10));
+        });
+
+        int replaced = 0;
+        int chunk;
+        do {
+            chunk = commit(() -> intervalRepository.replaceInCards(user.getId(), 10, 30, 2));
+            replaced += chunk;
+        } while(chunk > 0);
+
+        Assertions.assertThat(replaced).isEqualTo(6);
+        Assertions.assertThat(intervalRepository.countInCards(user.getId(), 10)).isZero();
+        Assertions.assertThat(intervalRepository.countInCards(user.getId(), 1)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("""
+            findAll(userId):
+             intervals of user were already read
+             => return same intervals from cache
+            """)
+    public void findAll1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> intervalRepository.addAll(user.getId(), 1, 3, 5));
+        intervalRepository.findAll(user.getId());
+        long expectedHitCount = cache().stats().hitCount() + 1;
+
+        ImmutableList<Integer> actual = intervalRepository.findAll(user.getId());
+
+        Assertions.assertThat(actual).containsExactlyInAnyOrder(1, 3, 5);
+        Assertions.assertThat(cache().stats().hitCount()).isEqualTo(expectedHitCount);
+    }
+
+    @Test
+    @DisplayName("""
+            findAll(userId):
+             intervals of user were already read,
+             then new interval was added
+             => return intervals with new interval
+            """)
+    public void findAll2() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> intervalRepository.addAll(user.getId(), 1, 3, 5));
+        intervalRepository.findAll(user.getId());
+
+        commit(() -> intervalRepository.add(user.getId(), 10));
+
+        Assertions.assertThat(intervalRepository.findAll(user.getId())).containsExactlyInAnyOrder(1, 3, 5, 10);
+    }
+
+    @Test
+    @DisplayName("""
+            findAll(userId):
+             new interval was added and read in transaction,
+             then transaction was rolled back
+             => return intervals without new interval
+            """)
+    public void findAll3() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> intervalRepository.addAll(user.getId(), 1, 3, 5));
+        Runnable rolledBack = () -> {
+            intervalRepository.add(user.getId(), 10);
+            intervalRepository.findAll(user.getId());
+            throw new IllegalStateException();
+        };
+
+        Assertions.assertThatIllegalStateException().isThrownBy(() -> commit(rolledBack));
+
+        Assertions.assertThat(intervalRepository.findAll(user.getId())).containsExactlyInAnyOrder(1, 3, 5);
+    }
+
 
     private User user(int number) {
         return new User(new Credential("me" + number + "@mail.com", "password" + number)).
@@ -897,6 +1049,10 @@ class IntervalsRepositoryTest {
         return expressionRepository.findAll(PageRequest.of(0, 100, Sort.by("value"))).getContent();
     }
 
+    private CachedIntervalRepository cache() {
+        return (CachedIntervalRepository) intervalRepository;
+    }
+
     private UUID toUUID(int number) {
         return UUID.fromString("00000000-0000-0000-0000-" + String.format("%012d", number));
     }
@@ -0,0 +1,146 @@
+package com.bakuard.flashcards.dal;
+
+import com.bakuard.flashcards.config.SpringConfig;
+import com.bakuard.flashcards.config.TestConfig;
+import com.bakuard.flashcards.dal.impl.LevenshteinDistance;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Random;
+
+@ExtendWith(SpringExtension.class)
+@TestPropertySource(locations = "classpath:test.properties")
+@Import({SpringConfig.class, TestConfig.class})
+class LevenshteinDistanceTest {
+
+    @Test
+    @DisplayName("""
+            distance(left, right, threshold):
+             left is null
+             => exception
+            """)
+    public void distance1() {
+        Assertions.assertThatIllegalArgumentException().
+                isThrownBy(() -> LevenshteinDistance.distance(null, "value", 1));
+    }
+
+    @Test
+    @DisplayName("""
+            distance(left, right, threshold):
+             threshold < 0
+             => exception
+            """)
+    public void distance2() {
+        Assertions.assertThatIllegalArgumentException().
+                isThrownBy(() -> LevenshteinDistance.distance("value", "value", -1));
+    }
+
+    @Test
+    @DisplayName("""
+            distance(left, right, threshold):
+             one of strings is empty
+             => return length of other string or -1
+            """)
+    public void distance3() {
+        Assertions.assertThat(LevenshteinDistance.distance("", "value", 5)).isEqualTo(5);
+        Assertions.assertThat(LevenshteinDistance.distance("value", "", 4)).isEqualTo(-1);
+        Assertions.assertThat(LevenshteinDistance.distance("", "", 0)).isZero();
+    }
+
+    @Test
+    @DisplayName("""
+            distance(left, right, threshold):
+             strings are shorter than 64 characters,
+             strings contain ASCII and non ASCII characters
+             => return same result as full dynamic programming
+            """)
+    public void distance4() {
+        assertSameAsFullMatrix(new Random(1L), 1, 64, 5000);
+    }
+
+    @Test
+    @DisplayName("""
+            distance(left, right, threshold):
+             length of strings is between 65 and 512 characters
+             => return same result as full dynamic programming
+            """)
+    public void distance5() {
+        assertSameAsFullMatrix(new Random(2L), 65, 512, 500);
+    }
+
+    @Test
+    @DisplayName("""
+            distance(left, right, threshold):
+             strings are longer than 512 characters
+             => return same result as full dynamic programming
+            """)
+    public void distance6() {
+        assertSameAsFullMatrix(new Random(3L), 513, 700, 20);
+    }
+
+
+    private void assertSameAsFullMatrix(Random random, int minLength, int maxLength, int iterations) {
+        for(int i = 0; i < iterations; i++) {
+            String left = randomValue(random, minLength, maxLength);
+            String right = random.nextBoolean() ?
+                    mutate(random, left) :
+                    randomValue(random, Math.max(0, minLength - 10), maxLength);
+            int threshold = random.nextInt(0, 30);
+
+            int expected = fullMatrix(left, right);
+            expected = expected <= threshold ? expected : -1;
+            int actual = LevenshteinDistance.distance(left, right, threshold);
+
+            Assertions.assertThat(actual).
+                    as("left=%s, right=%s, threshold=%d", left, right, threshold).
+                    isEqualTo(expected);
+        }
+    }
+
+    private String randomValue(Random random, int minLength, int maxLength) {
+        String alphabet = "abcdeёжз";
+        int length = random.nextInt(minLength, maxLength + 1);
+        StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < length; i++) builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        return builder.toString();
+    }
+
+    private String mutate(Random random, String value) {
+        StringBuilder builder = new StringBuilder(value);
+        int edits = random.nextInt(0, 20);
+        for(int i = 0; i < edits; i++) {
+            int position = random.nextInt(builder.length() + 1);
+            switch(random.nextInt(3)) {
+                case 0 -> builder.insert(position, 'ж');
+                case 1 -> { if(position < builder.length()) builder.deleteCharAt(position); }
+                default -> { if(position < builder.length()) builder.setCharAt(position, 'a'); }
+            }
+        }
+        return builder.toString();
+    }
+
+    private int fullMatrix(String left, String right) {
+        int[] previous = new int[right.length() + 1];
+        int[] current = new int[right.length() + 1];
+        for(int j = 0; j <= right.length(); j++) previous[j] = j;
+
+        for(int i = 1; i <= left.length(); i++) {
+            current[0] = i;
+            for(int j = 1; j <= right.length(); j++) {
+                int cost = left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] tmp = previous;
+            previous = current;
+            current = tmp;
+        }
+
+        return previous[right.length()];
+    }
+
+}
@@ -0,0 +1,207 @@
+package com.bakuard.flashcards.dal;
+
+import com.bakuard.flashcards.config.MutableClock;
+import com.bakuard.flashcards.config.SpringConfig;
+import com.bakuard.flashcards.config.TestConfig;
+import com.bakuard.flashcards.model.auth.credential.Credential;
+import com.bakuard.flashcards.model.auth.credential.User;
+import com.bakuard.flashcards.service.WordService;
+import com.bakuard.flashcards.model.word.Word;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+@ExtendWith(SpringExtension.class)
+@TestPropertySource(locations = "classpath:test.properties")
+@Import({SpringConfig.class, TestConfig.class})
+class PrefixIndexTest {
+
+    @Autowired
+    private PrefixIndex wordPrefixIndex;
+    @Autowired
+    private WordService wordService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSourceTransactionManager transactionManager;
+    @Autowired
+    private MutableClock clock;
+
+    @BeforeEach
+    public void beforeEach() {
+        commit(() -> JdbcTestUtils.deleteFromTables(jdbcTemplate,
+                "expressions",
+                "words",
+                "intervals",
+                "users",
+                "repeat_words_statistic",
+                "repeat_expressions_statistic",
+                "word_outer_source",
+                "words_examples_outer_source"
+        ));
+        clock.setDate(2022, 7, 7);
+    }
+
+    @Test
+    @DisplayName("""
+            findByPrefix(userId, prefix, limit):
+             user has words with this prefix in different cases
+             => return words starting with prefix ignoring case, sorted by value ignoring case
+            """)
+    public void findByPrefix1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        User otherUser = commit(() -> userRepository.save(user(2)));
+        List<Word> words = commit(() -> List.of(
+                wordService.save(word(user.getId(), "distance")),
+                wordService.save(word(user.getId(), "Distant")),
+                wordService.save(word(user.getId(), "dis")),
+                wordService.save(word(user.getId(), "dirt")),
+                wordService.save(word(user.getId(), "disc"))
+        ));
+        commit(() -> wordService.save(word(otherUser.getId(), "disk")));
+
+        List<PrefixIndex.Entry> actual = wordPrefixIndex.findByPrefix(user.getId(), "DIS", 10);
+
+        Assertions.assertThat(actual).
+                extracting(PrefixIndex.Entry::id).
+                containsExactly(words.get(2).getId(), words.get(4).getId(),
+                        words.get(0).getId(), words.get(1).getId());
+    }
+
+    @Test
+    @DisplayName("""
+            findByPrefix(userId, prefix, limit):
+             number of words with this prefix greater than limit
+             => return first limit words
+            """)
+    public void findByPrefix2() {
+        User user = commit(() -> userRepository.save(user(1)));
+        List<Word> words = commit(() -> List.of(
+                wordService.save(word(user.getId(), "frog")),
+                wordService.save(word(user.getId(), "from")),
+                wordService.save(word(user.getId(), "front"))
+        ));
+
+        List<PrefixIndex.Entry> actual = wordPrefixIndex.findByPrefix(user.getId(), "fr", 2);
+
+        Assertions.assertThat(actual).
+                containsExactly(
+                        new PrefixIndex.Entry(words.get(0).getId(), "frog"),
+                        new PrefixIndex.Entry(words.get(1).getId(), "from")
+                );
+    }
+
+    @Test
+    @DisplayName("""
+            findByPrefix(userId, prefix, limit):
+             index of user was loaded,
+             then word was added and other word was deleted
+             => return result by current words
+            """)
+    public void findByPrefix3() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word frog = commit(() -> wordService.save(word(user.getId(), "frog")));
+        wordPrefixIndex.findByPrefix(user.getId(), "fr", 10);
+        Word from = commit(() -> wordService.save(word(user.getId(), "from")));
+        commit(() -> wordService.tryDeleteById(user.getId(), frog.getId()));
+
+        List<PrefixIndex.Entry> actual = wordPrefixIndex.findByPrefix(user.getId(), "fr", 10);
+
+        Assertions.assertThat(actual).
+                containsExactly(new PrefixIndex.Entry(from.getId(), "from"));
+    }
+
+    @Test
+    @DisplayName("""
+            findByPrefix(userId, prefix, limit):
+             prefix is empty
+             => return empty list
+            """)
+    public void findByPrefix4() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> wordService.save(word(user.getId(), "frog")));
+
+        List<PrefixIndex.Entry> actual = wordPrefixIndex.findByPrefix(user.getId(), "", 10);
+
+        Assertions.assertThat(actual).isEmpty();
+    }
+
+    @Test
+    @DisplayName("""
+            findByPrefix(userId, prefix, limit):
+             index of user was loaded,
+             then value of word was changed and other word was saved without changes
+             => return result by current words
+            """)
+    public void findByPrefix5() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word frog = commit(() -> wordService.save(word(user.getId(), "frog")));
+        Word from = commit(() -> wordService.save(word(user.getId(), "from")));
+        wordPrefixIndex.findByPrefix(user.getId(), "fr", 10);
+        commit(() -> wordService.save(frog.setValue("front")));
+        commit(() -> wordService.save(from));
+
+        List<PrefixIndex.Entry> actual = wordPrefixIndex.findByPrefix(user.getId(), "fr", 10);
+
+        Assertions.assertThat(actual).
+                containsExactly(
+                        new PrefixIndex.Entry(from.getId(), "from"),
+                        new PrefixIndex.Entry(frog.getId(), "front")
+                );
+    }
+
+
+    private User user(int number) {
+        return new User(new Credential("me" + number + "@mail.com", "password" + number)).
+                setOrGenerateSalt("salt" + number).
+                addRole("role1");
+    }
+
+    private Word word(UUID userId, String value) {
+        return new Word(userId, 1, 1, clock).setValue(value);
+    }
+
+    private void commit(Executable executable) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            executable.execute();
+            transactionManager.commit(status);
+        } catch(Throwable e) {
+            transactionManager.rollback(status);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private <T> T commit(Supplier<T> supplier) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            T result = supplier.get();
+            transactionManager.commit(status);
+            return result;
+        } catch(Throwable e) {
+            transactionManager.rollback(status);
+            throw new RuntimeException(e);
+        }
+    }
+
+}
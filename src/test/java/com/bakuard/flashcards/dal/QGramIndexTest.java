@@ -0,0 +1,186 @@
+package com.bakuard.flashcards.dal;
+
+import com.bakuard.flashcards.config.MutableClock;
+import com.bakuard.flashcards.config.SpringConfig;
+import com.bakuard.flashcards.config.TestConfig;
+import com.bakuard.flashcards.dal.migration.QGramsMigration;
+import com.bakuard.flashcards.model.auth.credential.Credential;
+import com.bakuard.flashcards.model.auth.credential.User;
+import com.bakuard.flashcards.model.expression.Expression;
+import org.assertj.core.api.Assertions;
+import org.flywaydb.core.api.configuration.Configuration;
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+@ExtendWith(SpringExtension.class)
+@TestPropertySource(locations = "classpath:test.properties")
+@Import({SpringConfig.class, TestConfig.class})
+class QGramIndexTest {
+
+    @Autowired
+    private ExpressionRepository expressionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private DataSourceTransactionManager transactionManager;
+    @Autowired
+    private MutableClock clock;
+
+    @BeforeEach
+    public void beforeEach() {
+        commit(() -> JdbcTestUtils.deleteFromTables(jdbcTemplate,
+                "expressions",
+                "words",
+                "intervals",
+                "users",
+                "repeat_words_statistic",
+                "repeat_expressions_statistic",
+                "word_outer_source",
+                "words_examples_outer_source"
+        ));
+        clock.setDate(2022, 7, 7);
+    }
+
+    @Test
+    @DisplayName("""
+            update(expression):
+             expression was saved,
+             then expression value was changed and expression was saved again
+             => q-grams correspond to the new value
+            """)
+    public void update1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Expression expression = commit(() -> expressionRepository.save(expression(user.getId(), "frog")));
+        commit(() -> expressionRepository.save(expression.setValue("distance")));
+
+        List<String> actual = jdbcTemplate.queryForList(
+                "select qgram from expressions_qgrams where expression_id = ?;", String.class, expression.getId());
+
+        Assertions.assertThat(actual).
+                containsExactlyInAnyOrder("##d1", "#di1", "dis1", "ist1", "sta1",
+                        "tan1", "anc1", "nce1", "ce#1", "e##1");
+    }
+
+    @Test
+    @DisplayName("""
+            update(expression):
+             expression was saved,
+             then expression was saved again without changing its value
+             => q-grams are not duplicated
+            """)
+    public void update2() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Expression expression = commit(() -> expressionRepository.save(expression(user.getId(), "frog")));
+        commit(() -> expressionRepository.save(expression.setNote("other note")));
+
+        List<String> actual = jdbcTemplate.queryForList(
+                "select qgram from expressions_qgrams where expression_id = ?;", String.class, expression.getId());
+
+        Assertions.assertThat(actual).
+                containsExactlyInAnyOrder("##f1", "#fr1", "fro1", "rog1", "og#1", "g##1");
+    }
+
+    @Test
+    @DisplayName("""
+            QGramsMigration.migrate(context):
+             there are expressions without q-grams
+             => add q-grams for them, findByValue uses them
+            """)
+    public void migrate1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Expression expression = commit(() -> expressionRepository.save(expression(user.getId(), "long distance")));
+        commit(() -> JdbcTestUtils.deleteFromTables(jdbcTemplate, "expressions_qgrams"));
+
+        commit(() -> new QGramsMigration().migrate(context(DataSourceUtils.getConnection(dataSource))));
+
+        Assertions.assertThat(expressionRepository.findByValue(user.getId(), "long distanse", 1, 10, 0)).
+                extracting(Expression::getId).
+                containsExactly(expression.getId());
+    }
+
+    @Test
+    @DisplayName("""
+            QGramsMigration.getChecksum():
+             => return same non null checksum for each instance
+            """)
+    public void getChecksum1() {
+        Integer actual = new QGramsMigration().getChecksum();
+
+        Assertions.assertThat(actual).isNotNull().isEqualTo(new QGramsMigration().getChecksum());
+    }
+
+
+    private User user(int number) {
+        return new User(new Credential("me" + number + "@mail.com", "password" + number)).
+                setOrGenerateSalt("salt" + number).
+                addRole("role1");
+    }
+
+    private Expression expression(UUID userId, String value) {
+        return new Expression(userId, 1, 1, clock).setValue(value).setNote("note");
+    }
+
+    private Context context(Connection connection) {
+        return new Context() {
+            @Override
+            public Configuration getConfiguration() {
+                return null;
+            }
+
+            @Override
+            public Connection getConnection() {
+                return connection;
+            }
+        };
+    }
+
+    private void commit(Executable executable) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            executable.execute();
+            transactionManager.commit(status);
+        } catch(Throwable e) {
+            transactionManager.rollback(status);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private <T> T commit(Supplier<T> supplier) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            T result = supplier.get();
+            transactionManager.commit(status);
+            return result;
+        } catch(Throwable e) {
+            transactionManager.rollback(status);
+            throw new RuntimeException(e);
+        }
+    }
+
+}
@@ -0,0 +1,214 @@
+package com.bakuard.flashcards.dal;
+
+import com.bakuard.flashcards.config.MutableClock;
+import com.bakuard.flashcards.config.SpringConfig;
+import com.bakuard.flashcards.config.TestConfig;
+import com.bakuard.flashcards.model.auth.credential.Credential;
+import com.bakuard.flashcards.model.auth.credential.User;
+import com.bakuard.flashcards.model.repetition.RepetitionCard;
+import com.bakuard.flashcards.model.repetition.RepetitionType;
+import com.bakuard.flashcards.model.word.Word;
+import com.bakuard.flashcards.model.word.WordTranslation;
+import com.google.common.collect.ImmutableList;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+@ExtendWith(SpringExtension.class)
+@TestPropertySource(locations = "classpath:test.properties")
+@Import({SpringConfig.class, TestConfig.class})
+class RepetitionCardRepositoryTest {
+
+    @Autowired
+    private RepetitionCardRepository repetitionCardRepository;
+    @Autowired
+    private WordRepository wordRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSourceTransactionManager transactionManager;
+    @Autowired
+    private MutableClock clock;
+
+    @BeforeEach
+    public void beforeEach() {
+        commit(() -> JdbcTestUtils.deleteFromTables(jdbcTemplate,
+                "expressions",
+                "words",
+                "intervals",
+                "users",
+                "repeat_words_statistic",
+                "repeat_expressions_statistic",
+                "word_outer_source",
+                "words_examples_outer_source"
+        ));
+        clock.setDate(2022, 7, 7);
+    }
+
+    @Test
+    @DisplayName("""
+            update(userId, type, card):
+             user has word with translations
+             => change only repeat data of given type, keep other word data
+            """)
+    public void update1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word word = commit(() -> wordRepository.save(
+                word(user.getId(), "valueA", 1).addTranslation(new WordTranslation("перевод", "note"))
+        ));
+        LocalDate date = LocalDate.of(2022, 7, 10);
+
+        boolean actual = commit(() -> repetitionCardRepository.update(user.getId(),
+                RepetitionType.WORDS_FROM_ENGLISH,
+                new RepetitionCard(word.getId(), null, 3, date, null)));
+
+        Word actualWord = wordRepository.findById(user.getId(), word.getId()).orElseThrow();
+        Assertions.assertThat(actual).isTrue();
+        Assertions.assertThat(actualWord.getRepeatDataFromEnglish().interval()).isEqualTo(3);
+        Assertions.assertThat(actualWord.getRepeatDataFromEnglish().lastDateOfRepeat()).isEqualTo(date);
+        Assertions.assertThat(actualWord.getRepeatDataFromNative()).isEqualTo(word.getRepeatDataFromNative());
+        Assertions.assertThat(actualWord.getTranslations()).
+                extracting(WordTranslation::getValue).
+                containsExactly("перевод");
+    }
+
+    @Test
+    @DisplayName("""
+            update(userId, type, card):
+             user doesn't have word with such id
+             => return false
+            """)
+    public void update2() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word word = commit(() -> wordRepository.save(word(user.getId(), "valueA", 1)));
+        User otherUser = commit(() -> userRepository.save(user(2)));
+
+        boolean actual = commit(() -> repetitionCardRepository.update(otherUser.getId(),
+                RepetitionType.WORDS_FROM_ENGLISH,
+                new RepetitionCard(word.getId(), null, 3, LocalDate.of(2022, 7, 10), null)));
+
+        Assertions.assertThat(actual).isFalse();
+    }
+
+    @Test
+    @DisplayName("""
+            findById(userId, type, id):
+             user has word
+             => return value and repeat data of given type
+            """)
+    public void findById1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word word = commit(() -> wordRepository.save(word(user.getId(), "valueA", 3)));
+
+        RepetitionCard actual = repetitionCardRepository.
+                findById(user.getId(), RepetitionType.WORDS_FROM_NATIVE, word.getId()).
+                orElseThrow();
+
+        Assertions.assertThat(actual).isEqualTo(
+                new RepetitionCard(word.getId(), "valueA", 3, LocalDate.of(2022, 7, 7), word.getVersion()));
+    }
+
+    @Test
+    @DisplayName("""
+            updateAll(userId, type, cards):
+             word was changed after its repeat data was read
+             => exception, keep changed word
+            """)
+    public void updateAll1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word word = commit(() -> wordRepository.save(word(user.getId(), "valueA", 1)));
+        RepetitionCard card = repetitionCardRepository.
+                findById(user.getId(), RepetitionType.WORDS_FROM_ENGLISH, word.getId()).
+                orElseThrow();
+        commit(() -> wordRepository.save(word.setNote("other note")));
+
+        Assertions.assertThatExceptionOfType(OptimisticLockingFailureException.class).
+                isThrownBy(() -> repetitionCardRepository.updateAll(user.getId(),
+                        RepetitionType.WORDS_FROM_ENGLISH,
+                        List.of(card.repeat(true, LocalDate.of(2022, 7, 10), ImmutableList.of(1, 3, 5)))));
+        Assertions.assertThat(wordRepository.findById(user.getId(), word.getId()).orElseThrow().
+                getRepeatDataFromEnglish().interval()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("""
+            updateAll(userId, type, cards):
+             repeat data of words wasn't changed after it was read
+             => change repeat data of all words
+            """)
+    public void updateAll2() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word wordA = commit(() -> wordRepository.save(word(user.getId(), "valueA", 1)));
+        Word wordB = commit(() -> wordRepository.save(word(user.getId(), "valueB", 3)));
+        LocalDate date = LocalDate.of(2022, 7, 10);
+        List<RepetitionCard> cards = repetitionCardRepository.
+                findAllById(user.getId(), RepetitionType.WORDS_FROM_NATIVE, List.of(wordA.getId(), wordB.getId())).
+                stream().
+                map(card -> card.repeat(true, date, ImmutableList.of(1, 3, 5))).
+                toList();
+
+        commit(() -> repetitionCardRepository.updateAll(user.getId(), RepetitionType.WORDS_FROM_NATIVE, cards));
+
+        Assertions.assertThat(wordRepository.findById(user.getId(), wordA.getId()).orElseThrow().
+                getRepeatDataFromNative().interval()).isEqualTo(3);
+        Assertions.assertThat(wordRepository.findById(user.getId(), wordB.getId()).orElseThrow().
+                getRepeatDataFromNative().interval()).isEqualTo(5);
+    }
+
+
+    private User user(int number) {
+        return new User(new Credential("me" + number + "@mail.com", "password" + number)).
+                setOrGenerateSalt("salt" + number).
+                addRole("role1");
+    }
+
+    private Word word(UUID userId, String value, int interval) {
+        return new Word(userId, interval, interval, clock).setValue(value).setNote("note");
+    }
+
+    private void commit(Executable executable) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            executable.execute();
+            transactionManager.commit(status);
+        } catch(Throwable e) {
+            transactionManager.rollback(status);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private <T> T commit(Supplier<T> supplier) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            T result = supplier.get();
+            transactionManager.commit(status);
+            return result;
+        } catch(Throwable e) {
+            transactionManager.rollback(status);
+            throw new RuntimeException(e);
+        }
+    }
+
+}
@@ -0,0 +1,231 @@
+package com.bakuard.flashcards.dal;
+
+import com.bakuard.flashcards.config.MutableClock;
+import com.bakuard.flashcards.config.SpringConfig;
+import com.bakuard.flashcards.config.TestConfig;
+import com.bakuard.flashcards.model.auth.credential.Credential;
+import com.bakuard.flashcards.model.auth.credential.User;
+import com.bakuard.flashcards.model.repetition.RepetitionBatch;
+import com.bakuard.flashcards.model.repetition.RepetitionSession;
+import com.bakuard.flashcards.model.repetition.RepetitionType;
+import com.bakuard.flashcards.model.word.Word;
+import com.bakuard.flashcards.validation.exception.UnknownEntityException;
+import com.google.common.collect.ImmutableList;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+@ExtendWith(SpringExtension.class)
+@TestPropertySource(locations = "classpath:test.properties")
+@Import({SpringConfig.class, TestConfig.class})
+class RepetitionSessionRepositoryTest {
+
+    @Autowired
+    private RepetitionSessionRepository repetitionSessionRepository;
+    @Autowired
+    private WordRepository wordRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSourceTransactionManager transactionManager;
+    @Autowired
+    private MutableClock clock;
+
+    @BeforeEach
+    public void beforeEach() {
+        commit(() -> JdbcTestUtils.deleteFromTables(jdbcTemplate,
+                "expressions",
+                "words",
+                "intervals",
+                "users",
+                "repeat_words_statistic",
+                "repeat_expressions_statistic",
+                "word_outer_source",
+                "words_examples_outer_source"
+        ));
+        clock.setDate(2022, 7, 7);
+    }
+
+    @Test
+    @DisplayName("""
+            open(userId, type, date):
+             user hasn't exists
+             => exception
+            """)
+    public void open1() {
+        Assertions.assertThatExceptionOfType(UnknownEntityException.class).
+                isThrownBy(() -> repetitionSessionRepository.open(
+                        toUUID(1), RepetitionType.WORDS_FROM_ENGLISH, LocalDate.now(clock))).
+                extracting(UnknownEntityException::getMessageKey).
+                isEqualTo("User.unknownId");
+    }
+
+    @Test
+    @DisplayName("""
+            open(userId, type, date):
+             user has words available and not available for repetition at date
+             => session contains only words available for repetition,
+                position is zero
+            """)
+    public void open2() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> {
+            wordRepository.save(word(user.getId(), "valueA", 1));
+            wordRepository.save(word(user.getId(), "valueB", 10));
+            wordRepository.save(word(user.getId(), "valueC", 1));
+        });
+
+        RepetitionSession actual = commit(() -> repetitionSessionRepository.open(
+                user.getId(), RepetitionType.WORDS_FROM_ENGLISH, LocalDate.now(clock).plusDays(1)));
+
+        Assertions.assertThat(actual.total()).isEqualTo(2);
+        Assertions.assertThat(actual.position()).isZero();
+        Assertions.assertThat(repetitionSessionRepository.findById(user.getId(), actual.id())).
+                contains(actual);
+    }
+
+    @Test
+    @DisplayName("""
+            open(userId, type, date):
+             user already has session with same type
+             => previous session is reopened with same id,
+                its position and queue are replaced,
+                session with other type isn't changed
+            """)
+    public void open3() {
+        User user = commit(() -> userRepository.save(user(1)));
+        LocalDate date = LocalDate.now(clock).plusDays(1);
+        commit(() -> wordRepository.save(word(user.getId(), "valueA", 1)));
+        RepetitionSession first = commit(() -> repetitionSessionRepository.open(
+                user.getId(), RepetitionType.WORDS_FROM_ENGLISH, date));
+        RepetitionSession other = commit(() -> repetitionSessionRepository.open(
+                user.getId(), RepetitionType.WORDS_FROM_NATIVE, date));
+        commit(() -> repetitionSessionRepository.next(user.getId(), first.id(), RepetitionType.WORDS_FROM_ENGLISH, 1));
+        commit(() -> wordRepository.save(word(user.getId(), "valueB", 1)));
+
+        RepetitionSession actual = commit(() -> repetitionSessionRepository.open(
+                user.getId(), RepetitionType.WORDS_FROM_ENGLISH, date));
+
+        Assertions.assertThat(actual.id()).isEqualTo(first.id());
+        Assertions.assertThat(repetitionSessionRepository.findById(user.getId(), first.id())).
+                contains(new RepetitionSession(first.id(), user.getId(), RepetitionType.WORDS_FROM_ENGLISH, date, 0, 2));
+        Assertions.assertThat(JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "repetition_sessions_cards",
+                "session_id = '" + first.id() + "'")).
+                isEqualTo(2);
+        Assertions.assertThat(repetitionSessionRepository.findById(user.getId(), other.id())).contains(other);
+    }
+
+    @Test
+    @DisplayName("""
+            next(userId, sessionId, type, limit):
+             words are repeated between calls
+             => return words in order of their values without gaps and repeats,
+                return empty list after queue was exhausted
+            """)
+    public void next1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word wordA = word(user.getId(), "valueA", 1);
+        Word wordB = word(user.getId(), "valueB", 1);
+        Word wordC = word(user.getId(), "valueC", 1);
+        commit(() -> {
+            wordRepository.save(wordC);
+            wordRepository.save(wordA);
+            wordRepository.save(wordB);
+        });
+        LocalDate date = LocalDate.now(clock).plusDays(1);
+        RepetitionSession session = commit(() -> repetitionSessionRepository.open(
+                user.getId(), RepetitionType.WORDS_FROM_ENGLISH, date));
+
+        RepetitionBatch<UUID> first = commit(() -> repetitionSessionRepository.next(
+                user.getId(), session.id(), RepetitionType.WORDS_FROM_ENGLISH, 2));
+        wordA.repeatFromEnglish(true, date, ImmutableList.of(1, 3));
+        commit(() -> wordRepository.save(wordA));
+        RepetitionBatch<UUID> second = commit(() -> repetitionSessionRepository.next(
+                user.getId(), session.id(), RepetitionType.WORDS_FROM_ENGLISH, 2));
+        RepetitionBatch<UUID> third = commit(() -> repetitionSessionRepository.next(
+                user.getId(), session.id(), RepetitionType.WORDS_FROM_ENGLISH, 2));
+
+        Assertions.assertThat(first.cards()).containsExactly(wordA.getId(), wordB.getId());
+        Assertions.assertThat(first.session().remaining()).isEqualTo(1);
+        Assertions.assertThat(second.cards()).containsExactly(wordC.getId());
+        Assertions.assertThat(second.session().remaining()).isZero();
+        Assertions.assertThat(third.cards()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("""
+            next(userId, sessionId, type, limit):
+             session has other type
+             => exception
+            """)
+    public void next2() {
+        User user = commit(() -> userRepository.save(user(1)));
+        RepetitionSession session = commit(() -> repetitionSessionRepository.open(
+                user.getId(), RepetitionType.WORDS_FROM_ENGLISH, LocalDate.now(clock)));
+
+        Assertions.assertThatExceptionOfType(UnknownEntityException.class).
+                isThrownBy(() -> repetitionSessionRepository.next(
+                        user.getId(), session.id(), RepetitionType.WORDS_FROM_NATIVE, 10)).
+                extracting(UnknownEntityException::getMessageKey).
+                isEqualTo("RepetitionSession.unknownIdOrUserId");
+    }
+
+
+    private User user(int number) {
+        return new User(new Credential("me" + number + "@mail.com", "password" + number)).
+                setOrGenerateSalt("salt" + number).
+                addRole("role1");
+    }
+
+    private Word word(UUID userId, String value, int interval) {
+        return new Word(userId, interval, interval, clock).setValue(value);
+    }
+
+    private UUID toUUID(int number) {
+        return UUID.fromString("00000000-0000-0000-0000-" + String.format("%012d", number));
+    }
+
+    private void commit(Executable executable) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            executable.execute();
+            transactionManager.commit(status);
+        } catch(Throwable e) {
+            transactionManager.rollback(status);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private <T> T commit(Supplier<T> supplier) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            T result = supplier.get();
+            transactionManager.commit(status);
+            return result;
+        } catch(Throwable e) {
+            transactionManager.rollback(status);
+            throw new RuntimeException(e);
+        }
+    }
+
+}
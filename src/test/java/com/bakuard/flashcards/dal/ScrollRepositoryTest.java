@@ -0,0 +1,221 @@
+package com.bakuard.flashcards.dal;
+
+import com.bakuard.flashcards.config.MutableClock;
+import com.bakuard.flashcards.config.SpringConfig;
+import com.bakuard.flashcards.config.TestConfig;
+import com.bakuard.flashcards.model.auth.credential.Credential;
+import com.bakuard.flashcards.model.auth.credential.User;
+import com.bakuard.flashcards.model.word.Word;
+import com.bakuard.flashcards.model.word.WordTranslation;
+import com.bakuard.flashcards.validation.exception.InvalidParameter;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+@ExtendWith(SpringExtension.class)
+@TestPropertySource(locations = "classpath:test.properties")
+@Import({SpringConfig.class, TestConfig.class})
+class ScrollRepositoryTest {
+
+    @Autowired
+    private ScrollRepository scrollRepository;
+    @Autowired
+    private WordRepository wordRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSourceTransactionManager transactionManager;
+    @Autowired
+    private MutableClock clock;
+
+    @BeforeEach
+    public void beforeEach() {
+        commit(() -> JdbcTestUtils.deleteFromTables(jdbcTemplate,
+                "expressions",
+                "words",
+                "intervals",
+                "users",
+                "repeat_words_statistic",
+                "repeat_expressions_statistic",
+                "word_outer_source",
+                "words_examples_outer_source"
+        ));
+        clock.setDate(2022, 7, 7);
+    }
+
+    @Test
+    @DisplayName("""
+            scrollWords(userId, sort, position, limit):
+             sort by value asc,
+             several words have the same repeat interval
+             => return all words of user exactly once in sort order
+            """)
+    public void scrollWords1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        User otherUser = commit(() -> userRepository.save(user(2)));
+        List<Word> words = commit(() -> List.of(
+                wordRepository.save(word(user.getId(), "wordA", 1)),
+                wordRepository.save(word(user.getId(), "wordB", 1)),
+                wordRepository.save(word(user.getId(), "wordC", 3)),
+                wordRepository.save(word(user.getId(), "wordD", 3)),
+                wordRepository.save(word(user.getId(), "wordE", 3))
+        ));
+        commit(() -> wordRepository.save(word(otherUser.getId(), "wordA", 1)));
+
+        List<UUID> actual = scrollAll(user.getId(), Sort.by("value"), 2);
+
+        Assertions.assertThat(actual).
+                containsExactlyElementsOf(words.stream().map(Word::getId).toList());
+    }
+
+    @Test
+    @DisplayName("""
+            scrollWords(userId, sort, position, limit):
+             sort by repeat interval desc,
+             several words have the same repeat interval
+             => return all words exactly once, words with the same interval ordered by id
+            """)
+    public void scrollWords2() {
+        User user = commit(() -> userRepository.save(user(1)));
+        List<Word> words = commit(() -> List.of(
+                wordRepository.save(word(user.getId(), "wordA", 1)),
+                wordRepository.save(word(user.getId(), "wordB", 1)),
+                wordRepository.save(word(user.getId(), "wordC", 3)),
+                wordRepository.save(word(user.getId(), "wordD", 3)),
+                wordRepository.save(word(user.getId(), "wordE", 3))
+        ));
+
+        List<UUID> actual = scrollAll(user.getId(), Sort.by(Sort.Direction.DESC, "repeat_interval_from_english"), 2);
+
+        Assertions.assertThat(actual).
+                containsExactlyElementsOf(
+                        List.of(
+                                sortedIds(words.subList(2, 5)),
+                                sortedIds(words.subList(0, 2))
+                        ).stream().flatMap(List::stream).toList()
+                );
+    }
+
+    @Test
+    @DisplayName("""
+            scrollWordsByTranslate(userId, translate, position, limit):
+             several words have the translate
+             => return only these words sorted by value
+            """)
+    public void scrollWordsByTranslate1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word wordA = word(user.getId(), "wordA", 1).addTranslation(new WordTranslation("translateX", "note"));
+        Word wordC = word(user.getId(), "wordC", 1).addTranslation(new WordTranslation("translateX", "note"));
+        Word wordD = word(user.getId(), "wordD", 1).addTranslation(new WordTranslation("translateX", "note"));
+        commit(() -> {
+            wordRepository.save(wordD);
+            wordRepository.save(word(user.getId(), "wordB", 1));
+            wordRepository.save(wordC);
+            wordRepository.save(wordA);
+        });
+
+        Window<UUID> first = scrollRepository.scrollWordsByTranslate(
+                user.getId(), "translateX", ScrollPosition.keyset(), 2);
+        Window<UUID> second = scrollRepository.scrollWordsByTranslate(
+                user.getId(), "translateX", (KeysetScrollPosition) first.positionAt(1), 2);
+
+        Assertions.assertThat(first.getContent()).containsExactly(wordA.getId(), wordC.getId());
+        Assertions.assertThat(first.hasNext()).isTrue();
+        Assertions.assertThat(second.getContent()).containsExactly(wordD.getId());
+        Assertions.assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("""
+            scrollWords(userId, sort, position, limit):
+             position doesn't match sort
+             => exception
+            """)
+    public void scrollWords3() {
+        User user = commit(() -> userRepository.save(user(1)));
+        KeysetScrollPosition position = ScrollPosition.forward(Map.of("value", "wordA", "id", "not uuid"));
+
+        Assertions.assertThatExceptionOfType(InvalidParameter.class).
+                isThrownBy(() -> scrollRepository.scrollWords(user.getId(), Sort.by("value"), position, 2)).
+                extracting(InvalidParameter::getMessageKey).
+                isEqualTo("Cursor.invalid");
+    }
+
+
+    private List<UUID> scrollAll(UUID userId, Sort sort, int limit) {
+        List<UUID> result = new ArrayList<>();
+        KeysetScrollPosition position = ScrollPosition.keyset();
+        Window<UUID> window;
+        do {
+            window = scrollRepository.scrollWords(userId, sort, position, limit);
+            result.addAll(window.getContent());
+            if(!window.isEmpty()) position = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+        } while(window.hasNext());
+        return result;
+    }
+
+    private List<UUID> sortedIds(List<Word> words) {
+        return words.stream().map(Word::getId).sorted(Comparator.comparing(UUID::toString)).toList();
+    }
+
+    private User user(int number) {
+        return new User(new Credential("me" + number + "@mail.com", "password" + number)).
+                setOrGenerateSalt("salt" + number).
+                addRole("role1");
+    }
+
+    private Word word(UUID userId, String value, int repeatInterval) {
+        return new Word(userId, repeatInterval, 1, clock).setValue(value).setNote("note");
+    }
+
+    private void commit(Executable executable) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            executable.execute();
+            transactionManager.commit(status);
+        } catch(Throwable e) {
+            transactionManager.rollback(status);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private <T> T commit(Supplier<T> supplier) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            T result = supplier.get();
+            transactionManager.commit(status);
+            return result;
+        } catch(Throwable e) {
+            transactionManager.rollback(status);
+            throw new RuntimeException(e);
+        }
+    }
+
+}
@@ -8,10 +8,11 @@ import com.bakuard.flashcards.model.auth.credential.User;
 import com.bakuard.flashcards.model.expression.Expression;
 import com.bakuard.flashcards.model.filter.SortRules;
 import com.bakuard.flashcards.model.filter.SortedEntity;
+import com.bakuard.flashcards.model.repetition.RepetitionOutcome;
+import com.bakuard.flashcards.model.repetition.RepetitionType;
 import com.bakuard.flashcards.model.statistic.*;
 import com.bakuard.flashcards.model.word.Word;
 import com.bakuard.flashcards.validation.exception.InvalidParameter;
-import com.bakuard.flashcards.validation.exception.NotUniqueEntityException;
 import com.bakuard.flashcards.validation.exception.UnknownEntityException;
 import com.bakuard.flashcards.validation.ValidatorUtil;
 import org.assertj.core.api.Assertions;
@@ -37,6 +38,8 @@ import org.springframework.transaction.support.DefaultTransactionDefinition;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.function.Supplier;
@@ -123,8 +126,8 @@ class StatisticRepositoryTest {
     @Test
     @DisplayName("""
             append(RepeatWordFromEnglishStatistic statistic):
-             this statistic already exists in DB
-             => exception
+             statistic for the same day already exists in DB
+             => increment counters of existing statistic
             """)
     public void appendWordFromEnglish4() {
         User user = commit(() -> userRepository.save(user(1)));
@@ -132,8 +135,13 @@ class StatisticRepositoryTest {
         RepeatWordFromEnglishStatistic statistic = wordFromEnglish(user.getId(), word.getId(), 1, true);
         commit(() -> statisticRepository.append(statistic));
 
-        Assertions.assertThatExceptionOfType(NotUniqueEntityException.class).
-                isThrownBy(() -> commit(() -> statisticRepository.append(statistic)));
+        commit(() -> statisticRepository.append(
+                wordFromEnglish(statistic.userId(), statistic.wordId(), 1, false)));
+
+        Assertions.assertThat(jdbcTemplate.queryForList(
+                "select remember_count, not_remember_count from repeat_words_statistic where word_id = ? and direction = 'ENGLISH';",
+                statistic.wordId())).
+                containsExactly(Map.of("remember_count", 1, "not_remember_count", 1));
     }
 
     @Test
@@ -181,8 +189,8 @@ class StatisticRepositoryTest {
     @Test
     @DisplayName("""
             append(RepeatWordFromNativeStatistic statistic):
-             this statistic already exists in DB
-             => exception
+             statistic for the same day already exists in DB
+             => increment counters of existing statistic
             """)
     public void appendWordFromNative4() {
         User user = commit(() -> userRepository.save(user(1)));
@@ -190,8 +198,13 @@ class StatisticRepositoryTest {
         RepeatWordFromNativeStatistic statistic = wordFromNative(user.getId(), word.getId(), 1, true);
         commit(() -> statisticRepository.append(statistic));
 
-        Assertions.assertThatExceptionOfType(NotUniqueEntityException.class).
-                isThrownBy(() -> commit(() -> statisticRepository.append(statistic)));
+        commit(() -> statisticRepository.append(
+                wordFromNative(statistic.userId(), statistic.wordId(), 1, false)));
+
+        Assertions.assertThat(jdbcTemplate.queryForList(
+                "select remember_count, not_remember_count from repeat_words_statistic where word_id = ? and direction = 'NATIVE';",
+                statistic.wordId())).
+                containsExactly(Map.of("remember_count", 1, "not_remember_count", 1));
     }
 
     @Test
@@ -239,8 +252,8 @@ class StatisticRepositoryTest {
     @Test
     @DisplayName("""
             append(RepeatExpressionFromEnglishStatistic statistic):
-             this statistic already exists in DB
-             => exception
+             statistic for the same day already exists in DB
+             => increment counters of existing statistic
             """)
     public void appendExpressionFromEnglish4() {
         User user = commit(() -> userRepository.save(user(1)));
@@ -248,8 +261,13 @@ class StatisticRepositoryTest {
         RepeatExpressionFromEnglishStatistic statistic = expressionFromEnglish(user.getId(), expression.getId(), 1, true);
         commit(() -> statisticRepository.append(statistic));
 
-        Assertions.assertThatExceptionOfType(NotUniqueEntityException.class).
-                isThrownBy(() -> commit(() -> statisticRepository.append(statistic)));
+        commit(() -> statisticRepository.append(
+                expressionFromEnglish(statistic.userId(), statistic.expressionId(), 1, false)));
+
+        Assertions.assertThat(jdbcTemplate.queryForList(
+                "select remember_count, not_remember_count from repeat_expressions_statistic where expression_id = ? and direction = 'ENGLISH';",
+                statistic.expressionId())).
+                containsExactly(Map.of("remember_count", 1, "not_remember_count", 1));
     }
 
     @Test
@@ -297,8 +315,8 @@ class StatisticRepositoryTest {
     @Test
     @DisplayName("""
             append(RepeatExpressionFromNativeStatistic statistic):
-             this statistic already exists in DB
-             => exception
+             statistic for the same day already exists in DB
+             => increment counters of existing statistic
             """)
     public void appendExpressionFromNative4() {
         User user = commit(() -> userRepository.save(user(1)));
@@ -306,8 +324,13 @@ class StatisticRepositoryTest {
         RepeatExpressionFromNativeStatistic statistic = expressionFromNative(user.getId(), expression.getId(), 1, true);
         commit(() -> statisticRepository.append(statistic));
 
-        Assertions.assertThatExceptionOfType(NotUniqueEntityException.class).
-                isThrownBy(() -> commit(() -> statisticRepository.append(statistic)));
+        commit(() -> statisticRepository.append(
+                expressionFromNative(statistic.userId(), statistic.expressionId(), 1, false)));
+
+        Assertions.assertThat(jdbcTemplate.queryForList(
+                "select remember_count, not_remember_count from repeat_expressions_statistic where expression_id = ? and direction = 'NATIVE';",
+                statistic.expressionId())).
+                containsExactly(Map.of("remember_count", 1, "not_remember_count", 1));
     }
 
     @Test
@@ -715,6 +738,43 @@ class StatisticRepositoryTest {
         Assertions.assertThat(actual).isEmpty();
     }
 
+    @Test
+    @DisplayName("""
+            wordRepetitionByPeriod(userId, wordId, start, end):
+             statistic was appended by appendAll(userId, type, date, outcomes) for both directions
+             => return result that takes into account all appended outcomes
+            """)
+    public void wordRepetitionByPeriod13() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word word = commit(() -> wordRepository.save(word(user.getId(), "valueA", "noteA", 1)));
+        commit(() -> {
+            statisticRepository.appendAll(user.getId(), RepetitionType.WORDS_FROM_ENGLISH, periodStart(0),
+                    List.of(new RepetitionOutcome(word.getId(), RepetitionOutcome.Status.REPEATED, true, 3, periodStart(0))));
+            statisticRepository.appendAll(user.getId(), RepetitionType.WORDS_FROM_NATIVE, periodStart(0),
+                    List.of(new RepetitionOutcome(word.getId(), RepetitionOutcome.Status.REPEATED, false, 1, periodStart(0))));
+            statisticRepository.appendAll(user.getId(), RepetitionType.WORDS_FROM_ENGLISH, periodStart(1),
+                    List.of(new RepetitionOutcome(word.getId(), RepetitionOutcome.Status.REPEATED, false, 1, periodStart(1))));
+        });
+
+        Optional<WordRepetitionByPeriodStatistic> actual = statisticRepository.wordRepetitionByPeriod(
+                user.getId(), word.getId(), periodStart(0), periodEnd(1)
+        );
+
+        Assertions.assertThat(actual).
+                isPresent().
+                get().
+                usingRecursiveComparison().
+                isEqualTo(new WordRepetitionByPeriodStatistic(
+                        user.getId(),
+                        word.getId(),
+                        "valueA",
+                        1,
+                        1,
+                        0,
+                        1
+                ));
+    }
+
     @Test
     @DisplayName("""
             expressionRepetitionByPeriod(userId, expressionId, start, end):
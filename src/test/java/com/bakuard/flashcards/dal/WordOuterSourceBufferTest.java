@@ -62,10 +62,8 @@ class WordOuterSourceBufferTest {
                 "words",
                 "intervals",
                 "users",
-                "repeat_words_from_english_statistic",
-                "repeat_words_from_native_statistic",
-                "repeat_expressions_from_english_statistic",
-                "repeat_expressions_from_native_statistic",
+                "repeat_words_statistic",
+                "repeat_expressions_statistic",
                 "word_outer_source",
                 "words_examples_outer_source"
         ));
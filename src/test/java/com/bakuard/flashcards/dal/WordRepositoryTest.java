@@ -58,10 +58,8 @@ class WordRepositoryTest {
                 "words",
                 "intervals",
                 "users",
-                "repeat_words_from_english_statistic",
-                "repeat_words_from_native_statistic",
-                "repeat_expressions_from_english_statistic",
-                "repeat_expressions_from_native_statistic",
+                "repeat_words_statistic",
+                "repeat_expressions_statistic",
                 "word_outer_source",
                 "words_examples_outer_source"
         ));
@@ -104,142 +102,6 @@ class WordRepositoryTest {
                 isEqualTo(expected);
     }
 
-    @Test
-    @DisplayName("""
-            countForValue(userId, value, maxDistance):
-             user with userId hasn't any words
-             => return 0
-            """)
-    public void countForValue1() {
-        User user = commit(() -> userRepository.save(user(1)));
-
-        long actual = wordRepository.countForValue(user.getId(), "value", 2);
-
-        Assertions.assertThat(actual).isZero();
-    }
-
-    @Test
-    @DisplayName("""
-            countForValue(userId, value, maxDistance):
-             user has some words,
-             there are not words with maxDistance <= 2
-             => return 0
-            """)
-    public void countForValue2() {
-        User user = commit(() -> {
-            User temp = userRepository.save(user(1));
-            wordRepository.save(word(temp.getId(), "value", "note", 1));
-            wordRepository.save(word(temp.getId(), "cock", "note", 3));
-            wordRepository.save(word(temp.getId(), "rise", "note", 5));
-            wordRepository.save(word(temp.getId(), "value1234", "note", 10));
-            return temp;
-        });
-
-        long actual = wordRepository.countForValue(user.getId(), "cockroach", 2);
-
-        Assertions.assertThat(actual).isZero();
-    }
-
-    @Test
-    @DisplayName("""
-            countForValue(userId, value, maxDistance):
-             user has some words,
-             there are words with maxDistance <= 2
-             => return correct result
-            """)
-    public void countForValue3() {
-        User user = commit(() -> {
-            User temp = userRepository.save(user(1));
-            wordRepository.save(word(temp.getId(), "frog", "note", 1));
-            wordRepository.save(word(temp.getId(), "frog1", "note", 3));
-            wordRepository.save(word(temp.getId(), "broom", "note", 5));
-            wordRepository.save(word(temp.getId(), "distance", "note", 10));
-            return temp;
-        });
-
-        long actual = wordRepository.countForValue(user.getId(), "frog", 2);
-
-        Assertions.assertThat(actual).isEqualTo(2);
-    }
-
-    @Test
-    @DisplayName("""
-            findByValue(userId, value, maxDistance, limit, offset):
-             user with userId hasn't any words
-             return empty list
-            """)
-    public void findByValue1() {
-        User user = commit(() -> userRepository.save(user(1)));
-
-        List<Word> actual = wordRepository.findByValue(
-                user.getId(),
-                "cockroach",
-                2,
-                10,
-                0
-        );
-
-        Assertions.assertThat(actual).isEmpty();
-    }
-
-    @Test
-    @DisplayName("""
-            findByValue(userId, value, maxDistance, limit, offset):
-             user has some words,
-             there are not words with maxDistance <= 2
-             return empty list
-            """)
-    public void findByValue2() {
-        User user = commit(() -> {
-            User temp = userRepository.save(user(1));
-            wordRepository.save(word(temp.getId(), "value", "note", 1));
-            wordRepository.save(word(temp.getId(), "cock", "note", 3));
-            wordRepository.save(word(temp.getId(), "rise", "note", 5));
-            wordRepository.save(word(temp.getId(), "value1234", "note", 10));
-            return temp;
-        });
-
-        List<Word> actual = wordRepository.findByValue(
-                user.getId(),
-                "cockroach",
-                2,
-                10,
-                0
-        );
-
-        Assertions.assertThat(actual).isEmpty();
-    }
-
-    @Test
-    @DisplayName("""
-            findByValue(userId, value, maxDistance, limit, offset):
-             user has some words,
-             there are words with maxDistance <= 2
-             => return correct result
-            """)
-    public void findByValue3() {
-        User user = commit(() -> userRepository.save(user(1)));
-        List<Word> words = List.of(
-                word(user.getId(), "frog", "note", 1),
-                word(user.getId(), "frog1", "note", 3),
-                word(user.getId(), "broom", "note", 5),
-                word(user.getId(), "distance", "note", 10)
-        );
-        commit(() -> words.forEach(word -> wordRepository.save(word)));
-
-        List<Word> actual = wordRepository.findByValue(
-                user.getId(),
-                "frog",
-                2,
-                10,
-                0
-        );
-
-        Assertions.assertThat(actual).
-                usingRecursiveFieldByFieldElementComparator().
-                containsExactly(words.get(0), words.get(1));
-    }
-
     @Test
     @DisplayName("""
             deleteById(userId, wordId):
@@ -872,6 +734,38 @@ class WordRepositoryTest {
                 containsExactly(wordD, wordE, wordF);
     }
 
+    @Test
+    @DisplayName("""
+            findByTranslate(userId, translate, limit, offset):
+             translates of words differ from translate in case, surrounding spaces and 'ё'/'е',
+             one word has several such translates
+             => return each of these words once
+            """)
+    public void findByTranslate4() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word wordA = new Word(user.getId(), 1, 1, clock).
+                setValue("wordA").
+                setNote("noteA").
+                addTranslation(new WordTranslation("Ёжик", "noteX")).
+                addTranslation(new WordTranslation("ежик ", "noteX"));
+        Word wordB = new Word(user.getId(), 1, 1, clock).
+                setValue("wordB").
+                setNote("noteB").
+                addTranslation(new WordTranslation("ЕЖИК", "noteX"));
+        commit(() -> {
+            wordRepository.save(wordB);
+            wordRepository.save(wordA);
+            wordRepository.save(word(user.getId(), "wordC", "noteC", 10));
+        });
+
+        List<Word> actual = wordRepository.findByTranslate(user.getId(), " ёжик", 10, 0);
+
+        Assertions.assertThat(actual).
+                usingRecursiveFieldByFieldElementComparator().
+                containsExactly(wordA, wordB);
+        Assertions.assertThat(wordRepository.countForTranslate(user.getId(), " ёжик")).isEqualTo(2);
+    }
+
     @Test
     @DisplayName("""
             getWordIndexByFirstCharacter(userId, firstCharacter):
@@ -957,6 +851,117 @@ class WordRepositoryTest {
         Assertions.assertThat(actual).isEqualTo(12);
     }
 
+    @Test
+    @DisplayName("""
+            getWordIndexByFirstCharacter(userId, firstCharacter):
+             words were renamed and deleted after saving
+             => return index calculated by current words
+            """)
+    public void getWordIndexByFirstCharacter4() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word wordA = word(user.getId(), "A word", null, 1);
+        Word wordB = word(user.getId(), "B word", null, 1);
+        commit(() -> {
+            wordRepository.save(wordA);
+            wordRepository.save(wordB);
+            wordRepository.save(word(user.getId(), "C word", null, 1));
+            wordRepository.save(word(user.getId(), "M word", null, 1));
+        });
+        commit(() -> {
+            wordRepository.save(wordA.setValue("Z word"));
+            wordRepository.save(wordB.setValue("b word2"));
+            wordRepository.deleteById(user.getId(), wordA.getId());
+        });
+
+        long actual = wordRepository.getWordIndexByFirstCharacter(user.getId(), "m");
+
+        Assertions.assertThat(actual).isEqualTo(2);
+        Assertions.assertThat(wordRepository.getWordIndexByFirstCharacter(user.getId(), "a")).isEqualTo(-1);
+        Assertions.assertThat(wordRepository.count(user.getId())).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("""
+            findAroundValue(userId, value, before, after):
+             user has words before and after value
+             => return before words less than value and after words not less than value in lexicographic order
+            """)
+    public void findAroundValue1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        List<Word> words = commit(() -> List.of(
+                wordRepository.save(word(user.getId(), "A word", null, 1)),
+                wordRepository.save(word(user.getId(), "b word", null, 1)),
+                wordRepository.save(word(user.getId(), "C word", null, 1)),
+                wordRepository.save(word(user.getId(), "m word", null, 1)),
+                wordRepository.save(word(user.getId(), "M word2", null, 1)),
+                wordRepository.save(word(user.getId(), "Z word", null, 1))
+        ));
+
+        List<Word> actual = wordRepository.findAroundValue(user.getId(), "M", 2, 3);
+
+        Assertions.assertThat(actual).
+                extracting(Word::getId).
+                containsExactly(words.get(1).getId(), words.get(2).getId(), words.get(3).getId(),
+                        words.get(4).getId(), words.get(5).getId());
+    }
+
+    @Test
+    @DisplayName("""
+            findByPhonetic(userId, value, limit, offset):
+             user has words that sound like value and other words
+             => return only words that sound like value in lexicographic order
+            """)
+    public void findByPhonetic1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        User otherUser = commit(() -> userRepository.save(user(2)));
+        List<Word> words = commit(() -> List.of(
+                wordRepository.save(word(user.getId(), "knight", "note", 1)),
+                wordRepository.save(word(user.getId(), "night", "note", 1)),
+                wordRepository.save(word(user.getId(), "frog", "note", 1))
+        ));
+        commit(() -> wordRepository.save(word(otherUser.getId(), "night", "note", 1)));
+
+        List<Word> actual = wordRepository.findByPhonetic(user.getId(), "nite", 10, 0);
+
+        Assertions.assertThat(actual).
+                extracting(Word::getId).
+                containsExactly(words.get(0).getId(), words.get(1).getId());
+        Assertions.assertThat(wordRepository.countForPhonetic(user.getId(), "nite")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("""
+            findByPhonetic(userId, value, limit, offset):
+             only alternate phonetic key of value matches primary key of word
+             => return this word
+            """)
+    public void findByPhonetic2() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word word = commit(() -> wordRepository.save(word(user.getId(), "Schmidt", "note", 1)));
+
+        List<Word> actual = wordRepository.findByPhonetic(user.getId(), "Smith", 10, 0);
+
+        Assertions.assertThat(actual).
+                extracting(Word::getId).
+                containsExactly(word.getId());
+    }
+
+    @Test
+    @DisplayName("""
+            findByPhonetic(userId, value, limit, offset):
+             value doesn't contain latin letters
+             => return empty list
+            """)
+    public void findByPhonetic3() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> wordRepository.save(word(user.getId(), "night", "note", 1)));
+
+        List<Word> actual = wordRepository.findByPhonetic(user.getId(), "ночь", 10, 0);
+
+        Assertions.assertThat(actual).isEmpty();
+        Assertions.assertThat(wordRepository.countForPhonetic(user.getId(), "ночь")).isZero();
+    }
+
 
     private UUID toUUID(int number) {
         return UUID.fromString("00000000-0000-0000-0000-" + String.format("%012d", number));
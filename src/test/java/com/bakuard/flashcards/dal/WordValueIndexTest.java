@@ -0,0 +1,177 @@
+package com.bakuard.flashcards.dal;
+
+import com.bakuard.flashcards.config.MutableClock;
+import com.bakuard.flashcards.config.SpringConfig;
+import com.bakuard.flashcards.config.TestConfig;
+import com.bakuard.flashcards.model.auth.credential.Credential;
+import com.bakuard.flashcards.model.auth.credential.User;
+import com.bakuard.flashcards.model.word.Word;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+@ExtendWith(SpringExtension.class)
+@TestPropertySource(locations = "classpath:test.properties")
+@Import({SpringConfig.class, TestConfig.class})
+class WordValueIndexTest {
+
+    @Autowired
+    private WordValueIndex wordValueIndex;
+    @Autowired
+    private WordRepository wordRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSourceTransactionManager transactionManager;
+    @Autowired
+    private MutableClock clock;
+
+    @BeforeEach
+    public void beforeEach() {
+        commit(() -> JdbcTestUtils.deleteFromTables(jdbcTemplate,
+                "expressions",
+                "words",
+                "intervals",
+                "users",
+                "repeat_words_statistic",
+                "repeat_expressions_statistic",
+                "word_outer_source",
+                "words_examples_outer_source"
+        ));
+        clock.setDate(2022, 7, 7);
+    }
+
+    @Test
+    @DisplayName("""
+            findIdsByValue(userId, value, maxDistance):
+             user has words within maxDistance and other words
+             => return words within maxDistance sorted by value ignoring case
+            """)
+    public void findIdsByValue1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        User otherUser = commit(() -> userRepository.save(user(2)));
+        List<Word> words = commit(() -> List.of(
+                wordRepository.save(word(user.getId(), "frog")),
+                wordRepository.save(word(user.getId(), "fog")),
+                wordRepository.save(word(user.getId(), "distance")),
+                wordRepository.save(word(user.getId(), "from"))
+        ));
+        commit(() -> wordRepository.save(word(otherUser.getId(), "frog")));
+
+        List<UUID> actual = wordValueIndex.findIdsByValue(user.getId(), "frog", 1);
+
+        Assertions.assertThat(actual).
+                containsExactly(words.get(1).getId(), words.get(0).getId(), words.get(3).getId());
+    }
+
+    @Test
+    @DisplayName("""
+            findIdsByValue(userId, value, maxDistance):
+             index of user was loaded,
+             then word value was changed by repository directly
+             => return result by current word values
+            """)
+    public void findIdsByValue2() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word word = commit(() -> wordRepository.save(word(user.getId(), "frog")));
+        wordValueIndex.findIdsByValue(user.getId(), "frog", 1);
+        commit(() -> wordRepository.save(word.setValue("distance")));
+
+        Assertions.assertThat(wordValueIndex.findIdsByValue(user.getId(), "frog", 1)).isEmpty();
+        Assertions.assertThat(wordValueIndex.findIdsByValue(user.getId(), "distanse", 1)).
+                containsExactly(word.getId());
+    }
+
+    @Test
+    @DisplayName("""
+            findIdsByValue(userId, value, maxDistance):
+             index of user was loaded,
+             then user was deleted
+             => return empty list
+            """)
+    public void findIdsByValue3() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> wordRepository.save(word(user.getId(), "frog")));
+        wordValueIndex.findIdsByValue(user.getId(), "frog", 1);
+        commit(() -> userRepository.deleteById(user.getId()));
+
+        List<UUID> actual = wordValueIndex.findIdsByValue(user.getId(), "frog", 1);
+
+        Assertions.assertThat(actual).isEmpty();
+    }
+
+    @Test
+    @DisplayName("""
+            findIdsByValue(userId, value, maxDistance):
+             index of user is loaded for the first time in transaction that saves word,
+             then this transaction is rolled back
+             => index doesn't contain this word
+            """)
+    public void findIdsByValue4() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word word = commit(() -> wordRepository.save(word(user.getId(), "frog")));
+        TransactionStatus status = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        wordRepository.save(word(user.getId(), "frogs"));
+        wordValueIndex.findIdsByValue(user.getId(), "frog", 1);
+        transactionManager.rollback(status);
+
+        List<UUID> actual = wordValueIndex.findIdsByValue(user.getId(), "frog", 1);
+
+        Assertions.assertThat(actual).containsExactly(word.getId());
+    }
+
+
+    private User user(int number) {
+        return new User(new Credential("me" + number + "@mail.com", "password" + number)).
+                setOrGenerateSalt("salt" + number).
+                addRole("role1");
+    }
+
+    private Word word(UUID userId, String value) {
+        return new Word(userId, 1, 1, clock).setValue(value);
+    }
+
+    private void commit(Executable executable) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            executable.execute();
+            transactionManager.commit(status);
+        } catch(Throwable e) {
+            transactionManager.rollback(status);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private <T> T commit(Supplier<T> supplier) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            T result = supplier.get();
+            transactionManager.commit(status);
+            return result;
+        } catch(Throwable e) {
+            transactionManager.rollback(status);
+            throw new RuntimeException(e);
+        }
+    }
+
+}
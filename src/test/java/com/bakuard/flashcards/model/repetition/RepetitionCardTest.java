@@ -0,0 +1,60 @@
+package com.bakuard.flashcards.model.repetition;
+
+import com.google.common.collect.ImmutableList;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RepetitionCardTest {
+
+    @Test
+    @DisplayName("""
+            nextInterval(interval, isRemember, intervals):
+             isRemember is true,
+             interval is in intervals and isn't the highest
+             => return next interval
+            """)
+    public void nextInterval1() {
+        int actual = RepetitionCard.nextInterval(3, true, ImmutableList.of(1, 3, 5, 11));
+
+        Assertions.assertThat(actual).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("""
+            nextInterval(interval, isRemember, intervals):
+             isRemember is true,
+             interval isn't in intervals
+             => return lowest interval greater than interval
+            """)
+    public void nextInterval2() {
+        int actual = RepetitionCard.nextInterval(4, true, ImmutableList.of(1, 3, 5, 11));
+
+        Assertions.assertThat(actual).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("""
+            nextInterval(interval, isRemember, intervals):
+             isRemember is true,
+             interval is greater than or equal to the highest interval
+             => return highest interval
+            """)
+    public void nextInterval3() {
+        Assertions.assertThat(RepetitionCard.nextInterval(11, true, ImmutableList.of(1, 3, 5, 11))).isEqualTo(11);
+        Assertions.assertThat(RepetitionCard.nextInterval(20, true, ImmutableList.of(1, 3, 5, 11))).isEqualTo(11);
+    }
+
+    @Test
+    @DisplayName("""
+            nextInterval(interval, isRemember, intervals):
+             isRemember is false
+             => return lowest interval
+            """)
+    public void nextInterval4() {
+        int actual = RepetitionCard.nextInterval(5, false, ImmutableList.of(1, 3, 5, 11));
+
+        Assertions.assertThat(actual).isEqualTo(1);
+    }
+
+}
@@ -0,0 +1,201 @@
+package com.bakuard.flashcards.service;
+
+import com.bakuard.flashcards.config.MutableClock;
+import com.bakuard.flashcards.config.SpringConfig;
+import com.bakuard.flashcards.config.TestConfig;
+import com.bakuard.flashcards.dal.IntervalRepository;
+import com.bakuard.flashcards.dal.UserRepository;
+import com.bakuard.flashcards.dal.WordRepository;
+import com.bakuard.flashcards.model.auth.credential.Credential;
+import com.bakuard.flashcards.model.auth.credential.User;
+import com.bakuard.flashcards.model.interval.IntervalReplacement;
+import com.bakuard.flashcards.model.interval.IntervalReplacementStatus;
+import com.bakuard.flashcards.model.word.Word;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+@ExtendWith(SpringExtension.class)
+@TestPropertySource(locations = "classpath:test.properties")
+@Import({SpringConfig.class, TestConfig.class})
+class IntervalReplacementServiceTest {
+
+    @Autowired
+    private IntervalReplacementService intervalReplacementService;
+    @Autowired
+    private IntervalService intervalService;
+    @Autowired
+    private WordRepository wordRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private IntervalRepository intervalRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSourceTransactionManager transactionManager;
+    @Autowired
+    private MutableClock clock;
+
+    @BeforeEach
+    public void beforeEach() {
+        commit(() -> JdbcTestUtils.deleteFromTables(jdbcTemplate,
+                "expressions",
+                "words",
+                "intervals",
+                "users",
+                "repeat_words_statistic",
+                "repeat_expressions_statistic",
+                "word_outer_source",
+                "words_examples_outer_source"
+        ));
+        clock.setDate(2022, 7, 7);
+    }
+
+    @Test
+    @DisplayName("""
+            replace(userId, oldInterval, newInterval):
+             user has words with oldInterval
+             => don't change list of user intervals,
+                don't change words,
+                return pending replacement
+            """)
+    public void replace1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> intervalRepository.addAll(user.getId(), 1, 3, 5));
+        commit(() -> wordRepository.save(word(user.getId(), "valueA", 3)));
+
+        IntervalReplacement actual = commit(() -> intervalService.replace(user.getId(), 3, 4));
+
+        Assertions.assertThat(actual.status()).isEqualTo(IntervalReplacementStatus.PENDING);
+        Assertions.assertThat(intervalService.findAll(user.getId())).containsExactly(1, 3, 5);
+        Assertions.assertThat(intervalRepository.countInCards(user.getId(), 3)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("""
+            replace(userId, oldInterval, newInterval):
+             oldInterval equal newInterval
+             => return done replacement
+            """)
+    public void replace2() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> intervalRepository.addAll(user.getId(), 1, 3, 5));
+
+        IntervalReplacement actual = commit(() -> intervalService.replace(user.getId(), 3, 3));
+
+        Assertions.assertThat(actual.status()).isEqualTo(IntervalReplacementStatus.DONE);
+        Assertions.assertThat(intervalReplacementService.processAll()).isZero();
+    }
+
+    @Test
+    @DisplayName("""
+            processAll():
+             there are several pending replacements of same user
+             => execute replacements in order of creation,
+                replacements are done,
+                replace intervals in list of user intervals
+            """)
+    public void processAll1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> intervalRepository.addAll(user.getId(), 1, 3, 5));
+        commit(() -> {
+            wordRepository.save(word(user.getId(), "valueA", 3));
+            wordRepository.save(word(user.getId(), "valueB", 3));
+            wordRepository.save(word(user.getId(), "valueC", 1));
+        });
+        IntervalReplacement first = commit(() -> intervalService.replace(user.getId(), 3, 4));
+        IntervalReplacement second = commit(() -> intervalService.replace(user.getId(), 4, 6));
+
+        int actual = intervalReplacementService.processAll();
+
+        Assertions.assertThat(actual).isEqualTo(2);
+        Assertions.assertThat(intervalService.findReplacement(user.getId(), first.id())).
+                isEqualTo(new IntervalReplacement(first.id(), user.getId(), 3, 4,
+                        IntervalReplacementStatus.DONE, 4, 4));
+        Assertions.assertThat(intervalService.findReplacement(user.getId(), second.id()).status()).
+                isEqualTo(IntervalReplacementStatus.DONE);
+        Assertions.assertThat(intervalRepository.countInCards(user.getId(), 6)).isEqualTo(4);
+        Assertions.assertThat(intervalRepository.countInCards(user.getId(), 3)).isZero();
+        Assertions.assertThat(intervalRepository.countInCards(user.getId(), 4)).isZero();
+        Assertions.assertThat(intervalService.findAll(user.getId())).containsExactly(1, 5, 6);
+    }
+
+    @Test
+    @DisplayName("""
+            processAll():
+             there is failed replacement
+             => retry replacement,
+                replacement is done,
+                replace interval in list of user intervals
+            """)
+    public void processAll2() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> intervalRepository.addAll(user.getId(), 1, 3, 5));
+        commit(() -> wordRepository.save(word(user.getId(), "valueA", 3)));
+        IntervalReplacement replacement = commit(() -> intervalService.replace(user.getId(), 3, 4));
+        commit(() -> jdbcTemplate.update(
+                "update interval_replacements set status = ? where replacement_id = ?;",
+                IntervalReplacementStatus.FAILED.name(), replacement.id()));
+
+        int actual = intervalReplacementService.processAll();
+
+        Assertions.assertThat(actual).isEqualTo(1);
+        Assertions.assertThat(intervalService.findReplacement(user.getId(), replacement.id()).status()).
+                isEqualTo(IntervalReplacementStatus.DONE);
+        Assertions.assertThat(intervalRepository.countInCards(user.getId(), 4)).isEqualTo(2);
+        Assertions.assertThat(intervalService.findAll(user.getId())).containsExactly(1, 4, 5);
+    }
+
+
+    private User user(int number) {
+        return new User(new Credential("me" + number + "@mail.com", "password" + number)).
+                setOrGenerateSalt("salt" + number).
+                addRole("role1");
+    }
+
+    private Word word(UUID userId, String value, int interval) {
+        return new Word(userId, interval, interval, clock).setValue(value).setNote("note");
+    }
+
+    private void commit(Executable executable) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            executable.execute();
+            transactionManager.commit(status);
+        } catch(Throwable e) {
+            transactionManager.rollback(status);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private <T> T commit(Supplier<T> supplier) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            T result = supplier.get();
+            transactionManager.commit(status);
+            return result;
+        } catch(Throwable e) {
+            transactionManager.rollback(status);
+            throw new RuntimeException(e);
+        }
+    }
+
+}
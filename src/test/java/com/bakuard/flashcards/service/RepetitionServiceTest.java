@@ -0,0 +1,512 @@
+package com.bakuard.flashcards.service;
+
+import com.bakuard.flashcards.config.MutableClock;
+import com.bakuard.flashcards.config.SpringConfig;
+import com.bakuard.flashcards.config.TestConfig;
+import com.bakuard.flashcards.dal.ExpressionRepository;
+import com.bakuard.flashcards.dal.IntervalRepository;
+import com.bakuard.flashcards.dal.UserRepository;
+import com.bakuard.flashcards.dal.WordRepository;
+import com.bakuard.flashcards.model.auth.credential.Credential;
+import com.bakuard.flashcards.model.auth.credential.User;
+import com.bakuard.flashcards.model.expression.Expression;
+import com.bakuard.flashcards.model.repetition.RepetitionAnswer;
+import com.bakuard.flashcards.model.repetition.RepetitionFeedItem;
+import com.bakuard.flashcards.model.repetition.RepetitionForecastDay;
+import com.bakuard.flashcards.model.repetition.RepetitionOutcome;
+import com.bakuard.flashcards.model.repetition.RepetitionSummary;
+import com.bakuard.flashcards.model.repetition.RepetitionType;
+import com.bakuard.flashcards.model.word.Word;
+import com.bakuard.flashcards.validation.exception.InvalidParameter;
+import com.bakuard.flashcards.validation.exception.UnknownEntityException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+@ExtendWith(SpringExtension.class)
+@TestPropertySource(locations = "classpath:test.properties")
+@Import({SpringConfig.class, TestConfig.class})
+class RepetitionServiceTest {
+
+    @Autowired
+    private RepetitionService repetitionService;
+    @Autowired
+    private RepetitionLocks repetitionLocks;
+    @Autowired
+    private WordRepository wordRepository;
+    @Autowired
+    private ExpressionRepository expressionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private IntervalRepository intervalRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSourceTransactionManager transactionManager;
+    @Autowired
+    private MutableClock clock;
+
+    @BeforeEach
+    public void beforeEach() {
+        commit(() -> JdbcTestUtils.deleteFromTables(jdbcTemplate,
+                "expressions",
+                "words",
+                "intervals",
+                "users",
+                "repeat_words_statistic",
+                "repeat_expressions_statistic",
+                "word_outer_source",
+                "words_examples_outer_source"
+        ));
+        clock.setDate(2022, 7, 7);
+    }
+
+    @Test
+    @DisplayName("""
+            repeatAll(userId, type, answers):
+             answers contain remembered and forgotten words,
+             unknown word and repeated answer for same word
+             => apply answers for each known word one after another,
+                return outcomes in order of answers,
+                count all answers for known words in statistic
+            """)
+    public void repeatAll1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> intervalRepository.addAll(user.getId(), 1, 3, 5));
+        Word wordA = commit(() -> wordRepository.save(word(user.getId(), "valueA", 1)));
+        Word wordB = commit(() -> wordRepository.save(word(user.getId(), "valueB", 3)));
+        UUID unknownId = toUUID(1);
+        clock.setDate(2022, 7, 10);
+        LocalDate today = LocalDate.of(2022, 7, 10);
+
+        List<RepetitionOutcome> actual = repetitionService.repeatAll(
+                user.getId(),
+                RepetitionType.WORDS_FROM_ENGLISH,
+                List.of(
+                        RepetitionAnswer.fromEnglish(wordA.getId(), true),
+                        RepetitionAnswer.fromEnglish(unknownId, true),
+                        RepetitionAnswer.fromEnglish(wordB.getId(), false),
+                        RepetitionAnswer.fromEnglish(wordA.getId(), false)
+                ));
+
+        Assertions.assertThat(actual).containsExactly(
+                new RepetitionOutcome(wordA.getId(), RepetitionOutcome.Status.REPEATED, true, 3, today),
+                new RepetitionOutcome(unknownId, RepetitionOutcome.Status.UNKNOWN, false, null, null),
+                new RepetitionOutcome(wordB.getId(), RepetitionOutcome.Status.REPEATED, false, 1, today),
+                new RepetitionOutcome(wordA.getId(), RepetitionOutcome.Status.REPEATED, false, 1, today)
+        );
+        Assertions.assertThat(wordRepository.findById(user.getId(), wordA.getId()).orElseThrow().
+                getRepeatDataFromEnglish().interval()).isEqualTo(1);
+        Assertions.assertThat(wordRepository.findById(user.getId(), wordB.getId()).orElseThrow().
+                getRepeatDataFromEnglish().interval()).isEqualTo(1);
+        Assertions.assertThat(JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "repeat_words_statistic", "direction = 'ENGLISH'")).
+                isEqualTo(2);
+        Assertions.assertThat(JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "repeat_words_statistic",
+                "word_id = '" + wordA.getId() + "' and remember_count = 1 and not_remember_count = 1")).
+                isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("""
+            repeatAll(userId, type, answers):
+             same batch is sent twice at the same day
+             => second call changes words again,
+                both calls are counted in statistic
+            """)
+    public void repeatAll2() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> intervalRepository.addAll(user.getId(), 1, 3, 5));
+        Word word = commit(() -> wordRepository.save(word(user.getId(), "valueA", 1)));
+        List<RepetitionAnswer> answers = List.of(RepetitionAnswer.fromEnglish(word.getId(), true));
+        repetitionService.repeatAll(user.getId(), RepetitionType.WORDS_FROM_ENGLISH, answers);
+
+        List<RepetitionOutcome> actual = repetitionService.repeatAll(
+                user.getId(), RepetitionType.WORDS_FROM_ENGLISH, answers);
+
+        Assertions.assertThat(actual).extracting(RepetitionOutcome::status).
+                containsExactly(RepetitionOutcome.Status.REPEATED);
+        Assertions.assertThat(wordRepository.findById(user.getId(), word.getId()).orElseThrow().
+                getRepeatDataFromEnglish().interval()).isEqualTo(5);
+        Assertions.assertThat(JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "repeat_words_statistic",
+                "direction = 'ENGLISH' and remember_count = 2")).
+                isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("""
+            repeatAll(userId, type, answers):
+             type is from native,
+             input values differ from word values only by case or differ completely
+             => first word is remembered, second is not,
+                repeat data from english isn't changed
+            """)
+    public void repeatAll3() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> intervalRepository.addAll(user.getId(), 1, 3, 5));
+        Word wordA = commit(() -> wordRepository.save(word(user.getId(), "valueA", 3)));
+        Word wordB = commit(() -> wordRepository.save(word(user.getId(), "valueB", 3)));
+
+        List<RepetitionOutcome> actual = repetitionService.repeatAll(
+                user.getId(),
+                RepetitionType.WORDS_FROM_NATIVE,
+                List.of(
+                        RepetitionAnswer.fromNative(wordA.getId(), "VALUEa"),
+                        RepetitionAnswer.fromNative(wordB.getId(), "other")
+                ));
+
+        Assertions.assertThat(actual).extracting(RepetitionOutcome::isRemember, RepetitionOutcome::interval).
+                containsExactly(Assertions.tuple(true, 5), Assertions.tuple(false, 1));
+        Word actualWordA = wordRepository.findById(user.getId(), wordA.getId()).orElseThrow();
+        Assertions.assertThat(actualWordA.getRepeatDataFromNative().interval()).isEqualTo(5);
+        Assertions.assertThat(actualWordA.getRepeatDataFromEnglish().interval()).isEqualTo(3);
+        Assertions.assertThat(JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "repeat_words_statistic", "direction = 'NATIVE'")).
+                isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("""
+            repeatAll(userId, type, answers):
+             answers count > MAX_BATCH_SIZE
+             => exception
+            """)
+    public void repeatAll4() {
+        List<RepetitionAnswer> answers = Collections.nCopies(
+                RepetitionService.MAX_BATCH_SIZE + 1, RepetitionAnswer.fromEnglish(toUUID(1), true));
+
+        Assertions.assertThatExceptionOfType(InvalidParameter.class).
+                isThrownBy(() -> repetitionService.repeatAll(toUUID(2), RepetitionType.WORDS_FROM_ENGLISH, answers)).
+                extracting(InvalidParameter::getMessageKey).
+                isEqualTo("RepetitionBatch.maxSize");
+    }
+
+    @Test
+    @DisplayName("""
+            repeat(userId, type, answer):
+             two answers for the same word are sent concurrently under the user lock
+             => both answers change repeat data one after another,
+                both answers are counted in statistic
+            """)
+    public void repeat1() throws Exception {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> intervalRepository.addAll(user.getId(), 1, 3, 5));
+        Word word = commit(() -> wordRepository.save(word(user.getId(), "valueA", 1)));
+        clock.setDate(2022, 7, 10);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        Callable<RepetitionOutcome> answer = () -> {
+            start.await();
+            return repetitionLocks.execute(user.getId(), () -> repetitionService.repeat(
+                    user.getId(), RepetitionType.WORDS_FROM_ENGLISH, RepetitionAnswer.fromEnglish(word.getId(), true)));
+        };
+        List<Future<RepetitionOutcome>> futures = List.of(executor.submit(answer), executor.submit(answer));
+        start.countDown();
+        List<RepetitionOutcome.Status> statuses = new ArrayList<>();
+        for(Future<RepetitionOutcome> future : futures) statuses.add(future.get().status());
+        executor.shutdown();
+
+        Assertions.assertThat(statuses).containsExactly(
+                RepetitionOutcome.Status.REPEATED, RepetitionOutcome.Status.REPEATED);
+        Assertions.assertThat(wordRepository.findById(user.getId(), word.getId()).orElseThrow().
+                getRepeatDataFromEnglish().interval()).isEqualTo(5);
+        Assertions.assertThat(JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "repeat_words_statistic",
+                "direction = 'ENGLISH' and remember_count = 2")).
+                isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("""
+            repeat(userId, type, answer):
+             word was loaded before the answer was applied,
+             save this stale word after the answer
+             => exception
+            """)
+    public void repeat2() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> intervalRepository.addAll(user.getId(), 1, 3, 5));
+        Word word = commit(() -> wordRepository.save(word(user.getId(), "valueA", 1)));
+        Word stale = wordRepository.findById(user.getId(), word.getId()).orElseThrow();
+        clock.setDate(2022, 7, 10);
+        repetitionService.repeat(
+                user.getId(), RepetitionType.WORDS_FROM_ENGLISH, RepetitionAnswer.fromEnglish(word.getId(), true));
+
+        Assertions.assertThatExceptionOfType(OptimisticLockingFailureException.class).
+                isThrownBy(() -> wordRepository.save(stale));
+    }
+
+    @Test
+    @DisplayName("""
+            repeat(userId, type, answer):
+             user hasn't word with such id
+             => exception
+            """)
+    public void repeat3() {
+        User user = commit(() -> userRepository.save(user(1)));
+
+        Assertions.assertThatExceptionOfType(UnknownEntityException.class).
+                isThrownBy(() -> repetitionService.repeat(
+                        user.getId(), RepetitionType.WORDS_FROM_ENGLISH, RepetitionAnswer.fromEnglish(toUUID(1), true))).
+                extracting(UnknownEntityException::getMessageKey).
+                isEqualTo("Word.unknownIdOrUserId");
+    }
+
+    @Test
+    @DisplayName("""
+            markWordForRepetition(userId, type, wordId):
+             user has word with such id
+             => return word with lowest interval and current date of repeat,
+                count forgotten answer in statistic
+            """)
+    public void markWordForRepetition1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> intervalRepository.addAll(user.getId(), 1, 3, 5));
+        Word word = commit(() -> wordRepository.save(word(user.getId(), "valueA", 5)));
+        clock.setDate(2022, 7, 10);
+
+        Word actual = repetitionService.markWordForRepetition(
+                user.getId(), RepetitionType.WORDS_FROM_ENGLISH, word.getId());
+
+        Assertions.assertThat(actual.getRepeatDataFromEnglish().interval()).isEqualTo(1);
+        Assertions.assertThat(actual.getRepeatDataFromEnglish().lastDateOfRepeat()).
+                isEqualTo(LocalDate.of(2022, 7, 10));
+        Assertions.assertThat(actual.getRepeatDataFromNative().interval()).isEqualTo(5);
+        Assertions.assertThat(JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "repeat_words_statistic",
+                "direction = 'ENGLISH' and not_remember_count = 1")).
+                isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("""
+            markWordForRepetition(userId, type, wordId):
+             user hasn't word with such id
+             => exception
+            """)
+    public void markWordForRepetition2() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> intervalRepository.addAll(user.getId(), 1, 3, 5));
+
+        Assertions.assertThatExceptionOfType(UnknownEntityException.class).
+                isThrownBy(() -> repetitionService.markWordForRepetition(
+                        user.getId(), RepetitionType.WORDS_FROM_ENGLISH, toUUID(1))).
+                extracting(UnknownEntityException::getMessageKey).
+                isEqualTo("Word.unknownIdOrUserId");
+    }
+
+    @Test
+    @DisplayName("""
+            repeat(userId, type, answer):
+             word was marked for repetition at the same day,
+             user remembers word
+             => change repeat data from lowest interval,
+                count both results in statistic
+            """)
+    public void repeat4() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> intervalRepository.addAll(user.getId(), 1, 3, 5));
+        Word word = commit(() -> wordRepository.save(word(user.getId(), "valueA", 5)));
+        clock.setDate(2022, 7, 10);
+        repetitionService.markWordForRepetition(user.getId(), RepetitionType.WORDS_FROM_ENGLISH, word.getId());
+
+        RepetitionOutcome actual = repetitionService.repeat(
+                user.getId(), RepetitionType.WORDS_FROM_ENGLISH, RepetitionAnswer.fromEnglish(word.getId(), true));
+
+        Assertions.assertThat(actual).isEqualTo(new RepetitionOutcome(
+                word.getId(), RepetitionOutcome.Status.REPEATED, true, 3, LocalDate.of(2022, 7, 10)));
+        Assertions.assertThat(wordRepository.findById(user.getId(), word.getId()).orElseThrow().
+                getRepeatDataFromEnglish().interval()).isEqualTo(3);
+        Assertions.assertThat(JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "repeat_words_statistic",
+                "direction = 'ENGLISH' and remember_count = 1 and not_remember_count = 1")).
+                isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("""
+            getSummary(userId):
+             user has words and expressions with different next repeat dates
+             => return count of due words and expressions for each direction
+                and count of words and expressions that will be due tomorrow
+            """)
+    public void getSummary1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> wordRepository.save(word(user.getId(), "valueA", 1)));
+        commit(() -> wordRepository.save(word(user.getId(), "valueB", 3)));
+        commit(() -> expressionRepository.save(expression(user.getId(), "valueC", 1)));
+        clock.setDate(2022, 7, 9);
+
+        RepetitionSummary actual = repetitionService.getSummary(user.getId());
+
+        Assertions.assertThat(actual).isEqualTo(
+                new RepetitionSummary(LocalDate.of(2022, 7, 9), 1, 1, 1, 1, 2));
+    }
+
+    @Test
+    @DisplayName("""
+            getSummary(userId):
+             user doesn't have words and expressions
+             => return zero for all counts
+            """)
+    public void getSummary2() {
+        User user = commit(() -> userRepository.save(user(1)));
+
+        RepetitionSummary actual = repetitionService.getSummary(user.getId());
+
+        Assertions.assertThat(actual).isEqualTo(
+                new RepetitionSummary(LocalDate.of(2022, 7, 7), 0, 0, 0, 0, 0));
+    }
+
+    @Test
+    @DisplayName("""
+            getForecast(userId, days):
+             user has overdue words and expressions and words due in the forecast period
+             => return count for each day of forecast,
+                overdue words and expressions are counted in current date
+            """)
+    public void getForecast1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> wordRepository.save(word(user.getId(), "valueA", 1)));
+        commit(() -> wordRepository.save(word(user.getId(), "valueB", 3)));
+        commit(() -> expressionRepository.save(expression(user.getId(), "valueC", 1)));
+        clock.setDate(2022, 7, 9);
+
+        List<RepetitionForecastDay> actual = repetitionService.getForecast(user.getId(), 3);
+
+        Assertions.assertThat(actual).containsExactly(
+                new RepetitionForecastDay(LocalDate.of(2022, 7, 9), 1, 1, 1, 1),
+                new RepetitionForecastDay(LocalDate.of(2022, 7, 10), 1, 1, 0, 0),
+                new RepetitionForecastDay(LocalDate.of(2022, 7, 11), 0, 0, 0, 0)
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            getForecast(userId, days):
+             days > MAX_FORECAST_DAYS
+             => exception
+            """)
+    public void getForecast2() {
+        Assertions.assertThatExceptionOfType(InvalidParameter.class).
+                isThrownBy(() -> repetitionService.getForecast(toUUID(1), RepetitionService.MAX_FORECAST_DAYS + 1)).
+                extracting(InvalidParameter::getMessageKey).
+                isEqualTo("RepetitionForecast.days");
+    }
+
+    @Test
+    @DisplayName("""
+            scrollDue(userId, fromEnglish, position, size):
+             user has words and expressions to repeat,
+             feed is read by several windows
+             => return words and expressions together ordered by value,
+                next window starts after last element of previous window
+            """)
+    public void scrollDue1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word wordB = commit(() -> wordRepository.save(word(user.getId(), "valueB", 1)));
+        Word wordD = commit(() -> wordRepository.save(word(user.getId(), "valueD", 1)));
+        commit(() -> wordRepository.save(word(user.getId(), "valueE", 10)));
+        Expression expressionA = commit(() -> expressionRepository.save(expression(user.getId(), "valueA", 1)));
+        Expression expressionC = commit(() -> expressionRepository.save(expression(user.getId(), "valueC", 1)));
+        clock.setDate(2022, 7, 8);
+
+        Window<RepetitionFeedItem> first = repetitionService.scrollDue(user.getId(), true, ScrollPosition.keyset(), 3);
+        Window<RepetitionFeedItem> second = repetitionService.scrollDue(
+                user.getId(), true, (KeysetScrollPosition) first.positionAt(first.size() - 1), 3);
+
+        Assertions.assertThat(first.getContent()).containsExactly(
+                RepetitionFeedItem.of(RepetitionType.EXPRESSIONS_FROM_ENGLISH, expressionA),
+                RepetitionFeedItem.of(RepetitionType.WORDS_FROM_ENGLISH, wordB),
+                RepetitionFeedItem.of(RepetitionType.EXPRESSIONS_FROM_ENGLISH, expressionC));
+        Assertions.assertThat(first.hasNext()).isTrue();
+        Assertions.assertThat(second.getContent()).containsExactly(
+                RepetitionFeedItem.of(RepetitionType.WORDS_FROM_ENGLISH, wordD));
+        Assertions.assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("""
+            scrollDue(userId, fromEnglish, position, size):
+             position was received from feed of other repetition direction
+             => exception
+            """)
+    public void scrollDue2() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word word = commit(() -> wordRepository.save(word(user.getId(), "valueA", 1)));
+        KeysetScrollPosition position = ScrollPosition.forward(Map.of(
+                "value", "valueA", "type", RepetitionType.WORDS_FROM_NATIVE.name(), "id", word.getId().toString()));
+
+        Assertions.assertThatExceptionOfType(InvalidParameter.class).
+                isThrownBy(() -> repetitionService.scrollDue(user.getId(), true, position, 3)).
+                extracting(InvalidParameter::getMessageKey).
+                isEqualTo("Cursor.invalid");
+    }
+
+
+    private User user(int number) {
+        return new User(new Credential("me" + number + "@mail.com", "password" + number)).
+                setOrGenerateSalt("salt" + number).
+                addRole("role1");
+    }
+
+    private Word word(UUID userId, String value, int interval) {
+        return new Word(userId, interval, interval, clock).setValue(value).setNote("note");
+    }
+
+    private Expression expression(UUID userId, String value, int interval) {
+        return new Expression(userId, interval, interval, clock).setValue(value).setNote("note");
+    }
+
+    private UUID toUUID(int number) {
+        return UUID.fromString("00000000-0000-0000-0000-" + String.format("%012d", number));
+    }
+
+    private void commit(Executable executable) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            executable.execute();
+            transactionManager.commit(status);
+        } catch(Throwable e) {
+            transactionManager.rollback(status);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private <T> T commit(Supplier<T> supplier) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            T result = supplier.get();
+            transactionManager.commit(status);
+            return result;
+        } catch(Throwable e) {
+            transactionManager.rollback(status);
+            throw new RuntimeException(e);
+        }
+    }
+
+}
@@ -0,0 +1,215 @@
+package com.bakuard.flashcards.service;
+
+import com.bakuard.flashcards.config.MutableClock;
+import com.bakuard.flashcards.config.SpringConfig;
+import com.bakuard.flashcards.config.TestConfig;
+import com.bakuard.flashcards.dal.IntervalRepository;
+import com.bakuard.flashcards.dal.RepetitionSnapshotRepository;
+import com.bakuard.flashcards.dal.StatisticRepository;
+import com.bakuard.flashcards.dal.UserRepository;
+import com.bakuard.flashcards.dal.WordRepository;
+import com.bakuard.flashcards.model.auth.credential.Credential;
+import com.bakuard.flashcards.model.auth.credential.User;
+import com.bakuard.flashcards.model.repetition.RepetitionAnswer;
+import com.bakuard.flashcards.model.repetition.RepetitionBatch;
+import com.bakuard.flashcards.model.repetition.RepetitionSession;
+import com.bakuard.flashcards.model.repetition.RepetitionSummary;
+import com.bakuard.flashcards.model.repetition.RepetitionType;
+import com.bakuard.flashcards.model.statistic.RepeatWordFromEnglishStatistic;
+import com.bakuard.flashcards.model.word.Word;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+@ExtendWith(SpringExtension.class)
+@TestPropertySource(locations = "classpath:test.properties")
+@Import({SpringConfig.class, TestConfig.class})
+class RepetitionSnapshotServiceTest {
+
+    @Autowired
+    private RepetitionSnapshotService repetitionSnapshotService;
+    @Autowired
+    private RepetitionService repetitionService;
+    @Autowired
+    private WordService wordService;
+    @Autowired
+    private RepetitionSnapshotRepository repetitionSnapshotRepository;
+    @Autowired
+    private StatisticRepository statisticRepository;
+    @Autowired
+    private WordRepository wordRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private IntervalRepository intervalRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSourceTransactionManager transactionManager;
+    @Autowired
+    private MutableClock clock;
+
+    @BeforeEach
+    public void beforeEach() {
+        commit(() -> JdbcTestUtils.deleteFromTables(jdbcTemplate,
+                "expressions",
+                "words",
+                "intervals",
+                "users",
+                "repeat_words_statistic",
+                "repeat_expressions_statistic",
+                "word_outer_source",
+                "words_examples_outer_source"
+        ));
+        clock.setDate(2022, 7, 7);
+    }
+
+    @Test
+    @DisplayName("""
+            createSnapshots(date):
+             there are active and inactive users
+             => save snapshot only for active users,
+                getSummary returns data from snapshot
+            """)
+    public void createSnapshots1() {
+        User active = commit(() -> userRepository.save(user(1)));
+        User inactive = commit(() -> userRepository.save(user(2)));
+        Word word = commit(() -> wordRepository.save(word(active.getId(), "valueA", 1)));
+        commit(() -> wordRepository.save(word(inactive.getId(), "valueB", 1)));
+        commit(() -> statisticRepository.append(
+                new RepeatWordFromEnglishStatistic(active.getId(), word.getId(), LocalDate.of(2022, 7, 7), true)));
+        clock.setDate(2022, 7, 8);
+        LocalDate date = LocalDate.of(2022, 7, 8);
+
+        int actual = repetitionSnapshotService.createSnapshots(date);
+        commit(() -> jdbcTemplate.update("update words set repeat_interval_from_english = 100;"));
+
+        Assertions.assertThat(actual).isEqualTo(1);
+        Assertions.assertThat(repetitionSnapshotRepository.findSummary(inactive.getId(), date)).isEmpty();
+        Assertions.assertThat(repetitionService.getSummary(active.getId())).
+                isEqualTo(new RepetitionSummary(date, 1, 1, 0, 0, 0));
+    }
+
+    @Test
+    @DisplayName("""
+            createSnapshots(date):
+             snapshot was created,
+             then date was changed
+             => getSummary doesn't use snapshot
+            """)
+    public void createSnapshots2() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word word = commit(() -> wordRepository.save(word(user.getId(), "valueA", 1)));
+        commit(() -> statisticRepository.append(
+                new RepeatWordFromEnglishStatistic(user.getId(), word.getId(), LocalDate.of(2022, 7, 7), true)));
+        repetitionSnapshotService.createSnapshots(LocalDate.of(2022, 7, 8));
+        commit(() -> jdbcTemplate.update("update words set repeat_interval_from_english = 100;"));
+        clock.setDate(2022, 7, 9);
+
+        RepetitionSummary actual = repetitionService.getSummary(user.getId());
+
+        Assertions.assertThat(actual).isEqualTo(new RepetitionSummary(LocalDate.of(2022, 7, 9), 0, 1, 0, 0, 0));
+    }
+
+    @Test
+    @DisplayName("""
+            createSnapshots(date):
+             snapshot was created,
+             then user repeated word
+             => snapshot is removed
+            """)
+    public void createSnapshots3() {
+        User user = commit(() -> userRepository.save(user(1)));
+        commit(() -> intervalRepository.addAll(user.getId(), 1, 3, 5));
+        Word word = commit(() -> wordRepository.save(word(user.getId(), "valueA", 1)));
+        commit(() -> statisticRepository.append(
+                new RepeatWordFromEnglishStatistic(user.getId(), word.getId(), LocalDate.of(2022, 7, 7), true)));
+        clock.setDate(2022, 7, 8);
+        repetitionSnapshotService.createSnapshots(LocalDate.of(2022, 7, 8));
+
+        repetitionService.repeat(
+                user.getId(), RepetitionType.WORDS_FROM_ENGLISH, RepetitionAnswer.fromEnglish(word.getId(), true));
+
+        Assertions.assertThat(repetitionSnapshotRepository.findSummary(user.getId(), LocalDate.of(2022, 7, 8))).
+                isEmpty();
+    }
+
+    @Test
+    @DisplayName("""
+            openRepetitionSessionFromEnglish(userId):
+             user has actual snapshot
+             => queue of session is copied from snapshot in order of word values
+            """)
+    public void createSnapshots4() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word wordB = commit(() -> wordRepository.save(word(user.getId(), "valueB", 1)));
+        Word wordA = commit(() -> wordRepository.save(word(user.getId(), "valueA", 1)));
+        commit(() -> statisticRepository.append(
+                new RepeatWordFromEnglishStatistic(user.getId(), wordA.getId(), LocalDate.of(2022, 7, 7), true)));
+        clock.setDate(2022, 7, 8);
+        repetitionSnapshotService.createSnapshots(LocalDate.of(2022, 7, 8));
+        commit(() -> jdbcTemplate.update("update words set repeat_interval_from_english = 100;"));
+
+        RepetitionSession session = commit(() -> wordService.openRepetitionSessionFromEnglish(user.getId()));
+        RepetitionBatch<Word> actual = commit(() ->
+                wordService.nextForRepetitionFromEnglish(user.getId(), session.id(), 10));
+
+        Assertions.assertThat(session.total()).isEqualTo(2);
+        Assertions.assertThat(actual.cards()).
+                extracting(Word::getId).
+                containsExactly(wordA.getId(), wordB.getId());
+    }
+
+
+    private User user(int number) {
+        return new User(new Credential("me" + number + "@mail.com", "password" + number)).
+                setOrGenerateSalt("salt" + number).
+                addRole("role1");
+    }
+
+    private Word word(UUID userId, String value, int interval) {
+        return new Word(userId, interval, interval, clock).setValue(value).setNote("note");
+    }
+
+    private void commit(Executable executable) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            executable.execute();
+            transactionManager.commit(status);
+        } catch(Throwable e) {
+            transactionManager.rollback(status);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private <T> T commit(Supplier<T> supplier) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            T result = supplier.get();
+            transactionManager.commit(status);
+            return result;
+        } catch(Throwable e) {
+            transactionManager.rollback(status);
+            throw new RuntimeException(e);
+        }
+    }
+
+}
@@ -0,0 +1,236 @@
+package com.bakuard.flashcards.service;
+
+import com.bakuard.flashcards.config.MutableClock;
+import com.bakuard.flashcards.config.SpringConfig;
+import com.bakuard.flashcards.config.TestConfig;
+import com.bakuard.flashcards.config.configData.ConfigData;
+import com.bakuard.flashcards.config.configData.StatisticBuffer;
+import com.bakuard.flashcards.dal.StatisticRepository;
+import com.bakuard.flashcards.dal.UserRepository;
+import com.bakuard.flashcards.dal.WordRepository;
+import com.bakuard.flashcards.model.auth.credential.Credential;
+import com.bakuard.flashcards.model.auth.credential.User;
+import com.bakuard.flashcards.model.repetition.RepetitionOutcome;
+import com.bakuard.flashcards.model.repetition.RepetitionType;
+import com.bakuard.flashcards.model.word.Word;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+@ExtendWith(SpringExtension.class)
+@TestPropertySource(locations = "classpath:test.properties")
+@Import({SpringConfig.class, TestConfig.class})
+class StatisticAppendBufferTest {
+
+    @Autowired
+    private StatisticRepository statisticRepository;
+    @Autowired
+    private WordRepository wordRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSourceTransactionManager transactionManager;
+    @Autowired
+    private ConfigData configData;
+    @Autowired
+    private MutableClock clock;
+
+    @BeforeEach
+    public void beforeEach() {
+        commit(() -> JdbcTestUtils.deleteFromTables(jdbcTemplate,
+                "expressions",
+                "words",
+                "intervals",
+                "users",
+                "repeat_words_statistic",
+                "repeat_expressions_statistic",
+                "word_outer_source",
+                "words_examples_outer_source"
+        ));
+        clock.setDate(2022, 7, 7);
+    }
+
+    @Test
+    @DisplayName("""
+            append(type, userId, cardId, date, isRemember):
+             buffer is enabled
+             => don't write statistic until flush,
+                flush writes all appended statistic
+            """)
+    public void append1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word wordA = commit(() -> wordRepository.save(word(user.getId(), "valueA")));
+        Word wordB = commit(() -> wordRepository.save(word(user.getId(), "valueB")));
+        LocalDate date = LocalDate.of(2022, 7, 7);
+        StatisticAppendBuffer buffer = enabledBuffer(2);
+
+        buffer.append(RepetitionType.WORDS_FROM_ENGLISH, user.getId(), wordA.getId(), date, true);
+        buffer.append(RepetitionType.WORDS_FROM_ENGLISH, user.getId(), wordB.getId(), date, false);
+        buffer.append(RepetitionType.WORDS_FROM_NATIVE, user.getId(), wordA.getId(), date, true);
+
+        Assertions.assertThat(buffer.getQueueDepth()).isEqualTo(3);
+        Assertions.assertThat(JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "repeat_words_statistic", "direction = 'ENGLISH'")).
+                isZero();
+
+        Assertions.assertThat(buffer.flush()).isEqualTo(3);
+        Assertions.assertThat(buffer.getQueueDepth()).isZero();
+        Assertions.assertThat(buffer.getFlushedCount()).isEqualTo(3);
+        Assertions.assertThat(JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "repeat_words_statistic", "direction = 'ENGLISH'")).
+                isEqualTo(2);
+        Assertions.assertThat(JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "repeat_words_statistic", "direction = 'NATIVE'")).
+                isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("""
+            append(type, userId, cardId, date, isRemember):
+             buffer is enabled,
+             one of appended statistic refers to unknown word
+             => flush writes all other statistic,
+                skip statistic of unknown word
+            """)
+    public void append2() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word wordA = commit(() -> wordRepository.save(word(user.getId(), "valueA")));
+        Word wordB = commit(() -> wordRepository.save(word(user.getId(), "valueB")));
+        LocalDate date = LocalDate.of(2022, 7, 7);
+        StatisticAppendBuffer buffer = enabledBuffer(10);
+
+        buffer.append(RepetitionType.WORDS_FROM_ENGLISH, user.getId(), wordA.getId(), date, true);
+        buffer.append(RepetitionType.WORDS_FROM_ENGLISH, user.getId(), UUID.randomUUID(), date, false);
+        buffer.append(RepetitionType.WORDS_FROM_ENGLISH, user.getId(), wordB.getId(), date, false);
+
+        Assertions.assertThat(buffer.flush()).isEqualTo(2);
+        Assertions.assertThat(buffer.getDroppedCount()).isEqualTo(1);
+        Assertions.assertThat(JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "repeat_words_statistic", "direction = 'ENGLISH'")).
+                isEqualTo(2);
+    }
+
+
+    @Test
+    @DisplayName("""
+            appendAll(userId, type, date, outcomes):
+             buffer is enabled,
+             outcomes are appended in transaction that is rolled back
+             => don't add outcomes to buffer
+            """)
+    public void appendAll1() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word word = commit(() -> wordRepository.save(word(user.getId(), "valueA")));
+        LocalDate date = LocalDate.of(2022, 7, 7);
+        StatisticAppendBuffer buffer = enabledBuffer(10);
+
+        Assertions.assertThatExceptionOfType(RuntimeException.class).
+                isThrownBy(() -> commit(() -> {
+                    buffer.appendAll(user.getId(), RepetitionType.WORDS_FROM_ENGLISH, date,
+                            List.of(new RepetitionOutcome(word.getId(), RepetitionOutcome.Status.REPEATED, true, 3, date)));
+                    throw new IllegalStateException("rollback");
+                }));
+
+        Assertions.assertThat(buffer.getQueueDepth()).isZero();
+    }
+
+    @Test
+    @DisplayName("""
+            appendAll(userId, type, date, outcomes):
+             buffer is enabled,
+             outcomes are appended in transaction that is committed,
+             outcomes contain unknown card
+             => add only known outcomes to buffer after commit
+            """)
+    public void appendAll2() {
+        User user = commit(() -> userRepository.save(user(1)));
+        Word word = commit(() -> wordRepository.save(word(user.getId(), "valueA")));
+        LocalDate date = LocalDate.of(2022, 7, 7);
+        StatisticAppendBuffer buffer = enabledBuffer(10);
+
+        commit(() -> {
+            buffer.appendAll(user.getId(), RepetitionType.WORDS_FROM_ENGLISH, date, List.of(
+                    new RepetitionOutcome(word.getId(), RepetitionOutcome.Status.REPEATED, true, 3, date),
+                    new RepetitionOutcome(UUID.randomUUID(), RepetitionOutcome.Status.UNKNOWN, false, null, null)));
+            Assertions.assertThat(buffer.getQueueDepth()).isZero();
+        });
+
+        Assertions.assertThat(buffer.getQueueDepth()).isEqualTo(1);
+        Assertions.assertThat(buffer.flush()).isEqualTo(1);
+        Assertions.assertThat(JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "repeat_words_statistic",
+                "direction = 'ENGLISH' and remember_count = 1")).
+                isEqualTo(1);
+    }
+
+
+    private StatisticAppendBuffer enabledBuffer(int batchSize) {
+        ConfigData enabled = new ConfigData(
+                configData.jwsLifeTimeInDays(),
+                configData.levenshteinMaxDistance(),
+                configData.database(),
+                configData.pagination(),
+                configData.smtp(),
+                configData.superAdmin(),
+                configData.confirmationMail(),
+                configData.jws(),
+                configData.dictionaryIndex(),
+                configData.intervalCache(),
+                configData.repetitionSnapshot(),
+                configData.intervalReplacement(),
+                configData.repetitionLock(),
+                new StatisticBuffer(true, 100, batchSize, 200, 50, 60)
+        );
+        return new StatisticAppendBuffer(statisticRepository, transactionManager, enabled);
+    }
+
+    private User user(int number) {
+        return new User(new Credential("me" + number + "@mail.com", "password" + number)).
+                setOrGenerateSalt("salt" + number).
+                addRole("role1");
+    }
+
+    private Word word(UUID userId, String value) {
+        return new Word(userId, 1, 1, clock).setValue(value).setNote("note");
+    }
+
+    private void commit(Executable executable) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            executable.execute();
+            transactionManager.commit(status);
+        } catch(Throwable e) {
+            transactionManager.rollback(status);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private <T> T commit(Supplier<T> supplier) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            T result = supplier.get();
+            transactionManager.commit(status);
+            return result;
+        } catch(Throwable e) {
+            transactionManager.rollback(status);
+            throw new RuntimeException(e);
+        }
+    }
+
+}